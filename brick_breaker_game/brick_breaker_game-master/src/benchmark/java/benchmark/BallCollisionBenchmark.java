@@ -0,0 +1,73 @@
+package benchmark;
+
+import controller.BallController;
+import model.BallCollider;
+import model.RubberBallModel;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.Random;
+
+
+/**
+ * BallCollisionBenchmark measures BallCollider.resolve for a crowd of balls bouncing in a closed box,
+ * and reports how many pairs the sweep tests compared to the n*(n-1)/2 pairs of a naive check.
+ * Run with: java -cp build/classes/java/main:build/classes/java/benchmark benchmark.BallCollisionBenchmark [balls] [width] [height]
+ */
+public class BallCollisionBenchmark {
+
+    private static final int WARMUP_TICKS = 2_000;
+    private static final int TICKS = 5_000;
+
+    public static void main(String[] args){
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int width = args.length > 1 ? Integer.parseInt(args[1]) : 1200;
+        int height = args.length > 2 ? Integer.parseInt(args[2]) : 900;
+
+        Random rnd = new Random(3);
+        BallController[] balls = new BallController[n];
+        for(int i = 0; i < n; i++){
+            balls[i] = new RubberBallModel(new Point2D.Double(rnd.nextInt(width),rnd.nextInt(height)));
+            balls[i].setSpeed(rnd.nextInt(7) - 3,rnd.nextInt(7) - 3);
+        }
+
+        BallCollider collider = new BallCollider();
+        for(int t = 0; t < WARMUP_TICKS; t++)
+            tick(balls,collider,width,height);
+
+        long[] spent = new long[TICKS];
+        long total = 0;
+        long pairs = 0;
+        for(int t = 0; t < TICKS; t++){
+            moveAll(balls,width,height);
+            long start = System.nanoTime();
+            collider.resolve(balls,n);
+            spent[t] = System.nanoTime() - start;
+            total += spent[t];
+            pairs += collider.getPairTests();
+        }
+        Arrays.sort(spent);
+
+        System.out.printf("balls %d in %dx%d%n",n,width,height);
+        System.out.printf("resolve mean %.1f us, p99 %.1f us, worst %.1f us%n",total / 1000.0 / TICKS,
+                spent[TICKS * 99 / 100] / 1000.0,spent[TICKS - 1] / 1000.0);
+        System.out.printf("pair tests per tick %d, naive %d%n",pairs / TICKS,(long) n * (n - 1) / 2);
+    }
+
+    private static void tick(BallController[] balls, BallCollider collider, int width, int height){
+        moveAll(balls,width,height);
+        collider.resolve(balls,balls.length);
+    }
+
+    private static void moveAll(BallController[] balls, int width, int height){
+        for(BallController b : balls){
+            b.move();
+            Point2D p = b.getPosition();
+            if((p.getX() < 0 && b.getSpeedX() < 0) || (p.getX() > width && b.getSpeedX() > 0))
+                b.reverseX();
+            if((p.getY() < 0 && b.getSpeedY() < 0) || (p.getY() > height && b.getSpeedY() > 0))
+                b.reverseY();
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+package benchmark;
+
+import controller.BrickController;
+import model.BrickStore;
+import model.CementBrickModel;
+import model.RenderFrame;
+import model.WallModel;
+import view.BrickAtlas;
+import view.BrickTileCache;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+
+/**
+ * BrickAtlasBenchmark compares drawing every brick of a frame as a Shape, two setColor, a fill and a draw,
+ * with blitting it from a BrickAtlas, on large walls of clay and cement bricks being cracked and broken.
+ * A second table does the same on walls where every cement brick is cracked, the end of a level,
+ * where the cracked faces are filled as paths on every frame or copied from their decals.
+ * Both draws of every fiftieth frame are compared pixel by pixel, the most pixels found different is reported.
+ * Run with: java -cp build/classes/java/main:build/classes/java/benchmark benchmark.BrickAtlasBenchmark
+ */
+public class BrickAtlasBenchmark {
+
+    private static final int WIDTH = 600;
+    private static final int HEIGHT = 450;
+    private static final int[][] WALLS = {{300, 10}, {5_000, 50}, {10_000, 80}, {20_000, 120}};
+    private static final int BALLS = 20;
+    private static final int WARMUP_FRAMES = 200;
+    private static final int FRAMES = 500;
+
+    public static void main(String[] args){
+        System.out.println("bricks cracked and broken by " + BALLS + " balls");
+        System.out.printf("%8s %12s %12s %8s %10s %10s %8s%n","bricks","shape us","atlas us","speedup","cracked","new decals","diff px");
+        for(int[] wall : WALLS)
+            run(wall[0],wall[1],false);
+        System.out.println("every cement brick cracked");
+        System.out.printf("%8s %12s %12s %8s %10s %10s %8s%n","bricks","shape us","atlas us","speedup","cracked","new decals","diff px");
+        for(int[] wall : WALLS)
+            run(wall[0],wall[1],true);
+    }
+
+    private static void run(int bricks, int lines, boolean cracked){
+        WallModel wall = new WallModel(new Rectangle(0,0,WIDTH,HEIGHT),bricks,lines,3,new Point(300,430));
+        //the second level mixes clay and cement bricks, so frames have cracked faces as well
+        wall.nextLevel();
+        wall.nextLevel();
+        if(cracked)
+            crackCement(wall.getStore());
+        RenderFrame frame = new RenderFrame();
+        BrickAtlas atlas = new BrickAtlas();
+        BufferedImage shape = new BufferedImage(WIDTH,HEIGHT,BufferedImage.TYPE_INT_RGB);
+        BufferedImage sprite = new BufferedImage(WIDTH,HEIGHT,BufferedImage.TYPE_INT_RGB);
+        Graphics2D shapeG = shape.createGraphics();
+        Graphics2D spriteG = sprite.createGraphics();
+
+        long shapeNanos = 0;
+        long atlasNanos = 0;
+        long decals = 0;
+        long rendered = 0;
+        int diff = 0;
+        for(int f = 0; f < WARMUP_FRAMES + FRAMES; f++){
+            if(!cracked)
+                step(wall);
+            frame.write(wall,"",f);
+
+            clear(shapeG);
+            clear(spriteG);
+            long start = System.nanoTime();
+            BrickTileCache.drawBricks(frame,shapeG);
+            long middle = System.nanoTime();
+            atlas.drawBricks(frame,spriteG);
+            long end = System.nanoTime();
+
+            int drawn = atlas.getDecals();
+            int news = atlas.getDecalsRendered();
+            if(f >= WARMUP_FRAMES){
+                shapeNanos += middle - start;
+                atlasNanos += end - middle;
+                decals += drawn;
+                rendered += news;
+                if(f % 50 == 0)
+                    diff = Math.max(diff,diffPixels(shape,sprite));
+            }
+        }
+        System.out.printf("%8d %12.1f %12.1f %7.1fx %10.1f %10.2f %8d%n",wall.getStore().size(),shapeNanos / 1000.0 / FRAMES,
+                atlasNanos / 1000.0 / FRAMES,shapeNanos / (double) atlasNanos,decals / (double) FRAMES,
+                rendered / (double) FRAMES,diff);
+    }
+
+    /**
+     * crackCement hits every cement brick once from below, at the middle of its bottom side.
+     */
+    private static void crackCement(BrickStore store){
+        for(int i = 0; i < store.size(); i++)
+            if(store.view(i) instanceof CementBrickModel){
+                Point p = new Point(store.getX(i) + store.getWidth(i) / 2,store.getY(i) + store.getHeight(i));
+                store.setImpact(i,p,BrickController.Crack.UP);
+            }
+    }
+
+    /**
+     * step moves the wall ten ticks with a crowd of balls, and repairs it when it is cleared.
+     */
+    private static void step(WallModel wall){
+        for(int t = 0; t < 10; t++){
+            while(wall.getBallsInPlay() < BALLS)
+                wall.addBall();
+            wall.move();
+            wall.findImpacts();
+            if(wall.isBallLost())
+                wall.ballReset();
+            if(wall.isDone() || wall.ballEnd())
+                wall.wallReset();
+        }
+    }
+
+    private static void clear(Graphics2D g2d){
+        g2d.setColor(Color.BLACK);
+        g2d.fillRect(0,0,WIDTH,HEIGHT);
+    }
+
+    private static int diffPixels(BufferedImage a, BufferedImage b){
+        int[] pa = a.getRGB(0,0,WIDTH,HEIGHT,null,0,WIDTH);
+        int[] pb = b.getRGB(0,0,WIDTH,HEIGHT,null,0,WIDTH);
+        int out = 0;
+        for(int i = 0; i < pa.length; i++)
+            if(pa[i] != pb[i])
+                out++;
+        return out;
+    }
+
+}
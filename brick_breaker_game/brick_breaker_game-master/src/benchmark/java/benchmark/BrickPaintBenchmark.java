@@ -0,0 +1,103 @@
+package benchmark;
+
+import model.RenderFrame;
+import model.WallModel;
+import view.BrickTileCache;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+
+/**
+ * BrickPaintBenchmark compares drawing the bricks of every frame directly with copying them from
+ * a BrickTileCache, on walls of growing size while a crowd of balls breaks and cracks bricks.
+ * Every fiftieth frame drawn both ways is compared pixel by pixel, the most pixels found different is reported.
+ * Run with: java -cp build/classes/java/main:build/classes/java/benchmark benchmark.BrickPaintBenchmark
+ */
+public class BrickPaintBenchmark {
+
+    private static final int WIDTH = 600;
+    private static final int HEIGHT = 450;
+    private static final int[][] WALLS = {{30, 3}, {300, 10}, {3_000, 30}};
+    private static final int BALLS = 20;
+    private static final int WARMUP_FRAMES = 300;
+    private static final int FRAMES = 1_000;
+
+    public static void main(String[] args){
+        System.out.printf("%8s %12s %12s %12s %8s%n","bricks","direct us","cached us","tiles/frame","diff px");
+        for(int[] wall : WALLS)
+            run(wall[0],wall[1]);
+    }
+
+    private static void run(int bricks, int lines){
+        WallModel wall = new WallModel(new Rectangle(0,0,WIDTH,HEIGHT),bricks,lines,3,new Point(300,430));
+        //the second level mixes clay and cement bricks, so frames have cracks as well as broken bricks
+        wall.nextLevel();
+        wall.nextLevel();
+        RenderFrame frame = new RenderFrame();
+        BrickTileCache cache = new BrickTileCache(WIDTH,HEIGHT,BrickTileCache.DEF_TILE_SIZE,Color.BLACK);
+        BufferedImage direct = new BufferedImage(WIDTH,HEIGHT,BufferedImage.TYPE_INT_RGB);
+        BufferedImage cached = new BufferedImage(WIDTH,HEIGHT,BufferedImage.TYPE_INT_RGB);
+        Graphics2D directG = direct.createGraphics();
+        Graphics2D cachedG = cached.createGraphics();
+
+        long directNanos = 0;
+        long cachedNanos = 0;
+        long tiles = 0;
+        int diff = 0;
+        for(int f = 0; f < WARMUP_FRAMES + FRAMES; f++){
+            step(wall);
+            frame.write(wall,"",f);
+
+            long start = System.nanoTime();
+            clear(directG);
+            BrickTileCache.drawBricks(frame,directG);
+            long middle = System.nanoTime();
+            clear(cachedG);
+            cache.draw(frame,cachedG);
+            long end = System.nanoTime();
+
+            if(f >= WARMUP_FRAMES){
+                directNanos += middle - start;
+                cachedNanos += end - middle;
+                tiles += cache.getTilesRendered();
+                if(f % 50 == 0)
+                    diff = Math.max(diff,diffPixels(direct,cached));
+            }
+        }
+        System.out.printf("%8d %12.1f %12.1f %12.2f %8d%n",wall.getStore().size(),directNanos / 1000.0 / FRAMES,
+                cachedNanos / 1000.0 / FRAMES,tiles / (double) FRAMES,diff);
+    }
+
+    /**
+     * step moves the wall ten ticks with a crowd of balls, and repairs it when it is cleared.
+     */
+    private static void step(WallModel wall){
+        for(int t = 0; t < 10; t++){
+            while(wall.getBallsInPlay() < BALLS)
+                wall.addBall();
+            wall.move();
+            wall.findImpacts();
+            if(wall.isBallLost())
+                wall.ballReset();
+            if(wall.isDone() || wall.ballEnd())
+                wall.wallReset();
+        }
+    }
+
+    private static void clear(Graphics2D g2d){
+        g2d.setColor(Color.BLACK);
+        g2d.fillRect(0,0,WIDTH,HEIGHT);
+    }
+
+    private static int diffPixels(BufferedImage a, BufferedImage b){
+        int[] pa = a.getRGB(0,0,WIDTH,HEIGHT,null,0,WIDTH);
+        int[] pb = b.getRGB(0,0,WIDTH,HEIGHT,null,0,WIDTH);
+        int out = 0;
+        for(int i = 0; i < pa.length; i++)
+            if(pa[i] != pb[i])
+                out++;
+        return out;
+    }
+
+}
@@ -0,0 +1,102 @@
+package benchmark;
+
+import controller.BallController;
+import controller.BrickController;
+import model.BrickStore;
+import model.RubberBallModel;
+import model.WallModel;
+
+import java.awt.*;
+import java.awt.geom.Point2D;
+import java.util.Random;
+
+
+/**
+ * BrickStoreBenchmark compares a full linear collision scan over the BrickController objects
+ * with the same scan over the primitive arrays of BrickStore, for walls of 1k, 10k and 100k bricks.
+ * The balls are placed under the wall, so every scan visits every brick as it happens on most ticks.
+ * Run with: java -cp build/classes/java/main:build/classes/java/benchmark benchmark.BrickStoreBenchmark
+ */
+public class BrickStoreBenchmark {
+
+    private static final int[] SIZES = {1_000, 10_000, 100_000};
+    private static final int BRICKS_ON_LINE = 100;
+    private static final int BRICK_WIDTH = 30;
+    private static final int BALLS = 64;
+    private static final long RUN_NANOS = 1_000_000_000L;
+
+    public static void main(String[] args){
+        System.out.printf("%10s %18s %18s %8s%n","bricks","objects ns/scan","store ns/scan","speedup");
+        for(int size : SIZES){
+            int lines = size / BRICKS_ON_LINE;
+            Rectangle area = new Rectangle(0,0,BRICKS_ON_LINE * BRICK_WIDTH,lines * BRICK_WIDTH);
+            WallModel wall = new WallModel(area,size,lines,3,new Point(area.width / 2,area.height));
+            wall.nextLevel();
+
+            BrickController[] bricks = wall.bricks;
+            BrickStore store = wall.getStore();
+            BallController[] balls = makeBalls(area);
+
+            //warm up both paths before measuring
+            scanObjects(bricks,balls,RUN_NANOS / 2);
+            scanStore(store,balls,RUN_NANOS / 2);
+
+            double objects = scanObjects(bricks,balls,RUN_NANOS);
+            double primitives = scanStore(store,balls,RUN_NANOS);
+            System.out.printf("%10d %18.0f %18.0f %7.2fx%n",bricks.length,objects,primitives,objects / primitives);
+        }
+    }
+
+    private static BallController[] makeBalls(Rectangle area){
+        Random rnd = new Random(42);
+        BallController[] out = new BallController[BALLS];
+        for(int i = 0; i < out.length; i++){
+            Point2D p = new Point2D.Double(rnd.nextInt(area.width),area.height + 20 + rnd.nextInt(100));
+            out[i] = new RubberBallModel(p);
+            out[i].move();
+        }
+        return out;
+    }
+
+    private static double scanObjects(BrickController[] bricks, BallController[] balls, long nanos){
+        long scans = 0;
+        long sink = 0;
+        long start = System.nanoTime();
+        long end = start + nanos;
+        while(System.nanoTime() < end){
+            for(BallController b : balls){
+                int hit = -1;
+                for(int i = 0; i < bricks.length; i++){
+                    if(bricks[i].findImpact(b) != 0){
+                        hit = i;
+                        break;
+                    }
+                }
+                sink += hit;
+            }
+            scans += balls.length;
+        }
+        consume(sink);
+        return (System.nanoTime() - start) / (double) scans;
+    }
+
+    private static double scanStore(BrickStore store, BallController[] balls, long nanos){
+        long scans = 0;
+        long sink = 0;
+        long start = System.nanoTime();
+        long end = start + nanos;
+        while(System.nanoTime() < end){
+            for(BallController b : balls)
+                sink += store.findFirstImpact(b);
+            scans += balls.length;
+        }
+        consume(sink);
+        return (System.nanoTime() - start) / (double) scans;
+    }
+
+    private static void consume(long sink){
+        if(sink == Long.MIN_VALUE)
+            System.out.println(sink);
+    }
+
+}
@@ -0,0 +1,97 @@
+package benchmark;
+
+import controller.BrickController;
+import model.BrickStore;
+import model.CementBrickModel;
+import model.WallModel;
+
+import java.awt.*;
+import java.awt.geom.PathIterator;
+import java.util.Arrays;
+
+
+/**
+ * CrackMemoryReport cracks every cement brick of a large wall once and reports the heap it takes per
+ * cracked brick, and the time the simulation spends per crack.
+ * Every face is then generated and its bounds taken, as the board does after a hit, the time it takes is reported. The faces of the first
+ * bricks are walked again, after the faces of all the other bricks went through the crack cache, and
+ * compared with their first walk: a crack generated again must be the same.
+ * Run with: java -cp build/classes/java/main:build/classes/java/benchmark benchmark.CrackMemoryReport [bricks]
+ */
+public class CrackMemoryReport {
+
+    private static final int SAMPLES = 100;
+
+    public static void main(String[] args){
+        int bricks = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        WallModel wall = new WallModel(new Rectangle(0,0,600,450),bricks,400,3,new Point(300,430));
+        //the fourth level mixes steel and cement bricks
+        for(int i = 0; i < 4; i++)
+            wall.nextLevel();
+        BrickStore store = wall.getStore();
+
+        int[] cement = new int[store.size()];
+        int n = 0;
+        for(int i = 0; i < store.size(); i++)
+            if(store.view(i) instanceof CementBrickModel)
+                cement[n++] = i;
+
+        long before = usedHeap();
+        long start = System.nanoTime();
+        for(int k = 0; k < n; k++)
+            crack(store,cement[k]);
+        long nanos = System.nanoTime() - start;
+        long after = usedHeap();
+
+        float[][] first = new float[SAMPLES][];
+        for(int k = 0; k < SAMPLES; k++)
+            first[k] = walk(store.view(cement[k]).getBrick());
+        //the crack cache is much smaller than the wall, every face measured here is generated first
+        start = System.nanoTime();
+        long area = 0;
+        for(int k = SAMPLES; k < n; k++)
+            area += store.view(cement[k]).getBrick().getBounds().width;
+        long generateNanos = System.nanoTime() - start;
+        int same = 0;
+        for(int k = 0; k < SAMPLES; k++)
+            if(Arrays.equals(first[k],walk(store.view(cement[k]).getBrick())))
+                same++;
+
+        System.out.printf("cement bricks cracked %d, heap per cracked brick %.0f bytes, %.0f ns per crack%n",
+                n,(after - before) / (double) n,nanos / (double) n);
+        System.out.printf("%.0f ns per face generated and measured (%d), faces walked again identical %d/%d%n",
+                generateNanos / (double) (n - SAMPLES),area,same,SAMPLES);
+    }
+
+    private static void crack(BrickStore store, int i){
+        Point p = new Point(store.getX(i) + store.getWidth(i) / 2,store.getY(i) + store.getHeight(i));
+        store.setImpact(i,p,BrickController.Crack.UP);
+    }
+
+    /**
+     * walk reads every segment of a shape.
+     * @return  returns the segment types and coordinates, one after the other.
+     */
+    private static float[] walk(Shape s){
+        float[] out = new float[64];
+        int n = 0;
+        float[] coords = new float[6];
+        for(PathIterator it = s.getPathIterator(null); !it.isDone(); it.next()){
+            int type = it.currentSegment(coords);
+            if(n + 7 > out.length)
+                out = Arrays.copyOf(out,out.length * 2);
+            out[n++] = type;
+            for(int c = 0; c < 6; c++)
+                out[n++] = coords[c];
+        }
+        return Arrays.copyOf(out,n);
+    }
+
+    private static long usedHeap(){
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -0,0 +1,125 @@
+package benchmark;
+
+import controller.GameRules;
+import model.PlayerModel;
+import model.RenderFrame;
+import model.WallModel;
+import view.BrickTileCache;
+import view.DirtyTracker;
+
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+
+
+/**
+ * DirtyRegionReport plays a headless game with a bot and paints a screen image only in the regions a
+ * DirtyTracker reports, as the board does with the Swing timer. Every tick the screen is compared with
+ * the whole board drawn from scratch, and the pixels painted are compared with painting the whole board.
+ * Run with: java -cp build/classes/java/main:build/classes/java/benchmark benchmark.DirtyRegionReport [ticks] [balls]
+ */
+public class DirtyRegionReport {
+
+    private static final int WIDTH = 600;
+    private static final int HEIGHT = 450;
+    private static final Rectangle HUD = new Rectangle(250,205,WIDTH - 250,26);
+
+    public static void main(String[] args){
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int balls = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        WallModel wall = new WallModel(new Rectangle(0,0,WIDTH,HEIGHT),30,3,3,new Point(300,430));
+        //the second level mixes clay and cement bricks, so hits crack bricks as well as break them
+        wall.nextLevel();
+        wall.nextLevel();
+        DirtyTracker dirty = new DirtyTracker(wall,new Rectangle(0,0,WIDTH,HEIGHT),HUD);
+        RenderFrame frame = new RenderFrame();
+        BrickTileCache screenBricks = new BrickTileCache(WIDTH,HEIGHT,BrickTileCache.DEF_TILE_SIZE,Color.BLACK);
+        BrickTileCache referenceBricks = new BrickTileCache(WIDTH,HEIGHT,BrickTileCache.DEF_TILE_SIZE,Color.BLACK);
+        BufferedImage screen = new BufferedImage(WIDTH,HEIGHT,BufferedImage.TYPE_INT_RGB);
+        BufferedImage reference = new BufferedImage(WIDTH,HEIGHT,BufferedImage.TYPE_INT_RGB);
+        Graphics2D screenG = screen.createGraphics();
+        Graphics2D referenceG = reference.createGraphics();
+
+        GameRules rules = new GameRules(wall);
+        long regions = 0;
+        long fullTicks = 0;
+        long stale = 0;
+        for(int t = 0; t < ticks; t++){
+            while(wall.getBallsInPlay() < balls)
+                wall.addBall();
+            follow(wall);
+            //the game plays on where the board would pause
+            rules.tick();
+            frame.write(wall,rules.getMessage(),t);
+            dirty.update(rules.getMessage());
+
+            if(dirty.isFull()){
+                fullTicks++;
+                draw(frame,screenBricks,screenG,null);
+            }
+            for(int i = 0; i < dirty.getCount(); i++)
+                draw(frame,screenBricks,screenG,dirty.getRegion(i));
+            regions += dirty.getCount();
+
+            draw(frame,referenceBricks,referenceG,null);
+            if(differs(screen,reference))
+                stale++;
+        }
+        System.out.println(dirty.report());
+        System.out.printf("ticks %d, whole board painted %d, regions per tick %.2f, ticks with stale pixels %d%n",
+                ticks,fullTicks,regions / (double) ticks,stale);
+    }
+
+    /**
+     * follow moves the player toward the first ball.
+     */
+    private static void follow(WallModel wall){
+        double bx = wall.ball.getPosition().getX();
+        int px = wall.player.getX();
+        if(bx < px - 10)
+            wall.player.moveLeft();
+        else if(bx > px + 10)
+            wall.player.movRight();
+        else
+            wall.player.stop();
+    }
+
+    /**
+     * draw paints the frame like the board does, the whole image or only a region of it.
+     */
+    private static void draw(RenderFrame frame, BrickTileCache bricks, Graphics2D g2d, Rectangle clip){
+        g2d.setClip(clip);
+        g2d.setColor(Color.BLACK);
+        g2d.fillRect(0,0,WIDTH,HEIGHT);
+        bricks.draw(frame,g2d);
+        g2d.setColor(Color.WHITE);
+        g2d.drawString(frame.getMessage(),250,225);
+        Ellipse2D.Double ball = new Ellipse2D.Double();
+        for(int i = 0; i < frame.getBalls(); i++){
+            double w = frame.getBallWidth(i);
+            double h = frame.getBallHeight(i);
+            ball.setFrame(frame.getBallX(i,1) - w / 2,frame.getBallY(i,1) - h / 2,w,h);
+            g2d.setColor(frame.getBallInner(i));
+            g2d.fill(ball);
+            g2d.setColor(frame.getBallBorder(i));
+            g2d.draw(ball);
+        }
+        Rectangle p = frame.getPlayer();
+        g2d.setColor(PlayerModel.INNER_COLOR);
+        g2d.fill(p);
+        g2d.setColor(PlayerModel.BORDER_COLOR);
+        g2d.draw(p);
+        g2d.setClip(null);
+    }
+
+    private static boolean differs(BufferedImage a, BufferedImage b){
+        int[] pa = a.getRGB(0,0,WIDTH,HEIGHT,null,0,WIDTH);
+        int[] pb = b.getRGB(0,0,WIDTH,HEIGHT,null,0,WIDTH);
+        for(int i = 0; i < pa.length; i++)
+            if(pa[i] != pb[i])
+                return true;
+        return false;
+    }
+
+}
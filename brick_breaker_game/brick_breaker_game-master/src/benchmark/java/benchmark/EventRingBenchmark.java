@@ -0,0 +1,130 @@
+package benchmark;
+
+import model.EventRing;
+import model.WallModel;
+
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+
+
+/**
+ * EventRingBenchmark publishes events as fast as one thread can, while a fast reader and a slow reader
+ * drain the ring, and reports the publish cost, the bytes the writer allocated, how many events each
+ * reader missed and whether any event was read torn. Then it counts the events of a headless game.
+ * Run with: java -cp build/classes/java/main:build/classes/java/benchmark benchmark.EventRingBenchmark [events]
+ */
+public class EventRingBenchmark {
+
+    private static final int CAPACITY = 1024;
+    private static final int GAME_TICKS = 100_000;
+    private static final int GAME_BALLS = 50;
+
+    public static void main(String[] args) throws InterruptedException{
+        long n = args.length > 0 ? Long.parseLong(args[0]) : 20_000_000L;
+
+        EventRing ring = new EventRing(CAPACITY);
+        boolean[] done = new boolean[1];
+        long[] fast = new long[3];
+        long[] slow = new long[3];
+        Thread fastReader = reader(ring,done,fast,0);
+        Thread slowReader = reader(ring,done,slow,1);
+        fastReader.start();
+        slowReader.start();
+
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        long allocated = mx.getThreadAllocatedBytes(id);
+        long start = System.nanoTime();
+        for(long i = 0; i < n; i++)
+            ring.publish(EventRing.BRICK_HIT,(int) i,i,-i);
+        long nanos = System.nanoTime() - start;
+        allocated = mx.getThreadAllocatedBytes(id) - allocated;
+        synchronized(done){
+            done[0] = true;
+        }
+        fastReader.join();
+        slowReader.join();
+
+        System.out.printf("published %d events, %.1f ns each, writer allocated %d bytes%n",n,nanos / (double) n,allocated);
+        System.out.printf("fast reader: read %d missed %d torn %d%n",fast[0],fast[1],fast[2]);
+        System.out.printf("slow reader: read %d missed %d torn %d%n",slow[0],slow[1],slow[2]);
+
+        game();
+    }
+
+    /**
+     * reader creates a thread that drains the ring until the writer is done, checking every event.
+     * The slow reader sleeps a millisecond after every thousand events.
+     */
+    private static Thread reader(EventRing ring, boolean[] done, long[] out, int pauseMillis){
+        EventRing.Reader r = ring.newReader();
+        Thread t = new Thread(() -> {
+            while(true){
+                boolean finished;
+                synchronized(done){
+                    finished = done[0];
+                }
+                while(r.next()){
+                    long s = r.getSequence();
+                    if(r.getData() != (int) s || r.getX() != s || r.getY() != -s)
+                        out[2]++;
+                    if(++out[0] % 1000 == 0 && pauseMillis > 0)
+                        sleep(pauseMillis);
+                }
+                if(finished)
+                    break;
+                Thread.yield();
+            }
+            out[1] = r.getMissed();
+        });
+        t.setDaemon(true);
+        return t;
+    }
+
+    /**
+     * game plays a headless wall with many balls and counts the events it publishes by type.
+     */
+    private static void game(){
+        WallModel wall = new WallModel(new Rectangle(0,0,600,450),30,3,3,new Point(300,430));
+        wall.nextLevel();
+        EventRing.Reader r = wall.getEvents().newReader();
+        long[] count = new long[8];
+        boolean newLife = true;
+        for(int t = 0; t < GAME_TICKS; t++){
+            //every life starts with a crowd of balls, the life is lost when the last of them falls
+            if(newLife)
+                while(wall.getBallsInPlay() < GAME_BALLS)
+                    wall.addBall();
+            newLife = false;
+            wall.move();
+            wall.findImpacts();
+            if(wall.isBallLost()){
+                if(wall.ballEnd())
+                    wall.wallReset();
+                wall.ballReset();
+                newLife = true;
+            }
+            else if(wall.isDone()){
+                wall.ballReset();
+                newLife = true;
+                wall.wallReset();
+                if(wall.hasLevel())
+                    wall.nextLevel();
+            }
+            while(r.next())
+                count[r.getType()]++;
+        }
+        System.out.printf("game, %d ticks with %d balls: hit %d broken %d ball lost %d cleared %d started %d reset %d, missed %d%n",
+                GAME_TICKS,GAME_BALLS,count[EventRing.BRICK_HIT],count[EventRing.BRICK_BROKEN],count[EventRing.BALL_LOST],
+                count[EventRing.LEVEL_CLEARED],count[EventRing.LEVEL_STARTED],count[EventRing.WALL_RESET],r.getMissed());
+    }
+
+    private static void sleep(int millis){
+        try{
+            Thread.sleep(millis);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
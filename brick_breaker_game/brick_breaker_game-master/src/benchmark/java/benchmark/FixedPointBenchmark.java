@@ -0,0 +1,115 @@
+package benchmark;
+
+import controller.BallController;
+import controller.GameEngine;
+import model.GameRandom;
+import model.WallModel;
+
+import java.awt.*;
+
+
+/**
+ * FixedPointBenchmark compares the physics in doubles with the physics in fixed point.
+ * The same seeds are played by a bot on the GameEngine in both modes, then a large wall is hit by a crowd
+ * of balls bouncing off each other; the ticks per second of every mode are reported, the best of a few rounds.
+ * Every fixed point game is then played a second time and the state of every tick compared with the first run.
+ * Run with: java -Djava.awt.headless=true -cp build/classes/java/main:build/classes/java/benchmark benchmark.FixedPointBenchmark
+ */
+public class FixedPointBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final int GAMES = 200;
+    private static final long MAX_TICKS = 2_000_000;
+    private static final int BALLS = 16;
+    private static final int CROWD_TICKS = 100_000;
+
+    public static void main(String[] args){
+        GameEngine.Config config = new GameEngine.Config();
+        //the modes take turns, the best round of each is kept so the warm up of the JIT does not count
+        double[] best = new double[4];
+        for(int round = 0; round < ROUNDS; round++){
+            best[0] = Math.max(best[0],games(config,0,GAMES));
+            best[1] = Math.max(best[1],games(config.withFixedPoint(true),0,GAMES));
+            best[2] = Math.max(best[2],crowd(false,CROWD_TICKS));
+            best[3] = Math.max(best[3],crowd(true,CROWD_TICKS));
+        }
+
+        System.out.printf("%-20s %14s %14s%n","best of " + ROUNDS + " rounds","doubles","fixed point");
+        System.out.printf("%-20s %14.2f %14.2f%n","bot games, Mticks/s",best[0],best[1]);
+        System.out.printf("%-20s %14.2f %14.2f%n",BALLS + " balls, Kticks/s",best[2],best[3]);
+
+        int same = 0;
+        for(long seed = 0; seed < GAMES; seed++)
+            if(trace(config.withFixedPoint(true),seed) == trace(config.withFixedPoint(true),seed))
+                same++;
+        System.out.printf("fixed point games played twice with the same trace: %d/%d%n",same,GAMES);
+    }
+
+    /**
+     * games plays a game for every seed from the first one.
+     * @return  returns the millions of ticks played per second.
+     */
+    private static double games(GameEngine.Config config, long firstSeed, int games){
+        long ticks = 0;
+        long start = System.nanoTime();
+        for(long seed = firstSeed; seed < firstSeed + games; seed++){
+            GameEngine engine = GameEngine.create(config,seed);
+            play(engine);
+            ticks += engine.state().getTick();
+        }
+        return ticks / ((System.nanoTime() - start) / 1e3);
+    }
+
+    private static void play(GameEngine engine){
+        GameEngine.State state = engine.state();
+        while(!state.isOver() && state.getTick() < MAX_TICKS)
+            engine.step(bot(state));
+    }
+
+    private static int bot(GameEngine.State state){
+        double dx = state.getBallX(0) - state.getPlayerX();
+        return dx < -4 ? GameEngine.LEFT : dx > 4 ? GameEngine.RIGHT : GameEngine.STOP;
+    }
+
+    /**
+     * crowd moves a crowd of balls on a wall of 5000 bricks, repaired when it is cleared.
+     * @return  returns the thousands of ticks played per second.
+     */
+    private static double crowd(boolean fixedPoint, int ticks){
+        WallModel wall = new WallModel(new Rectangle(0,0,600,450),5_000,50,3,new Point(300,430),new GameRandom(7),fixedPoint);
+        wall.nextLevel();
+        wall.nextLevel();
+        long start = System.nanoTime();
+        for(int t = 0; t < ticks; t++){
+            while(wall.getBallsInPlay() < BALLS)
+                wall.addBall();
+            wall.move();
+            wall.findImpacts();
+            if(wall.isBallLost())
+                wall.ballReset();
+            if(wall.isDone() || wall.ballEnd())
+                wall.wallReset();
+        }
+        return ticks / ((System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * trace plays a game and hashes the fixed point center and speed of the ball and the bricks left, on every tick.
+     * @return  returns the hash.
+     */
+    private static long trace(GameEngine.Config config, long seed){
+        GameEngine engine = GameEngine.create(config,seed);
+        GameEngine.State state = engine.state();
+        long hash = seed;
+        while(!state.isOver() && state.getTick() < MAX_TICKS){
+            engine.step(bot(state));
+            BallController b = engine.getWall().getBall(0);
+            hash = hash * 31 + b.getFixedX();
+            hash = hash * 31 + b.getFixedY();
+            hash = hash * 31 + b.getSpeedX() * 7 + b.getSpeedY();
+            hash = hash * 31 + state.getBrickCount();
+        }
+        return hash;
+    }
+
+}
@@ -0,0 +1,59 @@
+package benchmark;
+
+import controller.GameEngine;
+import controller.GameRules;
+
+
+/**
+ * HeadlessEngineBenchmark plays games on the GameEngine with a bot that follows the ball, on one thread,
+ * and reports the ticks per second and how the games ended.
+ * It must run without a display, run it with -Djava.awt.headless=true to make sure.
+ * Run with: java -Djava.awt.headless=true -cp build/classes/java/main:build/classes/java/benchmark benchmark.HeadlessEngineBenchmark [seconds]
+ */
+public class HeadlessEngineBenchmark {
+
+    //a game where the bot keeps the ball in play forever is cut here
+    private static final long MAX_TICKS = 2_000_000;
+
+    public static void main(String[] args){
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 5;
+        GameEngine.Config config = new GameEngine.Config();
+
+        //warm up
+        long end = System.nanoTime() + 1_000_000_000L;
+        for(long seed = 1_000_000; System.nanoTime() < end; seed++)
+            play(GameEngine.create(config,seed));
+
+        long ticks = 0;
+        int games = 0;
+        int[] levels = new int[5];
+        int cleared = 0;
+        long start = System.nanoTime();
+        end = start + (long) (seconds * 1e9);
+        for(long seed = 0; System.nanoTime() < end; seed++){
+            GameEngine engine = GameEngine.create(config,seed);
+            play(engine);
+            ticks += engine.state().getTick();
+            levels[engine.state().getLevel()]++;
+            if(engine.state().getOutcome() == GameRules.ALL_CLEARED)
+                cleared++;
+            games++;
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games, %d ticks in %.2f s: %.2f million ticks/s%n",games,ticks,elapsed,ticks / elapsed / 1e6);
+        System.out.printf("games ended on level 1: %d, 2: %d, 3: %d, 4: %d, all walls cleared: %d%n",
+                levels[1],levels[2],levels[3],levels[4],cleared);
+    }
+
+    /**
+     * play runs a game to its end with a bot that keeps the middle of the player under the first ball.
+     */
+    private static void play(GameEngine engine){
+        GameEngine.State state = engine.state();
+        while(!state.isOver() && state.getTick() < MAX_TICKS){
+            double dx = state.getBallX(0) - state.getPlayerX();
+            engine.step(dx < -4 ? GameEngine.LEFT : dx > 4 ? GameEngine.RIGHT : GameEngine.STOP);
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package benchmark;
+
+import controller.GameEngine;
+import controller.MatchServer;
+import controller.SimulatedClients;
+
+import java.io.IOException;
+
+
+/**
+ * MatchServerBenchmark is the load generator of the MatchServer: it runs a server on localhost at 100 ticks a second
+ * and SimulatedClients that join more and more sessions, up to 10,000, and play them with bots.
+ * Each step is warmed up, then measured for a while; it reports the overrun rate of the ticks, the time a session
+ * tick takes, the states the clients got and the heap a session takes, and from those the cores 10,000 sessions
+ * need. The clients run in the same JVM, on the same cores as the server. At the end of a step the clients leave
+ * and every session should end.
+ * Run with: java -Djava.awt.headless=true -cp build/classes/java/main:build/classes/java/benchmark benchmark.MatchServerBenchmark [sessions...]
+ */
+public class MatchServerBenchmark {
+
+    private static final int[] DEF_SESSIONS = {1_000,2_500,5_000,10_000};
+    private static final int GATEWAYS = 8;
+    private static final long WARMUP_MILLIS = 3_000;
+    private static final long MEASURE_MILLIS = 10_000;
+    private static final int TARGET_SESSIONS = 10_000;
+    private static final int TARGET_CORES = 16;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int[] steps = DEF_SESSIONS;
+        if(args.length > 0){
+            steps = new int[args.length];
+            for(int i = 0; i < args.length; i++)
+                steps[i] = Integer.parseInt(args[i]);
+        }
+        System.out.printf("%d cores, %d ticks a second, states sent every %d ticks%n",Runtime.getRuntime().availableProcessors(),
+                1_000_000_000L / MatchServer.DEF_STEP_NANOS,MatchServer.SEND_TICKS);
+        for(int sessions : steps)
+            run(sessions);
+    }
+
+    private static void run(int sessions) throws IOException, InterruptedException {
+        MatchServer server = new MatchServer(new GameEngine.Config(),0,MatchServer.DEF_STEP_NANOS,0,true);
+        server.start();
+        long heap = heap();
+        SimulatedClients[] clients = new SimulatedClients[GATEWAYS];
+        for(int i = 0; i < GATEWAYS; i++){
+            clients[i] = new SimulatedClients(server.getAddress(),sessions / GATEWAYS + (i < sessions % GATEWAYS ? 1 : 0));
+            clients[i].join();
+            clients[i].start();
+        }
+        double bytes = (heap() - heap) / (double) sessions;
+
+        Thread.sleep(WARMUP_MILLIS);
+        server.resetStats();
+        long states = 0;
+        long inputs = 0;
+        for(SimulatedClients c : clients){
+            states -= c.getStatesReceived();
+            inputs -= c.getInputsSent();
+        }
+        Thread.sleep(MEASURE_MILLIS);
+        for(SimulatedClients c : clients){
+            states += c.getStatesReceived();
+            inputs += c.getInputsSent();
+        }
+        double seconds = MEASURE_MILLIS / 1e3;
+        double cores = (double) TARGET_SESSIONS * 1e9 / MatchServer.DEF_STEP_NANOS * server.getTickNanos() / 1e9;
+
+        System.out.printf("%n%,d sessions:%n%s%n",sessions,server.report());
+        System.out.printf("clients: %.1f states a session a second, %.1f inputs a session a second%n",
+                states / seconds / sessions,inputs / seconds / sessions);
+        System.out.printf("heap %.1f KB a session; %,d sessions: %.0f MB of heap, %.2f of %d cores for the ticks%n",
+                bytes / 1024,TARGET_SESSIONS,bytes * TARGET_SESSIONS / (1 << 20),cores,TARGET_CORES);
+
+        for(SimulatedClients c : clients)
+            c.stop();
+        Thread.sleep(200);
+        System.out.printf("clients left: %,d sessions open, %,d ended%n",server.getSessionCount(),server.getEndedSessions());
+        server.stop();
+        Thread.sleep(200);
+    }
+
+    private static long heap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++){
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
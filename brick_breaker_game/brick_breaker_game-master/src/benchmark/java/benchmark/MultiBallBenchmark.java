@@ -0,0 +1,58 @@
+package benchmark;
+
+import model.WallModel;
+
+import java.awt.*;
+import java.awt.geom.Point2D;
+import java.util.Random;
+
+
+/**
+ * MultiBallBenchmark measures the cost of one WallModel tick (move plus findImpacts) as the number
+ * of balls in play grows. Lost balls are replaced every tick so the count stays constant.
+ * Ball to ball collisions are off, thousands of balls would not fit the board, see BallCollisionBenchmark.
+ * Run with: java -cp build/classes/java/main:build/classes/java/benchmark benchmark.MultiBallBenchmark
+ */
+public class MultiBallBenchmark {
+
+    private static final int[] BALLS = {1, 10, 100, 1_000, 4_000};
+    private static final long RUN_NANOS = 1_000_000_000L;
+
+    public static void main(String[] args){
+        System.out.printf("%8s %14s %16s%n","balls","us/tick","ns/ball-tick");
+        for(int n : BALLS){
+            Random rnd = new Random(7);
+            WallModel wall = new WallModel(new Rectangle(0,0,600,450),3000,30,3,new Point(300,430));
+            wall.nextLevel();
+            wall.setBallCollisions(false);
+            fill(wall,n,rnd);
+
+            run(wall,n,rnd,RUN_NANOS / 2);
+            double nanos = run(wall,n,rnd,RUN_NANOS);
+            System.out.printf("%8d %14.2f %16.1f%n",n,nanos / 1000,nanos / n);
+        }
+    }
+
+    private static void fill(WallModel wall, int n, Random rnd){
+        while(wall.getBallsInPlay() < n)
+            wall.addBall(new Point2D.Double(rnd.nextInt(600),200 + rnd.nextInt(200)));
+    }
+
+    private static double run(WallModel wall, int n, Random rnd, long nanos){
+        long ticks = 0;
+        long start = System.nanoTime();
+        long end = start + nanos;
+        while(System.nanoTime() < end){
+            wall.move();
+            wall.findImpacts();
+            if(wall.isBallLost())
+                wall.ballReset();
+            if(wall.isDone())
+                wall.wallReset();
+            fill(wall,n,rnd);
+            ticks++;
+        }
+        return (System.nanoTime() - start) / (double) ticks;
+    }
+
+}
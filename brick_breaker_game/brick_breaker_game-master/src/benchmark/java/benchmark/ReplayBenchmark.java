@@ -0,0 +1,136 @@
+package benchmark;
+
+import controller.GameEngine;
+import controller.GameRules;
+import controller.Replay;
+import controller.ReplayPlayer;
+import controller.ReplayRecorder;
+import model.GameRandom;
+import model.StateBuffer;
+import model.WallModel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+
+/**
+ * ReplayBenchmark records an hour of play, 360,000 ticks at 100 ticks a second, and plays it again.
+ * The player is a bot that reacts like a person: it looks at the ball a few times a second and aims with an error,
+ * so it changes keys a couple of times a second and loses balls; a cleared game is restarted and now and then a
+ * ball is added as the debug console does, both changes made outside of a tick that force a keyframe.
+ * Reports the size of the replay, how many times faster than real time it plays headless and how long a seek to a
+ * random tick takes, and checks the state of the wall played again against the one recorded, at the end and at
+ * random ticks.
+ * Run with: java -Djava.awt.headless=true -cp build/classes/java/main:build/classes/java/benchmark benchmark.ReplayBenchmark
+ */
+public class ReplayBenchmark {
+
+    private static final long SEED = 1;
+    private static final int TICKS = 360_000;
+    private static final int TICKS_PER_SECOND = 100;
+    //the ticks between two looks at the ball, a reaction time of 150 ms
+    private static final int REACTION_TICKS = 15;
+    private static final int ADD_BALL_TICKS = 60_000;
+    private static final int CHECKS = 50;
+    private static final int SEEKS = 1_000;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        GameEngine.Config config = new GameEngine.Config();
+        Random human = new Random(SEED);
+        long[] checkTicks = human.longs(CHECKS,0,TICKS).sorted().toArray();
+        byte[][] checkStates = new byte[CHECKS][];
+
+        WallModel wall = config.newWall(new GameRandom(SEED));
+        GameRules rules = new GameRules(wall);
+        ReplayRecorder recorder = new ReplayRecorder(config,wall,ReplayRecorder.DEF_KEYFRAME_TICKS);
+        int input = GameEngine.STOP;
+        int ballsLost = 0;
+        int restarts = 0;
+        int check = 0;
+        long start = System.nanoTime();
+        for(int t = 0; t < TICKS; t++){
+            if(t > 0 && t % ADD_BALL_TICKS == 0){
+                wall.addBall();
+                recorder.mark();
+            }
+            while(check < CHECKS && checkTicks[check] == t)
+                checkStates[check++] = state(wall);
+            if(t % REACTION_TICKS == 0){
+                double aim = wall.getBall(0).getPosition().getX() + human.nextGaussian() * 25;
+                double dx = aim - wall.player.getX();
+                input = dx < -15 ? GameEngine.LEFT : dx > 15 ? GameEngine.RIGHT : GameEngine.STOP;
+            }
+            GameEngine.move(wall.player,input);
+            recorder.record(input);
+            switch(rules.tick()){
+                case GameRules.BALL_LOST:
+                case GameRules.GAME_OVER:
+                    ballsLost++;
+                    break;
+                case GameRules.ALL_CLEARED:
+                    rules.restart();
+                    recorder.mark();
+                    restarts++;
+                    break;
+                default:
+            }
+        }
+        double recordSeconds = (System.nanoTime() - start) / 1e9;
+        byte[] end = state(wall);
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        recorder.getReplay().write(file);
+        Replay replay = Replay.read(new ByteArrayInputStream(file.toByteArray()));
+        int forced = 0;
+        for(int i = 0; i < replay.getKeyframeCount(); i++)
+            if(replay.isKeyframeForced(i))
+                forced++;
+        System.out.printf("%d ticks recorded in %.2f s, %d balls lost, %d restarts%n",TICKS,recordSeconds,ballsLost,restarts);
+        System.out.printf("replay: %,d bytes, %d input changes, %d keyframes, %d of them forced%n",file.size(),
+                replay.getInputCount(),replay.getKeyframeCount(),forced);
+
+        double best = 0;
+        boolean sameEnd = true;
+        for(int round = 0; round < ROUNDS; round++){
+            ReplayPlayer player = new ReplayPlayer(replay);
+            start = System.nanoTime();
+            while(!player.isDone())
+                player.step();
+            best = Math.max(best,TICKS / ((System.nanoTime() - start) / 1e9));
+            sameEnd &= Arrays.equals(state(player.getWall()),end);
+        }
+        System.out.printf("playback: %.0f ticks/s, %.0fx real time, same final state %b%n",best,best / TICKS_PER_SECOND,sameEnd);
+
+        ReplayPlayer player = new ReplayPlayer(replay);
+        Random seeks = new Random(SEED);
+        long[] nanos = new long[SEEKS];
+        for(int i = 0; i < SEEKS; i++){
+            long target = (long) (seeks.nextDouble() * TICKS);
+            start = System.nanoTime();
+            player.seek(target);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("seek to a random tick: median %.2f ms, 99th %.2f ms, max %.2f ms%n",nanos[SEEKS / 2] / 1e6,
+                nanos[SEEKS * 99 / 100] / 1e6,nanos[SEEKS - 1] / 1e6);
+
+        int same = 0;
+        for(int i : seeks.ints(CHECKS,0,CHECKS).toArray()){
+            player.seek(checkTicks[i]);
+            if(Arrays.equals(state(player.getWall()),checkStates[i]))
+                same++;
+        }
+        System.out.printf("seeks to a recorded tick with the state recorded: %d/%d%n",same,CHECKS);
+    }
+
+    private static byte[] state(WallModel wall){
+        StateBuffer out = new StateBuffer();
+        wall.writeState(out);
+        return out.toByteArray();
+    }
+
+}
@@ -0,0 +1,123 @@
+package benchmark;
+
+import controller.GameEngine;
+import controller.RewindBuffer;
+import model.GameRandom;
+import model.StateBuffer;
+import model.WallModel;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Random;
+
+
+/**
+ * RewindBenchmark records the ticks of a game in a RewindBuffer of 30 seconds at 100 ticks a second and rewinds it.
+ * Two walls are played: the board of the game, 30 bricks and a ball, and a wall of 10,000 bricks a level with a crowd
+ * of balls, both long past the capacity so the oldest ticks are dropped all along.
+ * Reports the bytes of a tick, the memory of the buffer and its most, the time of a record and of a rewind of a
+ * second and of the whole 30 seconds, and checks the state rewound to against the one the game had at that tick.
+ * Run with: java -Djava.awt.headless=true -cp build/classes/java/main:build/classes/java/benchmark benchmark.RewindBenchmark
+ */
+public class RewindBenchmark {
+
+    private static final long SEED = 5;
+    private static final int TICKS = 60_000;
+    private static final int WARMUP_TICKS = 2_000;
+    private static final int CHECKS = 200;
+    private static final int REWINDS = 200;
+    private static final int SECOND = 100;
+
+    public static void main(String[] args){
+        run("board of the game",new GameEngine.Config(),1);
+        run("10,000 bricks, 16 balls",new GameEngine.Config(600,450,10_000,100,3,new Point(300,430)),16);
+    }
+
+    private static void run(String name, GameEngine.Config config, int balls){
+        WallModel wall = config.newWall(new GameRandom(SEED));
+        play(wall,WARMUP_TICKS,balls);
+        RewindBuffer rewind = new RewindBuffer(wall,RewindBuffer.DEF_CAPACITY,RewindBuffer.DEF_BASE_TICKS);
+        int window = rewind.getCapacity();
+        //the state of the last ticks, to check the rewinds against
+        byte[][] states = new byte[window + 1][];
+        long most = 0;
+        long nanos = 0;
+        for(int t = 1; t <= TICKS; t++){
+            play(wall,1,balls);
+            long start = System.nanoTime();
+            rewind.record();
+            nanos += System.nanoTime() - start;
+            most = Math.max(most,rewind.getBytes());
+            if(t > TICKS - window - 1)
+                states[t - (TICKS - window)] = state(wall);
+        }
+        int stateBytes = states[window].length;
+        System.out.printf("%s: state of %,d bytes, %d ticks kept, %,d bytes, %,d at most, %.1f bytes a tick, record %.2f us%n",
+                name,stateBytes,rewind.getAvailable(),rewind.getBytes(),most,(double) rewind.getBytes() / rewind.getAvailable(),
+                nanos / 1e3 / TICKS);
+
+        Random random = new Random(SEED);
+        int same = 0;
+        int back = 0;
+        for(int i = 0; i < CHECKS; i++){
+            int ticks = Math.min(random.nextInt(SECOND / 2),window - back);
+            back += rewind.rewind(ticks);
+            if(Arrays.equals(state(wall),states[window - back]))
+                same++;
+        }
+        System.out.printf("  %d rewinds, %d ticks back in all: %d with the state of that tick%n",CHECKS,back,same);
+
+        time(name,config,balls,SECOND,"rewind of 1 s");
+        time(name,config,balls,window,"rewind of 30 s");
+    }
+
+    /**
+     * time plays a game past the capacity of a buffer, rewinds it and plays it again to the same tick, many times,
+     * and reports the time of a rewind.
+     */
+    private static void time(String name, GameEngine.Config config, int balls, int ticks, String what){
+        WallModel wall = config.newWall(new GameRandom(SEED));
+        RewindBuffer rewind = new RewindBuffer(wall,RewindBuffer.DEF_CAPACITY,RewindBuffer.DEF_BASE_TICKS);
+        for(int t = 0; t < rewind.getCapacity() + RewindBuffer.DEF_BASE_TICKS; t++){
+            play(wall,1,balls);
+            rewind.record();
+        }
+        long[] runs = new long[REWINDS];
+        for(int i = 0; i < REWINDS; i++){
+            long start = System.nanoTime();
+            rewind.rewind(ticks);
+            runs[i] = System.nanoTime() - start;
+            while(rewind.getAvailable() < rewind.getCapacity()){
+                play(wall,1,balls);
+                rewind.record();
+            }
+        }
+        Arrays.sort(runs);
+        System.out.printf("  %-16s median %.2f ms, max %.2f ms%n",what,runs[REWINDS / 2] / 1e6,runs[REWINDS - 1] / 1e6);
+    }
+
+    /**
+     * play moves the balls on the wall and the player after the first one, repaired when it is cleared.
+     */
+    private static void play(WallModel wall, int ticks, int balls){
+        for(int t = 0; t < ticks; t++){
+            while(wall.getBallsInPlay() < balls)
+                wall.addBall();
+            double dx = wall.getBall(0).getPosition().getX() - wall.player.getX();
+            GameEngine.move(wall.player,dx < -10 ? GameEngine.LEFT : dx > 10 ? GameEngine.RIGHT : GameEngine.STOP);
+            wall.move();
+            wall.findImpacts();
+            if(wall.isBallLost())
+                wall.ballReset();
+            if(wall.isDone() || wall.ballEnd())
+                wall.wallReset();
+        }
+    }
+
+    private static byte[] state(WallModel wall){
+        StateBuffer out = new StateBuffer();
+        wall.writeState(out);
+        return out.toByteArray();
+    }
+
+}
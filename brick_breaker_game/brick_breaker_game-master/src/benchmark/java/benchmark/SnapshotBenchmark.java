@@ -0,0 +1,168 @@
+package benchmark;
+
+import controller.GameEngine;
+import controller.Snapshot;
+import model.GameRandom;
+import model.StateBuffer;
+import model.WallModel;
+
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+
+/**
+ * SnapshotBenchmark times the snapshots of a wall of 10,000 bricks a level.
+ * A crowd of balls plays the second level, cement and clay, until bricks are hit and cracked all over it; the
+ * snapshot is then written and read back many times into the same wall, into a fork made from the same seed, as it
+ * is and after it played on for a while, into a wall of another seed that is reseeded first and into a new wall.
+ * Reports the size and the time of each.
+ * The forks are played on next to the game and their state compared with it, a snapshot saved to a file is
+ * loaded back, and a snapshot with a byte flipped is checked to be refused without changing the wall.
+ * Run with: java -Djava.awt.headless=true -cp build/classes/java/main:build/classes/java/benchmark benchmark.SnapshotBenchmark
+ */
+public class SnapshotBenchmark {
+
+    private static final long SEED = 3;
+    private static final int BALLS = 16;
+    private static final int PLAY_TICKS = 20_000;
+    private static final int CHECK_TICKS = 5_000;
+    private static final int FAST_RUNS = 20_000;
+    private static final int SLOW_RUNS = 20;
+    private static final int FORK_TICKS = 100;
+    private static final int FORK_RUNS = 2_000;
+
+    public static void main(String[] args) throws IOException {
+        GameEngine.Config config = new GameEngine.Config(600,450,10_000,100,3,new Point(300,430));
+        WallModel wall = config.newWall(new GameRandom(SEED));
+        wall.nextLevel();
+        play(wall,PLAY_TICKS);
+        int hit = 0;
+        for(int i = 0; i < wall.getStore().size(); i++)
+            if(wall.getStore().getStrength(i) != wall.getStore().getFullStrength(i))
+                hit++;
+
+        StateBuffer snapshot = new StateBuffer();
+        Snapshot.write(config,wall,snapshot);
+        System.out.printf("level %d, %d bricks, %d hit, %d balls: snapshot of %,d bytes%n",wall.getLevel(),
+                wall.getStore().size(),hit,wall.getBallsInPlay(),snapshot.getLength());
+
+        StateBuffer out = new StateBuffer();
+        //the JIT compiles the snapshots first
+        for(int i = 0; i < FAST_RUNS; i++){
+            out.clear();
+            Snapshot.write(config,wall,out);
+            snapshot.rewind();
+            Snapshot.read(snapshot,config,wall);
+        }
+        long start = System.nanoTime();
+        for(int i = 0; i < FAST_RUNS; i++){
+            out.clear();
+            Snapshot.write(config,wall,out);
+        }
+        report("write",start,FAST_RUNS);
+
+        start = System.nanoTime();
+        for(int i = 0; i < FAST_RUNS; i++){
+            snapshot.rewind();
+            Snapshot.read(snapshot,config,wall);
+        }
+        report("read into the same wall",start,FAST_RUNS);
+
+        WallModel fork = config.newWall(new GameRandom(SEED));
+        start = System.nanoTime();
+        for(int i = 0; i < FAST_RUNS; i++){
+            snapshot.rewind();
+            Snapshot.read(snapshot,config,fork);
+        }
+        report("read into a fork",start,FAST_RUNS);
+
+        long nanos = 0;
+        for(int i = 0; i < FORK_RUNS; i++){
+            play(fork,FORK_TICKS);
+            snapshot.rewind();
+            start = System.nanoTime();
+            Snapshot.read(snapshot,config,fork);
+            nanos += System.nanoTime() - start;
+        }
+        report("read into a fork " + FORK_TICKS + " ticks on",System.nanoTime() - nanos,FORK_RUNS);
+
+        WallModel other = config.newWall(new GameRandom(SEED + 1));
+        start = System.nanoTime();
+        for(int i = 0; i < SLOW_RUNS; i++){
+            //every read reseeds the wall, another seed is put back in between
+            other.reseed(SEED + 1);
+            snapshot.rewind();
+            Snapshot.read(snapshot,config,other);
+        }
+        report("read into a wall of another seed",start,SLOW_RUNS);
+
+        start = System.nanoTime();
+        WallModel made = null;
+        for(int i = 0; i < SLOW_RUNS; i++){
+            snapshot.rewind();
+            made = Snapshot.read(snapshot);
+        }
+        report("read into a new wall",start,SLOW_RUNS);
+
+        File file = File.createTempFile("snapshot",".save");
+        file.deleteOnExit();
+        Snapshot.save(snapshot,file);
+        WallModel loaded = Snapshot.read(Snapshot.load(file));
+
+        byte[] expected = state(wall);
+        WallModel[] copies = {fork,other,made,loaded};
+        String[] names = {"fork","other seed","new wall","file"};
+        for(WallModel copy : copies)
+            if(!Arrays.equals(state(copy),expected))
+                System.out.println("state differs right after the read");
+        play(wall,CHECK_TICKS);
+        expected = state(wall);
+        for(int i = 0; i < copies.length; i++){
+            play(copies[i],CHECK_TICKS);
+            System.out.printf("%-10s same state as the game %d ticks later: %b%n",names[i],CHECK_TICKS,
+                    Arrays.equals(state(copies[i]),expected));
+        }
+
+        byte[] bad = snapshot.toByteArray();
+        bad[bad.length / 2] ^= 1;
+        try{
+            Snapshot.read(new StateBuffer(bad,bad.length),config,wall);
+            System.out.println("corrupted snapshot read");
+        }catch(IllegalStateException e){
+            System.out.printf("corrupted snapshot refused (%s), wall unchanged: %b%n",e.getMessage(),Arrays.equals(state(wall),expected));
+        }
+    }
+
+    /**
+     * play moves a crowd of balls on the wall, repaired when it is cleared.
+     */
+    private static void play(WallModel wall, int ticks){
+        for(int t = 0; t < ticks; t++){
+            while(wall.getBallsInPlay() < BALLS)
+                wall.addBall();
+            wall.move();
+            wall.findImpacts();
+            if(wall.isBallLost())
+                wall.ballReset();
+            if(wall.isDone() || wall.ballEnd())
+                wall.wallReset();
+        }
+    }
+
+    private static byte[] state(WallModel wall){
+        StateBuffer out = new StateBuffer();
+        wall.writeState(out);
+        return out.toByteArray();
+    }
+
+    private static void report(String name, long start, int runs){
+        double micros = (System.nanoTime() - start) / 1e3 / runs;
+        if(micros < 1000)
+            System.out.printf("%-34s %10.2f us%n",name,micros);
+        else
+            System.out.printf("%-34s %10.2f ms%n",name,micros / 1000);
+    }
+
+}
@@ -0,0 +1,147 @@
+package benchmark;
+
+import controller.GameLoop;
+import controller.TimingStats;
+import model.WallModel;
+
+import java.awt.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * TickJitterReport compares the simulation rate when a slow paint runs on the same thread as the
+ * ticks, as with the Swing timer, against the GameLoop, where the frame only wakes a painter thread.
+ * Both run a headless wall with a bot moving the player under the ball, ticking every 10 ms.
+ * Run with: java -cp build/classes/java/main:build/classes/java/benchmark benchmark.TickJitterReport [paint ms] [seconds]
+ */
+public class TickJitterReport {
+
+    private static final long STEP_NANOS = 10_000_000L;
+    private static final long FRAME_NANOS = 16_666_667L;
+
+    public static void main(String[] args) throws InterruptedException{
+        long paintNanos = (args.length > 0 ? Long.parseLong(args[0]) : 25) * 1_000_000L;
+        long runNanos = (args.length > 1 ? Long.parseLong(args[1]) : 3) * 1_000_000_000L;
+
+        System.out.printf("step 10 ms, paint %d ms, %d s per run%n",paintNanos / 1_000_000,runNanos / 1_000_000_000);
+        coupled(paintNanos,runNanos);
+        decoupled(paintNanos,runNanos);
+    }
+
+    /**
+     * coupled runs tick and paint one after the other on one thread, the next tick waits for the paint.
+     */
+    private static void coupled(long paintNanos, long runNanos){
+        WallModel wall = newWall();
+        TimingStats lateness = new TimingStats("tick lateness",4096);
+        long ticks = 0;
+        long start = System.nanoTime();
+        long next = start + STEP_NANOS;
+        while(System.nanoTime() - start < runNanos){
+            long wait = next - System.nanoTime();
+            if(wait > 0)
+                LockSupport.parkNanos(wait);
+            long now = System.nanoTime();
+            lateness.record(now - next);
+            tick(wall);
+            ticks++;
+            busy(paintNanos);
+            //like the Swing timer, events missed while painting are coalesced into one
+            next = Math.max(next + STEP_NANOS,System.nanoTime());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println();
+        System.out.println("tick and paint on one thread");
+        System.out.println(lateness.report());
+        System.out.printf("ticks per second %.1f%n",ticks / seconds);
+    }
+
+    /**
+     * decoupled runs the ticks on a GameLoop, every frame releases a painter thread which reads the
+     * wall under its monitor and then spends the paint time outside it.
+     */
+    private static void decoupled(long paintNanos, long runNanos) throws InterruptedException{
+        WallModel wall = newWall();
+        Semaphore frames = new Semaphore(0);
+        long[] painted = new long[1];
+        Thread painter = new Thread(() -> {
+            while(!Thread.currentThread().isInterrupted()){
+                try{
+                    frames.acquire();
+                }catch(InterruptedException e){
+                    return;
+                }
+                frames.drainPermits();
+                synchronized(wall){
+                    wall.getBall(0).getPosition();
+                }
+                busy(paintNanos);
+                painted[0]++;
+            }
+        },"painter");
+        painter.setDaemon(true);
+        painter.start();
+
+        GameLoop loop = new GameLoop(STEP_NANOS,FRAME_NANOS,() -> {
+            synchronized(wall){
+                tick(wall);
+            }
+        },frames::release);
+        long start = System.nanoTime();
+        loop.start();
+        Thread.sleep(runNanos / 1_000_000);
+        loop.stop();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        painter.interrupt();
+
+        System.out.println();
+        System.out.println("GameLoop with a painter thread");
+        System.out.println(loop.report());
+        System.out.printf("ticks per second %.1f, frames per second %.1f%n",loop.getTicks() / seconds,painted[0] / seconds);
+    }
+
+    private static WallModel newWall(){
+        WallModel wall = new WallModel(new Rectangle(0,0,600,450),30,3,3,new Point(300,430));
+        wall.nextLevel();
+        return wall;
+    }
+
+    /**
+     * tick moves the player toward the ball, advances the wall and restarts it when it ends.
+     */
+    private static void tick(WallModel wall){
+        double bx = wall.ball.getPosition().getX();
+        Rectangle p = wall.player.getPlayerFace().getBounds();
+        if(bx < p.getCenterX() - 10)
+            wall.player.moveLeft();
+        else if(bx > p.getCenterX() + 10)
+            wall.player.movRight();
+        else
+            wall.player.stop();
+        wall.move();
+        wall.findImpacts();
+        if(wall.isBallLost()){
+            if(wall.ballEnd())
+                wall.wallReset();
+            wall.ballReset();
+        }
+        else if(wall.isDone()){
+            wall.ballReset();
+            wall.wallReset();
+            if(wall.hasLevel())
+                wall.nextLevel();
+        }
+    }
+
+    /**
+     * busy stands in for a paint, it spins so it holds the CPU like drawing would.
+     */
+    private static void busy(long nanos){
+        long end = System.nanoTime() + nanos;
+        while(System.nanoTime() < end){
+            //spins on the clock only, as drawing would not give the CPU up
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+package benchmark;
+
+import controller.GameEngine;
+import controller.GameLoop;
+import controller.RollbackSession;
+import controller.VersusMatch;
+import controller.VersusPeer;
+import model.StateBuffer;
+
+import java.awt.*;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+
+
+/**
+ * VersusBenchmark measures the rollbacks of a versus match, in fixed point as peers play it.
+ * First headless, at the worst: the input of the other player arrives MAX_ROLLBACK frames late and is never the one
+ * predicted, so every tick restores a state and plays 8 frames again. It is timed on the board of the game and on
+ * a board of 10,000 bricks, against the 10 ms of a tick, and the match is checked against one played straight with
+ * the right inputs.
+ * Then two peers play each other over UDP on localhost at 100 ticks a second, bots on both sides, through links
+ * with no latency, with a latency like the one of a city and with the latency and the losses of a bad connection.
+ * Reports the rollbacks, their cost and the tick times of both peers, and checks both ended in the same state.
+ * Run with: java -Djava.awt.headless=true -cp build/classes/java/main:build/classes/java/benchmark benchmark.VersusBenchmark
+ */
+public class VersusBenchmark {
+
+    private static final long SEED = 7;
+    private static final int WORST_FRAMES = 20_000;
+    private static final int FRAMES = 1_500;
+    private static final long STEP_NANOS = 10_000_000L;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        GameEngine.Config board = new GameEngine.Config().withFixedPoint(true);
+        GameEngine.Config large = new GameEngine.Config(600,450,10_000,100,3,new Point(300,430),true);
+        //a first run of each warms the JIT up
+        worst("board of the game",board,false);
+        worst("board of the game",board,true);
+        worst("10,000 bricks",large,false);
+        worst("10,000 bricks",large,true);
+
+        loopback(board,"no latency",0,0,0);
+        loopback(board,"30 ms, 5 ms jitter, 1% loss",30,5,0.01);
+        loopback(board,"80 ms, 20 ms jitter, 10% loss",80,20,0.10);
+    }
+
+    /**
+     * worst plays a match whose every tick rolls back MAX_ROLLBACK frames, and the same match straight.
+     */
+    private static void worst(String name, GameEngine.Config config, boolean print){
+        VersusMatch match = new VersusMatch(config,SEED);
+        RollbackSession session = new RollbackSession(match,0,0);
+        VersusMatch straight = new VersusMatch(config,SEED);
+        int late = RollbackSession.MAX_ROLLBACK;
+        for(int f = 0; f < WORST_FRAMES; f++){
+            if(f >= late)
+                session.addRemoteInput(f - late,remote(f - late));
+            session.rollback();
+            session.addLocalInput(local(match,f));
+            session.advance();
+            straight.step(session.getLocalInput(f),remote(f));
+        }
+        for(int f = WORST_FRAMES - late; f < WORST_FRAMES; f++)
+            session.addRemoteInput(f,remote(f));
+        session.rollback();
+
+        if(!print)
+            return;
+        StateBuffer state = new StateBuffer();
+        match.writeState(state);
+        System.out.printf("%s, every tick %d frames late and predicted wrong, state of %,d bytes:%n",name,late,
+                state.getLength());
+        System.out.println(session.report());
+        System.out.printf("same state as the match played straight: %b%n%n",Arrays.equals(state(match),state(straight)));
+    }
+
+    //the other player changes keys every frame, a prediction is never right
+    private static int remote(long frame){
+        return frame % 2 == 0 ? GameEngine.LEFT : GameEngine.RIGHT;
+    }
+
+    private static int local(VersusMatch match, long frame){
+        double dx = match.getWall(0).getBall(0).getPosition().getX() - match.getWall(0).player.getX();
+        return dx < -10 ? GameEngine.LEFT : dx > 10 ? GameEngine.RIGHT : GameEngine.STOP;
+    }
+
+    /**
+     * loopback plays two peers against each other over UDP on localhost.
+     */
+    private static void loopback(GameEngine.Config config, String name, int latency, int jitter, double loss)
+            throws IOException, InterruptedException {
+        DatagramChannel[] channels = new DatagramChannel[VersusMatch.SIDES];
+        InetSocketAddress[] addresses = new InetSocketAddress[VersusMatch.SIDES];
+        for(int i = 0; i < VersusMatch.SIDES; i++){
+            channels[i] = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(),0));
+            addresses[i] = (InetSocketAddress) channels[i].getLocalAddress();
+        }
+        VersusPeer[] peers = new VersusPeer[VersusMatch.SIDES];
+        for(int i = 0; i < VersusMatch.SIDES; i++){
+            VersusMatch match = new VersusMatch(config,SEED);
+            RollbackSession session = new RollbackSession(match,i,VersusPeer.DEF_INPUT_DELAY);
+            peers[i] = new VersusPeer(session,channels[i],addresses[1 - i],new VersusPeer.Link(latency,jitter,loss,SEED + i),
+                    VersusPeer.follow(match.getWall(i),15,SEED + i),FRAMES);
+        }
+        GameLoop[] loops = new GameLoop[VersusMatch.SIDES];
+        for(int i = 0; i < VersusMatch.SIDES; i++)
+            loops[i] = peers[i].start(STEP_NANOS);
+        while(!peers[0].isDone() || !peers[1].isDone())
+            Thread.sleep(50);
+        for(int i = 0; i < VersusMatch.SIDES; i++){
+            peers[i].stop();
+            channels[i].close();
+        }
+
+        System.out.printf("%s, %d frames at 100 ticks a second, input delay %d:%n",name,FRAMES,VersusPeer.DEF_INPUT_DELAY);
+        for(int i = 0; i < VersusMatch.SIDES; i++){
+            System.out.printf("peer %d: %s%n",i,peers[i].report().replace("\n","\n        "));
+            System.out.printf("        tick time 99th %.2f ms, max %.2f ms%n",loops[i].getTickTime().getPercentile(99) / 1e6,
+                    loops[i].getTickTime().getPercentile(100) / 1e6);
+        }
+        VersusMatch a = peers[0].getSession().getMatch();
+        VersusMatch b = peers[1].getSession().getMatch();
+        System.out.printf("same state on both peers: %b, winner %d%n%n",Arrays.equals(state(a),state(b)),a.getWinner());
+    }
+
+    private static byte[] state(VersusMatch match){
+        StateBuffer out = new StateBuffer();
+        match.writeState(out);
+        return out.toByteArray();
+    }
+
+}
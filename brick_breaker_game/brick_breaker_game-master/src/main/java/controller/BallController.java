@@ -1,5 +1,7 @@
 package controller;
 
+import model.FixedPoint;
+
 import java.awt.*;
 import java.awt.geom.Point2D;
 import java.awt.geom.RectangularShape;
@@ -7,6 +9,8 @@ import java.awt.geom.RectangularShape;
 
 /**
  * BallController is an Abstract Class that handles all the implementations regarding the Ball Movement.
+ * The center is also kept in fixed point, see FixedPoint, rounded to 1/256 of a pixel; a wall in fixed point
+ * moves the ball with the fixed point methods only, then the double center is the fixed one exactly.
  */
 abstract public class BallController {
 
@@ -22,6 +26,13 @@ abstract public class BallController {
     private Color border;
     private Color inner;
 
+    private double radius;
+
+    private int fixedX;
+    private int fixedY;
+    private int fixedRadius;
+    private boolean fixedStale;
+
     private int speedX;
     private int speedY;
 
@@ -52,6 +63,9 @@ abstract public class BallController {
 
 
         ballFace = makeBall(center,radiusA,radiusB);
+        radius = Math.max(radiusA,radiusB) / 2.0;
+        fixedRadius = FixedPoint.toFixed(radius);
+        syncFixed();
         this.border = border;
         this.inner  = inner;
         speedX = 0;
@@ -79,11 +93,19 @@ abstract public class BallController {
 
         tmp.setFrame((center.getX() -(w / 2)),(center.getY() - (h / 2)),w,h);
         setPoints(w,h);
+        syncFixed();
 
 
         ballFace = tmp;
     }
 
+    /**
+     * moveFixed is a Method that moves the ball by its speed in fixed point.
+     */
+    public void moveFixed(){
+        setFixedPosition(getFixedX() + FixedPoint.toFixed(speedX),getFixedY() + FixedPoint.toFixed(speedY));
+    }
+
     /**
      * setSpeed is a Setter Method that sets the ball speed in both the x-axis and y-axis direction.
      * @param x     an integer variable that sets speedX value.
@@ -178,6 +200,91 @@ abstract public class BallController {
 
         tmp.setFrame((center.getX() -(w / 2)),(center.getY() - (h / 2)),w,h);
         ballFace = tmp;
+        syncFixed();
+    }
+
+    /**
+     * setPosition Method places the center of the ball on a precise location.
+     * Unlike moveTo it keeps the fractional part and updates the up, down, left and right points.
+     * @param x     the x of the new center.
+     * @param y     the y of the new center.
+     */
+    public void setPosition(double x, double y){
+        place(x,y);
+        syncFixed();
+    }
+
+    /**
+     * setFixedPosition Method places the center of the ball on a fixed point location.
+     * @param x     the x of the new center, in 1/256 of a pixel.
+     * @param y     the y of the new center, in 1/256 of a pixel.
+     */
+    public void setFixedPosition(int x, int y){
+        fixedX = x;
+        fixedY = y;
+        fixedStale = false;
+        place(FixedPoint.toDouble(x),FixedPoint.toDouble(y));
+    }
+
+    /**
+     * place is a Private Method that moves the center, the shape and the up, down, left and right points.
+     * @param x     the x of the new center.
+     * @param y     the y of the new center.
+     */
+    private void place(double x, double y){
+        center.setLocation(x,y);
+
+        RectangularShape tmp = (RectangularShape) ballFace;
+        double w = tmp.getWidth();
+        double h = tmp.getHeight();
+
+        tmp.setFrame((x -(w / 2)),(y - (h / 2)),w,h);
+        setPoints(w,h);
+    }
+
+    /**
+     * syncFixed is a Private Method that marks the fixed point center as out of date after the center moved in doubles,
+     * it is rounded again when it is read, so a wall in doubles does not pay for it.
+     */
+    private void syncFixed(){
+        fixedStale = true;
+    }
+
+    /**
+     * getRadius is a Getter Method that returns the radius of the ball.
+     * @return      returns the radius used for the collisions.
+     */
+    public double getRadius(){
+        return radius;
+    }
+
+    public int getFixedX(){
+        if(fixedStale)
+            roundFixed();
+        return fixedX;
+    }
+
+    public int getFixedY(){
+        if(fixedStale)
+            roundFixed();
+        return fixedY;
+    }
+
+    /**
+     * roundFixed is a Private Method that rounds the center to fixed point.
+     */
+    private void roundFixed(){
+        fixedX = FixedPoint.toFixed(center.getX());
+        fixedY = FixedPoint.toFixed(center.getY());
+        fixedStale = false;
+    }
+
+    /**
+     * getFixedRadius is a Getter Method.
+     * @return      returns the radius used for the collisions, in 1/256 of a pixel.
+     */
+    public int getFixedRadius(){
+        return fixedRadius;
     }
 
     /**
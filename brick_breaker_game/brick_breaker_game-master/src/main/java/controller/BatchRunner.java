@@ -0,0 +1,352 @@
+package controller;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+
+/**
+ * BatchRunner class plays many games on GameEngines with a policy moving the player, to compare policies
+ * over thousands of full games.
+ * Every game has a seed of its own, from the first seed up, and plays the same on every run whatever the
+ * number of threads. The seeds are split in halves on a fork/join pool until a few games are left, and the halves
+ * are left to the pool to share out between its threads.
+ * The games share nothing: a wall draws the ball launches, the cracks and the steel impacts from its own
+ * random numbers, and the results of the halves are merged when they are joined.
+ * Run with: java -Djava.awt.headless=true -cp build/classes/java/main controller.BatchRunner [games] [threads] [dead zone] [fixed]
+ */
+public class BatchRunner {
+
+    //the games a task plays itself instead of splitting them again
+    private static final int LEAF_GAMES = 8;
+
+    /**
+     * Policy interface is a Nested Interface under the BatchRunner class, what moves the player of a game.
+     * One policy is shared by every game of a batch on every thread, it must keep no state of its own.
+     */
+    public interface Policy {
+
+        /**
+         * move Method decides the input of the next step.
+         * @param state     the game.
+         * @return          returns GameEngine.STOP, LEFT or RIGHT.
+         */
+        int move(GameEngine.State state);
+
+    }
+
+    /**
+     * follow Method makes a policy that keeps the middle of the player under the first ball.
+     * @param deadZone  how far the ball can be from the middle of the player before it moves, a wide one loses balls.
+     * @return          returns the policy.
+     */
+    public static Policy follow(int deadZone){
+        return state -> {
+            double dx = state.getBallX(0) - state.getPlayerX();
+            return dx < -deadZone ? GameEngine.LEFT : dx > deadZone ? GameEngine.RIGHT : GameEngine.STOP;
+        };
+    }
+
+    /**
+     * Result class is a Nested Class under the BatchRunner class that counts how the games of a batch went.
+     * Levels are counted from 1, as WallModel.getLevel counts them.
+     */
+    public static class Result {
+
+        private int games;
+        private long ticks;
+        private int allCleared;
+        private int cut;
+        private int[] reached = new int[0];
+        private int[] cleared = new int[0];
+        private int[] lost = new int[0];
+        private long nanos;
+
+
+        /**
+         * add is a Private Method that counts a game.
+         * @param levels        the levels the game got to, counting the one it ended on.
+         * @param levelsCleared the levels it cleared.
+         * @param ballsLost     the balls it lost.
+         * @param gameTicks     the ticks it took.
+         * @param allWalls      true if it cleared every wall.
+         * @param wasCut        true if it was stopped at the most ticks before it ended.
+         */
+        private void add(int levels, int levelsCleared, int ballsLost, long gameTicks, boolean allWalls, boolean wasCut){
+            games++;
+            ticks += gameTicks;
+            if(allWalls)
+                allCleared++;
+            if(wasCut)
+                cut++;
+            reached = grow(reached,levels + 1);
+            cleared = grow(cleared,levels + 1);
+            for(int level = 1; level <= levels; level++)
+                reached[level]++;
+            for(int level = 1; level <= levelsCleared; level++)
+                cleared[level]++;
+            lost = grow(lost,ballsLost + 1);
+            lost[ballsLost]++;
+        }
+
+        /**
+         * merge is a Private Method that adds the counts of another part of the batch to this one.
+         * @param other     the other part.
+         * @return          returns this result.
+         */
+        private Result merge(Result other){
+            games += other.games;
+            ticks += other.ticks;
+            allCleared += other.allCleared;
+            cut += other.cut;
+            reached = add(reached,other.reached);
+            cleared = add(cleared,other.cleared);
+            lost = add(lost,other.lost);
+            return this;
+        }
+
+        private static int[] grow(int[] a, int length){
+            return a.length < length ? Arrays.copyOf(a,length) : a;
+        }
+
+        private static int[] add(int[] a, int[] b){
+            int[] out = grow(a,b.length);
+            for(int i = 0; i < b.length; i++)
+                out[i] += b[i];
+            return out;
+        }
+
+        public int getGames(){
+            return games;
+        }
+
+        public long getTicks(){
+            return ticks;
+        }
+
+        /**
+         * getAllCleared is a Getter Method.
+         * @return  returns the games that cleared every wall.
+         */
+        public int getAllCleared(){
+            return allCleared;
+        }
+
+        /**
+         * getCut is a Getter Method.
+         * @return  returns the games stopped at the most ticks of the batch before they ended.
+         */
+        public int getCut(){
+            return cut;
+        }
+
+        /**
+         * getLevelCount is a Getter Method.
+         * @return  returns the highest level a game got to.
+         */
+        public int getLevelCount(){
+            return Math.max(reached.length - 1,0);
+        }
+
+        /**
+         * getReached is a Getter Method.
+         * @param level     the level, from 1.
+         * @return          returns the games that got to the level.
+         */
+        public int getReached(int level){
+            return level < reached.length ? reached[level] : 0;
+        }
+
+        /**
+         * getCleared is a Getter Method.
+         * @param level     the level, from 1.
+         * @return          returns the games that cleared the level.
+         */
+        public int getCleared(int level){
+            return level < cleared.length ? cleared[level] : 0;
+        }
+
+        /**
+         * getClearRate is a Getter Method.
+         * @param level     the level, from 1.
+         * @return          returns the games that cleared the level over the games that got to it.
+         */
+        public double getClearRate(int level){
+            int n = getReached(level);
+            return n == 0 ? 0 : getCleared(level) / (double) n;
+        }
+
+        /**
+         * getLost is a Getter Method.
+         * @param balls     a number of balls.
+         * @return          returns the games that lost that many balls.
+         */
+        public int getLost(int balls){
+            return balls < lost.length ? lost[balls] : 0;
+        }
+
+        /**
+         * getMostLost is a Getter Method.
+         * @return  returns the most balls a game lost.
+         */
+        public int getMostLost(){
+            return Math.max(lost.length - 1,0);
+        }
+
+        /**
+         * getSeconds is a Getter Method.
+         * @return  returns the wall clock time the batch took.
+         */
+        public double getSeconds(){
+            return nanos / 1e9;
+        }
+
+        public double getGamesPerSecond(){
+            return nanos == 0 ? 0 : games / getSeconds();
+        }
+
+        /**
+         * report Method writes the counts of the batch as a few lines of text.
+         * @return  returns the report.
+         */
+        public String report(){
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("%d games, %d ticks in %.2f s: %.0f games/s, %.2f million ticks/s%n",games,ticks,
+                    getSeconds(),getGamesPerSecond(),nanos == 0 ? 0 : ticks / getSeconds() / 1e6));
+            out.append(String.format("all walls cleared %d, cut at the most ticks %d%n",allCleared,cut));
+            out.append(String.format("%6s %8s %8s %8s%n","level","reached","cleared","rate"));
+            for(int level = 1; level <= getLevelCount(); level++)
+                out.append(String.format("%6d %8d %8d %7.1f%%%n",level,getReached(level),getCleared(level),getClearRate(level) * 100));
+            out.append(String.format("%6s %8s %8s%n","lost","games","share"));
+            for(int balls = 0; balls <= getMostLost(); balls++)
+                out.append(String.format("%6d %8d %7.1f%%%n",balls,getLost(balls),games == 0 ? 0 : getLost(balls) * 100.0 / games));
+            return out.toString();
+        }
+
+    }
+
+    /**
+     * Games class is a Private Nested Class under the BatchRunner class, the task playing a range of seeds.
+     */
+    private static class Games extends RecursiveTask<Result> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final BatchRunner runner;
+        private final long firstSeed;
+        private final int count;
+
+
+        /**
+         * Games is a Parameterized Constructor.
+         * @param runner        the batch, the config, policy and most ticks of its games.
+         * @param firstSeed     the seed of the first game, the next games take the next seeds.
+         * @param count         the number of games.
+         */
+        private Games(BatchRunner runner, long firstSeed, int count){
+            this.runner = runner;
+            this.firstSeed = firstSeed;
+            this.count = count;
+        }
+
+        /**
+         * compute Method plays the games itself when they are few, or splits them in two, forks the second half
+         * and plays the first.
+         * @return  returns the counts of the games.
+         */
+        @Override
+        protected Result compute(){
+            if(count <= LEAF_GAMES){
+                Result out = new Result();
+                for(int i = 0; i < count; i++)
+                    runner.play(firstSeed + i,out);
+                return out;
+            }
+            int half = count / 2;
+            Games second = new Games(runner,firstSeed + half,count - half);
+            second.fork();
+            Result out = new Games(runner,firstSeed,half).compute();
+            return out.merge(second.join());
+        }
+
+    }
+
+    private final GameEngine.Config config;
+    private final Policy policy;
+    private final long maxTicks;
+    private final int parallelism;
+
+
+    /**
+     * BatchRunner is a Parameterized Constructor.
+     * @param config        the board and the wall of every game.
+     * @param policy        what moves the player, shared by every game.
+     * @param maxTicks      where a game the policy keeps going forever is stopped.
+     * @param parallelism   the number of threads of the pool.
+     */
+    public BatchRunner(GameEngine.Config config, Policy policy, long maxTicks, int parallelism){
+        if(parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        this.config = config;
+        this.policy = policy;
+        this.maxTicks = maxTicks;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * run Method plays a batch of games on a pool of its own and waits for all of them.
+     * @param firstSeed     the seed of the first game, the next games take the next seeds.
+     * @param games         the number of games.
+     * @return              returns the counts of the games and the time they took.
+     */
+    public Result run(long firstSeed, int games){
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try{
+            long start = System.nanoTime();
+            Result out = pool.invoke(new Games(this,firstSeed,games));
+            out.nanos = System.nanoTime() - start;
+            return out;
+        }finally{
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * play is a Private Method that plays a game to its end, or to the most ticks, and counts it.
+     * @param seed  the seed of the game.
+     * @param out   the counts the game is added to.
+     */
+    private void play(long seed, Result out){
+        GameEngine engine = GameEngine.create(config,seed);
+        GameEngine.State state = engine.state();
+        int levelsCleared = 0;
+        int ballsLost = 0;
+        while(!state.isOver() && state.getTick() < maxTicks){
+            switch(engine.step(policy.move(state))){
+                case GameRules.LEVEL_CLEARED:
+                case GameRules.ALL_CLEARED:
+                    levelsCleared++;
+                    break;
+                case GameRules.BALL_LOST:
+                case GameRules.GAME_OVER:
+                    ballsLost++;
+                    break;
+                default:
+            }
+        }
+        //a cleared level has moved the wall to the next one, the last one cleared leaves it there
+        int levels = state.getOutcome() == GameRules.ALL_CLEARED ? levelsCleared : levelsCleared + 1;
+        out.add(levels,levelsCleared,ballsLost,state.getTick(),state.getOutcome() == GameRules.ALL_CLEARED,!state.isOver());
+    }
+
+    public static void main(String[] args){
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int deadZone = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        boolean fixedPoint = args.length > 3 && args[3].equals("fixed");
+        BatchRunner runner = new BatchRunner(new GameEngine.Config().withFixedPoint(fixedPoint),follow(deadZone),2_000_000,threads);
+        System.out.printf("%d games on %d threads, player dead zone %d%s%n",games,threads,deadZone,fixedPoint ? ", fixed point" : "");
+        System.out.print(runner.run(0,games).report());
+    }
+
+}
@@ -1,13 +1,21 @@
 package controller;
 
+import model.BrickStore;
+
 import java.awt.*;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
-import java.util.Random;
+import java.awt.geom.Rectangle2D;
 
 
 /**
  *  BrickController is an Abstract Class that handles all the implementations regarding the Bricks in the game.
+ *  The strength and the broken flag of a brick are not kept here: they are kept by the BrickStore of its level,
+ *  the brick is a view of its index in the store. The brick runs the rules of its type, the break chance of steel
+ *  and the cracks of cement, and writes the strength they leave in the store.
  */
 abstract public class BrickController {
 
@@ -25,11 +33,15 @@ abstract public class BrickController {
     /**
      * Crack class is a Nested Class under the BrickController abstract class as it is a feature of the Brick class.
      * Responsible for all the implementations regarding the crack generated when a ball makes an impact with a brick.
+     * A crack keeps only the point and direction of every impact and a seed given when the brick is made.
+     * The path is generated from them when it is needed, the same every time, and kept in a cache of bounded size
+     * shared by the bricks of a wall, see CrackCache, so a wall of cracked bricks does not hold a path per brick.
+     * A path stretches templates made when the level is built, see CrackTemplates, instead of running a random walk.
      */
     public class Crack{
 
-        private static final int CRACK_SECTIONS = 3;
-        private static final double JUMP_PROBABILITY = 0.7;
+        //spreads the seeds of the impacts of a crack, the 64 bit golden ratio
+        private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
 
         public static final int LEFT = 10;
         public static final int RIGHT = 20;
@@ -40,183 +52,314 @@ abstract public class BrickController {
 
 
 
-        private GeneralPath crack;
+        private int[] impacts;
+        private long seed;
+        private Face face;
 
         private int crackDepth;
         private int steps;
+        private CrackTemplates templates;
+        private CrackCache cache;
 
 
+        /**
+         * Crack is a Parameterized Constructor that creates the crack, with a cache of its own.
+         * @param crackDepth
+         * @param steps
+         * @param seed      the seed of the crack.
+         */
+        public Crack(int crackDepth, int steps, long seed){
+            this(crackDepth,steps,seed,new CrackCache());
+        }
+
         /**
          * Crack is a Parameterized Constructor that creates the crack.
-         * Sets a randomly generated path from the point of impact.
+         * Sets the seed the crack paths are generated from.
          * Sets the depth of the crack.
-         * Sets the crack steps.
+         * Sets the crack steps, and gets the templates of cracks with that depth and steps.
          * @param crackDepth
          * @param steps
+         * @param seed      the seed of the crack, drawn by the brick from the random numbers of its wall.
+         * @param cache     the cache of the paths of the wall.
          */
-        public Crack(int crackDepth, int steps){
+        public Crack(int crackDepth, int steps, long seed, CrackCache cache){
 
-            crack = new GeneralPath();
+            this.seed = seed;
+            this.cache = cache;
             this.crackDepth = crackDepth;
             this.steps = steps;
+            templates = CrackTemplates.get(crackDepth,steps);
 
         }
 
 
         /**
          * draw Method is responsible for drawing out the crack.
-         * @return
+         * @return      returns a new path with the crack of every impact.
          */
         public GeneralPath draw(){
 
-            return crack;
+            return makePath(impacts);
+        }
+
+        /**
+         * face Method returns the brick with its crack, the shape drawn for a cracked brick.
+         * @return      returns the face of the last impact, null if the brick is not cracked.
+         */
+        public Shape face(){
+            return face;
         }
 
         /**
          * reset is a Method to reset the crack.
          */
         public void reset(){
-            crack.reset();
+            impacts = null;
+            face = null;
         }
 
         /**
-         * makeCrack is responsible for setting the start and end location of the crack.
+         * getImpacts is a Getter Method.
+         * @return  returns the point and direction of every impact, three ints each, null if there is none.
+         *          The array is never changed, the next impact makes a new one.
+         */
+        public int[] getImpacts(){
+            return impacts;
+        }
+
+        /**
+         * restore Method puts back the impacts of a crack, as getImpacts gave them.
+         * @param impacts   the impacts, kept and not copied, null for no crack.
+         */
+        public void restore(int[] impacts){
+            this.impacts = impacts;
+            face = impacts == null ? null : new Face(impacts);
+        }
+
+        /**
+         * setSeed Method changes the seed the crack paths are generated from, a crack already made gets a new face.
+         * @param seed  the seed of the crack.
+         */
+        public void setSeed(long seed){
+            this.seed = seed;
+            if(impacts != null)
+                face = new Face(impacts);
+        }
+
+        /**
+         * makeCrack is responsible for recording the point and direction of an impact.
+         * The impacts are copied to a new array, a face already handed out keeps the impacts it was made with.
          * @param point         the point of impact.
          * @param direction     the direction of the crack.
          */
         public void makeCrack(Point2D point, int direction){
-            Rectangle bounds = BrickController.this.brickFace.getBounds();
+            int n = impacts == null ? 0 : impacts.length;
+            int[] tmp = new int[n + 3];
+            if(n > 0)
+                System.arraycopy(impacts,0,tmp,0,n);
+            tmp[n] = (int)point.getX();
+            tmp[n + 1] = (int)point.getY();
+            tmp[n + 2] = direction;
+            impacts = tmp;
+            face = new Face(impacts);
+        }
 
-            Point impact = new Point((int)point.getX(),(int)point.getY());
-            Point start = new Point();
-            Point end = new Point();
+        /**
+         * makePath is a Private Method that generates the crack path of the impacts given.
+         * Every impact mixes the seed of the crack with its number, the bits it gets choose the template
+         * and where the crack ends.
+         * @param impacts   the point and direction of every impact.
+         * @return          returns a new path.
+         */
+        private GeneralPath makePath(int[] impacts){
+            if(impacts == null)
+                return new GeneralPath();
+            //every impact adds steps + 1 points, the brick rectangle five more
+            GeneralPath crack = new GeneralPath(Path2D.WIND_NON_ZERO,(impacts.length / 3) * (steps + 1) + 5);
+            for(int k = 0; k < impacts.length; k += 3){
+                long bits = mix(seed + (k / 3) * SEED_STEP);
+                makeCrack(crack,bits,impacts[k],impacts[k + 1],impacts[k + 2]);
+            }
+            return crack;
+        }
+
+        /**
+         * mix is a Private Method that scrambles the bits of a seed, the finalizer of SplittableRandom.
+         * @param z     the seed.
+         * @return      returns 64 well spread bits.
+         */
+        private long mix(long z){
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
 
+        /**
+         * makeCrack is responsible for setting the start and end location of the crack.
+         * The crack ends on the side of the brick it goes toward, at a point taken from the high bits.
+         * @param crack         the path the crack is added to.
+         * @param bits          the random bits of this impact.
+         * @param x             the x of the point of impact.
+         * @param y             the y of the point of impact.
+         * @param direction     the direction of the crack.
+         */
+        private void makeCrack(GeneralPath crack, long bits, int x, int y, int direction){
+            Rectangle bounds = BrickController.this.bounds;
+            int pick = (int) (bits >>> 33);
 
             switch(direction){
                 case LEFT:
-                    start.setLocation(bounds.x + bounds.width, bounds.y);
-                    end.setLocation(bounds.x + bounds.width, bounds.y + bounds.height);
-                    Point tmp = makeRandomPoint(start,end,VERTICAL);
-                    makeCrack(impact,tmp);
-
+                    makeCrack(crack,bits,x,y,bounds.x + bounds.width,bounds.y + pick % bounds.height);
                     break;
                 case RIGHT:
-                    start.setLocation(bounds.getLocation());
-                    end.setLocation(bounds.x, bounds.y + bounds.height);
-                    tmp = makeRandomPoint(start,end,VERTICAL);
-                    makeCrack(impact,tmp);
-
+                    makeCrack(crack,bits,x,y,bounds.x,bounds.y + pick % bounds.height);
                     break;
                 case UP:
-                    start.setLocation(bounds.x, bounds.y + bounds.height);
-                    end.setLocation(bounds.x + bounds.width, bounds.y + bounds.height);
-                    tmp = makeRandomPoint(start,end,HORIZONTAL);
-                    makeCrack(impact,tmp);
+                    makeCrack(crack,bits,x,y,bounds.x + pick % bounds.width,bounds.y + bounds.height);
                     break;
                 case DOWN:
-                    start.setLocation(bounds.getLocation());
-                    end.setLocation(bounds.x + bounds.width, bounds.y);
-                    tmp = makeRandomPoint(start,end,HORIZONTAL);
-                    makeCrack(impact,tmp);
-
+                    makeCrack(crack,bits,x,y,bounds.x + pick % bounds.width,bounds.y);
                     break;
 
             }
         }
 
         /**
-         * makeCrack Method is responsible for making a randomly generated path from the start point to the end point.
-         * @param start
-         * @param end
+         * makeCrack Method is responsible for stretching a template from the start point to the end point.
+         * The first point is joined to the end of the cracks already in the path, the way
+         * GeneralPath.append joins them.
+         * @param crack     the path the crack is added to.
+         * @param bits      the random bits of this impact, the low ones choose the template.
+         * @param startX
+         * @param startY
+         * @param endX
+         * @param endY
          */
-        protected void makeCrack(Point start, Point end){
+        protected void makeCrack(GeneralPath crack, long bits, int startX, int startY, int endX, int endY){
 
-            GeneralPath path = new GeneralPath();
+            int template = (int) ((bits & Integer.MAX_VALUE) % templates.getCount());
 
+            if(crack.getCurrentPoint() == null)
+                crack.moveTo(startX,startY);
+            else if(!crack.getCurrentPoint().equals(new Point2D.Double(startX,startY)))
+                crack.lineTo(startX,startY);
 
-            path.moveTo(start.x,start.y);
+            double w = (endX - startX) / (double)steps;
+            double h = (endY - startY) / (double)steps;
 
-            double w = (end.x - start.x) / (double)steps;
-            double h = (end.y - start.y) / (double)steps;
+            for(int i = 1; i < steps;i++)
+                crack.lineTo((i * w) + startX,(i * h) + startY + templates.getOffset(template,i));
 
-            int bound = crackDepth;
-            int jump  = bound * 5;
+            crack.lineTo(endX,endY);
+        }
 
-            double x,y;
+        /**
+         * Face class is a Nested Class under the Crack class, the shape of a cracked brick: its crack and its rectangle.
+         * It holds the impacts it was made with and nothing else, the path is taken from the crack cache of the wall
+         * and generated again if it was dropped from it.
+         */
+        public class Face implements Shape{
 
-            for(int i = 1; i < steps;i++){
+            private final int[] impacts;
 
-                x = (i * w) + start.x;
-                y = (i * h) + start.y + randomInBounds(bound);
 
-                if(inMiddle(i,CRACK_SECTIONS,steps))
-                    y += jumps(jump,JUMP_PROBABILITY);
+            /**
+             * Face is a Parameterized Constructor that creates the face of a crack.
+             * @param impacts   the impacts of the crack, not changed afterwards.
+             */
+            private Face(int[] impacts){
+                this.impacts = impacts;
+            }
 
-                path.lineTo(x,y);
+            /**
+             * path is a Private Method that returns the path of the face from the cache, generating it if missing.
+             * @return      returns the crack path with the brick rectangle appended.
+             */
+            private GeneralPath path(){
+                GeneralPath out = cache.get(this);
+                if(out == null){
+                    out = makePath(impacts);
+                    out.append(BrickController.this.brickFace,false);
+                    cache.put(this,out);
+                }
+                return out;
+            }
 
+            /**
+             * getPath is a Getter Method.
+             * @return  returns the crack path with the brick rectangle appended, the one kept in the cache of the
+             *          wall; it is never changed, a render frame draws it instead of the face.
+             */
+            public Shape getPath(){
+                return path();
             }
 
-            path.lineTo(end.x,end.y);
-            crack.append(path,true);
-        }
+            @Override
+            public Rectangle getBounds(){
+                return path().getBounds();
+            }
 
-        /**
-         * randomInBounds is a Private Method that is responsible for returning a random number between the bound value and the negative bound value.
-         * @param bound     the bound value.
-         * @return          returns a random integer value between the bound value and the negative bound value.
-         */
-        private int randomInBounds(int bound){
-            int n = (bound * 2) + 1;
-            return rnd.nextInt(n) - bound;
-        }
+            @Override
+            public Rectangle2D getBounds2D(){
+                return path().getBounds2D();
+            }
 
-        private boolean inMiddle(int i,int steps,int divisions){
-            int low = (steps / divisions);
-            int up = low * (divisions - 1);
+            @Override
+            public boolean contains(double x, double y){
+                return path().contains(x,y);
+            }
 
-            return  (i > low) && (i < up);
-        }
+            @Override
+            public boolean contains(Point2D p){
+                return path().contains(p);
+            }
 
-        private int jumps(int bound,double probability){
+            @Override
+            public boolean intersects(double x, double y, double w, double h){
+                return path().intersects(x,y,w,h);
+            }
 
-            if(rnd.nextDouble() > probability)
-                return randomInBounds(bound);
-            return  0;
+            @Override
+            public boolean intersects(Rectangle2D r){
+                return path().intersects(r);
+            }
 
-        }
+            @Override
+            public boolean contains(double x, double y, double w, double h){
+                return path().contains(x,y,w,h);
+            }
 
-        private Point makeRandomPoint(Point from,Point to, int direction){
+            @Override
+            public boolean contains(Rectangle2D r){
+                return path().contains(r);
+            }
 
-            Point out = new Point();
-            int pos;
+            @Override
+            public PathIterator getPathIterator(AffineTransform at){
+                return path().getPathIterator(at);
+            }
 
-            switch(direction){
-                case HORIZONTAL:
-                    pos = rnd.nextInt(to.x - from.x) + from.x;
-                    out.setLocation(pos,to.y);
-                    break;
-                case VERTICAL:
-                    pos = rnd.nextInt(to.y - from.y) + from.y;
-                    out.setLocation(to.x,pos);
-                    break;
+            @Override
+            public PathIterator getPathIterator(AffineTransform at, double flatness){
+                return path().getPathIterator(at,flatness);
             }
-            return out;
+
         }
 
     }
 
-    private static Random rnd;
-
     private String name;
     protected Shape brickFace;
+    private Rectangle bounds;
+    private CircleImpact circleImpact;
 
     private Color border;
     private Color inner;
 
     private int fullStrength;
-    private int strength;
 
-    private boolean broken;
+    private BrickStore store;
+    private int index;
 
 
     /**
@@ -232,14 +375,28 @@ abstract public class BrickController {
      * @param strength  brick's strength
      */
     public BrickController(String name, Point pos, Dimension size, Color border, Color inner, int strength){
-        rnd = new Random();
-        broken = false;
         this.name = name;
         brickFace = makeBrickFace(pos,size);
+        bounds = brickFace.getBounds();
+        circleImpact = new CircleImpact();
         this.border = border;
         this.inner = inner;
-        this.fullStrength = this.strength = strength;
+        this.fullStrength = strength;
+
+    }
 
+    /**
+     * bind Method makes the brick the view of an index of a store, the store keeps its state from then on.
+     * A brick belongs to one store, the one of its level, made when the level is built.
+     * @param store     the store of the level.
+     * @param index     the index of the brick in the store.
+     * @throws IllegalStateException if the brick is already in a store.
+     */
+    public final void bind(BrickStore store, int index){
+        if(this.store != null)
+            throw new IllegalStateException("The brick is already in a store");
+        this.store = store;
+        this.index = index;
     }
 
     /**
@@ -260,10 +417,10 @@ abstract public class BrickController {
      * @return          returns a boolean value to state if brick is broken or not.
      */
     public boolean setImpact(Point2D point , int dir){
-        if(broken)
+        if(isBroken())
             return false;
         impact();
-        return  broken;
+        return  isBroken();
     }
 
     /**
@@ -295,50 +452,72 @@ abstract public class BrickController {
 
     /**
      * findImpact Method is responsible for determining the direction of the impact from the ball on the brick.
+     * The ball is tested as a circle against the brick rectangle, so corner hits are found as well.
      * @param b     passing in the Object/Reference variable of the BallController class. Aggregation relationship.
-     * @return
+     * @return      returns the side of the brick hit, 0 if there is no impact.
      */
     public final int findImpact(BallController b){
-        if(broken)
+        if(isBroken())
             return 0;
-        int out  = 0;
-        if(brickFace.contains(b.right))
-            out = LEFT_IMPACT;
-        else if(brickFace.contains(b.left))
-            out = RIGHT_IMPACT;
-        else if(brickFace.contains(b.up))
-            out = DOWN_IMPACT;
-        else if(brickFace.contains(b.down))
-            out = UP_IMPACT;
-        return out;
+        return circleImpact.test(b.getPosition().getX(),b.getPosition().getY(),b.getRadius(),
+                bounds.x,bounds.y,bounds.width,bounds.height);
     }
 
     /**
-     * isBroken Method is responsible for returning if the brick is broken or not.
-     * Encapsulation of the broken variable.
-     * @return      returns the boolean value of broken variable.
+     * getStrength Method is responsible for returning the strength left in the brick, as its store keeps it.
+     * @return      returns the strength of the brick, the full strength if it is in no store yet.
+     */
+    public final int getStrength(){
+        return store == null ? fullStrength : store.getStrength(index);
+    }
+
+    /**
+     * getFullStrength Method is responsible for returning the strength of the brick when repaired.
+     * Encapsulation of the fullStrength variable.
+     * @return      returns the full strength of the brick.
+     */
+    public final int getFullStrength(){
+        return fullStrength;
+    }
+
+    /**
+     * getBounds Method is responsible for returning the rectangle the brick occupies, cracks excluded.
+     * @return      returns the bounds of the brick.
+     */
+    public final Rectangle getBounds(){
+        return new Rectangle(bounds);
+    }
+
+    /**
+     * isBroken Method is responsible for returning if the brick is broken or not, as its store keeps it.
+     * @return      returns true if the brick is broken, false if it is in no store yet.
      */
     public final boolean isBroken(){
-        return broken;
+        return store != null && store.isBroken(index);
     }
 
     /**
      * repair Method is responsible for repairing the brick.
-     * Sets the broken back to NOT broken.
-     * Sets strength to full capacity.
+     * Sets strength to full capacity in the store, which sets the brick back to NOT broken.
      */
     public void repair() {
-        broken = false;
-        strength = fullStrength;
+        store.setStrength(index,fullStrength);
+    }
+
+    /**
+     * restore Method puts back the strength of a brick, a brick with no strength left is broken.
+     * @param strength  the strength left.
+     */
+    public void restore(int strength){
+        store.setStrength(index,strength);
     }
 
     /**
-     * impact Method is responsible to set the broken variable based on the brick's status.
-     * Also responsible for deducting the strength of a brick when an impact has occurred.
+     * impact Method is responsible for deducting the strength of a brick when an impact has occurred,
+     * the store breaks the brick when no strength is left.
      */
     public void impact(){
-        strength--;
-        broken = (strength == 0);
+        store.setStrength(index,getStrength() - 1);
     }
 
 
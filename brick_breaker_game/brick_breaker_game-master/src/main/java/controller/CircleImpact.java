@@ -0,0 +1,245 @@
+package controller;
+
+import model.FixedPoint;
+
+
+/**
+ * CircleImpact class is the exact test between a circle and an axis aligned rectangle.
+ * It works on primitive coordinates only and keeps the side hit and the penetration depth of the last
+ * test, so one instance can be reused for every test of a tick without allocating.
+ * The side uses the same constants as BrickController: UP_IMPACT means the circle hit the top side of the rectangle.
+ * It also computes the time of impact of a circle moving along a segment, for the swept collisions.
+ * testFixed is the same test on fixed point coordinates, in integers only, for the walls in fixed point.
+ */
+public class CircleImpact {
+
+    private int side;
+    private double depth;
+    private int fixedDepth;
+    private double time;
+
+
+    /**
+     * test Method checks if the circle overlaps the rectangle.
+     * The side is the one of the rectangle point closest to the circle center, when the center is
+     * inside the rectangle the side is the one the center is closest to.
+     * @param cx    the x of the circle center.
+     * @param cy    the y of the circle center.
+     * @param r     the radius of the circle.
+     * @param x     the x of the rectangle top left corner.
+     * @param y     the y of the rectangle top left corner.
+     * @param w     the width of the rectangle.
+     * @param h     the height of the rectangle.
+     * @return      returns the side hit, 0 if the circle and the rectangle do not overlap.
+     */
+    public int test(double cx, double cy, double r, double x, double y, double w, double h){
+        double qx = cx < x ? x : (cx > x + w ? x + w : cx);
+        double qy = cy < y ? y : (cy > y + h ? y + h : cy);
+        double dx = cx - qx;
+        double dy = cy - qy;
+        double d2 = dx * dx + dy * dy;
+
+        if(d2 > r * r){
+            side = 0;
+            depth = 0;
+        }
+        else if(d2 > 0){
+            depth = r - Math.sqrt(d2);
+            if(Math.abs(dx) > Math.abs(dy))
+                side = dx < 0 ? BrickController.LEFT_IMPACT : BrickController.RIGHT_IMPACT;
+            else
+                side = dy < 0 ? BrickController.UP_IMPACT : BrickController.DOWN_IMPACT;
+        }
+        else{
+            //the center is inside, the shortest way out decides the side
+            double left = cx - x;
+            double right = x + w - cx;
+            double top = cy - y;
+            double bottom = y + h - cy;
+            double min = Math.min(Math.min(left, right), Math.min(top, bottom));
+            if(min == top)
+                side = BrickController.UP_IMPACT;
+            else if(min == bottom)
+                side = BrickController.DOWN_IMPACT;
+            else if(min == left)
+                side = BrickController.LEFT_IMPACT;
+            else
+                side = BrickController.RIGHT_IMPACT;
+            depth = r + min;
+        }
+        return side;
+    }
+
+    /**
+     * testFixed Method checks if the circle overlaps the rectangle, as test does, on fixed point coordinates.
+     * All the arguments are in 1/256 of a pixel, see FixedPoint, and so is the depth found.
+     * @param cx    the x of the circle center.
+     * @param cy    the y of the circle center.
+     * @param r     the radius of the circle.
+     * @param x     the x of the rectangle top left corner.
+     * @param y     the y of the rectangle top left corner.
+     * @param w     the width of the rectangle.
+     * @param h     the height of the rectangle.
+     * @return      returns the side hit, 0 if the circle and the rectangle do not overlap.
+     */
+    public int testFixed(int cx, int cy, int r, int x, int y, int w, int h){
+        int qx = cx < x ? x : (cx > x + w ? x + w : cx);
+        int qy = cy < y ? y : (cy > y + h ? y + h : cy);
+        long dx = cx - qx;
+        long dy = cy - qy;
+        long d2 = dx * dx + dy * dy;
+
+        if(d2 > (long) r * r){
+            side = 0;
+            fixedDepth = 0;
+        }
+        else if(d2 > 0){
+            fixedDepth = r - (int) FixedPoint.sqrt(d2);
+            if(Math.abs(dx) > Math.abs(dy))
+                side = dx < 0 ? BrickController.LEFT_IMPACT : BrickController.RIGHT_IMPACT;
+            else
+                side = dy < 0 ? BrickController.UP_IMPACT : BrickController.DOWN_IMPACT;
+        }
+        else{
+            int left = cx - x;
+            int right = x + w - cx;
+            int top = cy - y;
+            int bottom = y + h - cy;
+            int min = Math.min(Math.min(left, right), Math.min(top, bottom));
+            if(min == top)
+                side = BrickController.UP_IMPACT;
+            else if(min == bottom)
+                side = BrickController.DOWN_IMPACT;
+            else if(min == left)
+                side = BrickController.LEFT_IMPACT;
+            else
+                side = BrickController.RIGHT_IMPACT;
+            fixedDepth = r + min;
+        }
+        depth = FixedPoint.toDouble(fixedDepth);
+        return side;
+    }
+
+    /**
+     * sweep Method finds when a circle moving from (px,py) to (px+dx,py+dy) first touches the rectangle.
+     * The center is traced against the rectangle grown by the radius, the rounded corners of the grown
+     * rectangle are handled with a ray-circle test. A circle already overlapping at the start is not reported,
+     * the discrete test takes care of it.
+     * @param px    the x of the circle center at the start of the motion.
+     * @param py    the y of the circle center at the start of the motion.
+     * @param dx    the motion along x.
+     * @param dy    the motion along y.
+     * @param r     the radius of the circle.
+     * @param x     the x of the rectangle top left corner.
+     * @param y     the y of the rectangle top left corner.
+     * @param w     the width of the rectangle.
+     * @param h     the height of the rectangle.
+     * @return      returns the side hit, 0 if the circle does not touch the rectangle during the motion.
+     */
+    public int sweep(double px, double py, double dx, double dy, double r, double x, double y, double w, double h){
+        side = 0;
+        depth = 0;
+        time = 0;
+
+        double enter = -Double.MAX_VALUE;
+        double exit = Double.MAX_VALUE;
+        boolean enterX = false;
+
+        if(dx == 0){
+            if(px < x - r || px > x + w + r)
+                return 0;
+        }
+        else{
+            double t1 = (x - r - px) / dx;
+            double t2 = (x + w + r - px) / dx;
+            enter = Math.min(t1, t2);
+            exit = Math.max(t1, t2);
+            enterX = true;
+        }
+
+        if(dy == 0){
+            if(py < y - r || py > y + h + r)
+                return 0;
+        }
+        else{
+            double t1 = (y - r - py) / dy;
+            double t2 = (y + h + r - py) / dy;
+            if(Math.min(t1, t2) > enter){
+                enter = Math.min(t1, t2);
+                enterX = false;
+            }
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+
+        if(enter > exit || enter < 0 || enter > 1)
+            return 0;
+
+        double hx = px + dx * enter;
+        double hy = py + dy * enter;
+        boolean outX = hx < x || hx > x + w;
+        boolean outY = hy < y || hy > y + h;
+
+        if(outX && outY){
+            //entered the grown rectangle in a corner square, the real shape there is the corner circle
+            double cornerX = hx < x ? x : x + w;
+            double cornerY = hy < y ? y : y + h;
+            double fx = px - cornerX;
+            double fy = py - cornerY;
+            double a = dx * dx + dy * dy;
+            double b = 2 * (fx * dx + fy * dy);
+            double c = fx * fx + fy * fy - r * r;
+            double disc = b * b - 4 * a * c;
+            if(disc < 0)
+                return 0;
+            enter = (-b - Math.sqrt(disc)) / (2 * a);
+            if(enter < 0 || enter > 1)
+                return 0;
+            double nx = px + dx * enter - cornerX;
+            double ny = py + dy * enter - cornerY;
+            if(Math.abs(nx) > Math.abs(ny))
+                side = nx < 0 ? BrickController.LEFT_IMPACT : BrickController.RIGHT_IMPACT;
+            else
+                side = ny < 0 ? BrickController.UP_IMPACT : BrickController.DOWN_IMPACT;
+        }
+        else if(enterX)
+            side = dx > 0 ? BrickController.LEFT_IMPACT : BrickController.RIGHT_IMPACT;
+        else
+            side = dy > 0 ? BrickController.UP_IMPACT : BrickController.DOWN_IMPACT;
+
+        time = enter;
+        return side;
+    }
+
+    /**
+     * getSide is a Getter Method for the side hit in the last test.
+     * @return      returns the side, 0 if there was no impact.
+     */
+    public int getSide(){
+        return side;
+    }
+
+    /**
+     * getDepth is a Getter Method for the penetration depth of the last test.
+     * @return      returns how deep the circle is into the rectangle along the side normal.
+     */
+    public double getDepth(){
+        return depth;
+    }
+
+    /**
+     * getFixedDepth is a Getter Method for the penetration depth of the last testFixed.
+     * @return      returns the depth in 1/256 of a pixel.
+     */
+    public int getFixedDepth(){
+        return fixedDepth;
+    }
+
+    /**
+     * getTime is a Getter Method for the time of impact of the last sweep.
+     * @return      returns the fraction of the motion done when the circle touches the rectangle, from 0 to 1.
+     */
+    public double getTime(){
+        return time;
+    }
+
+}
@@ -0,0 +1,68 @@
+package controller;
+
+import java.awt.geom.GeneralPath;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * CrackCache class keeps the paths of the crack faces of one wall drawn last, the least recently used is dropped
+ * first. A face is generated again from its impacts when its path was dropped, see BrickController.Crack.Face.
+ * A wall makes its own and hands it to its cement bricks, so the cache goes with the wall and walls share nothing.
+ * It is not thread safe: it is used by the thread that owns the wall, the one of its ticks, which also makes the
+ * paths of the render frames, see RenderFrame; the painter draws those and never comes here.
+ */
+public class CrackCache {
+
+    public static final int DEF_CAPACITY = 1024;
+
+    private final Map<BrickController.Crack.Face,GeneralPath> paths;
+
+
+    /**
+     * CrackCache is a Default Constructor that keeps DEF_CAPACITY paths.
+     */
+    public CrackCache(){
+        this(DEF_CAPACITY);
+    }
+
+    /**
+     * CrackCache is a Parameterized Constructor.
+     * @param capacity  the number of paths kept.
+     */
+    public CrackCache(int capacity){
+        paths = new LinkedHashMap<BrickController.Crack.Face,GeneralPath>(16,0.75f,true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BrickController.Crack.Face,GeneralPath> eldest){
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * get is a Getter Method.
+     * @param face  the face.
+     * @return      returns the path of the face, null if it is not kept.
+     */
+    public GeneralPath get(BrickController.Crack.Face face){
+        return paths.get(face);
+    }
+
+    /**
+     * put Method keeps the path of a face, dropping the least recently used one if the cache is full.
+     * @param face  the face.
+     * @param path  its path.
+     */
+    public void put(BrickController.Crack.Face face, GeneralPath path){
+        paths.put(face,path);
+    }
+
+    /**
+     * size is a Getter Method.
+     * @return  returns the number of paths kept.
+     */
+    public int size(){
+        return paths.size();
+    }
+
+}
@@ -0,0 +1,125 @@
+package controller;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * CrackTemplates class is a pool of crack shapes made once, so a crack does not run a random walk of its own.
+ * A template is the offset of every step of a crack from the straight line between its two ends: a jitter
+ * on every step and, in the middle section, the odd jump, the walk BrickController.Crack used to make at every impact.
+ * The offsets do not depend on where the crack starts and ends, so one pool serves every brick size and direction;
+ * a crack picks a template and stretches it between its ends.
+ * A pool is made the first time a brick with its depth and number of steps is made, when the level is built,
+ * and from a fixed seed, so the templates are the same on every run.
+ * The pools are shared by the walls of every thread and found without a lock, every cement brick asks for one.
+ * An offset is kept in a short: a step is at most a jitter and a jump from the line, six times the depth,
+ * so the depth is at most MAX_CRACK_DEPTH.
+ */
+public class CrackTemplates {
+
+    public static final int DEF_TEMPLATES = 64;
+    public static final int MAX_CRACK_DEPTH = Short.MAX_VALUE / 6;
+
+    private static final int CRACK_SECTIONS = 3;
+    private static final double JUMP_PROBABILITY = 0.7;
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+
+    private static final Map<Long,CrackTemplates> pools = new ConcurrentHashMap<>();
+
+    private final int steps;
+    private final int count;
+    private final short[] offsets;
+
+
+    /**
+     * get Method returns the pool of templates for cracks of a depth and number of steps, making it the first time.
+     * @param crackDepth    the jitter of a step, the jumps are five times larger.
+     * @param steps         the number of steps from one end of a crack to the other.
+     * @return              returns the pool.
+     * @throws IllegalArgumentException if the depth is negative or more than MAX_CRACK_DEPTH.
+     */
+    public static CrackTemplates get(int crackDepth, int steps){
+        if(crackDepth < 0 || crackDepth > MAX_CRACK_DEPTH)
+            throw new IllegalArgumentException("Crack depth must be from 0 to " + MAX_CRACK_DEPTH);
+        long key = ((long) crackDepth << 32) | steps;
+        CrackTemplates out = pools.get(key);
+        if(out == null)
+            out = pools.computeIfAbsent(key,k -> new CrackTemplates(crackDepth,steps,DEF_TEMPLATES));
+        return out;
+    }
+
+    /**
+     * CrackTemplates is a Parameterized Constructor that makes the templates of a pool.
+     * @param crackDepth    the jitter of a step.
+     * @param steps         the number of steps of a crack.
+     * @param count         the number of templates.
+     */
+    private CrackTemplates(int crackDepth, int steps, int count){
+        this.steps = steps;
+        this.count = count;
+        offsets = new short[count * steps];
+        Random rnd = new Random(SEED);
+        int bound = crackDepth;
+        int jump = bound * 5;
+        for(int t = 0; t < count; t++)
+            for(int i = 1; i < steps; i++){
+                int y = randomInBounds(rnd,bound);
+                if(inMiddle(i,CRACK_SECTIONS,steps))
+                    y += jumps(rnd,jump,JUMP_PROBABILITY);
+                offsets[t * steps + i] = (short) y;
+            }
+    }
+
+    /**
+     * randomInBounds is a Private Method that is responsible for returning a random number between the bound value and the negative bound value.
+     * @param rnd       the random numbers of the pool.
+     * @param bound     the bound value.
+     * @return          returns a random integer value between the bound value and the negative bound value.
+     */
+    private static int randomInBounds(Random rnd, int bound){
+        int n = (bound * 2) + 1;
+        return rnd.nextInt(n) - bound;
+    }
+
+    private static boolean inMiddle(int i, int steps, int divisions){
+        int low = (steps / divisions);
+        int up = low * (divisions - 1);
+
+        return (i > low) && (i < up);
+    }
+
+    private static int jumps(Random rnd, int bound, double probability){
+        if(rnd.nextDouble() > probability)
+            return randomInBounds(rnd,bound);
+        return 0;
+    }
+
+    /**
+     * getOffset is a Getter Method.
+     * @param template  the index of the template.
+     * @param step      the step, from 1 to steps - 1.
+     * @return          returns how far the step is from the line between the ends of the crack.
+     */
+    public int getOffset(int template, int step){
+        return offsets[template * steps + step];
+    }
+
+    /**
+     * getCount is a Getter Method.
+     * @return  returns the number of templates in the pool.
+     */
+    public int getCount(){
+        return count;
+    }
+
+    /**
+     * getSteps is a Getter Method.
+     * @return  returns the number of steps of a crack.
+     */
+    public int getSteps(){
+        return steps;
+    }
+
+}
@@ -23,6 +23,7 @@ import javax.swing.*;
 import javax.swing.event.ChangeListener;
 import java.awt.*;
 import java.awt.event.ActionListener;
+import java.util.function.Consumer;
 
 
 /**
@@ -35,10 +36,13 @@ public class DebugPanelController extends JPanel {
 
     private JButton skipLevel;
     private JButton resetBalls;
+    private JButton addBall;
 
     private JSlider ballXSpeed;
     private JSlider ballYSpeed;
 
+    private JCheckBox sweptCollisions;
+
     private WallModel wall;
 
     /**
@@ -47,21 +51,40 @@ public class DebugPanelController extends JPanel {
      * Creates the 'Skip Level' and 'Reset Balls' buttons.
      * Creates a slider for the ball x-axis speed.
      * Creates a slider for the ball y-axis speed.
+     * Creates a check box for the swept collisions.
+     * Creates the 'Add Ball' button.
      * @param wall      passing in the Object/Reference variable of the WallController class. Aggregation relationship.
      */
     public DebugPanelController(WallModel wall){
+        this(wall,Runnable::run);
+    }
+
+    /**
+     * DebugPanelController is a Parameterized Constructor that makes every change of the wall through an editor,
+     * the game board makes the change on the thread that owns the wall and records it in the replay.
+     * @param wall      passing in the Object/Reference variable of the WallController class. Aggregation relationship.
+     * @param editor    runs a change of the wall.
+     */
+    public DebugPanelController(WallModel wall, Consumer<Runnable> editor){
 
         this.wall = wall;
 
         initialize();
 
         //create buttons for the SKIP LEVEL and RESET BALLS
-        skipLevel = makeButton("Skip Level",e -> wall.nextLevel());
-        resetBalls = makeButton("Reset Balls",e -> wall.resetBallCount());
+        skipLevel = makeButton("Skip Level",e -> editor.accept(wall::nextLevel));
+        resetBalls = makeButton("Reset Balls",e -> editor.accept(wall::resetBallCount));
 
         //creates a slider for the ball's speed in the x and y-axis directions
-        ballXSpeed = makeSlider(-4,4,e -> wall.setBallXSpeed(ballXSpeed.getValue()));
-        ballYSpeed = makeSlider(-4,4,e -> wall.setBallYSpeed(ballYSpeed.getValue()));
+        ballXSpeed = makeSlider(-4,4,e -> editor.accept(() -> wall.setBallXSpeed(ballXSpeed.getValue())));
+        ballYSpeed = makeSlider(-4,4,e -> editor.accept(() -> wall.setBallYSpeed(ballYSpeed.getValue())));
+
+        //swept collisions stop a fast ball from passing through bricks and player
+        sweptCollisions = new JCheckBox("Swept Collisions",wall.isSweptCollisions());
+        sweptCollisions.addActionListener(e -> editor.accept(() -> wall.setSweptCollisions(sweptCollisions.isSelected())));
+
+        //puts one more ball in play from the starting position
+        addBall = makeButton("Add Ball",e -> editor.accept(wall::addBall));
 
         this.add(skipLevel);
         this.add(resetBalls);
@@ -69,6 +92,9 @@ public class DebugPanelController extends JPanel {
         this.add(ballXSpeed);
         this.add(ballYSpeed);
 
+        this.add(sweptCollisions);
+        this.add(addBall);
+
     }
 
     /**
@@ -77,7 +103,7 @@ public class DebugPanelController extends JPanel {
      */
     private void initialize(){
         this.setBackground(DEF_BKG);
-        this.setLayout(new GridLayout(2,2));
+        this.setLayout(new GridLayout(3,2));
     }
 
     /**
@@ -0,0 +1,298 @@
+package controller;
+
+import model.GameRandom;
+import model.PlayerModel;
+import model.WallModel;
+
+import java.awt.*;
+
+
+/**
+ * GameEngine class runs a game without a window: no component, no Swing timer and no EDT.
+ * It builds the same WallModel as the game board and advances it with the same GameRules, one tick per
+ * call to step, as fast as the caller calls it; it is meant for bots and servers with no display.
+ * The game board pauses after a lost ball or a new level until the player resumes; the engine plays on
+ * at the next step. A game over or the last wall cleared ends the game, step does nothing afterwards.
+ * The model uses the geometry classes of java.awt, which need no display.
+ * An engine is not thread safe, it is driven by one thread; different engines share nothing.
+ */
+public class GameEngine {
+
+    public static final int STOP = 0;
+    public static final int LEFT = 1;
+    public static final int RIGHT = 2;
+
+    /**
+     * Config class is a Nested Class under the GameEngine class that holds the size of the board and of the wall.
+     * The Default Constructor gives the game of the game board.
+     * A game in fixed point, see WallModel, plays the same on every machine, what lockstep and replays need.
+     */
+    public static class Config {
+
+        private final int width;
+        private final int height;
+        private final int brickCount;
+        private final int lineCount;
+        private final double brickDimensionRatio;
+        private final Point ballPos;
+        private final boolean fixedPoint;
+        private final int eventCapacity;
+
+
+        /**
+         * Config is a Default Constructor with the board of the game: 600 by 450, 30 bricks on 3 lines.
+         */
+        public Config(){
+            this(600,450,30,3,6/2,new Point(300,430));
+        }
+
+        /**
+         * Config is a Parameterized Constructor.
+         * @param width                 the width of the board.
+         * @param height                the height of the board.
+         * @param brickCount            the number of bricks of a wall.
+         * @param lineCount             the number of lines of bricks.
+         * @param brickDimensionRatio   the width of a brick over its height.
+         * @param ballPos               where the ball and the player start.
+         */
+        public Config(int width, int height, int brickCount, int lineCount, double brickDimensionRatio, Point ballPos){
+            this(width,height,brickCount,lineCount,brickDimensionRatio,ballPos,false);
+        }
+
+        /**
+         * Config is a Parameterized Constructor.
+         * @param width                 the width of the board.
+         * @param height                the height of the board.
+         * @param brickCount            the number of bricks of a wall.
+         * @param lineCount             the number of lines of bricks.
+         * @param brickDimensionRatio   the width of a brick over its height.
+         * @param ballPos               where the ball and the player start.
+         * @param fixedPoint            true to run the physics in fixed point.
+         */
+        public Config(int width, int height, int brickCount, int lineCount, double brickDimensionRatio, Point ballPos, boolean fixedPoint){
+            this(width,height,brickCount,lineCount,brickDimensionRatio,ballPos,fixedPoint,WallModel.DEF_EVENT_CAPACITY);
+        }
+
+        private Config(int width, int height, int brickCount, int lineCount, double brickDimensionRatio, Point ballPos, boolean fixedPoint, int eventCapacity){
+            this.width = width;
+            this.height = height;
+            this.brickCount = brickCount;
+            this.lineCount = lineCount;
+            this.brickDimensionRatio = brickDimensionRatio;
+            this.ballPos = new Point(ballPos);
+            this.fixedPoint = fixedPoint;
+            this.eventCapacity = eventCapacity;
+        }
+
+        /**
+         * withFixedPoint Method makes the same config in fixed point or not.
+         * @param fixedPoint    true to run the physics in fixed point.
+         * @return              returns the new config.
+         */
+        public Config withFixedPoint(boolean fixedPoint){
+            return new Config(width,height,brickCount,lineCount,brickDimensionRatio,ballPos,fixedPoint,eventCapacity);
+        }
+
+        /**
+         * withEventCapacity Method makes the same config with walls whose event ring keeps the events given.
+         * The game is the same, only how far behind a reader of the events can fall changes.
+         * @param eventCapacity     the events the ring of a wall keeps, see EventRing.
+         * @return                  returns the new config.
+         */
+        public Config withEventCapacity(int eventCapacity){
+            return new Config(width,height,brickCount,lineCount,brickDimensionRatio,ballPos,fixedPoint,eventCapacity);
+        }
+
+        public int getWidth(){
+            return width;
+        }
+
+        public int getHeight(){
+            return height;
+        }
+
+        public int getBrickCount(){
+            return brickCount;
+        }
+
+        public int getLineCount(){
+            return lineCount;
+        }
+
+        public double getBrickDimensionRatio(){
+            return brickDimensionRatio;
+        }
+
+        public Point getBallPos(){
+            return new Point(ballPos);
+        }
+
+        public boolean isFixedPoint(){
+            return fixedPoint;
+        }
+
+        public int getEventCapacity(){
+            return eventCapacity;
+        }
+
+        /**
+         * newWall Method makes the wall of a game with the first level set.
+         * The same config and seed always make the same wall, the replays and the snapshots rebuild it from them.
+         * @param random    the random numbers of the game.
+         * @return          returns the new wall.
+         */
+        public WallModel newWall(GameRandom random){
+            WallModel wall = new WallModel(new Rectangle(0,0,width,height),brickCount,lineCount,brickDimensionRatio,
+                    new Point(ballPos),random,fixedPoint,eventCapacity);
+            wall.nextLevel();
+            return wall;
+        }
+
+    }
+
+    /**
+     * State class is a Nested Class under the GameEngine class, a read only view of the game.
+     * It reads the wall when asked and is the same object for the whole game, so reading it costs nothing
+     * more than the getters; it must not be kept across steps as a copy.
+     */
+    public class State {
+
+        public long getTick(){
+            return ticks;
+        }
+
+        /**
+         * getOutcome is a Getter Method.
+         * @return  returns what the last step ended with, GameRules.PLAYING if nothing happened.
+         */
+        public int getOutcome(){
+            return outcome;
+        }
+
+        public boolean isOver(){
+            return over;
+        }
+
+        public int getLevel(){
+            return wall.getLevel();
+        }
+
+        public int getBrickCount(){
+            return wall.getBrickCount();
+        }
+
+        public int getBallCount(){
+            return wall.getBallCount();
+        }
+
+        public int getBallsInPlay(){
+            return wall.getBallsInPlay();
+        }
+
+        public double getBallX(int i){
+            return wall.getBall(i).getPosition().getX();
+        }
+
+        public double getBallY(int i){
+            return wall.getBall(i).getPosition().getY();
+        }
+
+        public int getBallSpeedX(int i){
+            return wall.getBall(i).getSpeedX();
+        }
+
+        public int getBallSpeedY(int i){
+            return wall.getBall(i).getSpeedY();
+        }
+
+        public int getPlayerX(){
+            return wall.player.getX();
+        }
+
+        public String getMessage(){
+            return rules.getMessage();
+        }
+
+    }
+
+    private final WallModel wall;
+    private final GameRules rules;
+    private final State state;
+
+    private long ticks;
+    private int outcome;
+    private boolean over;
+
+
+    /**
+     * create Method makes an engine with the first level set and the ball ready to go.
+     * @param config    the board and the wall.
+     * @param seed      the seed of the game, see GameRandom.
+     * @return          returns the new engine.
+     */
+    public static GameEngine create(Config config, long seed){
+        return new GameEngine(config,seed);
+    }
+
+    /**
+     * GameEngine is a Private Parameterized Constructor, engines are made with create.
+     * @param config    the board and the wall.
+     * @param seed      the seed of the game, see GameRandom.
+     */
+    private GameEngine(Config config, long seed){
+        wall = config.newWall(new GameRandom(seed));
+        rules = new GameRules(wall);
+        state = new State();
+        outcome = GameRules.PLAYING;
+    }
+
+    /**
+     * step Method moves the player as asked and advances the game by one tick.
+     * @param input     STOP, LEFT or RIGHT, the player keeps the move until the next step.
+     * @return          returns what the tick ended with, see GameRules.tick; the last outcome again once the game is over.
+     */
+    public int step(int input){
+        if(over)
+            return outcome;
+        move(wall.player,input);
+        outcome = rules.tick();
+        ticks++;
+        over = outcome == GameRules.GAME_OVER || outcome == GameRules.ALL_CLEARED;
+        return outcome;
+    }
+
+    /**
+     * move Method sets the move of the player from an input.
+     * @param player    the player.
+     * @param input     STOP, LEFT or RIGHT.
+     */
+    public static void move(PlayerModel player, int input){
+        switch(input){
+            case LEFT:
+                player.moveLeft();
+                break;
+            case RIGHT:
+                player.movRight();
+                break;
+            default:
+                player.stop();
+        }
+    }
+
+    /**
+     * state Method returns the view of the game, the same object every time.
+     * @return  returns the state.
+     */
+    public State state(){
+        return state;
+    }
+
+    /**
+     * getWall is a Getter Method.
+     * @return  returns the wall, for callers that need more than the state, like a renderer.
+     */
+    public WallModel getWall(){
+        return wall;
+    }
+
+}
@@ -0,0 +1,190 @@
+package controller;
+
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * GameLoop class runs the simulation at a fixed timestep on its own thread.
+ * Real time is added to an accumulator and the tick runs once for every full step in it, so the
+ * simulation advances the same amount per second however long the frames take to paint.
+ * Frames are requested separately at the display rate, together with the fraction of step left in
+ * the accumulator, which the renderer uses to interpolate between the last two ticks.
+ */
+public class GameLoop implements Runnable {
+
+    private static final long MAX_BACKLOG = 250_000_000L;
+    private static final int STATS_CAPACITY = 4096;
+
+    private final long stepNanos;
+    private final long frameNanos;
+    private final Runnable tick;
+    private final Runnable frame;
+
+    private final TimingStats lateness;
+    private final TimingStats tickTime;
+
+    //the thread of the current run, null once stopped; a thread that is not this one any more ends
+    private volatile Thread thread;
+    //the thread of the last run, stopped or not
+    private volatile Thread last;
+    private volatile double alpha;
+    private volatile long ticks;
+    private volatile long droppedNanos;
+
+
+    /**
+     * GameLoop is a Parameterized Constructor that prepares the loop, it does not start it.
+     * @param stepNanos     the fixed simulation step, in nanoseconds.
+     * @param frameNanos    the time between two frame requests, in nanoseconds.
+     * @param tick          advances the simulation by one step, runs on the loop thread.
+     * @param frame         requests a frame, runs on the loop thread and should not block.
+     */
+    public GameLoop(long stepNanos, long frameNanos, Runnable tick, Runnable frame){
+        this.stepNanos = stepNanos;
+        this.frameNanos = frameNanos;
+        this.tick = tick;
+        this.frame = frame;
+        lateness = new TimingStats("tick lateness", STATS_CAPACITY);
+        tickTime = new TimingStats("tick duration", STATS_CAPACITY);
+        alpha = 1;
+    }
+
+    /**
+     * start Method starts the loop thread, nothing happens if it is already running.
+     */
+    public synchronized void start(){
+        if(thread != null)
+            return;
+        Thread t = new Thread(this, "game-loop");
+        t.setDaemon(true);
+        thread = t;
+        last = t;
+        t.start();
+    }
+
+    /**
+     * stop Method asks the loop to end, the tick running at the moment is completed.
+     * It can be called from the tick itself. The thread wakes up and ends even if the loop is started again
+     * before it does, the new start gets a thread of its own.
+     */
+    public synchronized void stop(){
+        Thread t = thread;
+        thread = null;
+        if(t != null)
+            LockSupport.unpark(t);
+    }
+
+    /**
+     * awaitStop Method waits, after stop, for the thread of the last run to end, so the caller can take over what the
+     * ticks change. It returns at once if the loop runs, or if it is called from that thread, a tick that stops the loop.
+     */
+    public void awaitStop(){
+        Thread t = last;
+        if(t == null || t == thread || t == Thread.currentThread())
+            return;
+        boolean interrupted = false;
+        while(t.isAlive()){
+            try{
+                t.join();
+            }catch(InterruptedException e){
+                interrupted = true;
+            }
+        }
+        if(interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * isRunning is a Getter Method.
+     * @return  returns true if the loop is running.
+     */
+    public boolean isRunning(){
+        return thread != null;
+    }
+
+    /**
+     * run Method is the body of the loop thread.
+     * The ideal time of each tick is origin + k * step, how late every tick runs is recorded.
+     * If the simulation falls more than MAX_BACKLOG behind, the backlog is dropped instead of
+     * being caught up in one burst.
+     */
+    @Override
+    public void run(){
+        Thread self = Thread.currentThread();
+        long origin = System.nanoTime();
+        long simulated = 0;
+        long nextFrame = origin;
+
+        while(thread == self){
+            long now = System.nanoTime();
+            if(now - origin - simulated > MAX_BACKLOG){
+                long drop = now - origin - simulated - stepNanos;
+                droppedNanos += drop;
+                simulated += drop;
+            }
+
+            while(thread == self && origin + simulated + stepNanos <= now){
+                long start = System.nanoTime();
+                lateness.record(start - (origin + simulated + stepNanos));
+                tick.run();
+                tickTime.record(System.nanoTime() - start);
+                simulated += stepNanos;
+                ticks++;
+                now = System.nanoTime();
+            }
+
+            now = System.nanoTime();
+            alpha = Math.min(1, (now - origin - simulated) / (double) stepNanos);
+            if(thread == self && now >= nextFrame){
+                frame.run();
+                nextFrame = now + frameNanos;
+            }
+
+            long wait = Math.min(origin + simulated + stepNanos, nextFrame) - System.nanoTime();
+            if(wait > 0)
+                LockSupport.parkNanos(wait);
+        }
+    }
+
+    /**
+     * getAlpha is a Getter Method.
+     * @return  returns how far real time is past the last tick, as a fraction of the step from 0 to 1.
+     */
+    public double getAlpha(){
+        return alpha;
+    }
+
+    /**
+     * getTicks is a Getter Method.
+     * @return  returns how many ticks have run since the loop was created.
+     */
+    public long getTicks(){
+        return ticks;
+    }
+
+    /**
+     * getLateness is a Getter Method.
+     * @return  returns how late the ticks ran compared to their fixed schedule.
+     */
+    public TimingStats getLateness(){
+        return lateness;
+    }
+
+    /**
+     * getTickTime is a Getter Method.
+     * @return  returns how long the ticks took.
+     */
+    public TimingStats getTickTime(){
+        return tickTime;
+    }
+
+    /**
+     * report Method formats the tick jitter report.
+     * @return  returns the tick lateness and duration statistics and the simulated time dropped.
+     */
+    public String report(){
+        return lateness.report() + System.lineSeparator() + tickTime.report() + System.lineSeparator()
+                + String.format("ticks=%d dropped=%.1f ms", ticks, droppedNanos / 1e6);
+    }
+
+}
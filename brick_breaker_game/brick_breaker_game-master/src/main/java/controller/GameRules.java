@@ -0,0 +1,129 @@
+package controller;
+
+import model.EventRing;
+import model.WallModel;
+
+
+/**
+ * GameRules class is the state machine of a game: it advances the wall by one tick and decides what
+ * happens when a ball is lost or a wall is cleared, and keeps the message the HUD shows.
+ * It knows nothing of windows or timers, the game board runs it from its timer or game loop and the
+ * GameEngine runs it headless; both then act on the outcome of the tick.
+ * The HUD counters are only formatted when the message is read, so a game nobody watches does not
+ * build a string every time a brick breaks.
+ * It is not thread safe, it is used by the thread that owns the wall only, as the wall is.
+ */
+public class GameRules {
+
+    public static final int PLAYING = 0;
+    public static final int BALL_LOST = 1;
+    public static final int GAME_OVER = 2;
+    public static final int LEVEL_CLEARED = 3;
+    public static final int ALL_CLEARED = 4;
+
+    private static final String HUD_FORMAT = "Bricks: %d Balls %d";
+
+    private final WallModel wall;
+    private final EventRing.Reader hudEvents;
+    private boolean hudDirty;
+    private boolean countersShown;
+    private String message;
+
+
+    /**
+     * GameRules is a Parameterized Constructor that runs the rules of a game on a wall.
+     * @param wall      the wall of the game, with its first level set.
+     */
+    public GameRules(WallModel wall){
+        this.wall = wall;
+        hudEvents = wall.getEvents().newReader();
+        message = "";
+    }
+
+    /**
+     * tick Method advances the game by one step.
+     * Moves the balls and player, finds the impacts and handles lost balls and cleared levels:
+     * a lost ball puts the ball back, the last one resets the wall as well; a cleared wall moves to the next
+     * level if there is one.
+     * @return  returns PLAYING, or what ended the tick: BALL_LOST, GAME_OVER, LEVEL_CLEARED or ALL_CLEARED.
+     */
+    public int tick(){
+        wall.move();
+        wall.findImpacts();
+        if(updateHud())
+            countersShown = true;
+        if(wall.isBallLost()){
+            int out = BALL_LOST;
+            if(wall.ballEnd()){
+                wall.wallReset();
+                setMessage("Game over");
+                out = GAME_OVER;
+            }
+            wall.ballReset();
+            return out;
+        }
+        if(wall.isDone()){
+            if(wall.hasLevel()){
+                setMessage("Go to Next Level");
+                wall.ballReset();
+                wall.wallReset();
+                wall.nextLevel();
+                return LEVEL_CLEARED;
+            }
+            setMessage("ALL WALLS DESTROYED");
+            return ALL_CLEARED;
+        }
+        return PLAYING;
+    }
+
+    /**
+     * updateHud is a Private Method that reads the events of the wall published since the last tick.
+     * @return  returns true if the counters shown by the HUD may have changed, or the HUD was asked to be rebuilt.
+     */
+    private boolean updateHud(){
+        boolean changed = hudDirty;
+        hudDirty = false;
+        while(hudEvents.next())
+            if(hudEvents.getType() != EventRing.BRICK_HIT)
+                changed = true;
+        return changed;
+    }
+
+    /**
+     * restart Method puts the ball back and repairs the wall of the current level.
+     */
+    public void restart(){
+        setMessage("Restarting Game...");
+        wall.ballReset();
+        wall.wallReset();
+    }
+
+    /**
+     * refreshHud Method asks for the counters to be shown again after the next tick, for example when the game resumes.
+     */
+    public void refreshHud(){
+        hudDirty = true;
+    }
+
+    /**
+     * getMessage is a Getter Method.
+     * @return  returns the message the HUD shows.
+     */
+    public String getMessage(){
+        if(countersShown){
+            message = String.format(HUD_FORMAT,wall.getBrickCount(),wall.getBallCount());
+            countersShown = false;
+        }
+        return message;
+    }
+
+    /**
+     * setMessage Method replaces the message the HUD shows until the counters change.
+     * @param message   the message to show.
+     */
+    public void setMessage(String message){
+        this.message = message;
+        countersShown = false;
+    }
+
+}
@@ -0,0 +1,574 @@
+package controller;
+
+import model.StateBuffer;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * MatchServer class hosts many headless games in one JVM, each played by a client over UDP. The server is
+ * authoritative: the clients only send the input of their player, every game runs on the server and its state is
+ * sent back to the client.
+ * Every session is a GameEngine ticked on a shared clock: tick k of every session is due at the same time, origin
+ * plus k steps. Each session runs on a virtual thread of its own when the JVM has them; otherwise the sessions are
+ * shared out among a few platform threads, one a core, each ticking its sessions in turn. A thread parks until the
+ * next tick is due, a tick that is late is played at once and one that is too late is dropped.
+ * A tick that ends after the next one is due overruns; a thread counts every session it ticked in that pass.
+ * The inputs and the states go through a single socket. The states are batched: a sender thread on the same clock
+ * writes, every SEND_TICKS ticks, the last state of every session of a client into as few packets as fit them.
+ * Packets: a type byte, then for JOIN the number of players as a varint and a tag for each, answered by JOINED with
+ * the tags and the ids of the new sessions, fewer than asked for when the server or the client has its most; for LEAVE
+ * the number of sessions as four bytes and the id of each as a varint; for INPUT the number of inputs as four bytes and, for each, the id of a session as a
+ * varint and its input as a byte; for STATE the number of states as four bytes and, for each, the id, the tick, the
+ * ball, the player, the bricks, the balls and the level as varints.
+ * A game over or the last wall cleared starts a new game in the same session. A session ends when its client leaves
+ * it or sends no input for IDLE_TICKS ticks: its thread takes it out of its sessions and of the ones of the client.
+ */
+public class MatchServer {
+
+    public static final int JOIN = 1;
+    public static final int INPUT = 2;
+    public static final int JOINED = 3;
+    public static final int STATE = 4;
+    public static final int LEAVE = 5;
+    public static final int MAX_PACKET = 1_200;
+    //the players of a JOIN, the JOINED answering it fits a packet
+    public static final int MAX_JOINS = 100;
+    public static final long DEF_STEP_NANOS = 10_000_000L;
+    public static final int SEND_TICKS = 2;
+    public static final int MAX_SESSIONS = 20_000;
+    //the sessions of one address, a gateway may play many
+    public static final int MAX_CLIENT_SESSIONS = 2_000;
+    //ten seconds at the default step; the clients send their input again at least once a second
+    public static final int IDLE_TICKS = 1_000;
+    //the GameRules of a session read the events every tick, they need a few slots only
+    private static final int SESSION_EVENT_CAPACITY = 64;
+    private static final int MAX_CATCH_UP = 5;
+    private static final int MAX_STATE = 40;
+
+    //Thread.ofVirtual() and Thread.Builder.unstarted, looked up so the server runs on the JVMs without them as well
+    private static final Object VIRTUAL_BUILDER;
+    private static final Method UNSTARTED;
+
+    static {
+        Object builder = null;
+        Method unstarted = null;
+        try{
+            builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            unstarted = Class.forName("java.lang.Thread$Builder").getMethod("unstarted",Runnable.class);
+        }catch(ReflectiveOperationException | RuntimeException e){
+            builder = null;
+        }
+        VIRTUAL_BUILDER = builder;
+        UNSTARTED = unstarted;
+    }
+
+    /**
+     * Session class is a Nested Class under the MatchServer class, the game of a client.
+     * The input is written by the receiver thread, the game is played by the thread of the session and its last
+     * state, copied under the lock of the session, is read by the sender thread.
+     */
+    private static class Session {
+        private final int id;
+        private final Client client;
+        private GameEngine engine;
+        private int games;
+        private volatile int input;
+        private volatile long lastInput;
+        private volatile boolean left;
+
+        private long tick;
+        private int ballX;
+        private int ballY;
+        private int playerX;
+        private int bricks;
+        private int balls;
+        private int level;
+
+        private Session(int id, Client client, GameEngine engine, long joined){
+            this.id = id;
+            this.client = client;
+            this.engine = engine;
+            lastInput = joined;
+        }
+
+        /**
+         * step is a Private Method that plays a tick of the session, unless the session ended.
+         * @param config    the board of a new game.
+         * @param at        the tick.
+         * @return          returns false if the client left or has been idle for IDLE_TICKS ticks.
+         */
+        private boolean step(GameEngine.Config config, long at){
+            if(left || at - lastInput > IDLE_TICKS)
+                return false;
+            engine.step(input);
+            GameEngine.State state = engine.state();
+            if(state.isOver())
+                engine = GameEngine.create(config,(long) ++games << 32 | id);
+            synchronized(this){
+                tick = at;
+                ballX = (int) state.getBallX(0);
+                ballY = (int) state.getBallY(0);
+                playerX = state.getPlayerX();
+                bricks = state.getBrickCount();
+                balls = state.getBallCount();
+                level = state.getLevel();
+            }
+            return true;
+        }
+
+        private synchronized void writeState(StateBuffer out){
+            out.writeVarInt(id);
+            out.writeVarLong(tick);
+            out.writeSignedVarInt(ballX);
+            out.writeSignedVarInt(ballY);
+            out.writeSignedVarInt(playerX);
+            out.writeVarInt(bricks);
+            out.writeVarInt(balls);
+            out.writeVarInt(level);
+        }
+    }
+
+    /**
+     * Client class is a Nested Class under the MatchServer class, an address and the sessions it plays.
+     */
+    private static class Client {
+        private final SocketAddress address;
+        private final List<Session> sessions;
+
+        private Client(SocketAddress address){
+            this.address = address;
+            sessions = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Runner class is a Nested Class under the MatchServer class, the loop of a thread that ticks its sessions.
+     * New sessions are handed over through a queue and taken at the next tick, the ones that ended are closed and
+     * left out. The runner of a virtual thread ends with its session.
+     */
+    private class Runner implements Runnable {
+        private final List<Session> sessions;
+        private final ConcurrentLinkedQueue<Session> joining;
+        private final boolean single;
+
+        private Runner(boolean single){
+            this.single = single;
+            sessions = new ArrayList<>(1);
+            joining = new ConcurrentLinkedQueue<>();
+        }
+
+        @Override
+        public void run(){
+            long tick = (System.nanoTime() - origin) / stepNanos + 1;
+            while(running){
+                long due = origin + tick * stepNanos;
+                long wait = due - System.nanoTime();
+                if(wait > 0){
+                    LockSupport.parkNanos(wait);
+                    continue;
+                }
+                for(Session s = joining.poll(); s != null; s = joining.poll())
+                    sessions.add(s);
+                long start = System.nanoTime();
+                int n = 0;
+                for(int i = 0; i < sessions.size(); ){
+                    Session s = sessions.get(i);
+                    if(s.step(config,tick)){
+                        n++;
+                        i++;
+                        continue;
+                    }
+                    close(s);
+                    //the order the sessions are ticked in does not matter, the last one takes the place
+                    Session last = sessions.remove(sessions.size() - 1);
+                    if(last != s)
+                        sessions.set(i,last);
+                }
+                if(single && sessions.isEmpty())
+                    return;
+                long end = System.nanoTime();
+                sessionTicks.add(n);
+                busyNanos.add(end - start);
+                lateness.accumulate(end - due);
+                if(end - due > stepNanos)
+                    overruns.add(n);
+                tick++;
+                long behind = (end - origin) / stepNanos - tick;
+                if(behind > MAX_CATCH_UP){
+                    dropped.add(behind * n);
+                    tick += behind;
+                }
+            }
+        }
+    }
+
+    private final GameEngine.Config config;
+    private final DatagramChannel channel;
+    private final long stepNanos;
+    private final boolean virtual;
+    private final Runner[] workers;
+    private final Map<SocketAddress,Client> clients;
+    private final Map<Integer,Session> sessions;
+    //the id of the next session, written by the receiver thread only
+    private int nextId;
+    private long origin;
+    private volatile boolean running;
+    private final List<Thread> threads;
+
+    private final LongAdder sessionTicks;
+    private final LongAdder overruns;
+    private final LongAdder dropped;
+    private final LongAdder busyNanos;
+    private final LongAdder ended;
+    private final LongAccumulator lateness;
+    private long packetsSent;
+    private long statesSent;
+    private long bytesSent;
+    private long badPackets;
+    private long refused;
+
+
+    /**
+     * MatchServer is a Parameterized Constructor that opens the socket, the server starts with start.
+     * @param config        the board of every game.
+     * @param port          the UDP port, 0 for any.
+     * @param stepNanos     the time of a tick.
+     * @param platformWorkers   the platform threads the sessions are shared among if there are no virtual threads;
+     *                          0 for one a core.
+     * @param useVirtual    false to use the platform threads even if there are virtual threads.
+     */
+    public MatchServer(GameEngine.Config config, int port, long stepNanos, int platformWorkers, boolean useVirtual) throws IOException {
+        this.config = config.withEventCapacity(SESSION_EVENT_CAPACITY);
+        this.stepNanos = stepNanos;
+        channel = DatagramChannel.open().bind(new InetSocketAddress(port));
+        virtual = useVirtual && VIRTUAL_BUILDER != null;
+        int n = platformWorkers > 0 ? platformWorkers : Runtime.getRuntime().availableProcessors();
+        workers = virtual ? new Runner[0] : new Runner[n];
+        for(int i = 0; i < workers.length; i++)
+            workers[i] = new Runner(false);
+        clients = new ConcurrentHashMap<>();
+        sessions = new ConcurrentHashMap<>();
+        threads = new ArrayList<>();
+        sessionTicks = new LongAdder();
+        overruns = new LongAdder();
+        dropped = new LongAdder();
+        busyNanos = new LongAdder();
+        ended = new LongAdder();
+        lateness = new LongAccumulator(Math::max,0);
+    }
+
+    /**
+     * start Method starts the clock, the threads of the sessions, the receiver and the sender.
+     */
+    public synchronized void start(){
+        if(running)
+            return;
+        running = true;
+        origin = System.nanoTime();
+        for(int i = 0; i < workers.length; i++)
+            threads.add(platform(workers[i],"match-worker-" + i));
+        threads.add(platform(this::receive,"match-receiver"));
+        threads.add(platform(this::send,"match-sender"));
+    }
+
+    private static Thread platform(Runnable r, String name){
+        Thread thread = new Thread(r,name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * stop Method stops every thread of the server and closes the socket.
+     */
+    public void stop() throws IOException {
+        running = false;
+        channel.close();
+    }
+
+    /**
+     * join is a Private Method that opens a session for a client, called by the receiver thread only: the builder of
+     * the virtual threads is not thread safe.
+     * The client is added to the clients, or taken out by close, in the same step as its sessions change, so a
+     * client is known as long as it has a session.
+     * @param address   the address of the client.
+     * @param tick      the tick the session is opened at.
+     * @return          returns the session, null if the server or the client has its most sessions.
+     */
+    private Session join(SocketAddress address, long tick){
+        if(sessions.size() >= MAX_SESSIONS)
+            return null;
+        Session[] opened = new Session[1];
+        clients.compute(address,(a,c) -> {
+            Client client = c != null ? c : new Client(a);
+            synchronized(client.sessions){
+                if(client.sessions.size() < MAX_CLIENT_SESSIONS){
+                    int id = nextId++;
+                    opened[0] = new Session(id,client,GameEngine.create(config,id),tick);
+                    client.sessions.add(opened[0]);
+                }
+                return client.sessions.isEmpty() ? null : client;
+            }
+        });
+        Session session = opened[0];
+        if(session == null)
+            return null;
+        sessions.put(session.id,session);
+        if(virtual){
+            Runner runner = new Runner(true);
+            runner.joining.add(session);
+            try{
+                ((Thread) UNSTARTED.invoke(VIRTUAL_BUILDER,runner)).start();
+            }catch(ReflectiveOperationException e){
+                throw new IllegalStateException("Could not start a virtual thread",e);
+            }
+        }
+        else
+            workers[session.id % workers.length].joining.add(session);
+        return session;
+    }
+
+    /**
+     * close is a Private Method that takes a session that ended out of the server, called by the thread of the session.
+     * @param session   the session.
+     */
+    private void close(Session session){
+        sessions.remove(session.id);
+        clients.computeIfPresent(session.client.address,(a,c) -> {
+            synchronized(c.sessions){
+                c.sessions.remove(session);
+                return c.sessions.isEmpty() ? null : c;
+            }
+        });
+        ended.increment();
+    }
+
+    /**
+     * receive is a Private Method, the loop of the receiver thread: it opens the sessions asked for, sets the inputs
+     * sent by the clients and ends the sessions they leave; an input or a leave is taken from the client of its session
+     * only.
+     */
+    private void receive(){
+        ByteBuffer packet = ByteBuffer.allocate(MAX_PACKET);
+        StateBuffer out = new StateBuffer();
+        int[] tags = new int[MAX_JOINS];
+        int[] ids = new int[MAX_JOINS];
+        while(running){
+            SocketAddress from;
+            packet.clear();
+            try{
+                from = channel.receive(packet);
+            }catch(ClosedChannelException e){
+                return;
+            }catch(IOException e){
+                badPackets++;
+                continue;
+            }
+            StateBuffer in = new StateBuffer(packet.array(),packet.position());
+            long now = (System.nanoTime() - origin) / stepNanos;
+            try{
+                int type = in.readByte();
+                int count = type == JOIN ? in.readVarInt() : in.readInt();
+                if(type == JOIN && count <= MAX_JOINS){
+                    int n = 0;
+                    for(int k = 0; k < count; k++){
+                        int tag = in.readVarInt();
+                        Session session = join(from,now);
+                        if(session == null){
+                            refused += count - k;
+                            break;
+                        }
+                        tags[n] = tag;
+                        ids[n++] = session.id;
+                    }
+                    out.clear();
+                    out.writeByte(JOINED);
+                    out.writeVarInt(n);
+                    for(int k = 0; k < n; k++){
+                        out.writeVarInt(tags[k]);
+                        out.writeVarInt(ids[k]);
+                    }
+                    channel.send(ByteBuffer.wrap(out.getData(),0,out.getLength()),from);
+                }
+                else if(type == INPUT){
+                    for(int k = 0; k < count; k++){
+                        Session session = sessions.get(in.readVarInt());
+                        int input = in.readByte();
+                        if(session != null && session.client.address.equals(from) && input <= GameEngine.RIGHT){
+                            session.input = input;
+                            session.lastInput = now;
+                        }
+                    }
+                }
+                else if(type == LEAVE){
+                    for(int k = 0; k < count; k++){
+                        Session session = sessions.get(in.readVarInt());
+                        if(session != null && session.client.address.equals(from))
+                            session.left = true;
+                    }
+                }
+                else
+                    badPackets++;
+            }catch(IllegalStateException e){
+                badPackets++;
+            }catch(IOException e){
+                if(!running)
+                    return;
+                badPackets++;
+            }
+        }
+    }
+
+    /**
+     * send is a Private Method, the loop of the sender thread: every SEND_TICKS ticks, half a tick after the tick is
+     * due so the sessions are played, it sends the last state of every session, as many to a packet as fit.
+     */
+    private void send(){
+        StateBuffer out = new StateBuffer();
+        long tick = (System.nanoTime() - origin) / stepNanos + 1;
+        while(running){
+            long wait = origin + tick * stepNanos + stepNanos / 2 - System.nanoTime();
+            if(wait > 0){
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            try{
+                for(Client client : clients.values()){
+                    synchronized(client.sessions){
+                        int count = 0;
+                        for(Session s : client.sessions){
+                            if(count == 0){
+                                out.clear();
+                                out.writeByte(STATE);
+                                out.writeInt(0);
+                            }
+                            s.writeState(out);
+                            count++;
+                            if(out.getLength() + MAX_STATE > MAX_PACKET){
+                                flush(out,count,client.address);
+                                count = 0;
+                            }
+                        }
+                        if(count > 0)
+                            flush(out,count,client.address);
+                    }
+                }
+            }catch(IOException e){
+                if(!running)
+                    return;
+                badPackets++;
+            }
+            tick += SEND_TICKS;
+            long now = (System.nanoTime() - origin) / stepNanos;
+            if(now >= tick)
+                tick = now + 1;
+        }
+    }
+
+    private void flush(StateBuffer out, int count, SocketAddress to) throws IOException {
+        out.setInt(1,count);
+        channel.send(ByteBuffer.wrap(out.getData(),0,out.getLength()),to);
+        packetsSent++;
+        statesSent += count;
+        bytesSent += out.getLength();
+    }
+
+    /**
+     * resetStats Method starts the counts of the report again, after a warm up for example.
+     */
+    public void resetStats(){
+        sessionTicks.reset();
+        overruns.reset();
+        dropped.reset();
+        busyNanos.reset();
+        lateness.reset();
+    }
+
+    public SocketAddress getAddress() throws IOException {
+        return channel.getLocalAddress();
+    }
+
+    public boolean isVirtual(){
+        return virtual;
+    }
+
+    /**
+     * getThreads is a Getter Method.
+     * @return  returns the number of threads that tick the sessions.
+     */
+    public int getThreads(){
+        return virtual ? sessions.size() : workers.length;
+    }
+
+    public int getSessionCount(){
+        return sessions.size();
+    }
+
+    /**
+     * getEndedSessions is a Getter Method.
+     * @return  returns the number of sessions that ended, left or idle.
+     */
+    public long getEndedSessions(){
+        return ended.sum();
+    }
+
+    /**
+     * getRefusedJoins is a Getter Method.
+     * @return  returns the number of sessions asked for and not opened, the server or the client had its most.
+     */
+    public long getRefusedJoins(){
+        return refused;
+    }
+
+    public long getSessionTicks(){
+        return sessionTicks.sum();
+    }
+
+    /**
+     * getOverrunRate is a Getter Method.
+     * @return  returns the share of the session ticks that ended after the next tick was due, or were dropped.
+     */
+    public double getOverrunRate(){
+        long ticks = sessionTicks.sum() + dropped.sum();
+        return ticks == 0 ? 0 : (overruns.sum() + dropped.sum()) / (double) ticks;
+    }
+
+    /**
+     * getTickNanos is a Getter Method.
+     * @return  returns the time a thread spent on a session tick, on average.
+     */
+    public double getTickNanos(){
+        long ticks = sessionTicks.sum();
+        return ticks == 0 ? 0 : busyNanos.sum() / (double) ticks;
+    }
+
+    /**
+     * report Method tells the ticks, the overruns, the sessions ended and refused and the packets sent.
+     * @return  returns the report, on a few lines.
+     */
+    public String report(){
+        return String.format("%d sessions on %d %s threads: %d session ticks, overrun rate %.4f%%, %d dropped, "
+                        + "%.3f us a session tick, latest pass %.2f ms after its tick was due%n"
+                        + "%d sessions ended, %d joins refused%n"
+                        + "%d state packets sent, %.1f states and %.0f bytes each, %d bad packets received",
+                sessions.size(),getThreads(),virtual ? "virtual" : "platform",sessionTicks.sum(),getOverrunRate() * 100,
+                dropped.sum(),getTickNanos() / 1e3,lateness.get() / 1e6,ended.sum(),refused,packetsSent,
+                (double) statesSent / Math.max(packetsSent,1),(double) bytesSent / Math.max(packetsSent,1),badPackets);
+    }
+
+}
@@ -0,0 +1,250 @@
+package controller;
+
+import model.StateBuffer;
+import model.WallModel;
+
+import java.awt.*;
+import java.io.*;
+import java.util.Arrays;
+
+
+/**
+ * Replay class holds the recording of a game: the config and the seed the wall is rebuilt from, the inputs of
+ * the player and keyframes of the whole state of the wall.
+ * The game is deterministic, so the inputs are enough to play it again; only the changes are kept, each one a varint
+ * of the ticks since the last change shifted left by two with the input in the low bits, a byte or two a change.
+ * A keyframe is the state of the wall before a tick, see WallModel.writeState. There is one every few thousand ticks,
+ * so a tick is reached by restoring the keyframe before it and playing the few ticks left, and one forced at every
+ * change of the wall made outside of a tick, like a restart or the debug console, that the inputs cannot replay.
+ * Replays are written by a ReplayRecorder and played by a ReplayPlayer.
+ */
+public class Replay {
+
+    //"BRRP"
+    private static final int MAGIC = 0x42525250;
+    //2: the bricks of a level end with a step of 0, not counted first
+    private static final int VERSION = 2;
+
+    private final GameEngine.Config config;
+    private final long seed;
+    private long ticks;
+
+    private final StateBuffer inputs;
+    private int inputCount;
+
+    private final StateBuffer keyframes;
+    private long[] keyframeTicks;
+    private int[] keyframeStarts;
+    private boolean[] keyframeForced;
+    private int keyframeCount;
+
+
+    /**
+     * Replay is a Parameterized Constructor that makes an empty replay.
+     * @param config    the board and the wall of the game.
+     * @param seed      the seed of the game, see GameRandom.
+     */
+    public Replay(GameEngine.Config config, long seed){
+        this(config,seed,new StateBuffer(),new StateBuffer());
+    }
+
+    private Replay(GameEngine.Config config, long seed, StateBuffer inputs, StateBuffer keyframes){
+        this.config = config;
+        this.seed = seed;
+        this.inputs = inputs;
+        this.keyframes = keyframes;
+        keyframeTicks = new long[16];
+        keyframeStarts = new int[17];
+        keyframeForced = new boolean[16];
+    }
+
+    /**
+     * addInput Method records a change of the input, changes come in the order of the ticks.
+     * @param ticksSinceLast    the ticks since the last change, or since the start.
+     * @param input             GameEngine.STOP, LEFT or RIGHT, from the tick of the change on.
+     */
+    void addInput(long ticksSinceLast, int input){
+        inputs.writeVarLong(ticksSinceLast << 2 | input);
+        inputCount++;
+    }
+
+    /**
+     * addKeyframe Method records the state of a wall before a tick, keyframes come in the order of the ticks.
+     * @param tick      the tick.
+     * @param wall      the wall.
+     * @param forced    true if the wall was changed outside of a tick, the replay must restore it to go on.
+     */
+    void addKeyframe(long tick, WallModel wall, boolean forced){
+        if(keyframeCount == keyframeTicks.length){
+            keyframeTicks = Arrays.copyOf(keyframeTicks,keyframeCount * 2);
+            keyframeStarts = Arrays.copyOf(keyframeStarts,keyframeCount * 2 + 1);
+            keyframeForced = Arrays.copyOf(keyframeForced,keyframeCount * 2);
+        }
+        keyframeTicks[keyframeCount] = tick;
+        keyframeForced[keyframeCount] = forced;
+        wall.writeState(keyframes);
+        keyframeStarts[++keyframeCount] = keyframes.getLength();
+    }
+
+    void setTicks(long ticks){
+        this.ticks = ticks;
+    }
+
+    public GameEngine.Config getConfig(){
+        return config;
+    }
+
+    public long getSeed(){
+        return seed;
+    }
+
+    /**
+     * getTicks is a Getter Method.
+     * @return  returns the number of ticks recorded.
+     */
+    public long getTicks(){
+        return ticks;
+    }
+
+    public int getInputCount(){
+        return inputCount;
+    }
+
+    /**
+     * getInputs is a Getter Method.
+     * @return  returns a buffer reading the changes of the input from the first one, see addInput.
+     */
+    public StateBuffer getInputs(){
+        return new StateBuffer(inputs.getData(),inputs.getLength());
+    }
+
+    public int getKeyframeCount(){
+        return keyframeCount;
+    }
+
+    public long getKeyframeTick(int i){
+        return keyframeTicks[i];
+    }
+
+    /**
+     * isKeyframeForced is a Getter Method.
+     * @param i     the keyframe.
+     * @return      returns true if the keyframe must be restored when the replay plays through its tick.
+     */
+    public boolean isKeyframeForced(int i){
+        return keyframeForced[i];
+    }
+
+    /**
+     * findKeyframe Method finds the keyframe to restore to reach a tick.
+     * @param tick  the tick.
+     * @return      returns the last keyframe at the tick or before it, -1 if there is none.
+     */
+    public int findKeyframe(long tick){
+        int low = 0;
+        int high = keyframeCount - 1;
+        while(low <= high){
+            int mid = (low + high) >>> 1;
+            if(keyframeTicks[mid] <= tick)
+                low = mid + 1;
+            else
+                high = mid - 1;
+        }
+        return high;
+    }
+
+    /**
+     * restoreKeyframe Method puts a wall back in the state of a keyframe.
+     * @param i     the keyframe.
+     * @param wall  a wall made from the config and the seed of the replay.
+     */
+    public void restoreKeyframe(int i, WallModel wall){
+        StateBuffer in = new StateBuffer(keyframes.getData(),keyframeStarts[i + 1]);
+        in.setPosition(keyframeStarts[i]);
+        wall.readState(in);
+    }
+
+    /**
+     * write Method writes the replay to a stream.
+     * @param out           the stream, not closed.
+     * @throws IOException  if the stream fails.
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(config.getWidth());
+        data.writeInt(config.getHeight());
+        data.writeInt(config.getBrickCount());
+        data.writeInt(config.getLineCount());
+        data.writeDouble(config.getBrickDimensionRatio());
+        data.writeInt(config.getBallPos().x);
+        data.writeInt(config.getBallPos().y);
+        data.writeBoolean(config.isFixedPoint());
+        data.writeLong(seed);
+        data.writeLong(ticks);
+        data.writeInt(inputCount);
+        data.writeInt(inputs.getLength());
+        data.write(inputs.getData(),0,inputs.getLength());
+        data.writeInt(keyframeCount);
+        for(int i = 0; i < keyframeCount; i++){
+            data.writeLong(keyframeTicks[i]);
+            data.writeBoolean(keyframeForced[i]);
+            data.writeInt(keyframeStarts[i + 1] - keyframeStarts[i]);
+        }
+        data.writeInt(keyframes.getLength());
+        data.write(keyframes.getData(),0,keyframes.getLength());
+        data.flush();
+    }
+
+    /**
+     * read Method reads a replay written by write.
+     * @param in            the stream, not closed.
+     * @return              returns the replay.
+     * @throws IOException  if the stream fails or does not hold a replay of this version.
+     */
+    public static Replay read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if(data.readInt() != MAGIC)
+            throw new IOException("Not a replay");
+        int version = data.readInt();
+        if(version != VERSION)
+            throw new IOException("Unknown replay version " + version);
+        int width = data.readInt();
+        int height = data.readInt();
+        int brickCount = data.readInt();
+        int lineCount = data.readInt();
+        double ratio = data.readDouble();
+        Point ballPos = new Point(data.readInt(),data.readInt());
+        boolean fixedPoint = data.readBoolean();
+        GameEngine.Config config = new GameEngine.Config(width,height,brickCount,lineCount,ratio,ballPos,fixedPoint);
+        long seed = data.readLong();
+        long ticks = data.readLong();
+        int inputCount = data.readInt();
+        byte[] inputs = new byte[data.readInt()];
+        data.readFully(inputs);
+        int keyframeCount = data.readInt();
+        long[] keyframeTicks = new long[Math.max(keyframeCount,1)];
+        boolean[] keyframeForced = new boolean[keyframeTicks.length];
+        int[] keyframeStarts = new int[keyframeTicks.length + 1];
+        for(int i = 0; i < keyframeCount; i++){
+            keyframeTicks[i] = data.readLong();
+            keyframeForced[i] = data.readBoolean();
+            keyframeStarts[i + 1] = keyframeStarts[i] + data.readInt();
+        }
+        byte[] keyframes = new byte[data.readInt()];
+        data.readFully(keyframes);
+        if(keyframes.length != keyframeStarts[keyframeCount])
+            throw new IOException("Corrupted replay");
+
+        Replay out = new Replay(config,seed,new StateBuffer(inputs,inputs.length),new StateBuffer(keyframes,keyframes.length));
+        out.ticks = ticks;
+        out.inputCount = inputCount;
+        out.keyframeTicks = keyframeTicks;
+        out.keyframeForced = keyframeForced;
+        out.keyframeStarts = keyframeStarts;
+        out.keyframeCount = keyframeCount;
+        return out;
+    }
+
+}
@@ -0,0 +1,166 @@
+package controller;
+
+import model.GameRandom;
+import model.StateBuffer;
+import model.WallModel;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+
+/**
+ * ReplayPlayer class plays a Replay again without a window, on a wall rebuilt from its config and seed and run
+ * by the same GameRules as the game was.
+ * step plays the next tick with the input recorded for it; seek jumps to any tick by restoring the last keyframe
+ * before it, unless the ticks from where the player is are fewer, and stepping the ticks left.
+ * The wall can be read between the calls, by a view drawing it for example; the player is driven by one thread.
+ * Run with: java -Djava.awt.headless=true -cp build/classes/java/main controller.ReplayPlayer file [tick]
+ */
+public class ReplayPlayer {
+
+    private final Replay replay;
+    private final WallModel wall;
+    private final GameRules rules;
+
+    //the changes of the input, decoded once so seeking finds the input of a tick with a binary search
+    private final long[] changeTicks;
+    private final int[] changeInputs;
+
+    private long tick;
+    private int input;
+    private int nextChange;
+    private int nextKeyframe;
+    private int outcome;
+
+
+    /**
+     * ReplayPlayer is a Parameterized Constructor that rebuilds the wall of a replay and puts it at the first tick.
+     * @param replay    the replay, it must start with a keyframe as the ones of a ReplayRecorder do.
+     */
+    public ReplayPlayer(Replay replay){
+        if(replay.getKeyframeCount() == 0 || replay.getKeyframeTick(0) != 0)
+            throw new IllegalArgumentException("The replay does not start with a keyframe");
+        this.replay = replay;
+        wall = replay.getConfig().newWall(new GameRandom(replay.getSeed()));
+        rules = new GameRules(wall);
+
+        changeTicks = new long[replay.getInputCount()];
+        changeInputs = new int[replay.getInputCount()];
+        StateBuffer in = replay.getInputs();
+        long at = 0;
+        for(int i = 0; i < changeTicks.length; i++){
+            long change = in.readVarLong();
+            at += change >>> 2;
+            changeTicks[i] = at;
+            changeInputs[i] = (int) (change & 3);
+        }
+        restore(0);
+    }
+
+    /**
+     * step Method plays the next tick, after restoring the forced keyframe of the tick if there is one.
+     * @return  returns what the tick ended with, see GameRules.tick; the last outcome again at the end of the replay.
+     */
+    public int step(){
+        if(isDone())
+            return outcome;
+        while(nextKeyframe < replay.getKeyframeCount() && replay.getKeyframeTick(nextKeyframe) <= tick){
+            if(replay.isKeyframeForced(nextKeyframe))
+                replay.restoreKeyframe(nextKeyframe,wall);
+            nextKeyframe++;
+        }
+        while(nextChange < changeTicks.length && changeTicks[nextChange] <= tick)
+            input = changeInputs[nextChange++];
+        GameEngine.move(wall.player,input);
+        outcome = rules.tick();
+        tick++;
+        return outcome;
+    }
+
+    /**
+     * seek Method puts the wall in its state before a tick.
+     * @param target    the tick, from 0 to the ticks of the replay.
+     */
+    public void seek(long target){
+        if(target < 0 || target > replay.getTicks())
+            throw new IllegalArgumentException("Tick out of the replay: " + target);
+        int keyframe = replay.findKeyframe(target);
+        //a keyframe not passed yet is at the current tick or after it, restoring it is never slower than stepping to it
+        if(target < tick || keyframe >= nextKeyframe)
+            restore(keyframe);
+        while(tick < target)
+            step();
+    }
+
+    /**
+     * restore is a Private Method that restores a keyframe and moves the inputs to its tick.
+     * @param keyframe  the keyframe.
+     */
+    private void restore(int keyframe){
+        replay.restoreKeyframe(keyframe,wall);
+        tick = replay.getKeyframeTick(keyframe);
+        nextKeyframe = keyframe + 1;
+        //the first change at the tick or after it, the changes at the tick are taken by the next step
+        int i = Arrays.binarySearch(changeTicks,tick);
+        if(i < 0)
+            i = -i - 1;
+        while(i > 0 && changeTicks[i - 1] == tick)
+            i--;
+        nextChange = i;
+        input = i > 0 ? changeInputs[i - 1] : GameEngine.STOP;
+        outcome = GameRules.PLAYING;
+        rules.refreshHud();
+    }
+
+    /**
+     * getTick is a Getter Method.
+     * @return  returns the next tick to play, the ticks played so far.
+     */
+    public long getTick(){
+        return tick;
+    }
+
+    public boolean isDone(){
+        return tick >= replay.getTicks();
+    }
+
+    public int getOutcome(){
+        return outcome;
+    }
+
+    public String getMessage(){
+        return rules.getMessage();
+    }
+
+    public WallModel getWall(){
+        return wall;
+    }
+
+    public Replay getReplay(){
+        return replay;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length == 0){
+            System.out.println("usage: ReplayPlayer file [tick]");
+            return;
+        }
+        Replay replay;
+        try(InputStream in = new FileInputStream(args[0])){
+            replay = Replay.read(in);
+        }
+        ReplayPlayer player = new ReplayPlayer(replay);
+        long target = args.length > 1 ? Long.parseLong(args[1]) : replay.getTicks();
+        long start = System.nanoTime();
+        player.seek(target);
+        double millis = (System.nanoTime() - start) / 1e6;
+        WallModel wall = player.getWall();
+        System.out.printf("seed %d, %d ticks, %d input changes, %d keyframes%n",replay.getSeed(),replay.getTicks(),
+                replay.getInputCount(),replay.getKeyframeCount());
+        System.out.printf("tick %d reached in %.2f ms: level %d, %d bricks, %d balls%n",player.getTick(),millis,
+                wall.getLevel(),wall.getBrickCount(),wall.getBallCount());
+    }
+
+}
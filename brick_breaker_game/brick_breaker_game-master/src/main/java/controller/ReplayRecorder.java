@@ -0,0 +1,77 @@
+package controller;
+
+import model.WallModel;
+
+
+/**
+ * ReplayRecorder class records a game into a Replay while it is played.
+ * The game calls record with the input of the player right before every tick, and mark when it changes the wall
+ * outside of a tick; the recorder writes the changes of the input and the keyframes.
+ * The recorder reads the wall, it is called by the thread that owns the wall as the tick is.
+ */
+public class ReplayRecorder {
+
+    //a keyframe every 20 seconds of play at 100 ticks a second
+    public static final int DEF_KEYFRAME_TICKS = 2_000;
+
+    private final WallModel wall;
+    private final Replay replay;
+    private final int keyframeTicks;
+
+    private long tick;
+    private long lastKeyframe;
+    private long lastChange;
+    private int input;
+    private boolean changed;
+
+
+    /**
+     * ReplayRecorder is a Parameterized Constructor that starts the recording of a game with a keyframe of the wall as it is.
+     * @param config        the config the wall was made from.
+     * @param wall          the wall of the game, made by config.newWall.
+     * @param keyframeTicks the ticks from a keyframe to the next one.
+     */
+    public ReplayRecorder(GameEngine.Config config, WallModel wall, int keyframeTicks){
+        if(keyframeTicks < 1)
+            throw new IllegalArgumentException("Keyframe ticks must be at least 1");
+        this.wall = wall;
+        this.keyframeTicks = keyframeTicks;
+        replay = new Replay(config,wall.getRandom().getSeed());
+        replay.addKeyframe(0,wall,false);
+        input = GameEngine.STOP;
+    }
+
+    /**
+     * record Method records the input of the next tick, and a keyframe first when one is due.
+     * @param input     GameEngine.STOP, LEFT or RIGHT.
+     */
+    public void record(int input){
+        if(changed || tick - lastKeyframe >= keyframeTicks){
+            replay.addKeyframe(tick,wall,changed);
+            lastKeyframe = tick;
+            changed = false;
+        }
+        if(input != this.input){
+            replay.addInput(tick - lastChange,input);
+            lastChange = tick;
+            this.input = input;
+        }
+        replay.setTicks(++tick);
+    }
+
+    /**
+     * mark Method tells the recorder the wall was changed outside of a tick, the next tick starts with a forced keyframe.
+     */
+    public void mark(){
+        changed = true;
+    }
+
+    /**
+     * getReplay is a Getter Method.
+     * @return  returns the replay, it grows as the game goes on.
+     */
+    public Replay getReplay(){
+        return replay;
+    }
+
+}
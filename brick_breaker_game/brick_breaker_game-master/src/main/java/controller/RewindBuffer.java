@@ -0,0 +1,271 @@
+package controller;
+
+import model.StateBuffer;
+import model.WallModel;
+
+
+/**
+ * RewindBuffer class keeps the last seconds of a game in memory so the game can be put back a few ticks or seconds.
+ * Every tick is recorded as a delta against the tick before: the state of the wall, see WallModel.writeState, is cut
+ * in sections, everything but the bricks and a section a level, and only the sections that changed are kept, each
+ * as the length of the bytes they start with and end with as before and the bytes in between. A tick that moves the
+ * ball and the player costs a couple of dozen bytes, a brick hit a few more; a level whose bricks did not change
+ * costs nothing, however many bricks it has.
+ * A base, the whole state, is kept every few hundred ticks; a tick is rebuilt from the base before it and the deltas
+ * after the base, so rewinding never plays the game. The buffer is a ring: the oldest base and its deltas are dropped
+ * when the ticks kept go over the capacity, so the memory stays bounded whatever the length of the game.
+ * The deltas are of the state, not of the input: changes made outside of a tick, a restart or the debug console,
+ * are rewound too. It is driven by the thread that owns the wall, as the tick is.
+ */
+public class RewindBuffer {
+
+    //30 seconds of play at 100 ticks a second
+    public static final int DEF_CAPACITY = 3_000;
+    public static final int DEF_BASE_TICKS = 250;
+
+    private final WallModel wall;
+    private final int capacity;
+    private final int baseTicks;
+
+    //a slot a tick, the tick t in the slot t % slots: its delta, or its whole state if it is a base
+    private final byte[][] records;
+    private final int[][] baseEnds;
+    private final int slots;
+    private long first;
+    private long last;
+    private long lastBase;
+    private long bytes;
+
+    //the state of the last tick recorded, a section an array, the next tick is compared with it
+    private final byte[][] sections;
+    private final int[] sectionLengths;
+    private final int[] ends;
+    private final StateBuffer scratch;
+    private final StateBuffer delta;
+
+
+    /**
+     * RewindBuffer is a Parameterized Constructor that starts with the wall as it is now.
+     * @param wall      the wall.
+     * @param capacity  the most ticks that can be rewound, at least.
+     * @param baseTicks the ticks from a base to the next one.
+     */
+    public RewindBuffer(WallModel wall, int capacity, int baseTicks){
+        if(capacity < 1 || baseTicks < 1)
+            throw new IllegalArgumentException("Capacity and base ticks must be at least 1");
+        this.wall = wall;
+        this.capacity = capacity;
+        this.baseTicks = baseTicks;
+        //the oldest base is dropped only once a whole capacity is kept after it
+        slots = capacity + baseTicks + 1;
+        records = new byte[slots][];
+        baseEnds = new int[slots][];
+        int n = wall.getStateSections();
+        sections = new byte[n][];
+        sectionLengths = new int[n];
+        ends = new int[n];
+        scratch = new StateBuffer();
+        delta = new StateBuffer();
+        last = -1;
+        record();
+    }
+
+    /**
+     * record Method records the wall as it is now as the next tick, called after every tick.
+     */
+    public void record(){
+        long tick = last + 1;
+        if(tick - first >= slots)
+            dropOldest();
+        scratch.clear();
+        wall.writeState(scratch,ends);
+        byte[] state = scratch.getData();
+
+        int slot = slot(tick);
+        bytes -= records[slot] == null ? 0 : records[slot].length;
+        if(tick == 0 || tick - lastBase >= baseTicks){
+            records[slot] = scratch.toByteArray();
+            baseEnds[slot] = ends.clone();
+            lastBase = tick;
+            for(int k = 0; k < sections.length; k++)
+                keep(k,state,start(ends,k),ends[k] - start(ends,k));
+        }
+        else{
+            records[slot] = diff(state);
+            baseEnds[slot] = null;
+        }
+        bytes += records[slot].length;
+        last = tick;
+    }
+
+    /**
+     * diff is a Private Method that makes the delta of a state against the last one and keeps the new sections.
+     * A delta is a varint of the sections changed, a bit each, then for each one the length of the bytes it starts
+     * with as before, the length of the bytes it ends with as before, and the bytes in between.
+     * @param state     the state, in sections as ends tells.
+     * @return          returns the delta.
+     */
+    private byte[] diff(byte[] state){
+        delta.clear();
+        int changed = 0;
+        for(int k = 0; k < sections.length; k++){
+            int from = start(ends,k);
+            if(mismatch(sections[k],sectionLengths[k],state,from,ends[k]) >= 0)
+                changed |= 1 << k;
+        }
+        delta.writeVarInt(changed);
+        for(int k = 0; k < sections.length; k++){
+            if((changed & 1 << k) == 0)
+                continue;
+            int from = start(ends,k);
+            int length = ends[k] - from;
+            byte[] old = sections[k];
+            int oldLength = sectionLengths[k];
+            int head = mismatch(old,oldLength,state,from,ends[k]);
+            int tail = 0;
+            int most = Math.min(oldLength,length) - head;
+            while(tail < most && old[oldLength - 1 - tail] == state[ends[k] - 1 - tail])
+                tail++;
+            delta.writeVarInt(head);
+            delta.writeVarInt(tail);
+            delta.writeVarInt(length - head - tail);
+            delta.writeBytes(state,from + head,length - head - tail);
+            keep(k,state,from,length);
+        }
+        return delta.toByteArray();
+    }
+
+    /**
+     * mismatch is a Private Method that finds the first byte where a section kept and a section of the state differ.
+     * @param old       the section kept.
+     * @param length    the length of the section kept.
+     * @param state     the state.
+     * @param from      the start of the section in the state.
+     * @param to        the end of the section in the state.
+     * @return          returns the index of the first byte that differs, the shorter length if one section starts
+     *                  the other, -1 if they are the same.
+     */
+    private static int mismatch(byte[] old, int length, byte[] state, int from, int to){
+        int most = Math.min(length,to - from);
+        for(int i = 0; i < most; i++){
+            if(old[i] != state[from + i])
+                return i;
+        }
+        return length == to - from ? -1 : most;
+    }
+
+    /**
+     * apply is a Private Method that changes the sections kept by a delta made by diff.
+     * @param record    the delta.
+     */
+    private void apply(byte[] record){
+        StateBuffer in = new StateBuffer(record,record.length);
+        int changed = in.readVarInt();
+        for(int k = 0; k < sections.length; k++){
+            if((changed & 1 << k) == 0)
+                continue;
+            int head = in.readVarInt();
+            int tail = in.readVarInt();
+            int middle = in.readVarInt();
+            byte[] old = sections[k];
+            byte[] out = new byte[head + middle + tail];
+            System.arraycopy(old,0,out,0,head);
+            in.readBytes(out,head,middle);
+            System.arraycopy(old,sectionLengths[k] - tail,out,head + middle,tail);
+            sections[k] = out;
+            sectionLengths[k] = out.length;
+        }
+    }
+
+    /**
+     * keep is a Private Method that copies a section of the state as the last one.
+     */
+    private void keep(int k, byte[] state, int from, int length){
+        if(sections[k] == null || sections[k].length < length)
+            sections[k] = new byte[Math.max(length,16)];
+        System.arraycopy(state,from,sections[k],0,length);
+        sectionLengths[k] = length;
+    }
+
+    /**
+     * dropOldest is a Private Method that drops the oldest base and the deltas after it, up to the next base.
+     */
+    private void dropOldest(){
+        do{
+            int slot = slot(first);
+            bytes -= records[slot].length;
+            records[slot] = null;
+            baseEnds[slot] = null;
+            first++;
+        }while(baseEnds[slot(first)] == null);
+    }
+
+    /**
+     * rewind Method puts the wall back a number of ticks, the oldest tick kept at most.
+     * The ticks after it are dropped, the game goes on from there.
+     * @param ticks     the number of ticks to go back.
+     * @return          returns the number of ticks the wall went back.
+     */
+    public int rewind(int ticks){
+        long target = Math.max(last - Math.max(ticks,0),first);
+        long base = target;
+        while(baseEnds[slot(base)] == null)
+            base--;
+
+        byte[] state = records[slot(base)];
+        int[] at = baseEnds[slot(base)];
+        for(int k = 0; k < sections.length; k++)
+            keep(k,state,start(at,k),at[k] - start(at,k));
+        for(long t = base + 1; t <= target; t++)
+            apply(records[slot(t)]);
+
+        scratch.clear();
+        for(int k = 0; k < sections.length; k++)
+            scratch.writeBytes(sections[k],0,sectionLengths[k]);
+        wall.readState(scratch);
+
+        for(long t = target + 1; t <= last; t++){
+            int slot = slot(t);
+            bytes -= records[slot].length;
+            records[slot] = null;
+            baseEnds[slot] = null;
+        }
+        int out = (int) (last - target);
+        last = target;
+        lastBase = base;
+        return out;
+    }
+
+    private int slot(long tick){
+        return (int) (tick % slots);
+    }
+
+    private static int start(int[] ends, int k){
+        return k == 0 ? 0 : ends[k - 1];
+    }
+
+    /**
+     * getAvailable is a Getter Method.
+     * @return  returns the number of ticks that can be rewound.
+     */
+    public int getAvailable(){
+        return (int) (last - first);
+    }
+
+    /**
+     * getBytes is a Getter Method.
+     * @return  returns the bytes of the bases and the deltas kept.
+     */
+    public long getBytes(){
+        return bytes;
+    }
+
+    /**
+     * getCapacity is a Getter Method.
+     * @return  returns the ticks that can always be rewound once the game played that long.
+     */
+    public int getCapacity(){
+        return capacity;
+    }
+
+}
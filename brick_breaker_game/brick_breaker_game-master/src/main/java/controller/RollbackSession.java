@@ -0,0 +1,339 @@
+package controller;
+
+import model.StateBuffer;
+
+import java.util.zip.CRC32;
+
+
+/**
+ * RollbackSession class plays one side of a VersusMatch whose other side is played somewhere else.
+ * The match does not wait for the inputs of the other player: a frame is played with the input of the other player
+ * predicted as the last one known, and the state before it is saved. When the input of a frame played arrives and it
+ * is not the one predicted, the state before that frame is restored and the frames since are played again with it,
+ * all in the tick the input arrived in, so the player sees the corrected game at once. The session never plays more
+ * than MAX_ROLLBACK frames past the last input known from the other player: it stalls instead, so no rollback plays
+ * more than MAX_ROLLBACK frames again.
+ * The local input is delayed by a few frames, the input of frame f is given at frame f - inputDelay, so an input
+ * that arrives within the delay needs no rollback at all.
+ * Both sides check they play the same match: every SYNC_FRAMES frames the CRC of the state of a frame whose inputs
+ * are all known is sent to the other side and compared with its own.
+ * The session knows nothing of the network, see VersusPeer. It is not thread safe.
+ */
+public class RollbackSession {
+
+    public static final int MAX_ROLLBACK = 8;
+    public static final int SYNC_FRAMES = 64;
+    //the inputs kept, far more than the frames in flight
+    private static final int INPUT_WINDOW = 128;
+    private static final int SYNC_WINDOW = 16;
+    private static final int STATS_CAPACITY = 4096;
+
+    private final VersusMatch match;
+    private final int side;
+    private final int inputDelay;
+    private final byte[][] inputs;
+    //the state before every frame played and not yet known to be right, the frame f in f % (MAX_ROLLBACK + 1)
+    private final StateBuffer[] saved;
+    private final StateBuffer scratch;
+    private long localFrames;
+    private long remoteFrames;
+    private long rollbackFrom;
+
+    private final long[] syncFrames;
+    private final int[] syncCrcs;
+    private long nextSync;
+    private long lastSync;
+    private long remoteSyncFrame;
+    private int remoteSyncCrc;
+    private long checkedSync;
+
+    private long stalls;
+    private long rollbacks;
+    private long resimulated;
+    private int deepest;
+    private long syncChecks;
+    private long desyncs;
+    private long saves;
+    private long saveNanos;
+    private long restoreNanos;
+    private final TimingStats rollbackTime;
+
+
+    /**
+     * RollbackSession is a Parameterized Constructor that plays a match from its first frame.
+     * @param match         the match, at its first frame.
+     * @param side          the side of the local player, 0 or 1.
+     * @param inputDelay    the frames a local input is delayed by, the same on both sides.
+     */
+    public RollbackSession(VersusMatch match, int side, int inputDelay){
+        if(side < 0 || side >= VersusMatch.SIDES)
+            throw new IllegalArgumentException("No side " + side);
+        if(inputDelay < 0 || inputDelay > INPUT_WINDOW / 4)
+            throw new IllegalArgumentException("Input delay out of range: " + inputDelay);
+        this.match = match;
+        this.side = side;
+        this.inputDelay = inputDelay;
+        inputs = new byte[VersusMatch.SIDES][INPUT_WINDOW];
+        saved = new StateBuffer[MAX_ROLLBACK + 1];
+        for(int i = 0; i < saved.length; i++)
+            saved[i] = new StateBuffer();
+        scratch = new StateBuffer();
+        //the frames before the first delayed input are played standing still on both sides
+        localFrames = inputDelay;
+        remoteFrames = inputDelay;
+        rollbackFrom = -1;
+        syncFrames = new long[SYNC_WINDOW];
+        syncCrcs = new int[SYNC_WINDOW];
+        nextSync = SYNC_FRAMES;
+        lastSync = -1;
+        remoteSyncFrame = -1;
+        checkedSync = -1;
+        rollbackTime = new TimingStats("rollback",STATS_CAPACITY);
+    }
+
+    /**
+     * addLocalInput Method gives the input of the local player for the next frame that has none, inputDelay frames
+     * ahead of the match. Nothing is taken while the session stalls.
+     * @param input     GameEngine.STOP, LEFT or RIGHT.
+     * @return          returns the frame the input is for, or -1 if it was not taken.
+     */
+    public long addLocalInput(int input){
+        if(localFrames > getFrame() + inputDelay)
+            return -1;
+        inputs[side][(int) (localFrames % INPUT_WINDOW)] = (byte) input;
+        return localFrames++;
+    }
+
+    /**
+     * addRemoteInput Method gives the input of the other player for a frame. The inputs must come in order: one for
+     * a frame already known, or past the next one, is left out. A frame played with another input is played again
+     * at the next rollback.
+     * @param frame     the frame of the input.
+     * @param input     GameEngine.STOP, LEFT or RIGHT.
+     * @return          returns true if the input was taken.
+     */
+    public boolean addRemoteInput(long frame, int input){
+        if(frame != remoteFrames)
+            return false;
+        int slot = (int) (frame % INPUT_WINDOW);
+        //the slot of a frame played holds the input it was played with
+        if(frame < getFrame() && inputs[1 - side][slot] != input && rollbackFrom < 0)
+            rollbackFrom = frame;
+        inputs[1 - side][slot] = (byte) input;
+        remoteFrames++;
+        return true;
+    }
+
+    /**
+     * rollback Method plays again the frames played with an input that turned out wrong, if there are some, and
+     * checks the state of the frames whose inputs are now all known.
+     * @return  returns the number of frames played again.
+     */
+    public int rollback(){
+        int depth = 0;
+        if(rollbackFrom >= 0){
+            long start = System.nanoTime();
+            long frame = getFrame();
+            StateBuffer state = saved[slot(rollbackFrom)];
+            state.rewind();
+            match.readState(state);
+            long restored = System.nanoTime();
+            restoreNanos += restored - start;
+            for(long f = rollbackFrom; f < frame; f++)
+                play(f);
+            depth = (int) (frame - rollbackFrom);
+            rollbackFrom = -1;
+            rollbackTime.record(System.nanoTime() - start);
+            rollbacks++;
+            resimulated += depth;
+            deepest = Math.max(deepest,depth);
+        }
+        sync();
+        return depth;
+    }
+
+    /**
+     * advance Method plays the next frame, unless the local input of it is not known yet or the session is
+     * MAX_ROLLBACK frames past the other player.
+     * @return  returns true if a frame was played, false if the session stalls.
+     */
+    public boolean advance(){
+        long frame = getFrame();
+        if(frame >= localFrames || frame - remoteFrames >= MAX_ROLLBACK){
+            stalls++;
+            return false;
+        }
+        play(frame);
+        return true;
+    }
+
+    /**
+     * play is a Private Method that saves the state before a frame and plays it, with the input of the other
+     * player predicted if it is not known.
+     * @param frame     the frame, the one the match is at.
+     */
+    private void play(long frame){
+        long start = System.nanoTime();
+        StateBuffer state = saved[slot(frame)];
+        state.clear();
+        match.writeState(state);
+        saveNanos += System.nanoTime() - start;
+        saves++;
+
+        int slot = (int) (frame % INPUT_WINDOW);
+        if(frame >= remoteFrames)
+            inputs[1 - side][slot] = remoteFrames > 0 ? inputs[1 - side][(int) ((remoteFrames - 1) % INPUT_WINDOW)] : GameEngine.STOP;
+        match.step(inputs[0][slot],inputs[1][slot]);
+    }
+
+    /**
+     * sync is a Private Method that takes the CRC of the states that are now known to be right, every SYNC_FRAMES
+     * frames, and compares them with the ones of the other side.
+     */
+    private void sync(){
+        long known = Math.min(getFrame(),remoteFrames);
+        for(; nextSync <= known; nextSync += SYNC_FRAMES){
+            StateBuffer state;
+            if(nextSync == getFrame()){
+                scratch.clear();
+                match.writeState(scratch);
+                state = scratch;
+            }
+            else if(getFrame() - nextSync <= MAX_ROLLBACK)
+                state = saved[slot(nextSync)];
+            else
+                continue;
+            CRC32 crc = new CRC32();
+            crc.update(state.getData(),0,state.getLength());
+            int i = (int) (nextSync / SYNC_FRAMES % SYNC_WINDOW);
+            syncFrames[i] = nextSync;
+            syncCrcs[i] = (int) crc.getValue();
+            lastSync = nextSync;
+        }
+        checkSync();
+    }
+
+    /**
+     * setRemoteSync Method gives the CRC of a state the other side knows to be right, it is compared with the local
+     * one as soon as there is one.
+     * @param frame     the frame of the state.
+     * @param crc       the CRC-32 of the state, see VersusMatch.writeState.
+     */
+    public void setRemoteSync(long frame, int crc){
+        if(frame <= remoteSyncFrame || frame <= checkedSync || frame % SYNC_FRAMES != 0)
+            return;
+        remoteSyncFrame = frame;
+        remoteSyncCrc = crc;
+        checkSync();
+    }
+
+    private void checkSync(){
+        if(remoteSyncFrame < 0)
+            return;
+        int i = (int) (remoteSyncFrame / SYNC_FRAMES % SYNC_WINDOW);
+        if(syncFrames[i] != remoteSyncFrame)
+            return;
+        syncChecks++;
+        if(syncCrcs[i] != remoteSyncCrc)
+            desyncs++;
+        checkedSync = remoteSyncFrame;
+        remoteSyncFrame = -1;
+    }
+
+    private static int slot(long frame){
+        return (int) (frame % (MAX_ROLLBACK + 1));
+    }
+
+    /**
+     * getLocalInput is a Getter Method.
+     * @param frame     a frame of the last INPUT_WINDOW / 2 given.
+     * @return          returns the input of the local player for the frame.
+     */
+    public int getLocalInput(long frame){
+        return inputs[side][(int) (frame % INPUT_WINDOW)];
+    }
+
+    /**
+     * getLastSync is a Getter Method.
+     * @return  returns the last frame whose CRC was taken, -1 if none was.
+     */
+    public long getLastSync(){
+        return lastSync;
+    }
+
+    /**
+     * getSyncCrc is a Getter Method.
+     * @return  returns the CRC of the state of getLastSync.
+     */
+    public int getSyncCrc(){
+        return syncCrcs[(int) (lastSync / SYNC_FRAMES % SYNC_WINDOW)];
+    }
+
+    public VersusMatch getMatch(){
+        return match;
+    }
+
+    public int getSide(){
+        return side;
+    }
+
+    public int getInputDelay(){
+        return inputDelay;
+    }
+
+    public long getFrame(){
+        return match.getFrame();
+    }
+
+    public long getLocalFrames(){
+        return localFrames;
+    }
+
+    public long getRemoteFrames(){
+        return remoteFrames;
+    }
+
+    public long getStalls(){
+        return stalls;
+    }
+
+    public long getRollbacks(){
+        return rollbacks;
+    }
+
+    public long getResimulated(){
+        return resimulated;
+    }
+
+    public int getDeepest(){
+        return deepest;
+    }
+
+    public long getSyncChecks(){
+        return syncChecks;
+    }
+
+    public long getDesyncs(){
+        return desyncs;
+    }
+
+    /**
+     * getRollbackTime is a Getter Method.
+     * @return  returns the times of the last rollbacks: the restore and the frames played again.
+     */
+    public TimingStats getRollbackTime(){
+        return rollbackTime;
+    }
+
+    /**
+     * report Method tells how often the session rolled back and what saving, restoring and playing again cost.
+     * @return  returns the report, on a few lines.
+     */
+    public String report(){
+        return String.format("frames %d, stalls %d, rollbacks %d, %d frames played again, deepest %d%n"
+                        + "save %.2f us, restore %.2f us on average%n%s%nsync checks %d, desyncs %d",
+                getFrame(),stalls,rollbacks,resimulated,deepest,saveNanos / 1e3 / Math.max(saves,1),
+                restoreNanos / 1e3 / Math.max(rollbacks,1),rollbackTime.report(),syncChecks,desyncs);
+    }
+
+}
@@ -0,0 +1,227 @@
+package controller;
+
+import model.StateBuffer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * SimulatedClients class stands in for the players of a MatchServer in tests: many players behind one socket, as
+ * the clients of a gateway would be. It joins a session for each player, then answers the states the server sends
+ * with the inputs of bots that follow the ball, as BatchRunner.follow does.
+ * An input is sent when it changes and again every RESEND_STATES states, so a lost one is made up for; the inputs
+ * of one packet of states are sent in one packet.
+ * It runs on a thread of its own, see start; stop leaves the sessions.
+ */
+public class SimulatedClients implements Runnable {
+
+    private static final int RESEND_STATES = 50;
+    private static final int DEAD_ZONE = 10;
+    private static final int MAX_INPUT = 6;
+    private static final int MAX_ID = 5;
+    private static final long JOIN_TIMEOUT_NANOS = 10_000_000_000L;
+
+    private final SocketAddress server;
+    private final DatagramChannel channel;
+    private final int players;
+    //the player of every session id, -1 for the sessions of other clients
+    private int[] playerOf;
+    private final int[] input;
+    private final int[] unsent;
+    private volatile boolean running;
+    private Thread thread;
+
+    private volatile long statesReceived;
+    private volatile long inputsSent;
+
+
+    /**
+     * SimulatedClients is a Parameterized Constructor that opens a socket on the loopback address.
+     * @param server    the address of the server.
+     * @param players   the number of players.
+     */
+    public SimulatedClients(SocketAddress server, int players) throws IOException {
+        this.server = server;
+        this.players = players;
+        channel = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(),0));
+        playerOf = new int[0];
+        input = new int[players];
+        unsent = new int[players];
+    }
+
+    /**
+     * join Method opens a session on the server for every player, MAX_JOINS at a time.
+     * @throws IOException  if the server does not answer in time, or opens fewer sessions than asked for.
+     */
+    public void join() throws IOException {
+        StateBuffer out = new StateBuffer();
+        ByteBuffer packet = ByteBuffer.allocate(MatchServer.MAX_PACKET);
+        channel.configureBlocking(false);
+        long end = System.nanoTime() + JOIN_TIMEOUT_NANOS;
+        for(int first = 0; first < players; first += MatchServer.MAX_JOINS){
+            int count = Math.min(MatchServer.MAX_JOINS,players - first);
+            out.clear();
+            out.writeByte(MatchServer.JOIN);
+            out.writeVarInt(count);
+            for(int k = 0; k < count; k++)
+                out.writeVarInt(first + k);
+            channel.send(ByteBuffer.wrap(out.getData(),0,out.getLength()),server);
+            //the answer, the states of the sessions already open may come first
+            int joined = -1;
+            while(joined < 0){
+                if(System.nanoTime() > end)
+                    throw new IOException("The server did not answer the joins");
+                packet.clear();
+                if(channel.receive(packet) == null){
+                    LockSupport.parkNanos(1_000_000);
+                    continue;
+                }
+                StateBuffer in = new StateBuffer(packet.array(),packet.position());
+                if(in.readByte() != MatchServer.JOINED)
+                    continue;
+                joined = in.readVarInt();
+                for(int k = 0; k < joined; k++){
+                    int player = in.readVarInt();
+                    int id = in.readVarInt();
+                    if(id >= playerOf.length){
+                        int old = playerOf.length;
+                        playerOf = Arrays.copyOf(playerOf,Math.max(id + 1,old * 2));
+                        Arrays.fill(playerOf,old,playerOf.length,-1);
+                    }
+                    playerOf[id] = player;
+                }
+            }
+            if(joined < count)
+                throw new IOException("The server opened " + (first + joined) + " of " + players + " sessions");
+        }
+        channel.configureBlocking(true);
+    }
+
+    /**
+     * start Method starts the thread that answers the states.
+     */
+    public synchronized void start(){
+        running = true;
+        thread = new Thread(this,"simulated-clients");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * stop Method stops the thread, leaves the sessions and closes the socket.
+     */
+    public void stop() throws IOException {
+        running = false;
+        StateBuffer out = new StateBuffer();
+        int count = 0;
+        for(int id = 0; id < playerOf.length; id++){
+            if(playerOf[id] < 0)
+                continue;
+            if(count == 0){
+                out.clear();
+                out.writeByte(MatchServer.LEAVE);
+                out.writeInt(0);
+            }
+            out.writeVarInt(id);
+            count++;
+            if(out.getLength() + MAX_ID > MatchServer.MAX_PACKET){
+                out.setInt(1,count);
+                channel.send(ByteBuffer.wrap(out.getData(),0,out.getLength()),server);
+                count = 0;
+            }
+        }
+        if(count > 0){
+            out.setInt(1,count);
+            channel.send(ByteBuffer.wrap(out.getData(),0,out.getLength()),server);
+        }
+        channel.close();
+    }
+
+    /**
+     * run Method is the body of the thread: every packet of states is answered with one packet of inputs.
+     */
+    @Override
+    public void run(){
+        ByteBuffer packet = ByteBuffer.allocate(MatchServer.MAX_PACKET);
+        StateBuffer out = new StateBuffer();
+        while(running){
+            packet.clear();
+            try{
+                if(channel.receive(packet) == null)
+                    continue;
+                StateBuffer in = new StateBuffer(packet.array(),packet.position());
+                if(in.readByte() != MatchServer.STATE)
+                    continue;
+                int count = in.readInt();
+                out.clear();
+                out.writeByte(MatchServer.INPUT);
+                out.writeInt(0);
+                int inputs = 0;
+                for(int k = 0; k < count; k++){
+                    int id = in.readVarInt();
+                    in.readVarLong();
+                    int ballX = in.readSignedVarInt();
+                    in.readSignedVarInt();
+                    int playerX = in.readSignedVarInt();
+                    in.readVarInt();
+                    in.readVarInt();
+                    in.readVarInt();
+                    if(id >= playerOf.length || playerOf[id] < 0)
+                        continue;
+                    int p = playerOf[id];
+                    int dx = ballX - playerX;
+                    int move = dx < -DEAD_ZONE ? GameEngine.LEFT : dx > DEAD_ZONE ? GameEngine.RIGHT : GameEngine.STOP;
+                    if(move != input[p] || ++unsent[p] >= RESEND_STATES){
+                        input[p] = move;
+                        unsent[p] = 0;
+                        out.writeVarInt(id);
+                        out.writeByte(move);
+                        inputs++;
+                        if(out.getLength() + MAX_INPUT > MatchServer.MAX_PACKET){
+                            send(out,inputs);
+                            out.clear();
+                            out.writeByte(MatchServer.INPUT);
+                            out.writeInt(0);
+                            inputs = 0;
+                        }
+                    }
+                }
+                if(inputs > 0)
+                    send(out,inputs);
+                statesReceived += count;
+            }catch(ClosedChannelException e){
+                return;
+            }catch(IOException | IllegalStateException e){
+                if(!running)
+                    return;
+            }
+        }
+    }
+
+    private void send(StateBuffer out, int inputs) throws IOException {
+        out.setInt(1,inputs);
+        channel.send(ByteBuffer.wrap(out.getData(),0,out.getLength()),server);
+        inputsSent += inputs;
+    }
+
+    public int getPlayers(){
+        return players;
+    }
+
+    public long getStatesReceived(){
+        return statesReceived;
+    }
+
+    public long getInputsSent(){
+        return inputsSent;
+    }
+
+}
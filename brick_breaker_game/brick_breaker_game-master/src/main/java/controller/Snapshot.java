@@ -0,0 +1,174 @@
+package controller;
+
+import model.GameRandom;
+import model.StateBuffer;
+import model.WallModel;
+
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+
+/**
+ * Snapshot class writes and reads the whole state of a game in a compact binary format of its own, no Java serialization.
+ * A snapshot holds a header, the config and the seed the wall was made from, and the state of the wall: see
+ * WallModel.writeState. The levels are not written brick by brick: the same config and seed always make the same
+ * levels, so the bricks hit, with their strength and crack, are all a snapshot keeps of them.
+ * Format, version 2: the magic "BRSN" and the version; the width, height, brick count and line count of the config
+ * as varints, the brick ratio as a double, the start point as signed varints and the fixed point flag; the seed
+ * as eight bytes; the length of the state as four bytes, the state and its CRC-32 as four bytes.
+ * The state is checked against its CRC before anything is read into the wall, a snapshot cut short by a crash
+ * leaves the wall as it was.
+ * A snapshot is read into a wall of the same config: a wall of the same seed, the game it was taken from or a fork of
+ * it, reads it in microseconds; a wall of another seed is reseeded first, a pass over every brick.
+ */
+public final class Snapshot {
+
+    //"BRSN"
+    private static final int MAGIC = 0x4E535242;
+    //2: the bricks of a level end with a step of 0, not counted first
+    private static final int VERSION = 2;
+
+    private Snapshot(){
+    }
+
+    /**
+     * write Method writes a snapshot of a game at the end of a buffer.
+     * @param config    the config the wall was made from, see GameEngine.Config.newWall.
+     * @param wall      the wall.
+     * @param out       the buffer.
+     */
+    public static void write(GameEngine.Config config, WallModel wall, StateBuffer out){
+        out.writeInt(MAGIC);
+        out.writeVarInt(VERSION);
+        out.writeVarInt(config.getWidth());
+        out.writeVarInt(config.getHeight());
+        out.writeVarInt(config.getBrickCount());
+        out.writeVarInt(config.getLineCount());
+        out.writeDouble(config.getBrickDimensionRatio());
+        out.writeSignedVarInt(config.getBallPos().x);
+        out.writeSignedVarInt(config.getBallPos().y);
+        out.writeBoolean(config.isFixedPoint());
+        out.writeLong(wall.getRandom().getSeed());
+
+        int at = out.getLength();
+        out.writeInt(0);
+        wall.writeState(out);
+        int length = out.getLength() - at - 4;
+        out.setInt(at,length);
+        out.writeInt(crc(out.getData(),at + 4,length));
+    }
+
+    /**
+     * read Method makes a new wall from a snapshot.
+     * @param in    the buffer, read from its position.
+     * @return      returns the wall, in the state of the snapshot.
+     */
+    public static WallModel read(StateBuffer in){
+        GameEngine.Config config = readConfig(in);
+        long seed = in.readLong();
+        WallModel wall = config.newWall(new GameRandom(seed));
+        readState(in,seed,wall);
+        return wall;
+    }
+
+    /**
+     * read Method puts a wall in the state of a snapshot.
+     * @param in        the buffer, read from its position.
+     * @param config    the config the wall was made from, it must be the config of the snapshot.
+     * @param wall      the wall.
+     */
+    public static void read(StateBuffer in, GameEngine.Config config, WallModel wall){
+        if(!same(readConfig(in),config))
+            throw new IllegalStateException("The snapshot is of another board");
+        readState(in,in.readLong(),wall);
+    }
+
+    /**
+     * readConfig is a Private Method that reads the header and the config of a snapshot.
+     * @param in    the buffer.
+     * @return      returns the config.
+     */
+    private static GameEngine.Config readConfig(StateBuffer in){
+        if(in.readInt() != MAGIC)
+            throw new IllegalStateException("Not a snapshot");
+        int version = in.readVarInt();
+        if(version != VERSION)
+            throw new IllegalStateException("Unknown snapshot version " + version);
+        int width = in.readVarInt();
+        int height = in.readVarInt();
+        int brickCount = in.readVarInt();
+        int lineCount = in.readVarInt();
+        double ratio = in.readDouble();
+        Point ballPos = new Point(in.readSignedVarInt(),in.readSignedVarInt());
+        return new GameEngine.Config(width,height,brickCount,lineCount,ratio,ballPos,in.readBoolean());
+    }
+
+    /**
+     * readState is a Private Method that checks the length and the CRC of the state, then reads it into the wall.
+     * The wall is only changed once the state is known to be whole.
+     * @param in    the buffer, at the length of the state; left after the CRC.
+     * @param seed  the seed of the snapshot, the wall is reseeded if it has another one.
+     * @param wall  the wall.
+     */
+    private static void readState(StateBuffer in, long seed, WallModel wall){
+        int length = in.readInt();
+        int start = in.getPosition();
+        if(length < 0 || length > in.getLength() - start - 4)
+            throw new IllegalStateException("Snapshot cut short");
+        in.setPosition(start + length);
+        if(in.readInt() != crc(in.getData(),start,length))
+            throw new IllegalStateException("Corrupted snapshot");
+        int end = in.getPosition();
+
+        if(seed != wall.getRandom().getSeed())
+            wall.reseed(seed);
+        in.setPosition(start);
+        wall.readState(in);
+        if(in.getPosition() != start + length)
+            throw new IllegalStateException("Corrupted snapshot");
+        in.setPosition(end);
+    }
+
+    private static int crc(byte[] data, int offset, int length){
+        CRC32 crc = new CRC32();
+        crc.update(data,offset,length);
+        return (int) crc.getValue();
+    }
+
+    private static boolean same(GameEngine.Config a, GameEngine.Config b){
+        return a.getWidth() == b.getWidth() && a.getHeight() == b.getHeight() && a.getBrickCount() == b.getBrickCount()
+                && a.getLineCount() == b.getLineCount() && a.getBrickDimensionRatio() == b.getBrickDimensionRatio()
+                && a.getBallPos().equals(b.getBallPos()) && a.isFixedPoint() == b.isFixedPoint();
+    }
+
+    /**
+     * save Method writes a buffer to a file, through a file next to it moved over the file once written,
+     * so a crash while saving leaves the last save whole.
+     * @param snapshot      the buffer, its bytes written.
+     * @param file          the file.
+     * @throws IOException  if the file cannot be written.
+     */
+    public static void save(StateBuffer snapshot, File file) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(tmp,snapshot.toByteArray());
+        Files.move(tmp,target,StandardCopyOption.REPLACE_EXISTING,StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * load Method reads a file into a buffer.
+     * @param file          the file.
+     * @return              returns a buffer reading the file from its first byte.
+     * @throws IOException  if the file cannot be read.
+     */
+    public static StateBuffer load(File file) throws IOException {
+        byte[] data = Files.readAllBytes(file.toPath());
+        return new StateBuffer(data,data.length);
+    }
+
+}
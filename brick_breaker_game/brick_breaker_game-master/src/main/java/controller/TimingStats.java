@@ -0,0 +1,93 @@
+package controller;
+
+import java.util.Arrays;
+
+
+/**
+ * TimingStats class collects durations in nanoseconds and reports mean, percentiles and maximum.
+ * The last samples are kept in a fixed ring so collecting never allocates.
+ * It is recorded and reset by one thread at a time and may be read by others without a lock: the counters are
+ * volatile, and the percentiles of a report taken while samples are recorded may mix samples of two moments.
+ */
+public class TimingStats {
+
+    private final String name;
+    private final long[] samples;
+    private volatile int next;
+    private volatile long count;
+    private volatile long total;
+    private volatile long max;
+
+
+    /**
+     * TimingStats is a Parameterized Constructor that creates an empty collector.
+     * @param name      the name printed in the report.
+     * @param capacity  how many of the last samples are kept for the percentiles.
+     */
+    public TimingStats(String name, int capacity){
+        this.name = name;
+        samples = new long[capacity];
+    }
+
+    /**
+     * record Method adds a sample.
+     * @param nanos     the duration in nanoseconds.
+     */
+    public void record(long nanos){
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count++;
+        total += nanos;
+        max = Math.max(max, nanos);
+    }
+
+    /**
+     * reset Method drops every sample.
+     */
+    public void reset(){
+        next = 0;
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+
+    /**
+     * getCount is a Getter Method.
+     * @return  returns how many samples have been recorded since the last reset.
+     */
+    public long getCount(){
+        return count;
+    }
+
+    /**
+     * getMean is a Getter Method.
+     * @return  returns the mean of every sample, in nanoseconds.
+     */
+    public double getMean(){
+        return count == 0 ? 0 : total / (double) count;
+    }
+
+    /**
+     * getPercentile Method computes a percentile over the samples kept.
+     * @param p     the percentile, from 0 to 100.
+     * @return      returns the percentile in nanoseconds.
+     */
+    public long getPercentile(double p){
+        int n = (int) Math.min(count, samples.length);
+        if(n == 0)
+            return 0;
+        long[] sorted = Arrays.copyOf(samples, n);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(n - 1, Math.floor(p / 100 * n))];
+    }
+
+    /**
+     * report Method formats the statistics in milliseconds.
+     * @return  returns one line with count, mean, p50, p99 and max.
+     */
+    public String report(){
+        return String.format("%s: n=%d mean=%.3f ms p50=%.3f ms p99=%.3f ms max=%.3f ms",
+                name, count, getMean() / 1e6, getPercentile(50) / 1e6, getPercentile(99) / 1e6, max / 1e6);
+    }
+
+}
@@ -0,0 +1,125 @@
+package controller;
+
+import model.GameRandom;
+import model.StateBuffer;
+import model.WallModel;
+
+
+/**
+ * VersusMatch class is a head to head game: two players, each with a paddle of their own on a wall of their own.
+ * The two walls are made from the same config and seed, mirrored boards with the same bricks, cracks and launches,
+ * and both are advanced by one tick with the input of each player, as the GameRules advance a single game.
+ * The first player to clear every wall wins, a player whose last ball is lost loses; both in the same tick is a draw.
+ * A match is a function of its inputs only: two peers that step it with the same inputs have the same state, what
+ * lockstep and rollback need. Peers on different machines use a config in fixed point, see WallModel.
+ * It is not thread safe.
+ */
+public class VersusMatch {
+
+    public static final int SIDES = 2;
+    public static final int PLAYING = -1;
+    public static final int DRAW = SIDES;
+
+    private final WallModel[] walls;
+    private final GameRules[] rules;
+    private long frame;
+    private int winner;
+
+
+    /**
+     * VersusMatch is a Parameterized Constructor that sets the first level of both walls.
+     * @param config    the board and the wall of each player.
+     * @param seed      the seed of both walls.
+     */
+    public VersusMatch(GameEngine.Config config, long seed){
+        walls = new WallModel[SIDES];
+        rules = new GameRules[SIDES];
+        for(int i = 0; i < SIDES; i++){
+            walls[i] = config.newWall(new GameRandom(seed));
+            rules[i] = new GameRules(walls[i]);
+        }
+        winner = PLAYING;
+    }
+
+    /**
+     * step Method moves both players as asked and advances both walls by one tick; once the match is over only the
+     * frame count goes on.
+     * @param input0    the input of the first player, GameEngine.STOP, LEFT or RIGHT.
+     * @param input1    the input of the second player.
+     */
+    public void step(int input0, int input1){
+        frame++;
+        if(winner != PLAYING)
+            return;
+        GameEngine.move(walls[0].player,input0);
+        GameEngine.move(walls[1].player,input1);
+        int outcome0 = rules[0].tick();
+        int outcome1 = rules[1].tick();
+        boolean first = outcome0 == GameRules.ALL_CLEARED || outcome1 == GameRules.GAME_OVER;
+        boolean second = outcome1 == GameRules.ALL_CLEARED || outcome0 == GameRules.GAME_OVER;
+        if(first && second)
+            winner = DRAW;
+        else if(first)
+            winner = 0;
+        else if(second)
+            winner = 1;
+    }
+
+    /**
+     * writeState Method writes the frame, the winner and the state of both walls, see WallModel.writeState.
+     * @param out   the buffer the state is written to.
+     */
+    public void writeState(StateBuffer out){
+        out.writeVarLong(frame);
+        out.writeSignedVarInt(winner);
+        for(WallModel w : walls)
+            w.writeState(out);
+    }
+
+    /**
+     * readState Method puts the match back in a state written by writeState, a match of the same config and seed.
+     * @param in    the buffer the state is read from.
+     */
+    public void readState(StateBuffer in){
+        frame = in.readVarLong();
+        winner = in.readSignedVarInt();
+        for(int i = 0; i < SIDES; i++){
+            walls[i].readState(in);
+            rules[i].refreshHud();
+        }
+    }
+
+    /**
+     * getWall is a Getter Method.
+     * @param side  0 or 1.
+     * @return      returns the wall of a player.
+     */
+    public WallModel getWall(int side){
+        return walls[side];
+    }
+
+    /**
+     * getFrame is a Getter Method.
+     * @return  returns the number of ticks played.
+     */
+    public long getFrame(){
+        return frame;
+    }
+
+    /**
+     * getWinner is a Getter Method.
+     * @return  returns PLAYING, the side that won or DRAW.
+     */
+    public int getWinner(){
+        return winner;
+    }
+
+    /**
+     * isOver is a Getter Method.
+     * @return  returns true once a player won or the match is a draw.
+     */
+    public boolean isOver(){
+        return winner != PLAYING;
+    }
+
+}
@@ -0,0 +1,326 @@
+package controller;
+
+import model.StateBuffer;
+import model.WallModel;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+
+/**
+ * VersusPeer class plays a RollbackSession against another peer over UDP, one tick of the game a tick of its loop.
+ * A tick reads the packets that arrived, rolls back if an input was predicted wrong, plays the next frame with the
+ * local input and sends a packet to the other peer.
+ * A packet holds every local input the other peer has not acknowledged yet, four to a byte, so a lost packet is made
+ * up for by the next one and nothing is ever sent again on its own; it acknowledges the inputs received and carries
+ * the last CRC taken of the state. Packets that come late or out of order are harmless, the inputs are numbered.
+ * Format: the magic "BRVS" as four bytes, then as varlongs the inputs received and the frame of the first input
+ * sent, the number of inputs as a varint and the inputs; the frame of the CRC plus one as a varlong, 0 for none,
+ * and the CRC as four bytes.
+ * The packets can go through a Link that delays and drops them, to try the game on localhost with the latency and
+ * the losses of a real network.
+ * It is driven by one thread, see start.
+ */
+public class VersusPeer {
+
+    public static final int DEF_INPUT_DELAY = 2;
+    //"BRVS"
+    private static final int MAGIC = 0x53565242;
+    private static final int MAX_INPUTS = 64;
+    private static final int MAX_PACKET = 512;
+
+    /**
+     * Link class is a Nested Class under the VersusPeer class that sends packets the way a real network would:
+     * each one after a latency and a random jitter, so they may come out of order, and some never.
+     * The random numbers are of the link, the game does not see them.
+     */
+    public static class Link {
+
+        private final long latencyNanos;
+        private final long jitterNanos;
+        private final double loss;
+        private final Random random;
+        private final PriorityQueue<Packet> queue;
+        private long order;
+
+        /**
+         * Link is a Parameterized Constructor.
+         * @param latencyMillis     the time from the peer to the other one.
+         * @param jitterMillis      the most added to the latency, drawn at random for each packet.
+         * @param loss              the share of the packets dropped, from 0 to 1.
+         * @param seed              the seed of the jitter and the losses.
+         */
+        public Link(int latencyMillis, int jitterMillis, double loss, long seed){
+            latencyNanos = latencyMillis * 1_000_000L;
+            jitterNanos = jitterMillis * 1_000_000L;
+            this.loss = loss;
+            random = new Random(seed);
+            queue = new PriorityQueue<>();
+        }
+
+        /**
+         * send Method drops a packet, or keeps it until it is due.
+         */
+        void send(byte[] data, int length){
+            if(random.nextDouble() < loss)
+                return;
+            long jitter = jitterNanos > 0 ? (long) (random.nextDouble() * jitterNanos) : 0;
+            queue.add(new Packet(System.nanoTime() + latencyNanos + jitter,order++,Arrays.copyOf(data,length)));
+        }
+
+        /**
+         * flush Method sends the packets that are due.
+         */
+        void flush(DatagramChannel channel, SocketAddress to) throws IOException {
+            long now = System.nanoTime();
+            while(!queue.isEmpty() && queue.peek().due - now <= 0)
+                channel.send(ByteBuffer.wrap(queue.poll().data),to);
+        }
+
+        private static class Packet implements Comparable<Packet> {
+            private final long due;
+            private final long order;
+            private final byte[] data;
+
+            private Packet(long due, long order, byte[] data){
+                this.due = due;
+                this.order = order;
+                this.data = data;
+            }
+
+            @Override
+            public int compareTo(Packet other){
+                int c = Long.compare(due,other.due);
+                return c != 0 ? c : Long.compare(order,other.order);
+            }
+        }
+
+    }
+
+    private final RollbackSession session;
+    private final DatagramChannel channel;
+    private final SocketAddress remote;
+    private final Link link;
+    private final IntSupplier input;
+    private final long frames;
+    private final ByteBuffer packet;
+    private final StateBuffer out;
+    //the local inputs the other peer acknowledged
+    private long acked;
+    private GameLoop loop;
+    private volatile boolean done;
+
+    private long sent;
+    private long received;
+    private long sentBytes;
+    private long badPackets;
+
+
+    /**
+     * VersusPeer is a Parameterized Constructor.
+     * @param session   the session of the local side.
+     * @param channel   an open channel, bound to the local port.
+     * @param remote    the address of the other peer.
+     * @param link      the link the packets go through, null to send them right away.
+     * @param input     gives the local input at every tick, called on the thread of the peer.
+     * @param frames    the frames of the match, the peer stops playing after them.
+     */
+    public VersusPeer(RollbackSession session, DatagramChannel channel, SocketAddress remote, Link link, IntSupplier input, long frames) throws IOException {
+        this.session = session;
+        this.channel = channel;
+        this.remote = remote;
+        this.link = link;
+        this.input = input;
+        this.frames = frames;
+        channel.configureBlocking(false);
+        packet = ByteBuffer.allocate(MAX_PACKET);
+        out = new StateBuffer();
+    }
+
+    /**
+     * tick Method reads the packets that arrived, rolls back if it must, plays a frame and sends a packet.
+     * Once the frames of the match are played it goes on exchanging packets until the other peer has them all.
+     */
+    public void tick(){
+        try{
+            receive();
+            session.rollback();
+            if(session.getFrame() < frames){
+                if(session.getLocalFrames() < frames)
+                    session.addLocalInput(input.getAsInt());
+                session.advance();
+            }
+            send();
+            if(link != null)
+                link.flush(channel,remote);
+            done = session.getFrame() >= frames && session.getRemoteFrames() >= frames;
+        }catch(IOException e){
+            throw new IllegalStateException("The connection to the other peer failed",e);
+        }
+    }
+
+    /**
+     * receive is a Private Method that reads every packet that arrived.
+     */
+    private void receive() throws IOException {
+        while(true){
+            packet.clear();
+            if(channel.receive(packet) == null)
+                return;
+            StateBuffer in = new StateBuffer(packet.array(),packet.position());
+            try{
+                if(in.readInt() != MAGIC){
+                    badPackets++;
+                    continue;
+                }
+                acked = Math.max(acked,in.readVarLong());
+                long first = in.readVarLong();
+                int count = in.readVarInt();
+                if(count > MAX_INPUTS || in.getPosition() + (count + 3) / 4 > in.getLength()){
+                    badPackets++;
+                    continue;
+                }
+                for(int k = 0; k < count; k++){
+                    int bits = in.getData()[in.getPosition() + k / 4] >> 2 * (k % 4) & 3;
+                    session.addRemoteInput(first + k,bits);
+                }
+                in.setPosition(in.getPosition() + (count + 3) / 4);
+                long sync = in.readVarLong();
+                int crc = in.readInt();
+                if(sync > 0)
+                    session.setRemoteSync(sync - 1,crc);
+                received++;
+            }catch(IllegalStateException | IllegalArgumentException e){
+                badPackets++;
+            }
+        }
+    }
+
+    /**
+     * send is a Private Method that sends the inputs the other peer has not acknowledged.
+     */
+    private void send() throws IOException {
+        long first = Math.max(acked,session.getLocalFrames() - MAX_INPUTS);
+        int count = (int) (session.getLocalFrames() - first);
+        out.clear();
+        out.writeInt(MAGIC);
+        out.writeVarLong(session.getRemoteFrames());
+        out.writeVarLong(first);
+        out.writeVarInt(count);
+        for(int k = 0; k < count; k += 4){
+            int b = 0;
+            for(int j = 0; j < 4 && k + j < count; j++)
+                b |= session.getLocalInput(first + k + j) << 2 * j;
+            out.writeByte(b);
+        }
+        out.writeVarLong(session.getLastSync() + 1);
+        out.writeInt(session.getLastSync() >= 0 ? session.getSyncCrc() : 0);
+        sent++;
+        sentBytes += out.getLength();
+        if(link != null)
+            link.send(out.getData(),out.getLength());
+        else
+            channel.send(ByteBuffer.wrap(out.getData(),0,out.getLength()),remote);
+    }
+
+    /**
+     * start Method runs the peer on a game loop of its own, a tick every stepNanos.
+     * @param stepNanos     the time of a tick.
+     * @return              returns the loop, its tick times include the rollbacks.
+     */
+    public GameLoop start(long stepNanos){
+        loop = new GameLoop(stepNanos,stepNanos,this::tick,() -> {});
+        loop.start();
+        return loop;
+    }
+
+    /**
+     * stop Method stops the loop of the peer, the tick running at the moment is completed.
+     */
+    public void stop(){
+        if(loop != null)
+            loop.stop();
+    }
+
+    /**
+     * isDone is a Getter Method.
+     * @return  returns true once every frame of the match is played with the inputs of both players; the session
+     *          does not change any more and can be read from another thread.
+     */
+    public boolean isDone(){
+        return done;
+    }
+
+    public RollbackSession getSession(){
+        return session;
+    }
+
+    /**
+     * report Method tells the rollbacks of the session and the packets sent and received.
+     * @return  returns the report, on a few lines.
+     */
+    public String report(){
+        return String.format("%s%npackets sent %d, %.1f bytes each, received %d, %d bad",session.report(),sent,
+                (double) sentBytes / Math.max(sent,1),received,badPackets);
+    }
+
+    /**
+     * follow Method makes the input of a bot that keeps its paddle under the first ball of a wall.
+     * It looks at the ball every reactionTicks only and aims with an error, as a person would.
+     * @param wall              the wall of the bot.
+     * @param reactionTicks     the ticks between two looks at the ball.
+     * @param seed              the seed of the errors.
+     * @return                  returns the input.
+     */
+    public static IntSupplier follow(WallModel wall, int reactionTicks, long seed){
+        Random random = new Random(seed);
+        int[] state = {0,GameEngine.STOP};
+        return () -> {
+            if(state[0]++ % reactionTicks == 0){
+                double dx = wall.getBall(0).getPosition().getX() + random.nextGaussian() * 20 - wall.player.getX();
+                state[1] = dx < -10 ? GameEngine.LEFT : dx > 10 ? GameEngine.RIGHT : GameEngine.STOP;
+            }
+            return state[1];
+        };
+    }
+
+    /**
+     * main Method plays a bot against a bot run by another process, on this machine or another one.
+     * usage: VersusPeer side localPort remoteHost:port [latencyMillis lossPercent]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if(args.length < 3){
+            System.out.println("usage: VersusPeer side localPort remoteHost:port [latencyMillis lossPercent]");
+            return;
+        }
+        int side = Integer.parseInt(args[0]);
+        int port = Integer.parseInt(args[1]);
+        String[] host = args[2].split(":");
+        Link link = args.length > 4 ? new Link(Integer.parseInt(args[3]),0,Integer.parseInt(args[4]) / 100.0,side) : null;
+
+        //fixed point, so peers on different machines play the same match
+        VersusMatch match = new VersusMatch(new GameEngine.Config().withFixedPoint(true),1);
+        RollbackSession session = new RollbackSession(match,side,DEF_INPUT_DELAY);
+        DatagramChannel channel = DatagramChannel.open().bind(new InetSocketAddress(port));
+        VersusPeer peer = new VersusPeer(session,channel,new InetSocketAddress(host[0],Integer.parseInt(host[1])),link,
+                follow(match.getWall(side),15,side),6_000);
+        GameLoop loop = peer.start(10_000_000L);
+        while(!peer.isDone())
+            Thread.sleep(100);
+        //the other peer may still miss the last inputs of this one
+        Thread.sleep(1_000);
+        peer.stop();
+        channel.close();
+        System.out.println(peer.report());
+        System.out.println(loop.report());
+        System.out.printf("winner %d at frame %d%n",match.getWinner(),match.getFrame());
+    }
+
+}
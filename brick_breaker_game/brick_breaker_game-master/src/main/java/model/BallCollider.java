@@ -0,0 +1,313 @@
+package model;
+
+import controller.BallController;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.Comparator;
+
+
+/**
+ * BallCollider class makes the balls in play bounce off each other.
+ * The broadphase is a sort and sweep along the x axis: the balls are kept sorted by the left side
+ * of their bounding box and only the balls whose x intervals overlap are tested.
+ * The order of the last tick is kept, balls move a few pixels per tick so it is nearly sorted and
+ * an insertion sort brings it back in order in close to linear time.
+ * The response is an elastic collision between equal masses on the integer speeds of BallController:
+ * the same rounded impulse is taken from one ball and given to the other, so momentum is kept exactly.
+ * The one exception is a speed component left at zero: the game needs both components moving, a ball
+ * without vertical speed would bounce between the borders forever, so it gets one pixel per tick away from the other ball.
+ * In fixed point the balls are pushed apart and bounced in integers, see collideFixed.
+ * Next to the order the index of every ball in the balls in play is kept and moved with it, so the order
+ * is written as it is, see writeState.
+ */
+public class BallCollider {
+
+    private static final int DEF_CAPACITY = 16;
+
+    private BallController[] sorted;
+    private int[] order;
+    private double[] minX;
+    private double[] centerY;
+    private double[] radius;
+    private int count;
+    private boolean valid;
+    private boolean fixedPoint;
+    private int pairTests;
+
+
+    /**
+     * BallCollider is a Default Constructor that creates an empty collider.
+     */
+    public BallCollider(){
+        sorted = new BallController[DEF_CAPACITY];
+        order = new int[DEF_CAPACITY];
+        minX = new double[DEF_CAPACITY];
+        centerY = new double[DEF_CAPACITY];
+        radius = new double[DEF_CAPACITY];
+        count = 0;
+        valid = false;
+    }
+
+    /**
+     * invalidate Method tells the collider the set of balls in play changed,
+     * the next resolve will rebuild the order from scratch.
+     */
+    public void invalidate(){
+        valid = false;
+    }
+
+    /**
+     * resolve Method finds every pair of overlapping balls and bounces them.
+     * @param balls     the balls in play.
+     * @param n         the number of balls in play.
+     */
+    public void resolve(BallController[] balls, int n){
+        pairTests = 0;
+        if(n < 2){
+            count = n;
+            return;
+        }
+        if(!valid || count != n)
+            rebuild(balls, n);
+        else
+            insertionSort();
+
+        //the sweep reads the cached keys only, the balls are touched when two of them really overlap
+        for(int i = 0; i < count; i++){
+            double ra = radius[i];
+            double xa = minX[i] + ra;
+            double ya = centerY[i];
+            double maxX = xa + ra;
+            for(int j = i + 1; j < count && minX[j] <= maxX; j++){
+                pairTests++;
+                double dx = minX[j] + radius[j] - xa;
+                double dy = centerY[j] - ya;
+                double reach = ra + radius[j];
+                if(dx * dx + dy * dy < reach * reach){
+                    if(fixedPoint)
+                        collideFixed(sorted[i], sorted[j]);
+                    else
+                        collide(sorted[i], sorted[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * rebuild is a Private Method that copies the balls in play and sorts them from scratch.
+     * @param balls     the balls in play.
+     * @param n         the number of balls in play.
+     */
+    private void rebuild(BallController[] balls, int n){
+        ensureCapacity(balls.length, n);
+        //the indexes are sorted, the sort is stable so balls with the same left side keep the order they have in play
+        Integer[] indexes = new Integer[n];
+        for(int i = 0; i < n; i++){
+            indexes[i] = i;
+            minX[i] = balls[i].getPosition().getX() - balls[i].getRadius();
+        }
+        Arrays.sort(indexes, Comparator.comparingDouble(i -> minX[i]));
+        for(int i = 0; i < n; i++){
+            order[i] = indexes[i];
+            sorted[i] = balls[order[i]];
+        }
+        count = n;
+        refreshKeys();
+        valid = true;
+    }
+
+    /**
+     * ensureCapacity is a Private Method that makes room for the balls in play and drops the balls left from before.
+     * @param length    the length of the array of the balls in play.
+     * @param n         the number of balls in play.
+     */
+    private void ensureCapacity(int length, int n){
+        if(sorted.length < n){
+            sorted = new BallController[length];
+            order = new int[length];
+            minX = new double[length];
+            centerY = new double[length];
+            radius = new double[length];
+        }
+        Arrays.fill(sorted, n, sorted.length, null);
+    }
+
+    /**
+     * refreshKeys is a Private Method that reads the position and radius of every ball in the current order.
+     */
+    private void refreshKeys(){
+        for(int i = 0; i < count; i++){
+            BallController b = sorted[i];
+            Point2D p = b.getPosition();
+            radius[i] = b.getRadius();
+            minX[i] = p.getX() - radius[i];
+            centerY[i] = p.getY();
+        }
+    }
+
+    /**
+     * insertionSort is a Private Method that refreshes the keys and restores the order of the last tick.
+     */
+    private void insertionSort(){
+        refreshKeys();
+        for(int i = 1; i < count; i++){
+            double key = minX[i];
+            if(minX[i - 1] <= key)
+                continue;
+            BallController b = sorted[i];
+            int index = order[i];
+            double y = centerY[i];
+            double r = radius[i];
+            int j = i - 1;
+            while(j >= 0 && minX[j] > key){
+                minX[j + 1] = minX[j];
+                centerY[j + 1] = centerY[j];
+                radius[j + 1] = radius[j];
+                sorted[j + 1] = sorted[j];
+                order[j + 1] = order[j];
+                j--;
+            }
+            minX[j + 1] = key;
+            centerY[j + 1] = y;
+            radius[j + 1] = r;
+            sorted[j + 1] = b;
+            order[j + 1] = index;
+        }
+    }
+
+    /**
+     * collide is a Private Method that bounces two balls if they overlap and move toward each other.
+     * The balls are also pushed apart by half the overlap each.
+     * @param a     the first ball.
+     * @param b     the second ball.
+     */
+    private void collide(BallController a, BallController b){
+        Point2D pa = a.getPosition();
+        Point2D pb = b.getPosition();
+        double dx = pb.getX() - pa.getX();
+        double dy = pb.getY() - pa.getY();
+        double reach = a.getRadius() + b.getRadius();
+        double d2 = dx * dx + dy * dy;
+        if(d2 >= reach * reach || d2 == 0)
+            return;
+
+        double d = Math.sqrt(d2);
+        double nx = dx / d;
+        double ny = dy / d;
+
+        double overlap = (reach - d) / 2;
+        a.setPosition(pa.getX() - nx * overlap, pa.getY() - ny * overlap);
+        b.setPosition(pb.getX() + nx * overlap, pb.getY() + ny * overlap);
+
+        //speed of a toward b along the normal, nothing to do if they are already separating
+        double vn = (a.getSpeedX() - b.getSpeedX()) * nx + (a.getSpeedY() - b.getSpeedY()) * ny;
+        if(vn <= 0)
+            return;
+        int ix = (int) Math.round(vn * nx);
+        int iy = (int) Math.round(vn * ny);
+        a.setSpeed(nonZero(a.getSpeedX() - ix, -nx, a.getSpeedX()), nonZero(a.getSpeedY() - iy, -ny, a.getSpeedY()));
+        b.setSpeed(nonZero(b.getSpeedX() + ix, nx, b.getSpeedX()), nonZero(b.getSpeedY() + iy, ny, b.getSpeedY()));
+    }
+
+    /**
+     * collideFixed is a Private Method that bounces two balls as collide does, on their fixed point centers.
+     * The unit normal is never made: the impulse along it is the relative speed projected on the center
+     * to center vector, over the squared distance, so only the push apart needs the integer square root.
+     * @param a     the first ball.
+     * @param b     the second ball.
+     */
+    private void collideFixed(BallController a, BallController b){
+        int ax = a.getFixedX(), ay = a.getFixedY();
+        int bx = b.getFixedX(), by = b.getFixedY();
+        long dx = bx - ax;
+        long dy = by - ay;
+        long reach = a.getFixedRadius() + b.getFixedRadius();
+        long d2 = dx * dx + dy * dy;
+        if(d2 >= reach * reach || d2 == 0)
+            return;
+
+        long d = FixedPoint.sqrt(d2);
+        long overlap = (reach - d) / 2;
+        int px = (int) (dx * overlap / d);
+        int py = (int) (dy * overlap / d);
+        a.setFixedPosition(ax - px, ay - py);
+        b.setFixedPosition(bx + px, by + py);
+
+        long vn = (a.getSpeedX() - b.getSpeedX()) * dx + (a.getSpeedY() - b.getSpeedY()) * dy;
+        if(vn <= 0)
+            return;
+        int ix = (int) FixedPoint.divRound(vn * dx, d2);
+        int iy = (int) FixedPoint.divRound(vn * dy, d2);
+        a.setSpeed(nonZero(a.getSpeedX() - ix, -dx, a.getSpeedX()), nonZero(a.getSpeedY() - iy, -dy, a.getSpeedY()));
+        b.setSpeed(nonZero(b.getSpeedX() + ix, dx, b.getSpeedX()), nonZero(b.getSpeedY() + iy, dy, b.getSpeedY()));
+    }
+
+    /**
+     * setFixedPoint Method makes the collider bounce the balls on their fixed point centers.
+     * @param fixedPoint    true if the wall runs in fixed point.
+     */
+    public void setFixedPoint(boolean fixedPoint){
+        this.fixedPoint = fixedPoint;
+    }
+
+    /**
+     * nonZero is a Private Method that keeps a speed component moving.
+     * @param speed     the speed after the collision.
+     * @param away      the normal component pointing away from the other ball.
+     * @param before    the speed before the collision.
+     * @return          returns the speed, or one pixel per tick away from the other ball if it was zero.
+     */
+    private static int nonZero(int speed, double away, int before){
+        if(speed != 0)
+            return speed;
+        if(away != 0)
+            return away > 0 ? 1 : -1;
+        return before < 0 ? -1 : 1;
+    }
+
+    /**
+     * writeState Method writes the order the balls are kept in, as indexes of the balls in play.
+     * Balls with the same left side keep the order they had, so the order is part of the state of the game.
+     * The indexes are the ones kept with the order, the set of balls in play has not changed since they were,
+     * or the collider would have been invalidated.
+     * @param out       the buffer the state is written to.
+     * @param balls     the balls in play.
+     * @param n         the number of balls in play.
+     */
+    public void writeState(StateBuffer out, BallController[] balls, int n){
+        boolean kept = valid && count == n && n > 1;
+        out.writeBoolean(kept);
+        if(!kept)
+            return;
+        for(int i = 0; i < count; i++)
+            out.writeVarInt(order[i]);
+    }
+
+    /**
+     * readState Method puts back the order writeState found, on the balls in play now.
+     * @param in        the buffer the state is read from.
+     * @param balls     the balls in play, as they were written.
+     * @param n         the number of balls in play.
+     */
+    public void readState(StateBuffer in, BallController[] balls, int n){
+        valid = in.readBoolean();
+        if(!valid)
+            return;
+        ensureCapacity(balls.length, n);
+        for(int i = 0; i < n; i++){
+            order[i] = in.readVarInt();
+            sorted[i] = balls[order[i]];
+        }
+        count = n;
+    }
+
+    /**
+     * getPairTests is a Getter Method.
+     * @return  returns how many pairs the sweep tested in the last resolve.
+     */
+    public int getPairTests(){
+        return pairTests;
+    }
+
+}
@@ -0,0 +1,305 @@
+package model;
+
+import controller.BallController;
+import controller.CircleImpact;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+
+
+/**
+ * BrickGrid class is a uniform spatial grid over the bricks of a single level.
+ * Each cell keeps the indexes of the bricks whose bounds overlap it, so a ball only has to be
+ * tested against the few bricks around its probe points instead of the whole wall.
+ * Broken bricks are removed from the grid, repaired bricks are added back by rebuild().
+ */
+public class BrickGrid {
+
+    private static final int DEF_CELL_CAPACITY = 4;
+
+    private BrickStore store;
+
+    private double originX;
+    private double originY;
+    private double cellWidth;
+    private double cellHeight;
+    private int fixedOriginX;
+    private int fixedOriginY;
+    private int fixedCellWidth;
+    private int fixedCellHeight;
+    private int columns;
+    private int rows;
+
+    private int[][] cells;
+    private int[] cellSizes;
+
+    private long[] ballKeys;
+
+
+    /**
+     * BrickGrid is a Parameterized Constructor that builds the grid for the given level.
+     * The cell size is the size of the biggest brick, so every brick overlaps at most four cells.
+     * @param store     the bricks of the level.
+     */
+    public BrickGrid(BrickStore store){
+        this.store = store;
+
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        cellWidth = 1;
+        cellHeight = 1;
+        for(int i = 0; i < store.size(); i++){
+            minX = Math.min(minX, store.getX(i));
+            minY = Math.min(minY, store.getY(i));
+            maxX = Math.max(maxX, store.getX(i) + store.getWidth(i));
+            maxY = Math.max(maxY, store.getY(i) + store.getHeight(i));
+            cellWidth = Math.max(cellWidth, store.getWidth(i));
+            cellHeight = Math.max(cellHeight, store.getHeight(i));
+        }
+
+        if(store.size() == 0){
+            minX = minY = maxX = maxY = 0;
+        }
+        originX = minX;
+        originY = minY;
+        //the bricks are on whole pixels, the grid is as well
+        fixedOriginX = FixedPoint.toFixed(originX);
+        fixedOriginY = FixedPoint.toFixed(originY);
+        fixedCellWidth = FixedPoint.toFixed(cellWidth);
+        fixedCellHeight = FixedPoint.toFixed(cellHeight);
+        columns = (int) Math.floor((maxX - minX) / cellWidth) + 1;
+        rows = (int) Math.floor((maxY - minY) / cellHeight) + 1;
+
+        cells = new int[columns * rows][];
+        cellSizes = new int[columns * rows];
+        ballKeys = new long[0];
+
+        rebuild();
+    }
+
+    /**
+     * rebuild Method empties the grid and inserts again every brick that is not broken.
+     * Used when the wall is repaired.
+     */
+    public void rebuild(){
+        Arrays.fill(cellSizes, 0);
+        for(int i = 0; i < store.size(); i++)
+            if(!store.isBroken(i))
+                insert(i);
+    }
+
+    /**
+     * insert Method adds the brick index to every cell its bounds overlap, usually because it has been mended.
+     * @param index     the index of the brick in the level, not in the grid.
+     */
+    public void insert(int index){
+        int fromX = column(store.getX(index));
+        int toX = Math.min(column(store.getX(index) + store.getWidth(index)), columns - 1);
+        int fromY = row(store.getY(index));
+        int toY = Math.min(row(store.getY(index) + store.getHeight(index)), rows - 1);
+        for(int y = fromY; y <= toY; y++)
+            for(int x = fromX; x <= toX; x++)
+                add(y * columns + x, index);
+    }
+
+    /**
+     * add is a Private Method that appends a brick index to a cell, growing the cell when full.
+     * @param cell      the cell index.
+     * @param index     the brick index.
+     */
+    private void add(int cell, int index){
+        int[] c = cells[cell];
+        if(c == null){
+            c = new int[DEF_CELL_CAPACITY];
+            cells[cell] = c;
+        }
+        else if(cellSizes[cell] == c.length){
+            c = Arrays.copyOf(c, c.length * 2);
+            cells[cell] = c;
+        }
+        c[cellSizes[cell]++] = index;
+    }
+
+    /**
+     * remove Method drops a brick from the grid, usually because it has been broken.
+     * @param index     the index of the brick in the level.
+     */
+    public void remove(int index){
+        int fromX = column(store.getX(index));
+        int toX = Math.min(column(store.getX(index) + store.getWidth(index)), columns - 1);
+        int fromY = row(store.getY(index));
+        int toY = Math.min(row(store.getY(index) + store.getHeight(index)), rows - 1);
+        for(int y = fromY; y <= toY; y++){
+            for(int x = fromX; x <= toX; x++){
+                int cell = y * columns + x;
+                int[] c = cells[cell];
+                for(int k = 0; k < cellSizes[cell]; k++){
+                    if(c[k] == index){
+                        c[k] = c[--cellSizes[cell]];
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * orderByCell Method sorts the balls by the grid cell of their center, so the balls of the same
+     * cell are resolved one after the other and read the same cell lists and bricks while they are still in cache.
+     * The order only helps memory locality, nothing is kept from one ball to the next.
+     * Balls outside the grid go last, ties keep the ball order.
+     * @param balls     the balls in play.
+     * @param n         the number of balls in play.
+     * @param order     receives the ball indexes in resolution order.
+     */
+    public void orderByCell(BallController[] balls, int n, int[] order){
+        if(n == 1){
+            order[0] = 0;
+            return;
+        }
+        if(ballKeys.length < n)
+            ballKeys = new long[order.length];
+        long outside = (long) columns * rows;
+        for(int i = 0; i < n; i++){
+            Point2D p = balls[i].getPosition();
+            int x = column(p.getX());
+            int y = row(p.getY());
+            long cell = (x < 0 || x >= columns || y < 0 || y >= rows) ? outside : (long) y * columns + x;
+            ballKeys[i] = (cell << 32) | i;
+        }
+        Arrays.sort(ballKeys, 0, n);
+        for(int i = 0; i < n; i++)
+            order[i] = (int) ballKeys[i];
+    }
+
+    /**
+     * findFirstImpact Method looks for the brick hit by the ball.
+     * Only the bricks in the cells overlapped by the ball's bounding box are tested, and the
+     * lowest brick index wins so the result is the same one a linear scan of the level would give.
+     * @param b         passing in the Object/Reference variable of the BallController class. Aggregation relationship.
+     * @param impact    receives the side and depth of the impact on the brick found.
+     * @return          returns the index of the brick hit, -1 if no brick has been hit.
+     */
+    public int findFirstImpact(BallController b, CircleImpact impact){
+        double cx = b.getPosition().getX();
+        double cy = b.getPosition().getY();
+        double r = b.getRadius();
+
+        int fromX = Math.max(column(cx - r), 0);
+        int toX = Math.min(column(cx + r), columns - 1);
+        int fromY = Math.max(row(cy - r), 0);
+        int toY = Math.min(row(cy + r), rows - 1);
+
+        int hit = Integer.MAX_VALUE;
+        for(int y = fromY; y <= toY; y++){
+            for(int x = fromX; x <= toX; x++){
+                int cell = y * columns + x;
+                int[] c = cells[cell];
+                for(int k = 0; k < cellSizes[cell]; k++){
+                    int index = c[k];
+                    if(index < hit && store.findImpact(index,cx,cy,r,impact) != 0)
+                        hit = index;
+                }
+            }
+        }
+        if(hit == Integer.MAX_VALUE)
+            return -1;
+        //the last test may not be the winning brick, repeat it so the impact describes the brick returned
+        store.findImpact(hit,cx,cy,r,impact);
+        return hit;
+    }
+
+    /**
+     * findFirstImpactFixed Method looks for the brick hit by the ball as findFirstImpact does, in fixed point.
+     * @param b         the ball, its fixed point center is tested.
+     * @param impact    receives the side and the fixed point depth of the impact on the brick found.
+     * @return          returns the index of the brick hit, -1 if no brick has been hit.
+     */
+    public int findFirstImpactFixed(BallController b, CircleImpact impact){
+        int cx = b.getFixedX();
+        int cy = b.getFixedY();
+        int r = b.getFixedRadius();
+
+        int fromX = Math.max(Math.floorDiv(cx - r - fixedOriginX, fixedCellWidth), 0);
+        int toX = Math.min(Math.floorDiv(cx + r - fixedOriginX, fixedCellWidth), columns - 1);
+        int fromY = Math.max(Math.floorDiv(cy - r - fixedOriginY, fixedCellHeight), 0);
+        int toY = Math.min(Math.floorDiv(cy + r - fixedOriginY, fixedCellHeight), rows - 1);
+
+        int hit = Integer.MAX_VALUE;
+        for(int y = fromY; y <= toY; y++){
+            for(int x = fromX; x <= toX; x++){
+                int cell = y * columns + x;
+                int[] c = cells[cell];
+                for(int k = 0; k < cellSizes[cell]; k++){
+                    int index = c[k];
+                    if(index < hit && store.findImpactFixed(index,cx,cy,r,impact) != 0)
+                        hit = index;
+                }
+            }
+        }
+        if(hit == Integer.MAX_VALUE)
+            return -1;
+        store.findImpactFixed(hit,cx,cy,r,impact);
+        return hit;
+    }
+
+    /**
+     * findEarliestImpact Method looks for the first brick touched by a ball moving along a segment.
+     * The bricks of every cell overlapped by the bounding box of the swept ball are tested,
+     * the earliest time of impact wins and the lowest brick index breaks the ties.
+     * @param px        the x of the ball center at the start of the motion.
+     * @param py        the y of the ball center at the start of the motion.
+     * @param dx        the motion along x.
+     * @param dy        the motion along y.
+     * @param r         the radius of the ball.
+     * @param impact    receives the side and time of impact on the brick found.
+     * @return          returns the index of the brick touched first, -1 if no brick is touched.
+     */
+    public int findEarliestImpact(double px, double py, double dx, double dy, double r, CircleImpact impact){
+        int fromX = Math.max(column(Math.min(px, px + dx) - r), 0);
+        int toX = Math.min(column(Math.max(px, px + dx) + r), columns - 1);
+        int fromY = Math.max(row(Math.min(py, py + dy) - r), 0);
+        int toY = Math.min(row(Math.max(py, py + dy) + r), rows - 1);
+
+        int hit = -1;
+        double first = Double.MAX_VALUE;
+        for(int y = fromY; y <= toY; y++){
+            for(int x = fromX; x <= toX; x++){
+                int cell = y * columns + x;
+                int[] c = cells[cell];
+                for(int k = 0; k < cellSizes[cell]; k++){
+                    int index = c[k];
+                    if(store.sweep(index,px,py,dx,dy,r,impact) == 0)
+                        continue;
+                    double t = impact.getTime();
+                    if(t < first || (t == first && index < hit)){
+                        first = t;
+                        hit = index;
+                    }
+                }
+            }
+        }
+        if(hit >= 0)
+            store.sweep(hit,px,py,dx,dy,r,impact);
+        return hit;
+    }
+
+    /**
+     * column is a Private Method that maps an x coordinate to a grid column.
+     * @param x     the x coordinate.
+     * @return      returns the column, outside [0,columns) if x is outside the grid.
+     */
+    private int column(double x){
+        return (int) Math.floor((x - originX) / cellWidth);
+    }
+
+    /**
+     * row is a Private Method that maps a y coordinate to a grid row.
+     * @param y     the y coordinate.
+     * @return      returns the row, outside [0,rows) if y is outside the grid.
+     */
+    private int row(double y){
+        return (int) Math.floor((y - originY) / cellHeight);
+    }
+
+}
@@ -0,0 +1,402 @@
+package model;
+
+import controller.BallController;
+import controller.BrickController;
+import controller.CircleImpact;
+
+import java.awt.*;
+import java.awt.geom.Point2D;
+
+
+/**
+ * BrickStore class keeps the state of the bricks of a level in parallel primitive arrays
+ * (structure of arrays), so the collision scans run over contiguous memory instead of chasing
+ * a pointer to every brick object.
+ * The store is the one owner of the strength and broken flag of every brick. The BrickController objects are
+ * views of an index of the store: the renderer draws them and the brick type rules (steel break chance,
+ * cement cracks) run on them, and they read and write the strength here, see setStrength.
+ * The crack of a cement brick stays in the brick, it is the shape of the view.
+ */
+public class BrickStore {
+
+    private BrickController[] views;
+
+    private int[] x;
+    private int[] y;
+    private int[] width;
+    private int[] height;
+    private int[] strength;
+    private int[] fullStrength;
+    private boolean[] broken;
+    private int[] type;
+    //a bit for every brick not as repair leaves it, so a snapshot visits the hit bricks only
+    private long[] hit;
+    private int hitCount;
+
+    private CircleImpact circleImpact;
+    private long version;
+
+
+    /**
+     * BrickStore is a Parameterized Constructor that copies the geometry of the bricks and takes over their state,
+     * every brick is repaired and becomes the view of its index.
+     * @param views     the bricks of the level, in no store yet.
+     */
+    public BrickStore(BrickController[] views){
+        this.views = views;
+        int n = views.length;
+        x = new int[n];
+        y = new int[n];
+        width = new int[n];
+        height = new int[n];
+        strength = new int[n];
+        fullStrength = new int[n];
+        broken = new boolean[n];
+        type = new int[n];
+        hit = new long[(n + 63) >> 6];
+        circleImpact = new CircleImpact();
+
+        for(int i = 0; i < n; i++){
+            Rectangle r = views[i].getBounds();
+            x[i] = r.x;
+            y[i] = r.y;
+            width[i] = r.width;
+            height[i] = r.height;
+            fullStrength[i] = strength[i] = views[i].getFullStrength();
+            type[i] = typeOf(views[i]);
+            views[i].bind(this,i);
+        }
+    }
+
+    /**
+     * typeOf is a Private Method that maps a brick object to its type id.
+     * @param b     the brick.
+     * @return      returns CLAY, STEEL or CEMENT as defined in WallModel.
+     */
+    private static int typeOf(BrickController b){
+        if(b instanceof SteelBrickModel)
+            return WallModel.STEEL;
+        if(b instanceof CementBrickModel)
+            return WallModel.CEMENT;
+        return WallModel.CLAY;
+    }
+
+    /**
+     * setStrength Method sets the strength left in a brick, a brick with no strength left is broken.
+     * It is called by the view of the brick, which runs the rules of its type; the other callers go through the view.
+     * @param i         the brick index.
+     * @param strength  the strength left.
+     */
+    public void setStrength(int i, int strength){
+        this.strength[i] = strength;
+        broken[i] = strength == 0;
+        long bit = 1L << i;
+        boolean wasHit = (hit[i >> 6] & bit) != 0;
+        if(wasHit != (strength != fullStrength[i])){
+            hit[i >> 6] ^= bit;
+            hitCount += wasHit ? -1 : 1;
+        }
+    }
+
+    /**
+     * updateGrid is a Private Method that puts a brick in the grid, or takes it out, if it was mended or broken.
+     * @param i         the brick index.
+     * @param wasBroken true if the brick was broken before it changed.
+     * @param grid      the grid of the level.
+     */
+    private void updateGrid(int i, boolean wasBroken, BrickGrid grid){
+        if(broken[i] != wasBroken){
+            if(broken[i])
+                grid.remove(i);
+            else
+                grid.insert(i);
+        }
+    }
+
+    /**
+     * nextHit is a Private Method that finds the next brick not as repair leaves it.
+     * @param from  the first brick index to look at.
+     * @return      returns the index of the brick, the number of bricks if there is none.
+     */
+    private int nextHit(int from){
+        int w = from >> 6;
+        if(w >= hit.length)
+            return views.length;
+        long bits = hit[w] & (-1L << from);
+        while(bits == 0){
+            if(++w == hit.length)
+                return views.length;
+            bits = hit[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * findImpact Method determines the direction of the impact of the ball on a brick,
+     * with the same rules as BrickController.findImpact but on the primitive arrays.
+     * @param i     the brick index.
+     * @param b     passing in the Object/Reference variable of the BallController class. Aggregation relationship.
+     * @return      returns the side of the brick hit, 0 if there is no impact.
+     */
+    public int findImpact(int i, BallController b){
+        return findImpact(i,b.getPosition().getX(),b.getPosition().getY(),b.getRadius(),circleImpact);
+    }
+
+    /**
+     * findImpact Method tests a circle against a brick and leaves the side and depth in the impact given.
+     * @param i         the brick index.
+     * @param cx        the x of the ball center.
+     * @param cy        the y of the ball center.
+     * @param r         the radius of the ball.
+     * @param impact    the object receiving the side and the penetration depth.
+     * @return          returns the side of the brick hit, 0 if there is no impact.
+     */
+    public int findImpact(int i, double cx, double cy, double r, CircleImpact impact){
+        if(broken[i])
+            return 0;
+        return impact.test(cx,cy,r,x[i],y[i],width[i],height[i]);
+    }
+
+    /**
+     * findImpactFixed Method tests a circle in fixed point against a brick, see CircleImpact.testFixed.
+     * @param i         the brick index.
+     * @param cx        the x of the ball center, in 1/256 of a pixel.
+     * @param cy        the y of the ball center, in 1/256 of a pixel.
+     * @param r         the radius of the ball, in 1/256 of a pixel.
+     * @param impact    the object receiving the side and the penetration depth.
+     * @return          returns the side of the brick hit, 0 if there is no impact.
+     */
+    public int findImpactFixed(int i, int cx, int cy, int r, CircleImpact impact){
+        if(broken[i])
+            return 0;
+        return impact.testFixed(cx,cy,r,FixedPoint.toFixed(x[i]),FixedPoint.toFixed(y[i]),
+                FixedPoint.toFixed(width[i]),FixedPoint.toFixed(height[i]));
+    }
+
+    /**
+     * sweep Method finds when a ball moving along a segment first touches a brick.
+     * @param i         the brick index.
+     * @param px        the x of the ball center at the start of the motion.
+     * @param py        the y of the ball center at the start of the motion.
+     * @param dx        the motion along x.
+     * @param dy        the motion along y.
+     * @param r         the radius of the ball.
+     * @param impact    the object receiving the side and the time of impact.
+     * @return          returns the side of the brick hit, 0 if the brick is not touched.
+     */
+    public int sweep(int i, double px, double py, double dx, double dy, double r, CircleImpact impact){
+        if(broken[i])
+            return 0;
+        return impact.sweep(px,py,dx,dy,r,x[i],y[i],width[i],height[i]);
+    }
+
+    /**
+     * findFirstImpact Method linearly scans the whole store for the first brick hit by the ball.
+     * @param b     the ball.
+     * @return      returns the index of the brick hit, -1 if no brick has been hit.
+     */
+    public int findFirstImpact(BallController b){
+        //the ball is read once, the loop then only touches the primitive arrays
+        double cx = b.getPosition().getX();
+        double cy = b.getPosition().getY();
+        double r = b.getRadius();
+        for(int i = 0; i < broken.length; i++){
+            if(broken[i])
+                continue;
+            int x0 = x[i], y0 = y[i];
+            if(cx + r < x0 || cy + r < y0 || cx - r > x0 + width[i] || cy - r > y0 + height[i])
+                continue;
+            if(circleImpact.test(cx,cy,r,x0,y0,width[i],height[i]) != 0)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * setImpact Method applies an impact to a brick through its view, which runs the rules of its type.
+     * @param i         the brick index.
+     * @param point     point of impact.
+     * @param dir       direction of impact.
+     * @return          returns true if the brick has been broken by the impact.
+     */
+    public boolean setImpact(int i, Point2D point, int dir){
+        boolean out = views[i].setImpact(point, dir);
+        version++;
+        return out;
+    }
+
+    /**
+     * repair Method repairs every brick of the level.
+     */
+    public void repair(){
+        for(int i = 0; i < views.length; i++)
+            views[i].repair();
+        version++;
+    }
+
+    /**
+     * writeState Method writes the bricks that are not as repair leaves them, the others are implied.
+     * A brick is written as the step from the index of the one before, its strength and, for a cement brick, its crack;
+     * a step of 0 ends the bricks. There is no count first, so a brick hit changes the bytes of that brick only.
+     * A brick at full strength has never been hit since it was repaired, so it has no crack either.
+     * @param out   the buffer the state is written to.
+     */
+    public void writeState(StateBuffer out){
+        int last = -1;
+        for(int i = nextHit(0); i < views.length; i = nextHit(i + 1)){
+            out.writeVarInt(i - last);
+            last = i;
+            out.writeVarInt(strength[i]);
+            if(type[i] == WallModel.CEMENT)
+                writeImpacts(out,((CementBrickModel) views[i]).getCrackImpacts());
+        }
+        out.writeVarInt(0);
+    }
+
+    private static void writeImpacts(StateBuffer out, int[] impacts){
+        int n = impacts == null ? 0 : impacts.length;
+        out.writeVarInt(n / 3);
+        for(int k = 0; k < n; k += 3){
+            out.writeSignedVarInt(impacts[k]);
+            out.writeSignedVarInt(impacts[k + 1]);
+            out.writeVarInt(impacts[k + 2]);
+        }
+    }
+
+    private static int[] readImpacts(StateBuffer in){
+        int n = in.readVarInt() * 3;
+        if(n == 0)
+            return null;
+        int[] impacts = new int[n];
+        for(int k = 0; k < n; k += 3){
+            impacts[k] = in.readSignedVarInt();
+            impacts[k + 1] = in.readSignedVarInt();
+            impacts[k + 2] = in.readVarInt();
+        }
+        return impacts;
+    }
+
+    /**
+     * sameImpacts is a Private Method that reads a crack and compares it with the one of a brick.
+     * @param in        the buffer, left after the crack if it is the same, somewhere in it if not.
+     * @param impacts   the impacts of the crack of the brick.
+     * @return          returns true if the crack read is the same.
+     */
+    private static boolean sameImpacts(StateBuffer in, int[] impacts){
+        int n = in.readVarInt() * 3;
+        if(n != (impacts == null ? 0 : impacts.length))
+            return false;
+        for(int k = 0; k < n; k += 3)
+            if(in.readSignedVarInt() != impacts[k] || in.readSignedVarInt() != impacts[k + 1] || in.readVarInt() != impacts[k + 2])
+                return false;
+        return true;
+    }
+
+    /**
+     * readState Method puts the bricks back as writeState found them.
+     * The bricks hit now and the bricks hit in the state are walked together, only the ones that differ are touched
+     * and the grid only takes out the bricks broken and puts back the ones mended, so going back a few ticks
+     * costs a few bricks whatever the size of the level.
+     * @param in    the buffer the state is read from.
+     * @param grid  the grid of the level, kept in step with the broken bricks.
+     */
+    public void readState(StateBuffer in, BrickGrid grid){
+        boolean changed = false;
+        int i = -1;
+        int from = 0;
+        for(int step = in.readVarInt(); step != 0; step = in.readVarInt()){
+            i += step;
+            //the bricks hit now that are not in the state are repaired
+            for(int j = nextHit(from); j < i; j = nextHit(j + 1)){
+                boolean wasBroken = broken[j];
+                views[j].repair();
+                updateGrid(j,wasBroken,grid);
+                changed = true;
+            }
+            int s = in.readVarInt();
+            boolean wasBroken = broken[i];
+            if(type[i] == WallModel.CEMENT){
+                int at = in.getPosition();
+                CementBrickModel cement = (CementBrickModel) views[i];
+                if(s != strength[i] || !sameImpacts(in,cement.getCrackImpacts())){
+                    in.setPosition(at);
+                    cement.restore(s,readImpacts(in));
+                    updateGrid(i,wasBroken,grid);
+                    changed = true;
+                }
+            }
+            else if(s != strength[i]){
+                views[i].restore(s);
+                updateGrid(i,wasBroken,grid);
+                changed = true;
+            }
+            from = i + 1;
+        }
+        for(int j = nextHit(from); j < views.length; j = nextHit(j + 1)){
+            boolean wasBroken = broken[j];
+            views[j].repair();
+            updateGrid(j,wasBroken,grid);
+            changed = true;
+        }
+        if(changed)
+            version++;
+    }
+
+    /**
+     * getVersion is a Getter Method.
+     * @return      returns a number that changes every time a brick is hit or repaired.
+     */
+    public long getVersion(){
+        return version;
+    }
+
+    /**
+     * size Method returns the number of bricks in the store.
+     * @return      returns the number of bricks.
+     */
+    public int size(){
+        return views.length;
+    }
+
+    /**
+     * view Method returns the brick object used to draw the brick.
+     * @param i     the brick index.
+     * @return      returns the brick view.
+     */
+    public BrickController view(int i){
+        return views[i];
+    }
+
+    public int getX(int i){
+        return x[i];
+    }
+
+    public int getY(int i){
+        return y[i];
+    }
+
+    public int getWidth(int i){
+        return width[i];
+    }
+
+    public int getHeight(int i){
+        return height[i];
+    }
+
+    public int getStrength(int i){
+        return strength[i];
+    }
+
+    public int getFullStrength(int i){
+        return fullStrength[i];
+    }
+
+    public boolean isBroken(int i){
+        return broken[i];
+    }
+
+    public int getType(int i){
+        return type[i];
+    }
+
+}
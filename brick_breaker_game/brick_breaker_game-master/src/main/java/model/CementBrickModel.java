@@ -1,9 +1,9 @@
 package model;
 
 import controller.BrickController;
+import controller.CrackCache;
 
 import java.awt.*;
-import java.awt.geom.GeneralPath;
 import java.awt.geom.Point2D;
 
 
@@ -32,8 +32,30 @@ public class CementBrickModel extends BrickController {
      * @param size      size of the brick.
      */
     public CementBrickModel(Point point, Dimension size){
+        this(point,size,new GameRandom().getCrack());
+    }
+
+    /**
+     * CementBrickModel is a Parameterized Constructor that draws the seed of the crack from the stream given.
+     * @param point     brick position/location.
+     * @param size      size of the brick.
+     * @param rnd       the crack stream of the game.
+     */
+    public CementBrickModel(Point point, Dimension size, GameRandom.Stream rnd){
+        this(point,size,rnd,new CrackCache());
+    }
+
+    /**
+     * CementBrickModel is a Parameterized Constructor that draws the seed of the crack from the stream given and keeps
+     * the paths of its crack in the cache of its wall.
+     * @param point     brick position/location.
+     * @param size      size of the brick.
+     * @param rnd       the crack stream of the game.
+     * @param cache     the crack paths of the wall.
+     */
+    public CementBrickModel(Point point, Dimension size, GameRandom.Stream rnd, CrackCache cache){
         super(NAME,point,size,DEF_BORDER,DEF_INNER,CEMENT_STRENGTH);
-        crack = new Crack(DEF_CRACK_DEPTH,DEF_STEPS);
+        crack = new Crack(DEF_CRACK_DEPTH,DEF_STEPS,rnd.nextLong(),cache);
         brickFace = super.brickFace;
     }
 
@@ -82,13 +104,40 @@ public class CementBrickModel extends BrickController {
 
     /**
      * updateBrick is a Private Method that is responsible for updating the Cement brick if not broken.
+     * The crack makes a new face for every impact, a face already handed out may still be drawn by another thread.
      */
     private void updateBrick(){
-        if(!super.isBroken()){
-            GeneralPath gp = crack.draw();
-            gp.append(super.brickFace,false);
-            brickFace = gp;
-        }
+        if(!super.isBroken())
+            brickFace = crack.face();
+    }
+
+    /**
+     * getCrackImpacts is a Getter Method.
+     * @return      returns the impacts of the crack, see Crack.getImpacts.
+     */
+    public int[] getCrackImpacts(){
+        return crack.getImpacts();
+    }
+
+    /**
+     * restore Method puts back the strength and the crack of the brick.
+     * @param strength  the strength left.
+     * @param impacts   the impacts of the crack, see Crack.getImpacts.
+     */
+    public void restore(int strength, int[] impacts){
+        super.restore(strength);
+        crack.restore(impacts);
+        brickFace = impacts != null && !super.isBroken() ? crack.face() : super.brickFace;
+    }
+
+    /**
+     * reseed Method changes the seed of the crack, as if the brick had drawn another one when it was made.
+     * @param seed  the seed of the crack.
+     */
+    public void reseed(long seed){
+        crack.setSeed(seed);
+        if(crack.face() != null && !super.isBroken())
+            brickFace = crack.face();
     }
 
     /**
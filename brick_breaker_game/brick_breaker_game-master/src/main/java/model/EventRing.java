@@ -0,0 +1,201 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * EventRing class is a ring of game events written by the simulation and read by any number of readers.
+ * The slots are preallocated in one AtomicLongArray, an event is a type, an int of data and a point,
+ * so publishing never allocates and never waits for a reader.
+ * Every reader keeps its own position. A reader that falls more than the capacity behind loses the
+ * oldest events it had not read yet, it is moved to the oldest event still in the ring and told how many it missed.
+ * Each slot starts with a sequence word used as a seqlock: it is odd while the slot is written and
+ * even once the event is complete, a reader checks it before and after copying the slot.
+ * Every word is written with lazySet: each is ordered after the writes before it, which is all the seqlock needs, and
+ * costs far less than a full volatile write per word. Every word is read with a volatile get.
+ * There must be a single writer at a time.
+ */
+public class EventRing {
+
+    public static final int BRICK_HIT = 1;
+    public static final int BRICK_BROKEN = 2;
+    public static final int BALL_LOST = 3;
+    public static final int LEVEL_CLEARED = 4;
+    public static final int LEVEL_STARTED = 5;
+    public static final int WALL_RESET = 6;
+
+    private static final int SLOT_LONGS = 4;
+    private static final int SEQ = 0;
+    private static final int HEADER = 1;
+    private static final int X = 2;
+    private static final int Y = 3;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final AtomicLong head;
+
+
+    /**
+     * EventRing is a Parameterized Constructor that allocates every slot of the ring.
+     * @param capacity  how many events the ring keeps, rounded up to a power of two.
+     */
+    public EventRing(int capacity){
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        slots = new AtomicLongArray(size * SLOT_LONGS);
+        mask = size - 1;
+        head = new AtomicLong();
+    }
+
+    /**
+     * publish Method writes an event in the next slot, over the oldest event if the ring is full.
+     * @param type      the type of the event, one of the constants of this class.
+     * @param data      the brick index, the balls left or the level, depending on the type.
+     * @param x         the x of where the event happened.
+     * @param y         the y of where the event happened.
+     */
+    public void publish(int type, int data, double x, double y){
+        long seq = head.get();
+        int base = (int) (seq & mask) * SLOT_LONGS;
+        //the slot is marked as being written before any of its words changes, a lazySet is ordered after the one before
+        slots.lazySet(base + SEQ, seq * 2 + 1);
+        slots.lazySet(base + HEADER, ((long) type << 32) | (data & 0xFFFFFFFFL));
+        slots.lazySet(base + X, Double.doubleToRawLongBits(x));
+        slots.lazySet(base + Y, Double.doubleToRawLongBits(y));
+        slots.lazySet(base + SEQ, seq * 2 + 2);
+        head.lazySet(seq + 1);
+    }
+
+    /**
+     * getPublished is a Getter Method.
+     * @return  returns how many events have been published since the ring was created.
+     */
+    public long getPublished(){
+        return head.get();
+    }
+
+    /**
+     * getCapacity is a Getter Method.
+     * @return  returns how many events the ring keeps.
+     */
+    public int getCapacity(){
+        return mask + 1;
+    }
+
+    /**
+     * newReader Method creates a reader that starts at the next event published.
+     * @return  returns the reader.
+     */
+    public Reader newReader(){
+        return new Reader(head.get());
+    }
+
+
+    /**
+     * Reader class is a Nested Class that reads the events of the ring in order, at its own pace.
+     * The event read last is kept in the reader, so reading does not allocate.
+     * A reader must be used by one thread at a time.
+     */
+    public class Reader{
+
+        private long next;
+        private long missed;
+
+        private long sequence;
+        private int type;
+        private int data;
+        private double x;
+        private double y;
+
+
+        /**
+         * Reader is a Parameterized Constructor that creates a reader.
+         * @param next      the sequence of the first event to read.
+         */
+        private Reader(long next){
+            this.next = next;
+        }
+
+        /**
+         * next Method reads the next event.
+         * @return  returns true if an event was read, false if the reader has read every event published.
+         */
+        public boolean next(){
+            while(true){
+                long published = head.get();
+                if(next >= published)
+                    return false;
+                if(published - next > mask + 1)
+                    skipTo(published - mask - 1);
+
+                int base = (int) (next & mask) * SLOT_LONGS;
+                long done = next * 2 + 2;
+                //volatile reads, the words are read before the sequence is checked again
+                long before = slots.get(base + SEQ);
+                long header = slots.get(base + HEADER);
+                long bx = slots.get(base + X);
+                long by = slots.get(base + Y);
+                long after = slots.get(base + SEQ);
+                if(before != done || after != done){
+                    //the writer went round the ring and is over this slot, start again from the oldest event
+                    skipTo(head.get() - mask);
+                    continue;
+                }
+                sequence = next++;
+                type = (int) (header >>> 32);
+                data = (int) header;
+                x = Double.longBitsToDouble(bx);
+                y = Double.longBitsToDouble(by);
+                return true;
+            }
+        }
+
+        /**
+         * skipTo is a Private Method that moves the reader forward and counts the events it jumps over.
+         * @param sequence  the sequence to move to.
+         */
+        private void skipTo(long sequence){
+            if(sequence > next){
+                missed += sequence - next;
+                next = sequence;
+            }
+        }
+
+        /**
+         * getMissed is a Getter Method.
+         * @return  returns how many events were overwritten before this reader could read them.
+         */
+        public long getMissed(){
+            return missed;
+        }
+
+        /**
+         * getBacklog is a Getter Method.
+         * @return  returns how many events are published and not read yet.
+         */
+        public long getBacklog(){
+            return Math.max(0, head.get() - next);
+        }
+
+        public long getSequence(){
+            return sequence;
+        }
+
+        public int getType(){
+            return type;
+        }
+
+        public int getData(){
+            return data;
+        }
+
+        public double getX(){
+            return x;
+        }
+
+        public double getY(){
+            return y;
+        }
+    }
+
+}
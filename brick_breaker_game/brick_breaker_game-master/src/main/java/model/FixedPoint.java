@@ -0,0 +1,61 @@
+package model;
+
+
+/**
+ * FixedPoint class holds the arithmetic of the fixed point physics: a coordinate is an int counting
+ * 1/256 of a pixel, so a ball position keeps a fraction of a pixel and the physics run on integers only.
+ * Integer results do not depend on the order the operations are done in, or on the machine, so two runs of
+ * a game in fixed point are the same bit for bit, what lockstep games and replays need.
+ * A fixed point value converts to a double and back exactly, the board draws the same doubles as before.
+ */
+public final class FixedPoint {
+
+    public static final int SHIFT = 8;
+    public static final int ONE = 1 << SHIFT;
+
+    private FixedPoint(){
+    }
+
+    public static int toFixed(int pixels){
+        return pixels << SHIFT;
+    }
+
+    /**
+     * toFixed Method converts a coordinate to fixed point.
+     * @param pixels    the coordinate in pixels.
+     * @return          returns the coordinate rounded to the nearest 1/256 of a pixel.
+     */
+    public static int toFixed(double pixels){
+        return (int) Math.round(pixels * ONE);
+    }
+
+    public static double toDouble(int fixed){
+        return fixed / (double) ONE;
+    }
+
+    /**
+     * divRound Method divides and rounds half up, as Math.round does.
+     * @param n     the dividend.
+     * @param d     the divisor, positive.
+     * @return      returns n / d rounded to the nearest integer.
+     */
+    public static long divRound(long n, long d){
+        return Math.floorDiv(2 * n + d,2 * d);
+    }
+
+    /**
+     * sqrt Method is the integer square root.
+     * The double square root is only a first guess, it is corrected until it is exact.
+     * @param n     a number, not negative.
+     * @return      returns the largest integer whose square is not greater than n.
+     */
+    public static long sqrt(long n){
+        long s = (long) Math.sqrt(n);
+        while(s * s > n)
+            s--;
+        while((s + 1) * (s + 1) <= n)
+            s++;
+        return s;
+    }
+
+}
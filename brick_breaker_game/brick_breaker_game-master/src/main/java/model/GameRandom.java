@@ -0,0 +1,205 @@
+package model;
+
+import java.util.SplittableRandom;
+
+
+/**
+ * GameRandom class is the one source of random numbers of a game.
+ * It is made from a seed and splits it into a stream for every part of the game that draws numbers: the launch
+ * speeds of the balls, the seeds of the cracks of the cement bricks and the chance of a steel brick to take a hit.
+ * The streams are independent, so a part drawing more numbers, a wall with more cement bricks, does not change
+ * what another part draws, and the same seed gives the same game bit for bit.
+ * A game owns its GameRandom and the streams are not thread safe; games on different threads share nothing.
+ * A stream is SplitMix64, the generator of SplittableRandom, from a start and a step split from the seed: its n-th
+ * long is the start plus n steps, scrambled. Every number drawn takes exactly one long, so the state of a GameRandom
+ * is its seed and three counts, and a stream is put anywhere by setting its count, forward or back.
+ */
+public class GameRandom {
+
+    /**
+     * Stream class is a Nested Class under the GameRandom class, the random numbers of one part of the game.
+     */
+    public static final class Stream {
+
+        private long seed;
+        private final int index;
+        private long start;
+        private long step;
+        private long draws;
+
+
+        /**
+         * Stream is a Private Parameterized Constructor that makes a stream of a game.
+         * @param seed      the seed of the game.
+         * @param index     the stream, the seed is split that many times before.
+         */
+        private Stream(long seed, int index){
+            this.seed = seed;
+            this.index = index;
+            reset();
+        }
+
+        /**
+         * reset is a Private Method that splits the start and the step of the stream from the seed and goes back to its first number.
+         */
+        private void reset(){
+            SplittableRandom root = new SplittableRandom(seed);
+            for(int i = 0; i < index; i++)
+                root.split();
+            SplittableRandom split = root.split();
+            start = split.nextLong();
+            step = mixGamma(split.nextLong());
+            draws = 0;
+        }
+
+        /**
+         * mixGamma is a Private Method that makes a step the way SplittableRandom makes the gamma of a split.
+         * The step is odd, so it goes through every long before it comes back, and a step with too few changes
+         * between its bits, 0x5555...5 or a run of ones, would give streams that look alike: it is flipped.
+         * @param z     a long drawn from the seed.
+         * @return      returns the step.
+         */
+        private static long mixGamma(long z){
+            z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+            z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+            z = (z ^ (z >>> 33)) | 1L;
+            return Long.bitCount(z ^ (z >>> 1)) < 24 ? z ^ 0xAAAAAAAAAAAAAAAAL : z;
+        }
+
+        /**
+         * reseed is a Private Method that starts the stream again from its first number for another seed.
+         * @param seed  the seed of the game.
+         */
+        private void reseed(long seed){
+            this.seed = seed;
+            reset();
+        }
+
+        /**
+         * nextInt Method draws a number.
+         * The high bits of a long are scaled to the bound instead of drawing again, the bias is under bound / 2^32.
+         * @param bound     the bound of the number, positive.
+         * @return          returns a number from 0 to bound, bound excluded.
+         */
+        public int nextInt(int bound){
+            return (int) (((nextLong() >>> 32) * bound) >>> 32);
+        }
+
+        public long nextLong(){
+            long z = start + ++draws * step;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+
+        /**
+         * nextDouble Method draws a number.
+         * @return  returns a number from 0 to 1, 1 excluded.
+         */
+        public double nextDouble(){
+            return (nextLong() >>> 11) * 0x1.0p-53;
+        }
+
+        /**
+         * getDraws is a Getter Method.
+         * @return  returns how many numbers the stream gave.
+         */
+        public long getDraws(){
+            return draws;
+        }
+
+        /**
+         * skipTo Method puts the stream where it was after a number of draws, forward or back, at no cost.
+         * @param count     the number of draws.
+         */
+        public void skipTo(long count){
+            draws = count;
+        }
+
+    }
+
+    private long seed;
+    private final Stream launch;
+    private final Stream crack;
+    private final Stream steel;
+
+
+    /**
+     * GameRandom is a Default Constructor that makes the random numbers of a game from a seed of its own.
+     */
+    public GameRandom(){
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * GameRandom is a Parameterized Constructor that splits a seed into the streams of a game.
+     * @param seed  the seed of the game.
+     */
+    public GameRandom(long seed){
+        this.seed = seed;
+        launch = new Stream(seed,0);
+        crack = new Stream(seed,1);
+        steel = new Stream(seed,2);
+    }
+
+    public long getSeed(){
+        return seed;
+    }
+
+    /**
+     * reseed Method starts every stream again from its first number for another seed, as a new GameRandom would,
+     * the streams are the same objects.
+     * @param seed  the seed of the game.
+     */
+    public void reseed(long seed){
+        this.seed = seed;
+        launch.reseed(seed);
+        crack.reseed(seed);
+        steel.reseed(seed);
+    }
+
+    /**
+     * writeState Method writes how far every stream is.
+     * @param out   the buffer the state is written to.
+     */
+    public void writeState(StateBuffer out){
+        out.writeVarLong(launch.getDraws());
+        out.writeVarLong(crack.getDraws());
+        out.writeVarLong(steel.getDraws());
+    }
+
+    /**
+     * readState Method puts every stream back where writeState found it, the seed must be the same.
+     * @param in    the buffer the state is read from.
+     */
+    public void readState(StateBuffer in){
+        launch.skipTo(in.readVarLong());
+        crack.skipTo(in.readVarLong());
+        steel.skipTo(in.readVarLong());
+    }
+
+    /**
+     * getLaunch is a Getter Method.
+     * @return  returns the stream of the launch speeds of the balls.
+     */
+    public Stream getLaunch(){
+        return launch;
+    }
+
+    /**
+     * getCrack is a Getter Method.
+     * @return  returns the stream of the seeds of the cracks.
+     */
+    public Stream getCrack(){
+        return crack;
+    }
+
+    /**
+     * getSteel is a Getter Method.
+     * @return  returns the stream of the chance of the steel bricks to take a hit.
+     */
+    public Stream getSteel(){
+        return steel;
+    }
+
+}
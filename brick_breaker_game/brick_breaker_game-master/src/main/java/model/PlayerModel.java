@@ -18,6 +18,7 @@
 package model;
 
 import controller.BallController;
+import controller.CircleImpact;
 
 import java.awt.*;
 
@@ -34,6 +35,7 @@ public class PlayerModel {
     private static final int DEF_MOVE_AMOUNT = 5;
 
     private Rectangle playerFace;
+    private CircleImpact circleImpact;
     private Point ballPoint;
     private int moveAmount;
     private int min;
@@ -54,6 +56,7 @@ public class PlayerModel {
         this.ballPoint = ballPoint;
         moveAmount = 0;
         playerFace = makeRectangle(width, height);
+        circleImpact = new CircleImpact();
         min = container.x + (width / 2);
         max = min + container.width - width;
 
@@ -72,11 +75,46 @@ public class PlayerModel {
 
     /**
      * impact is a Method that implements the impact of the ball on the platform.
+     * The ball is tested as a circle against the platform rectangle, only while it is falling so
+     * that a ball already bounced is not sent back down.
+     * The ball bounces as soon as it touches the platform, on its top or on its ends: the platform catches the ball
+     * one radius further out on each side and one radius higher than when the center had to be inside it.
      * @param b     passing in the Object/Reference variable of the BallController class. Aggregation relationship.
      * @return      returns a boolean value denoting if an impact has occurred or not.
      */
     public boolean impact(BallController b){
-        return playerFace.contains(b.getPosition()) && playerFace.contains(b.down) ;
+        if(b.getSpeedY() <= 0)
+            return false;
+        return circleImpact.test(b.getPosition().getX(),b.getPosition().getY(),b.getRadius(),
+                playerFace.x,playerFace.y,playerFace.width,playerFace.height) != 0;
+    }
+
+    /**
+     * impactFixed is a Method that implements the impact of the ball on the platform as impact does, in fixed point.
+     * @param b     the ball, its fixed point center is tested.
+     * @return      returns a boolean value denoting if an impact has occurred or not.
+     */
+    public boolean impactFixed(BallController b){
+        if(b.getSpeedY() <= 0)
+            return false;
+        return circleImpact.testFixed(b.getFixedX(),b.getFixedY(),b.getFixedRadius(),FixedPoint.toFixed(playerFace.x),
+                FixedPoint.toFixed(playerFace.y),FixedPoint.toFixed(playerFace.width),FixedPoint.toFixed(playerFace.height)) != 0;
+    }
+
+    /**
+     * sweepImpact is a Method that finds when a falling ball moving along a segment touches the platform.
+     * @param px        the x of the ball center at the start of the motion.
+     * @param py        the y of the ball center at the start of the motion.
+     * @param dx        the motion along x.
+     * @param dy        the motion along y.
+     * @param r         the radius of the ball.
+     * @param impact    receives the side and the time of impact.
+     * @return          returns a boolean value denoting if the ball touches the platform during the motion.
+     */
+    public boolean sweepImpact(double px, double py, double dx, double dy, double r, CircleImpact impact){
+        if(dy <= 0)
+            return false;
+        return impact.sweep(px,py,dx,dy,r,playerFace.x,playerFace.y,playerFace.width,playerFace.height) != 0;
     }
 
     /**
@@ -121,6 +159,44 @@ public class PlayerModel {
         return  playerFace;
     }
 
+    /**
+     * getX is a Getter Method.
+     * @return      returns the x of the middle of the player.
+     */
+    public int getX(){
+        return ballPoint.x;
+    }
+
+    /**
+     * getMoveAmount is a Getter Method.
+     * @return      returns how far the player moves every tick, negative to the left, 0 when it stands still.
+     */
+    public int getMoveAmount(){
+        return moveAmount;
+    }
+
+    /**
+     * writeState Method writes the position of the player and how it moves.
+     * @param out   the buffer the state is written to.
+     */
+    public void writeState(StateBuffer out){
+        out.writeSignedVarInt(ballPoint.x);
+        out.writeSignedVarInt(ballPoint.y);
+        out.writeSignedVarInt(moveAmount);
+    }
+
+    /**
+     * readState Method puts the player back as writeState found it.
+     * @param in    the buffer the state is read from.
+     */
+    public void readState(StateBuffer in){
+        int x = in.readSignedVarInt();
+        int y = in.readSignedVarInt();
+        ballPoint.setLocation(x,y);
+        playerFace.setLocation(ballPoint.x - (int)playerFace.getWidth()/2,ballPoint.y);
+        moveAmount = in.readSignedVarInt();
+    }
+
     /**
      * moveTo is a Method that sets the location of the ball and player.
      * @param p
@@ -0,0 +1,320 @@
+package model;
+
+import controller.BallController;
+import controller.BrickController;
+
+import java.awt.*;
+import java.awt.geom.RectangularShape;
+import java.util.Arrays;
+
+
+/**
+ * RenderFrame class is a copy of everything the game board draws for one tick:
+ * the balls with their position before the tick, the player, the bricks and the HUD counters.
+ * A frame is written by the simulation and read by the painter, never both at the same time,
+ * RenderSnapshot hands the frames over between them.
+ * The arrays grow when needed and are reused from one write to the next.
+ * The bricks are copied again only if the brick store changed since this frame was last written.
+ * A cracked brick is copied as the path of its crack, made when the frame is written, so the painter never
+ * generates a crack or reads the crack cache of the wall.
+ */
+public class RenderFrame {
+
+    private int balls;
+    private double[] ballX;
+    private double[] ballY;
+    private double[] ballWidth;
+    private double[] ballHeight;
+    private Color[] ballInner;
+    private Color[] ballBorder;
+
+    private boolean begun;
+    private boolean interpolate;
+    private int prevBalls;
+    private double[] prevBallX;
+    private double[] prevBallY;
+
+    private final Rectangle player;
+    private int prevPlayerX;
+
+    private int bricks;
+    private Shape[] brickFace;
+    //the face of the brick each one of brickFace was made from
+    private Shape[] faceSource;
+    private Color[] brickInner;
+    private Color[] brickBorder;
+    private boolean[] broken;
+    private int[] strength;
+    private BrickStore brickSource;
+    private long brickVersion;
+
+    private int brickCount;
+    private int ballCount;
+    private String message;
+    private long tick;
+
+
+    /**
+     * RenderFrame is a Default Constructor that creates an empty frame.
+     */
+    public RenderFrame(){
+        ballX = new double[1];
+        ballY = new double[1];
+        ballWidth = new double[1];
+        ballHeight = new double[1];
+        ballInner = new Color[1];
+        ballBorder = new Color[1];
+        prevBallX = new double[1];
+        prevBallY = new double[1];
+        player = new Rectangle();
+        brickFace = new Shape[0];
+        faceSource = new Shape[0];
+        brickInner = new Color[0];
+        brickBorder = new Color[0];
+        broken = new boolean[0];
+        strength = new int[0];
+        message = "";
+    }
+
+    /**
+     * begin Method records where the balls and the player are before the wall moves.
+     * @param wall      the wall about to be moved.
+     */
+    public void begin(WallModel wall){
+        int n = wall.getBallsInPlay();
+        if(prevBallX.length < n){
+            prevBallX = new double[n * 2];
+            prevBallY = new double[n * 2];
+        }
+        for(int i = 0; i < n; i++){
+            prevBallX[i] = wall.getBall(i).getPosition().getX();
+            prevBallY[i] = wall.getBall(i).getPosition().getY();
+        }
+        prevBalls = n;
+        prevPlayerX = wall.player.getPlayerFace().getBounds().x;
+        begun = true;
+    }
+
+    /**
+     * write Method copies the state of the wall into the frame.
+     * Without a call to begin since the last write, the frame is drawn without interpolation.
+     * @param wall      the wall to copy.
+     * @param message   the HUD message.
+     * @param tick      the number of the tick that produced this state.
+     */
+    public void write(WallModel wall, String message, long tick){
+        int n = wall.getBallsInPlay();
+        if(ballX.length < n)
+            growBalls(n * 2);
+        for(int i = 0; i < n; i++){
+            BallController b = wall.getBall(i);
+            RectangularShape face = (RectangularShape) b.getBallFace();
+            ballX[i] = b.getPosition().getX();
+            ballY[i] = b.getPosition().getY();
+            ballWidth[i] = face.getWidth();
+            ballHeight[i] = face.getHeight();
+            ballInner[i] = b.getInnerColor();
+            ballBorder[i] = b.getBorderColor();
+        }
+        for(int i = n; i < balls; i++){
+            ballInner[i] = null;
+            ballBorder[i] = null;
+        }
+        balls = n;
+        interpolate = begun && prevBalls == n;
+        begun = false;
+
+        player.setBounds(wall.player.getPlayerFace().getBounds());
+
+        writeBricks(wall.getStore());
+
+        brickCount = wall.getBrickCount();
+        ballCount = wall.getBallCount();
+        this.message = message;
+        this.tick = tick;
+    }
+
+    /**
+     * writeBricks is a Private Method that copies the bricks, unless the frame already holds this version of them.
+     * The brick faces are shared with the bricks, a brick builds a new face instead of changing the one it has;
+     * a crack face is replaced by its path, taken again only when the brick has a new face.
+     * @param store     the bricks of the current level.
+     */
+    private void writeBricks(BrickStore store){
+        if(store == brickSource && store.getVersion() == brickVersion)
+            return;
+        int n = store.size();
+        if(brickFace.length < n){
+            brickFace = new Shape[n];
+            faceSource = new Shape[n];
+            brickInner = new Color[n];
+            brickBorder = new Color[n];
+            broken = new boolean[n];
+            strength = new int[n];
+        }
+        for(int i = 0; i < n; i++){
+            BrickController b = store.view(i);
+            Shape face = b.getBrick();
+            if(face != faceSource[i]){
+                faceSource[i] = face;
+                brickFace[i] = face instanceof BrickController.Crack.Face ? ((BrickController.Crack.Face) face).getPath() : face;
+            }
+            brickInner[i] = b.getInnerColor();
+            brickBorder[i] = b.getBorderColor();
+            broken[i] = store.isBroken(i);
+            strength[i] = store.getStrength(i);
+        }
+        for(int i = n; i < bricks; i++){
+            brickFace[i] = null;
+            faceSource[i] = null;
+        }
+        bricks = n;
+        brickSource = store;
+        brickVersion = store.getVersion();
+    }
+
+    /**
+     * growBalls is a Private Method that makes room for more balls.
+     * @param capacity  the new number of balls the frame holds.
+     */
+    private void growBalls(int capacity){
+        ballX = Arrays.copyOf(ballX,capacity);
+        ballY = Arrays.copyOf(ballY,capacity);
+        ballWidth = Arrays.copyOf(ballWidth,capacity);
+        ballHeight = Arrays.copyOf(ballHeight,capacity);
+        ballInner = Arrays.copyOf(ballInner,capacity);
+        ballBorder = Arrays.copyOf(ballBorder,capacity);
+    }
+
+    /**
+     * getBalls is a Getter Method.
+     * @return  returns the number of balls in the frame.
+     */
+    public int getBalls(){
+        return balls;
+    }
+
+    /**
+     * getBallX Method returns the x of the center of a ball, interpolated from the position before the tick.
+     * @param i         the index of the ball.
+     * @param alpha     how far to go from the position before the tick, 1 is the position after it.
+     * @return          returns the x of the center.
+     */
+    public double getBallX(int i, double alpha){
+        if(!interpolate)
+            return ballX[i];
+        return prevBallX[i] + (ballX[i] - prevBallX[i]) * alpha;
+    }
+
+    /**
+     * getBallY Method returns the y of the center of a ball, interpolated from the position before the tick.
+     * @param i         the index of the ball.
+     * @param alpha     how far to go from the position before the tick, 1 is the position after it.
+     * @return          returns the y of the center.
+     */
+    public double getBallY(int i, double alpha){
+        if(!interpolate)
+            return ballY[i];
+        return prevBallY[i] + (ballY[i] - prevBallY[i]) * alpha;
+    }
+
+    public double getBallWidth(int i){
+        return ballWidth[i];
+    }
+
+    public double getBallHeight(int i){
+        return ballHeight[i];
+    }
+
+    public Color getBallInner(int i){
+        return ballInner[i];
+    }
+
+    public Color getBallBorder(int i){
+        return ballBorder[i];
+    }
+
+    /**
+     * getPlayerX Method returns the left side of the player, interpolated from the position before the tick.
+     * @param alpha     how far to go from the position before the tick, 1 is the position after it.
+     * @return          returns the x of the player.
+     */
+    public double getPlayerX(double alpha){
+        if(!interpolate)
+            return player.x;
+        return prevPlayerX + (player.x - prevPlayerX) * alpha;
+    }
+
+    /**
+     * getPlayer is a Getter Method.
+     * @return  returns the player bounds after the tick, it must not be changed.
+     */
+    public Rectangle getPlayer(){
+        return player;
+    }
+
+    /**
+     * getBricks is a Getter Method.
+     * @return  returns the number of bricks in the frame, broken ones included.
+     */
+    public int getBricks(){
+        return bricks;
+    }
+
+    /**
+     * getBrickSource is a Getter Method.
+     * @return  returns the brick store the bricks of the frame were copied from, it changes with the level.
+     */
+    public BrickStore getBrickSource(){
+        return brickSource;
+    }
+
+    /**
+     * getBrickVersion is a Getter Method.
+     * @return  returns the version of the brick store the bricks of the frame were copied at.
+     */
+    public long getBrickVersion(){
+        return brickVersion;
+    }
+
+    public Shape getBrickFace(int i){
+        return brickFace[i];
+    }
+
+    public Color getBrickInner(int i){
+        return brickInner[i];
+    }
+
+    public Color getBrickBorder(int i){
+        return brickBorder[i];
+    }
+
+    public boolean isBroken(int i){
+        return broken[i];
+    }
+
+    public int getStrength(int i){
+        return strength[i];
+    }
+
+    public int getBrickCount(){
+        return brickCount;
+    }
+
+    public int getBallCount(){
+        return ballCount;
+    }
+
+    public String getMessage(){
+        return message;
+    }
+
+    /**
+     * getTick is a Getter Method.
+     * @return  returns the number of the tick that produced the frame.
+     */
+    public long getTick(){
+        return tick;
+    }
+
+}
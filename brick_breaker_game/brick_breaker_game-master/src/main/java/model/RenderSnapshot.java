@@ -0,0 +1,62 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * RenderSnapshot class hands frames from the simulation to the painter through three buffers.
+ * The writer owns the back frame and the reader owns the front frame, the third one is the latest
+ * published frame. Publishing swaps the back frame with the published one and taking a frame swaps
+ * the front frame with it, each with one atomic operation, so neither side ever waits for the other
+ * and the reader always gets a frame that was completely written.
+ * There must be a single writer and a single reader at a time.
+ */
+public class RenderSnapshot {
+
+    private static final int INDEX_MASK = 3;
+    //set on the published index when the reader has not taken that frame yet
+    private static final int FRESH = 4;
+
+    private final RenderFrame[] frames;
+    private final AtomicInteger published;
+    private int back;
+    private int front;
+
+
+    /**
+     * RenderSnapshot is a Default Constructor that creates the three empty frames.
+     */
+    public RenderSnapshot(){
+        frames = new RenderFrame[]{new RenderFrame(),new RenderFrame(),new RenderFrame()};
+        back = 0;
+        published = new AtomicInteger(1);
+        front = 2;
+    }
+
+    /**
+     * getBack Method returns the frame the writer fills, it belongs to the writer until publish.
+     * @return  returns the back frame.
+     */
+    public RenderFrame getBack(){
+        return frames[back];
+    }
+
+    /**
+     * publish Method makes the back frame the latest frame and gives the writer a free one.
+     */
+    public void publish(){
+        back = published.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * acquire Method returns the latest published frame, or the frame the reader had if nothing new
+     * was published. The frame belongs to the reader until the next acquire.
+     * @return  returns the front frame.
+     */
+    public RenderFrame acquire(){
+        if((published.get() & FRESH) != 0)
+            front = published.getAndSet(front) & INDEX_MASK;
+        return frames[front];
+    }
+
+}
@@ -0,0 +1,271 @@
+package model;
+
+import java.util.Arrays;
+
+
+/**
+ * StateBuffer class is a growable array of bytes the state of a game is written to and read back from.
+ * Small numbers are written as varints, seven bits a byte, so a counter or a strength takes one byte;
+ * signed numbers are zigzag encoded first, so a small negative number is small as well.
+ * Writing appends at the end of the buffer, reading goes on from where the last read stopped.
+ * It is not thread safe.
+ */
+public class StateBuffer {
+
+    private static final int DEF_CAPACITY = 256;
+
+    private byte[] data;
+    private int length;
+    private int position;
+
+
+    /**
+     * StateBuffer is a Default Constructor that makes an empty buffer.
+     */
+    public StateBuffer(){
+        data = new byte[DEF_CAPACITY];
+    }
+
+    /**
+     * StateBuffer is a Parameterized Constructor that reads the bytes given, from the first one.
+     * @param data      the bytes, kept and not copied.
+     * @param length    how many of them hold the state.
+     */
+    public StateBuffer(byte[] data, int length){
+        this.data = data;
+        this.length = length;
+    }
+
+    /**
+     * clear Method empties the buffer, keeping its array.
+     */
+    public void clear(){
+        length = 0;
+        position = 0;
+    }
+
+    /**
+     * rewind Method reads the buffer again from the first byte.
+     */
+    public void rewind(){
+        position = 0;
+    }
+
+    private void ensure(int more){
+        if(length + more > data.length)
+            data = Arrays.copyOf(data,Math.max(data.length * 2,length + more));
+    }
+
+    public void writeByte(int b){
+        ensure(1);
+        data[length++] = (byte) b;
+    }
+
+    /**
+     * writeVarInt Method writes a number seven bits a byte, the lowest first, the high bit set on all bytes but the last.
+     * @param v     the number, read as unsigned.
+     */
+    public void writeVarInt(int v){
+        ensure(5);
+        while((v & ~0x7F) != 0){
+            data[length++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        data[length++] = (byte) v;
+    }
+
+    /**
+     * writeSignedVarInt Method writes a number that may be negative, zigzag encoded: 0, -1, 1, -2... become 0, 1, 2, 3...
+     * @param v     the number.
+     */
+    public void writeSignedVarInt(int v){
+        writeVarInt((v << 1) ^ (v >> 31));
+    }
+
+    /**
+     * writeVarLong Method writes a long seven bits a byte, as writeVarInt does.
+     * @param v     the number, read as unsigned.
+     */
+    public void writeVarLong(long v){
+        ensure(10);
+        while((v & ~0x7FL) != 0){
+            data[length++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        data[length++] = (byte) v;
+    }
+
+    /**
+     * writeInt Method writes all the four bytes of an int, the lowest first.
+     * @param v     the number.
+     */
+    public void writeInt(int v){
+        ensure(4);
+        length += 4;
+        setInt(length - 4,v);
+    }
+
+    /**
+     * setInt Method writes an int over four bytes already written, for a length or a checksum known only
+     * after what follows it is written.
+     * @param at    the first of the four bytes.
+     * @param v     the number.
+     */
+    public void setInt(int at, int v){
+        if(at < 0 || at + 4 > length)
+            throw new IllegalArgumentException("Position out of the state: " + at);
+        for(int i = 0; i < 4; i++){
+            data[at + i] = (byte) v;
+            v >>>= 8;
+        }
+    }
+
+    /**
+     * writeLong Method writes all the eight bytes of a long, for numbers that are not small, like a seed.
+     * @param v     the number.
+     */
+    public void writeLong(long v){
+        ensure(8);
+        for(int i = 0; i < 8; i++){
+            data[length++] = (byte) v;
+            v >>>= 8;
+        }
+    }
+
+    /**
+     * writeDouble Method writes the bits of a double, it is read back exactly.
+     * @param v     the number.
+     */
+    public void writeDouble(double v){
+        writeLong(Double.doubleToRawLongBits(v));
+    }
+
+    public void writeBoolean(boolean v){
+        writeByte(v ? 1 : 0);
+    }
+
+    /**
+     * writeBytes Method appends bytes.
+     * @param b         the array holding them.
+     * @param offset    the first byte.
+     * @param count     the number of bytes.
+     */
+    public void writeBytes(byte[] b, int offset, int count){
+        ensure(count);
+        System.arraycopy(b,offset,data,length,count);
+        length += count;
+    }
+
+    /**
+     * readByte Method reads a byte.
+     * @return  returns the byte, from 0 to 255.
+     */
+    public int readByte(){
+        if(position >= length)
+            throw new IllegalStateException("Read past the end of the state");
+        return data[position++] & 0xFF;
+    }
+
+    public int readVarInt(){
+        int v = 0;
+        for(int shift = 0; ; shift += 7){
+            int b = readByte();
+            v |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0)
+                return v;
+        }
+    }
+
+    public int readSignedVarInt(){
+        int v = readVarInt();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    public long readVarLong(){
+        long v = 0;
+        for(int shift = 0; ; shift += 7){
+            int b = readByte();
+            v |= (long) (b & 0x7F) << shift;
+            if((b & 0x80) == 0)
+                return v;
+        }
+    }
+
+    public int readInt(){
+        int v = 0;
+        for(int i = 0; i < 4; i++)
+            v |= readByte() << (8 * i);
+        return v;
+    }
+
+    public long readLong(){
+        long v = 0;
+        for(int i = 0; i < 8; i++)
+            v |= (long) readByte() << (8 * i);
+        return v;
+    }
+
+    public double readDouble(){
+        return Double.longBitsToDouble(readLong());
+    }
+
+    public boolean readBoolean(){
+        return readByte() != 0;
+    }
+
+    /**
+     * readBytes Method reads bytes into an array.
+     * @param b         the array receiving them.
+     * @param offset    where the first one goes.
+     * @param count     the number of bytes.
+     */
+    public void readBytes(byte[] b, int offset, int count){
+        if(position + count > length)
+            throw new IllegalStateException("Read past the end of the state");
+        System.arraycopy(data,position,b,offset,count);
+        position += count;
+    }
+
+    /**
+     * getLength is a Getter Method.
+     * @return  returns the number of bytes written.
+     */
+    public int getLength(){
+        return length;
+    }
+
+    /**
+     * getPosition is a Getter Method.
+     * @return  returns the number of bytes read.
+     */
+    public int getPosition(){
+        return position;
+    }
+
+    /**
+     * setPosition Method moves the reading to a byte.
+     * @param position  the byte the next read starts at.
+     */
+    public void setPosition(int position){
+        if(position < 0 || position > length)
+            throw new IllegalArgumentException("Position out of the state: " + position);
+        this.position = position;
+    }
+
+    /**
+     * getData is a Getter Method.
+     * @return  returns the array of the buffer, its first getLength bytes hold the state.
+     */
+    public byte[] getData(){
+        return data;
+    }
+
+    /**
+     * toByteArray Method copies the bytes written.
+     * @return  returns a new array of getLength bytes.
+     */
+    public byte[] toByteArray(){
+        return Arrays.copyOf(data,length);
+    }
+
+}
@@ -21,7 +21,6 @@ import controller.BrickController;
 
 import java.awt.*;
 import java.awt.geom.Point2D;
-import java.util.Random;
 
 
 /**
@@ -37,7 +36,7 @@ public class SteelBrickModel extends BrickController {
     private static final int STEEL_STRENGTH = 1;
     private static final double STEEL_PROBABILITY = 0.4;
 
-    private Random rnd;
+    private GameRandom.Stream rnd;
     private Shape brickFace;
 
     /**
@@ -46,8 +45,18 @@ public class SteelBrickModel extends BrickController {
      * @param size      size of the brick.
      */
     public SteelBrickModel(Point point, Dimension size){
+        this(point,size,new GameRandom().getSteel());
+    }
+
+    /**
+     * SteelBrickModel is a Parameterized Constructor that decides the impacts with the stream given.
+     * @param point     brick position/location.
+     * @param size      size of the brick.
+     * @param rnd       the steel stream of the game.
+     */
+    public SteelBrickModel(Point point, Dimension size, GameRandom.Stream rnd){
         super(NAME,point,size,DEF_BORDER,DEF_INNER,STEEL_STRENGTH);
-        rnd = new Random();
+        this.rnd = rnd;
         brickFace = super.brickFace;
     }
 
@@ -19,10 +19,12 @@ package model;
 
 import controller.BallController;
 import controller.BrickController;
+import controller.CircleImpact;
+import controller.CrackCache;
 
 import java.awt.*;
 import java.awt.geom.Point2D;
-import java.util.Random;
+import java.util.Arrays;
 
 
 /**
@@ -31,19 +33,40 @@ import java.util.Random;
 public class WallModel {
 
     private static final int LEVELS_COUNT = 4;
+    private static final int MAX_SWEEP_STEPS = 4;
+    private static final int DEF_BALL_CAPACITY = 4;
 
-    private static final int CLAY = 1;
-    private static final int STEEL = 2;
-    private static final int CEMENT = 3;
+    static final int CLAY = 1;
+    static final int STEEL = 2;
+    static final int CEMENT = 3;
 
-    private Random rnd;
+    public static final int DEF_EVENT_CAPACITY = 1024;
+
+    private GameRandom random;
+    private CrackCache crackCache;
     private Rectangle area;
 
     public BrickController[] bricks;
     public BallController ball;
     public PlayerModel player;
 
+    private BallController[] balls;
+    private int ballsInPlay;
+    private int ballsLost;
+    private double[] ballStartX;
+    private double[] ballStartY;
+    private boolean[] lost;
+    private int[] ballOrder;
+    private BallCollider ballCollider;
+    private boolean ballCollisions;
+
     private BrickController[][] levels;
+    private BrickStore[] stores;
+    private BrickStore store;
+    private BrickGrid[] grids;
+    private BrickGrid grid;
+    private CircleImpact impact;
+    private CircleImpact paddleImpact;
     private int level;
 
     private Point startPoint;
@@ -51,6 +74,11 @@ public class WallModel {
     private int ballCount;
     private boolean ballLost;
 
+    private boolean sweptCollisions;
+    private boolean fixedPoint;
+
+    private EventRing events;
+
     /**
      * WallModel is a Parameterized Constructor that hat handles the initial implementation of the wall.
      * @param drawArea
@@ -60,27 +88,75 @@ public class WallModel {
      * @param ballPos       the position/location of the ball.
      */
     public WallModel(Rectangle drawArea, int brickCount, int lineCount, double brickDimensionRatio, Point ballPos){
+        this(drawArea,brickCount,lineCount,brickDimensionRatio,ballPos,new GameRandom());
+    }
+
+    /**
+     * WallModel is a Parameterized Constructor that creates the wall with the random numbers given for the ball launches,
+     * the cracks of the cement bricks and the impacts of the steel bricks.
+     * @param drawArea
+     * @param brickCount
+     * @param lineCount
+     * @param brickDimensionRatio
+     * @param ballPos       the position/location of the ball.
+     * @param random        the random numbers of the game, the same seed plays the same game.
+     */
+    public WallModel(Rectangle drawArea, int brickCount, int lineCount, double brickDimensionRatio, Point ballPos, GameRandom random){
+        this(drawArea,brickCount,lineCount,brickDimensionRatio,ballPos,random,false);
+    }
+
+    /**
+     * WallModel is a Parameterized Constructor that creates the wall, in fixed point or not.
+     * In fixed point the size of the bricks is divided in 1/256 of a pixel, and the balls move and collide
+     * in 1/256 of a pixel as well, with integers only, see FixedPoint; the collisions are then always discrete.
+     * @param drawArea
+     * @param brickCount
+     * @param lineCount
+     * @param brickDimensionRatio
+     * @param ballPos       the position/location of the ball.
+     * @param random        the random numbers of the game, the same seed plays the same game.
+     * @param fixedPoint    true to run the physics in fixed point.
+     */
+    public WallModel(Rectangle drawArea, int brickCount, int lineCount, double brickDimensionRatio, Point ballPos, GameRandom random, boolean fixedPoint){
+        this(drawArea,brickCount,lineCount,brickDimensionRatio,ballPos,random,fixedPoint,DEF_EVENT_CAPACITY);
+    }
+
+    /**
+     * WallModel is a Parameterized Constructor that creates the wall with an event ring of the capacity given.
+     * A wall whose events are read every tick, as the GameRules read them, needs a few dozen slots, not the
+     * thousand a view that may fall behind needs; a server holding thousands of walls saves the rest.
+     * @param drawArea
+     * @param brickCount
+     * @param lineCount
+     * @param brickDimensionRatio
+     * @param ballPos       the position/location of the ball.
+     * @param random        the random numbers of the game, the same seed plays the same game.
+     * @param fixedPoint    true to run the physics in fixed point.
+     * @param eventCapacity the events the ring keeps, see EventRing.
+     */
+    public WallModel(Rectangle drawArea, int brickCount, int lineCount, double brickDimensionRatio, Point ballPos, GameRandom random, boolean fixedPoint, int eventCapacity){
 
         this.startPoint = new Point(ballPos);
+        this.fixedPoint = fixedPoint;
+        //the bricks take their streams from it as well, when the levels are made
+        this.random = random;
+        crackCache = new CrackCache();
 
         levels = makeLevels(drawArea,brickCount,lineCount,brickDimensionRatio);
         level = 0;
+        impact = new CircleImpact();
+        paddleImpact = new CircleImpact();
+        sweptCollisions = false;
+        ballCollider = new BallCollider();
+        ballCollider.setFixedPoint(fixedPoint);
+        ballCollisions = true;
 
         ballCount = 3;
         ballLost = false;
-
-        rnd = new Random();
+        events = new EventRing(eventCapacity);
 
         makeBall(ballPos);
-        int speedX,speedY;
-        do{
-            speedX = rnd.nextInt(5) - 2;
-        }while(speedX == 0);
-        do{
-            speedY = -rnd.nextInt(3);
-        }while(speedY == 0);
-
-        ball.setSpeed(speedX,speedY);
+        launch(ball);
 
         player = new PlayerModel((Point) ballPos.clone(),150,10, drawArea);
 
@@ -107,8 +183,8 @@ public class WallModel {
 
         int brickOnLine = brickCnt / lineCnt;
 
-        double brickLen = drawArea.getWidth() / brickOnLine;
-        double brickHgt = brickLen / brickSizeRatio;
+        double brickLen = brickLength(drawArea,brickOnLine);
+        double brickHgt = brickHeight(brickLen,brickSizeRatio);
 
         brickCnt += lineCnt / 2;
 
@@ -161,8 +237,8 @@ public class WallModel {
         int centerLeft = brickOnLine / 2 - 1;
         int centerRight = brickOnLine / 2 + 1;
 
-        double brickLen = drawArea.getWidth() / brickOnLine;
-        double brickHgt = brickLen / brickSizeRatio;
+        double brickLen = brickLength(drawArea,brickOnLine);
+        double brickHgt = brickHeight(brickLen,brickSizeRatio);
 
         brickCnt += lineCnt / 2;
 
@@ -194,13 +270,97 @@ public class WallModel {
         return tmp;
     }
 
+    /**
+     * brickLength is a Private Method that shares the width of the area between the bricks of a line.
+     * In fixed point the length is a whole number of 1/256 of a pixel: every position of the level made from it
+     * is then exact in a double, whatever the order it is computed in.
+     * @param drawArea      a rectangular area for the wall.
+     * @param brickOnLine   the number of bricks on a line.
+     * @return              returns the length of a brick.
+     */
+    private double brickLength(Rectangle drawArea, int brickOnLine){
+        if(fixedPoint)
+            return FixedPoint.toDouble(FixedPoint.toFixed(drawArea.width) / brickOnLine);
+        return drawArea.getWidth() / brickOnLine;
+    }
+
+    /**
+     * brickHeight is a Private Method that makes the height of a brick from its length, in fixed point or not.
+     * @param brickLen          the length of a brick.
+     * @param brickSizeRatio    the length over the height.
+     * @return                  returns the height of a brick.
+     */
+    private double brickHeight(double brickLen, double brickSizeRatio){
+        if(fixedPoint)
+            return FixedPoint.toDouble((int) ((long) FixedPoint.toFixed(brickLen) * FixedPoint.ONE / FixedPoint.toFixed(brickSizeRatio)));
+        return brickLen / brickSizeRatio;
+    }
+
     /**
      * makeBall is a Private Method that calls the RubberBall Constructor to make the rubber ball.
      * Composition relationship
      * @param ballPos       the initial location of the ball.
      */
     private void makeBall(Point2D ballPos){
-        ball = new RubberBallModel(ballPos);
+        balls = new BallController[DEF_BALL_CAPACITY];
+        ballStartX = new double[DEF_BALL_CAPACITY];
+        ballStartY = new double[DEF_BALL_CAPACITY];
+        lost = new boolean[DEF_BALL_CAPACITY];
+        ballOrder = new int[DEF_BALL_CAPACITY];
+        ball = new RubberBallModel(new Point2D.Double(ballPos.getX(),ballPos.getY()));
+        balls[0] = ball;
+        ballsInPlay = 1;
+    }
+
+    /**
+     * launch is a Private Method that gives a ball a random upward speed.
+     * @param b     the ball to launch.
+     */
+    private void launch(BallController b){
+        int speedX,speedY;
+        do{
+            speedX = random.getLaunch().nextInt(5) - 2;
+        }while(speedX == 0);
+        do{
+            speedY = -random.getLaunch().nextInt(3);
+        }while(speedY == 0);
+
+        b.setSpeed(speedX,speedY);
+    }
+
+    /**
+     * addBall Method puts one more ball in play at the given position with a random launch speed.
+     * @param pos   the position of the new ball.
+     * @return      returns the new ball.
+     */
+    public BallController addBall(Point2D pos){
+        if(ballsInPlay == balls.length)
+            growBalls(balls.length * 2);
+        BallController b = new RubberBallModel(new Point2D.Double(pos.getX(),pos.getY()));
+        launch(b);
+        balls[ballsInPlay++] = b;
+        ballCollider.invalidate();
+        return b;
+    }
+
+    /**
+     * growBalls is a Private Method that makes room for more balls in play.
+     * @param capacity  the number of balls there must be room for.
+     */
+    private void growBalls(int capacity){
+        balls = Arrays.copyOf(balls,capacity);
+        ballStartX = Arrays.copyOf(ballStartX,capacity);
+        ballStartY = Arrays.copyOf(ballStartY,capacity);
+        lost = new boolean[capacity];
+        ballOrder = new int[capacity];
+    }
+
+    /**
+     * addBall Method puts one more ball in play from the starting position.
+     * @return      returns the new ball.
+     */
+    public BallController addBall(){
+        return addBall(startPoint);
     }
 
     /**
@@ -217,79 +377,328 @@ public class WallModel {
         tmp[1] = makeChessboardLevel(drawArea,brickCount,lineCount,brickDimensionRatio,CLAY,CEMENT);
         tmp[2] = makeChessboardLevel(drawArea,brickCount,lineCount,brickDimensionRatio,CLAY,STEEL);
         tmp[3] = makeChessboardLevel(drawArea,brickCount,lineCount,brickDimensionRatio,STEEL,CEMENT);
+
+        //the primitive store and the spatial index of every level are built once, together with the level
+        stores = new BrickStore[LEVELS_COUNT];
+        grids = new BrickGrid[LEVELS_COUNT];
+        for(int i = 0; i < LEVELS_COUNT; i++){
+            stores[i] = new BrickStore(tmp[i]);
+            grids[i] = new BrickGrid(stores[i]);
+        }
         return tmp;
     }
 
     /**
-     * move Method calls the move methods in the Player and BallController classes.
+     * move Method calls the move methods in the Player and BallController classes, for every ball in play.
      */
     public void move(){
         player.move();
-        ball.move();
+        for(int i = 0; i < ballsInPlay; i++){
+            BallController b = balls[i];
+            ballStartX[i] = b.getPosition().getX();
+            ballStartY[i] = b.getPosition().getY();
+            if(fixedPoint)
+                b.moveFixed();
+            else
+                b.move();
+        }
     }
 
     /**
      * findImpacts Method is responsible for implementing all ball and brick properties when impact is made.
+     * All the balls in play are resolved in one pass, ordered by grid cell so balls close to each other
+     * query the same cells one after the other. A ball falling out of the area leaves the game,
+     * the ball count is decreased only when the last ball in play is lost.
+     * Before that the balls bounce off each other, if ball collisions are on.
+     */
+    public void findImpacts(){
+        int n = ballsInPlay;
+        if(ballCollisions)
+            ballCollider.resolve(balls, n);
+        grid.orderByCell(balls, n, ballOrder);
+        for(int k = 0; k < n; k++){
+            int i = ballOrder[k];
+            lost[i] = findImpacts(balls[i], ballStartX[i], ballStartY[i]);
+        }
+        removeLostBalls();
+    }
+
+    /**
+     * findImpacts is a Private Method that resolves the impacts of one ball.
      * Implements when ball makes impact with the player.
      * Implements when ball makes impact with the wall. Calls the impactWall() method.
      * Implements when ball makes impact with the game frame/border.
+     * In swept mode the motion of the last move is first traced against the bricks and the player,
+     * so a fast ball can not pass through them between two ticks. A brick the sweep already hit is not tested again:
+     * the ball is left touching it and the discrete test would count the same impact twice.
+     * @param b         the ball.
+     * @param startX    the x of the ball before the last move.
+     * @param startY    the y of the ball before the last move.
+     * @return          returns true if the ball fell out of the area.
      */
-    public void findImpacts(){
-        if(player.impact(ball)){
-            ball.reverseY();
+    private boolean findImpacts(BallController b, double startX, double startY){
+        if(fixedPoint)
+            return findImpactsFixed(b);
+        boolean swept = sweptCollisions && sweepBall(b, startX, startY);
+        if(player.impact(b)){
+            b.reverseY();
         }
-        else if(impactWall()){
+        else if(!swept && impactWall(b)){
             /*for efficiency reverse is done into method impactWall
             * because for every brick program checks for horizontal and vertical impacts
             */
-            brickCount--;
+            brickBroken();
         }
-        else if(impactBorder()) {
-            ball.reverseX();
+        else if(impactBorder(b)) {
+            b.reverseX();
         }
-        else if(ball.getPosition().getY() < area.getY()){
-            ball.reverseY();
+        else if(b.getPosition().getY() < area.getY() && b.getSpeedY() < 0){
+            b.reverseY();
         }
-        else if(ball.getPosition().getY() > area.getY() + area.getHeight()){
+        else if(b.getPosition().getY() > area.getY() + area.getHeight()){
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * findImpactsFixed is a Private Method that resolves the impacts of one ball as findImpacts does, in fixed point.
+     * @param b         the ball.
+     * @return          returns true if the ball fell out of the area.
+     */
+    private boolean findImpactsFixed(BallController b){
+        int x = b.getFixedX();
+        int y = b.getFixedY();
+        if(player.impactFixed(b)){
+            b.reverseY();
+        }
+        else if(impactWallFixed(b)){
+            brickBroken();
+        }
+        else if((x < FixedPoint.toFixed(area.x) && b.getSpeedX() < 0) || (x > FixedPoint.toFixed(area.x + area.width) && b.getSpeedX() > 0)){
+            b.reverseX();
+        }
+        else if(y < FixedPoint.toFixed(area.y) && b.getSpeedY() < 0){
+            b.reverseY();
+        }
+        else if(y > FixedPoint.toFixed(area.y + area.height)){
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * removeLostBalls is a Private Method that takes the balls lost in this tick out of play.
+     * If every ball has been lost the first one is kept for the next launch and a ball is taken from the count.
+     */
+    private void removeLostBalls(){
+        int kept = 0;
+        for(int i = 0; i < ballsInPlay; i++){
+            if(lost[i])
+                ballsLost++;
+            else
+                balls[kept++] = balls[i];
+        }
+        if(kept == 0){
+            balls[kept++] = ball;
             ballCount--;
             ballLost = true;
+            events.publish(EventRing.BALL_LOST,ballCount,ball.getPosition().getX(),ball.getPosition().getY());
+        }
+        if(kept != ballsInPlay)
+            ballCollider.invalidate();
+        for(int i = kept; i < ballsInPlay; i++)
+            balls[i] = null;
+        ballsInPlay = kept;
+        ball = balls[0];
+    }
+
+    /**
+     * sweepBall is a Private Method that resolves the motion of the ball done in the last move.
+     * The earliest contact along the segment is found, the ball is placed there and bounced,
+     * then the rest of the motion is traced again from the contact point, up to MAX_SWEEP_STEPS times.
+     * @param ball      the ball.
+     * @param startX    the x of the ball before the last move.
+     * @param startY    the y of the ball before the last move.
+     * @return          returns true if the ball hit a brick.
+     */
+    private boolean sweepBall(BallController ball, double startX, double startY){
+        double x = startX;
+        double y = startY;
+        double dx = ball.getPosition().getX() - x;
+        double dy = ball.getPosition().getY() - y;
+        double r = ball.getRadius();
+        boolean bricks = false;
+
+        for(int step = 0; step < MAX_SWEEP_STEPS && (dx != 0 || dy != 0); step++){
+            int index = grid.findEarliestImpact(x, y, dx, dy, r, impact);
+            boolean paddle = player.sweepImpact(x, y, dx, dy, r, paddleImpact)
+                    && (index < 0 || paddleImpact.getTime() < impact.getTime());
+            if(!paddle && index < 0)
+                break;
+
+            CircleImpact hit = paddle ? paddleImpact : impact;
+            double t = hit.getTime();
+            x += dx * t;
+            y += dy * t;
+            dx *= 1 - t;
+            dy *= 1 - t;
+            ball.setPosition(x, y);
+
+            if(paddle){
+                ball.reverseY();
+                dy = -dy;
+                continue;
+            }
+
+            int crack;
+            Point2D point;
+            switch(hit.getSide()){
+                case BrickController.UP_IMPACT:
+                case BrickController.DOWN_IMPACT:
+                    ball.reverseY();
+                    dy = -dy;
+                    boolean up = hit.getSide() == BrickController.UP_IMPACT;
+                    crack = up ? BrickController.Crack.UP : BrickController.Crack.DOWN;
+                    point = up ? ball.down : ball.up;
+                    break;
+                default:
+                    ball.reverseX();
+                    dx = -dx;
+                    boolean left = hit.getSide() == BrickController.LEFT_IMPACT;
+                    crack = left ? BrickController.Crack.RIGHT : BrickController.Crack.LEFT;
+                    point = left ? ball.right : ball.left;
+                    break;
+            }
+            bricks = true;
+            if(hitBrick(index, point, crack))
+                brickBroken();
         }
+        ball.setPosition(x + dx, y + dy);
+        return bricks;
     }
 
     /**
      * impactWall is a Private Method that is responsible for when the ball makes impact with the wall.
+     * The candidate bricks come from the spatial grid of the level, broken bricks are dropped from it.
+     * The ball is pushed out of the brick by the penetration depth and bounces only if it was moving into the brick.
+     * @param ball    the ball.
      * @return      returns a boolean value to denote if ball made impact with wall or not.
      */
-    private boolean impactWall(){
-        for(BrickController b : bricks){
-            switch(b.findImpact(ball)) {
-                //Vertical Impact
-                case BrickController.UP_IMPACT:
+    private boolean impactWall(BallController ball){
+        int index = grid.findFirstImpact(ball, impact);
+        if(index < 0)
+            return false;
+        double depth = impact.getDepth();
+        Point2D c = ball.getPosition();
+        boolean broken;
+        switch(impact.getSide()) {
+            //Vertical Impact
+            case BrickController.UP_IMPACT:
+                ball.setPosition(c.getX(), c.getY() - depth);
+                if(ball.getSpeedY() > 0)
                     ball.reverseY();
-                    return b.setImpact(ball.down, BrickController.Crack.UP);
-                case BrickController.DOWN_IMPACT:
+                broken = hitBrick(index, ball.down, BrickController.Crack.UP);
+                break;
+            case BrickController.DOWN_IMPACT:
+                ball.setPosition(c.getX(), c.getY() + depth);
+                if(ball.getSpeedY() < 0)
                     ball.reverseY();
-                    return b.setImpact(ball.up, BrickController.Crack.DOWN);
+                broken = hitBrick(index, ball.up, BrickController.Crack.DOWN);
+                break;
 
-                //Horizontal Impact
-                case BrickController.LEFT_IMPACT:
+            //Horizontal Impact
+            case BrickController.LEFT_IMPACT:
+                ball.setPosition(c.getX() - depth, c.getY());
+                if(ball.getSpeedX() > 0)
                     ball.reverseX();
-                    return b.setImpact(ball.right, BrickController.Crack.RIGHT);
-                case BrickController.RIGHT_IMPACT:
+                broken = hitBrick(index, ball.right, BrickController.Crack.RIGHT);
+                break;
+            case BrickController.RIGHT_IMPACT:
+                ball.setPosition(c.getX() + depth, c.getY());
+                if(ball.getSpeedX() < 0)
                     ball.reverseX();
-                    return b.setImpact(ball.left, BrickController.Crack.LEFT);
-            }
+                broken = hitBrick(index, ball.left, BrickController.Crack.LEFT);
+                break;
+            default:
+                return false;
         }
-        return false;
+        return broken;
+    }
+
+    /**
+     * impactWallFixed is a Private Method that is responsible for when the ball makes impact with the wall, as
+     * impactWall is, on the fixed point center of the ball.
+     * @param ball    the ball.
+     * @return      returns a boolean value to denote if ball made impact with wall or not.
+     */
+    private boolean impactWallFixed(BallController ball){
+        int index = grid.findFirstImpactFixed(ball, impact);
+        if(index < 0)
+            return false;
+        int depth = impact.getFixedDepth();
+        int x = ball.getFixedX();
+        int y = ball.getFixedY();
+        switch(impact.getSide()) {
+            case BrickController.UP_IMPACT:
+                ball.setFixedPosition(x, y - depth);
+                if(ball.getSpeedY() > 0)
+                    ball.reverseY();
+                return hitBrick(index, ball.down, BrickController.Crack.UP);
+            case BrickController.DOWN_IMPACT:
+                ball.setFixedPosition(x, y + depth);
+                if(ball.getSpeedY() < 0)
+                    ball.reverseY();
+                return hitBrick(index, ball.up, BrickController.Crack.DOWN);
+            case BrickController.LEFT_IMPACT:
+                ball.setFixedPosition(x - depth, y);
+                if(ball.getSpeedX() > 0)
+                    ball.reverseX();
+                return hitBrick(index, ball.right, BrickController.Crack.RIGHT);
+            case BrickController.RIGHT_IMPACT:
+                ball.setFixedPosition(x + depth, y);
+                if(ball.getSpeedX() < 0)
+                    ball.reverseX();
+                return hitBrick(index, ball.left, BrickController.Crack.LEFT);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * hitBrick is a Private Method that applies an impact to a brick and publishes it.
+     * A broken brick is dropped from the spatial grid.
+     * @param index     the brick index.
+     * @param point     point of impact.
+     * @param crack     direction of the crack.
+     * @return          returns true if the brick has been broken by the impact.
+     */
+    private boolean hitBrick(int index, Point2D point, int crack){
+        boolean broken = store.setImpact(index, point, crack);
+        if(broken)
+            grid.remove(index);
+        events.publish(broken ? EventRing.BRICK_BROKEN : EventRing.BRICK_HIT,index,point.getX(),point.getY());
+        return broken;
+    }
+
+    /**
+     * brickBroken is a Private Method that takes a broken brick from the count, the level is cleared with the last one.
+     */
+    private void brickBroken(){
+        brickCount--;
+        if(brickCount == 0)
+            events.publish(EventRing.LEVEL_CLEARED,level - 1,0,0);
     }
 
     /**
      * impactBorder is a Private Method that implements when the ball makes impact with game border.
+     * Only a ball moving out of the area bounces, a ball pushed past the border by another ball is already on its way back.
+     * @param ball    the ball.
      * @return      returns a boolean value to denote if ball made impact with the border or not.
      */
-    private boolean impactBorder(){
+    private boolean impactBorder(BallController ball){
         Point2D p = ball.getPosition();
-        return ((p.getX() < area.getX()) ||(p.getX() > (area.getX() + area.getWidth())));
+        return ((p.getX() < area.getX() && ball.getSpeedX() < 0) ||(p.getX() > (area.getX() + area.getWidth()) && ball.getSpeedX() > 0));
     }
 
     /**
@@ -308,6 +717,47 @@ public class WallModel {
         return ballCount;
     }
 
+    /**
+     * getBallsInPlay is a Getter Method.
+     * @return  returns the number of balls currently moving on the board.
+     */
+    public int getBallsInPlay(){
+        return ballsInPlay;
+    }
+
+    /**
+     * getBall is a Getter Method.
+     * @param i     the index of the ball, from 0 to getBallsInPlay() - 1.
+     * @return      returns the ball in play at the index.
+     */
+    public BallController getBall(int i){
+        return balls[i];
+    }
+
+    /**
+     * getEvents is a Getter Method.
+     * @return  returns the ring the wall publishes its events to.
+     */
+    public EventRing getEvents(){
+        return events;
+    }
+
+    /**
+     * getStore is a Getter Method.
+     * @return  returns the bricks of the current level.
+     */
+    public BrickStore getStore(){
+        return store;
+    }
+
+    /**
+     * getBallsLost is a Getter Method.
+     * @return  returns how many balls fell out of the area, one for every ball lost.
+     */
+    public int getBallsLost(){
+        return ballsLost;
+    }
+
     /**
      * isBallLost is a Getter Method.
      * @return  returns a boolean value of whether the ball is lost or not.
@@ -318,19 +768,16 @@ public class WallModel {
 
     /**
      * ballReset Method resets the ball back to the starting position.
+     * Any extra ball still in play is taken off the board.
      */
     public void ballReset(){
+        for(int i = 1; i < ballsInPlay; i++)
+            balls[i] = null;
+        ballsInPlay = 1;
+        ballCollider.invalidate();
         player.moveTo(startPoint);
-        ball.moveTo(startPoint);
-        int speedX,speedY;
-        do{
-            speedX = rnd.nextInt(5) - 2;
-        }while(speedX == 0);
-        do{
-            speedY = -rnd.nextInt(3);
-        }while(speedY == 0);
-
-        ball.setSpeed(speedX,speedY);
+        ball.setPosition(startPoint.getX(),startPoint.getY());
+        launch(ball);
         ballLost = false;
     }
 
@@ -339,10 +786,11 @@ public class WallModel {
      * Sets number of ball back to 3 (full amount).
      */
     public void wallReset(){
-        for(BrickController b : bricks)
-            b.repair();
+        store.repair();
+        grid.rebuild();
         brickCount = bricks.length;
         ballCount = 3;
+        events.publish(EventRing.WALL_RESET,level - 1,0,0);
     }
 
     /**
@@ -369,8 +817,143 @@ public class WallModel {
      * nextLevel Method sets the next level.
      */
     public void nextLevel(){
+        store = stores[level];
+        grid = grids[level];
         bricks = levels[level++];
         this.brickCount = bricks.length;
+        events.publish(EventRing.LEVEL_STARTED,level - 1,0,0);
+    }
+
+    /**
+     * writeState Method writes everything a game changes on the wall: the level, the counters, the random streams,
+     * the player, the balls in play and the bricks hit on every level.
+     * What the wall is made of, the size and place of the bricks, is not written: the state is read back on a wall
+     * made with the same arguments and seed, see GameRandom.
+     * @param out   the buffer the state is written to.
+     */
+    public void writeState(StateBuffer out){
+        writeState(out,null);
+    }
+
+    /**
+     * writeState Method writes the state as writeState does and tells where its sections end: the first section is
+     * everything but the bricks, then there is a section a level. A level none of whose bricks changed writes the
+     * same bytes, a rewind keeps the sections that changed only.
+     * @param out           the buffer the state is written to.
+     * @param sectionEnds   receives the end of every section in the buffer, getStateSections of them; null for none.
+     */
+    public void writeState(StateBuffer out, int[] sectionEnds){
+        out.writeVarInt(level);
+        out.writeVarInt(brickCount);
+        out.writeVarInt(ballCount);
+        out.writeBoolean(ballLost);
+        out.writeVarInt(ballsLost);
+        out.writeBoolean(sweptCollisions);
+        out.writeBoolean(ballCollisions);
+        random.writeState(out);
+        player.writeState(out);
+
+        out.writeVarInt(ballsInPlay);
+        for(int i = 0; i < ballsInPlay; i++){
+            BallController b = balls[i];
+            out.writeDouble(b.getPosition().getX());
+            out.writeDouble(b.getPosition().getY());
+            out.writeSignedVarInt(b.getSpeedX());
+            out.writeSignedVarInt(b.getSpeedY());
+        }
+        ballCollider.writeState(out,balls,ballsInPlay);
+        if(sectionEnds != null)
+            sectionEnds[0] = out.getLength();
+
+        for(int i = 0; i < stores.length; i++){
+            stores[i].writeState(out);
+            if(sectionEnds != null)
+                sectionEnds[i + 1] = out.getLength();
+        }
+    }
+
+    /**
+     * getStateSections is a Getter Method.
+     * @return  returns the number of sections of the state, see writeState.
+     */
+    public int getStateSections(){
+        return stores.length + 1;
+    }
+
+    /**
+     * readState Method puts the wall back as writeState found it.
+     * The balls in play are reused, missing ones are made; the grids of the levels follow the bricks that changed.
+     * The views are told with a WALL_RESET event, everything may have changed.
+     * @param in    the buffer the state is read from.
+     */
+    public void readState(StateBuffer in){
+        level = in.readVarInt();
+        if(level > 0){
+            store = stores[level - 1];
+            grid = grids[level - 1];
+            bricks = levels[level - 1];
+        }
+        brickCount = in.readVarInt();
+        ballCount = in.readVarInt();
+        ballLost = in.readBoolean();
+        ballsLost = in.readVarInt();
+        sweptCollisions = in.readBoolean();
+        ballCollisions = in.readBoolean();
+        random.readState(in);
+        player.readState(in);
+
+        int n = in.readVarInt();
+        if(n > balls.length)
+            growBalls(Math.max(n,balls.length * 2));
+        for(int i = 0; i < n; i++){
+            double x = in.readDouble();
+            double y = in.readDouble();
+            if(balls[i] == null)
+                balls[i] = new RubberBallModel(new Point2D.Double(x,y));
+            balls[i].setPosition(x,y);
+            balls[i].setSpeed(in.readSignedVarInt(),in.readSignedVarInt());
+        }
+        for(int i = n; i < ballsInPlay; i++)
+            balls[i] = null;
+        ballsInPlay = n;
+        ball = balls[0];
+        ballCollider.readState(in,balls,n);
+
+        for(int i = 0; i < stores.length; i++)
+            stores[i].readState(in,grids[i]);
+        events.publish(EventRing.WALL_RESET,level - 1,0,0);
+    }
+
+    /**
+     * reseed Method makes the wall the one another seed would have made: the random streams start again from the
+     * seed and every cement brick draws the seed of its crack again, in the order the levels were made.
+     * The state of a game of another seed can then be read, see readState; it takes a pass over every brick.
+     * @param seed  the seed of the game.
+     */
+    public void reseed(long seed){
+        random.reseed(seed);
+        GameRandom.Stream crack = random.getCrack();
+        for(BrickController[] l : levels)
+            for(BrickController b : l)
+                if(b instanceof CementBrickModel)
+                    ((CementBrickModel) b).reseed(crack.nextLong());
+        events.publish(EventRing.WALL_RESET,level - 1,0,0);
+    }
+
+    /**
+     * getRandom is a Getter Method.
+     * @return  returns the random numbers of the game.
+     */
+    public GameRandom getRandom(){
+        return random;
+    }
+
+    /**
+     * getLevel is a Getter Method.
+     * @return  returns the number of the current level, 1 for the first one, 0 before the first is set.
+     */
+    public int getLevel(){
+        return level;
     }
 
     /**
@@ -389,6 +972,47 @@ public class WallModel {
         ball.setYSpeed(s);
     }
 
+    /**
+     * setSweptCollisions Method turns the swept collisions on or off.
+     * A wall in fixed point keeps its collisions discrete, it is set here but not used.
+     * @param swept     true to trace the motion of the ball against bricks and player every tick.
+     */
+    public void setSweptCollisions(boolean swept){
+        sweptCollisions = swept;
+    }
+
+    /**
+     * isSweptCollisions is a Getter Method.
+     * @return  returns true if the swept collisions are on.
+     */
+    public boolean isSweptCollisions(){
+        return sweptCollisions;
+    }
+
+    /**
+     * setBallCollisions Method turns the collisions between balls on or off.
+     * @param collisions    true to make the balls in play bounce off each other.
+     */
+    public void setBallCollisions(boolean collisions){
+        ballCollisions = collisions;
+    }
+
+    /**
+     * isBallCollisions is a Getter Method.
+     * @return  returns true if the balls in play bounce off each other.
+     */
+    public boolean isBallCollisions(){
+        return ballCollisions;
+    }
+
+    /**
+     * isFixedPoint is a Getter Method.
+     * @return  returns true if the physics run in fixed point.
+     */
+    public boolean isFixedPoint(){
+        return fixedPoint;
+    }
+
     public void resetBallCount(){
         ballCount = 3;
     }
@@ -407,10 +1031,10 @@ public class WallModel {
                 out = new ClayBrickModel(point,size);
                 break;
             case STEEL:
-                out = new SteelBrickModel(point,size);
+                out = new SteelBrickModel(point,size,random.getSteel());
                 break;
             case CEMENT:
-                out = new CementBrickModel(point, size);
+                out = new CementBrickModel(point,size,random.getCrack(),crackCache);
                 break;
             default:
                 throw  new IllegalArgumentException(String.format("Unknown Type:%d\n",type));
@@ -0,0 +1,230 @@
+package view;
+
+import model.BrickStore;
+import model.RenderFrame;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+
+/**
+ * BrickAtlas class keeps one sprite for every kind of brick in a single image, so a brick is drawn
+ * with one drawImage from that image instead of two setColor, a fill and a draw of its Shape.
+ * A kind of brick is its inner color, its border color and its size; sprites are drawn the first
+ * time a kind is met, so they always have the size of the current bricks.
+ * A sprite is one pixel wider and higher than the brick, like the border stroke, and fully opaque, so the
+ * blit gives the same pixels as filling and stroking the brick rectangle.
+ * Only faces that are plain rectangles have a sprite. A cracked cement face is a path drawn from random
+ * points: it is drawn once in a decal, an image of its own kept for that brick, and the decal is copied
+ * on the next frames until the brick gets a new face. The crack may stick out of the brick, so the decal
+ * covers the bounds of the whole face and is transparent where the path draws nothing.
+ * Bricks are drawn in the order of the frame, not grouped by sprite: neighbouring bricks share their border
+ * pixels and the brick drawn last decides their color. Every sprite is in the same image, so the graphics
+ * state does not change between two bricks anyway.
+ * It is used by the painter only and is not thread safe.
+ */
+public class BrickAtlas {
+
+    private static final int MAX_SPRITES = 32;
+
+    private BufferedImage image;
+    private Graphics2D layer;
+    private int used;
+
+    private int sprites;
+    private final Color[] inner;
+    private final Color[] border;
+    private final int[] width;
+    private final int[] height;
+    private final int[] spriteX;
+    private int last;
+
+    private BrickStore decalSource;
+    private Shape[] decalFace;
+    private BufferedImage[] decal;
+    private int[] decalX;
+    private int[] decalY;
+
+    private int decals;
+    private int decalsRendered;
+
+
+    /**
+     * BrickAtlas is a Default Constructor that creates an empty atlas.
+     */
+    public BrickAtlas(){
+        inner = new Color[MAX_SPRITES];
+        border = new Color[MAX_SPRITES];
+        width = new int[MAX_SPRITES];
+        height = new int[MAX_SPRITES];
+        spriteX = new int[MAX_SPRITES];
+        last = -1;
+        decalFace = new Shape[0];
+        decal = new BufferedImage[0];
+        decalX = new int[0];
+        decalY = new int[0];
+    }
+
+    /**
+     * drawBricks Method draws every unbroken brick of the frame, in the order of the frame.
+     * @param frame     the frame being drawn.
+     * @param g2d       the graphics to draw on.
+     */
+    public void drawBricks(RenderFrame frame, Graphics2D g2d){
+        for(int i = 0; i < frame.getBricks(); i++)
+            if(!frame.isBroken(i))
+                drawBrick(frame, i, g2d);
+    }
+
+    /**
+     * drawBrick Method draws a brick of the frame from its sprite, or from its decal if its face is not a rectangle.
+     * @param frame     the frame being drawn.
+     * @param i         the index of the brick in the frame.
+     * @param g2d       the graphics to draw on.
+     */
+    public void drawBrick(RenderFrame frame, int i, Graphics2D g2d){
+        Shape face = frame.getBrickFace(i);
+        if(face.getClass() != Rectangle.class){
+            drawDecal(frame, i, face, g2d);
+            return;
+        }
+        Rectangle r = (Rectangle) face;
+        int s = find(frame.getBrickInner(i), frame.getBrickBorder(i), r.width, r.height);
+        int w = r.width + 1;
+        int h = r.height + 1;
+        g2d.drawImage(image, r.x, r.y, r.x + w, r.y + h, spriteX[s], 0, spriteX[s] + w, h, null);
+    }
+
+    /**
+     * find is a Private Method that returns the sprite of a kind of brick, drawing it if it is new.
+     * The kind of the last brick is tried first, bricks of a kind usually come in runs.
+     * @return  returns the index of the sprite.
+     */
+    private int find(Color in, Color out, int w, int h){
+        if(last >= 0 && matches(last, in, out, w, h))
+            return last;
+        for(int s = 0; s < sprites; s++)
+            if(matches(s, in, out, w, h))
+                return last = s;
+        return last = add(in, out, w, h);
+    }
+
+    private boolean matches(int s, Color in, Color out, int w, int h){
+        return width[s] == w && height[s] == h && (inner[s] == in || inner[s].equals(in))
+                && (border[s] == out || border[s].equals(out));
+    }
+
+    /**
+     * add is a Private Method that draws a new sprite at the right of the others.
+     * The image grows when the sprite does not fit; when the atlas is full it is emptied first,
+     * the kinds still in use are drawn again as they are met.
+     * @return  returns the index of the new sprite.
+     */
+    private int add(Color in, Color out, int w, int h){
+        if(sprites == MAX_SPRITES){
+            sprites = 0;
+            used = 0;
+        }
+        int spriteWidth = w + 1;
+        int spriteHeight = h + 1;
+        if(image == null || used + spriteWidth > image.getWidth() || spriteHeight > image.getHeight())
+            grow(used + spriteWidth, spriteHeight);
+
+        int s = sprites++;
+        inner[s] = in;
+        border[s] = out;
+        width[s] = w;
+        height[s] = h;
+        spriteX[s] = used;
+        used += spriteWidth;
+
+        Rectangle r = new Rectangle(spriteX[s], 0, w, h);
+        layer.setColor(in);
+        layer.fill(r);
+        layer.setColor(out);
+        layer.draw(r);
+        return s;
+    }
+
+    /**
+     * grow is a Private Method that replaces the image with a larger one holding the same sprites.
+     * @param w     the width needed.
+     * @param h     the height needed.
+     */
+    private void grow(int w, int h){
+        int newWidth = Math.max(w, image == null ? 256 : image.getWidth() * 2);
+        int newHeight = Math.max(h, image == null ? 32 : image.getHeight());
+        BufferedImage tmp = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = tmp.createGraphics();
+        if(image != null){
+            g2d.drawImage(image, 0, 0, null);
+            layer.dispose();
+        }
+        image = tmp;
+        layer = g2d;
+    }
+
+    /**
+     * drawDecal is a Private Method that copies the decal of a brick, drawing it first if the face is new.
+     * The decals are dropped when the frame comes from another brick store, a new level.
+     * @param frame     the frame being drawn.
+     * @param i         the index of the brick in the frame.
+     * @param face      the face of the brick.
+     * @param g2d       the graphics to draw on.
+     */
+    private void drawDecal(RenderFrame frame, int i, Shape face, Graphics2D g2d){
+        if(frame.getBrickSource() != decalSource || decalFace.length < frame.getBricks()){
+            int n = frame.getBricks();
+            decalFace = new Shape[n];
+            decal = new BufferedImage[n];
+            decalX = new int[n];
+            decalY = new int[n];
+            decalSource = frame.getBrickSource();
+        }
+        if(decalFace[i] != face){
+            //one more pixel on the right and at the bottom for the border stroke
+            Rectangle r = face.getBounds();
+            BufferedImage image = new BufferedImage(r.width + 1, r.height + 1, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D layer = image.createGraphics();
+            layer.translate(-r.x, -r.y);
+            BrickTileCache.drawBrick(frame, i, layer);
+            layer.dispose();
+            decalFace[i] = face;
+            decal[i] = image;
+            decalX[i] = r.x;
+            decalY[i] = r.y;
+            decalsRendered++;
+        }
+        g2d.drawImage(decal[i], decalX[i], decalY[i], null);
+        decals++;
+    }
+
+    /**
+     * getSprites is a Getter Method.
+     * @return  returns the number of sprites in the atlas.
+     */
+    public int getSprites(){
+        return sprites;
+    }
+
+    /**
+     * getDecals Method returns how many bricks were drawn from a decal since the last call, and starts counting again.
+     * @return  returns the number of cracked bricks drawn.
+     */
+    public int getDecals(){
+        int out = decals;
+        decals = 0;
+        return out;
+    }
+
+    /**
+     * getDecalsRendered Method returns how many decals were drawn since the last call, and starts counting again.
+     * @return  returns the number of cracks rasterized.
+     */
+    public int getDecalsRendered(){
+        int out = decalsRendered;
+        decalsRendered = 0;
+        return out;
+    }
+
+}
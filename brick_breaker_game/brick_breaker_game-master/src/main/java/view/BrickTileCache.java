@@ -0,0 +1,291 @@
+package view;
+
+import model.BrickStore;
+import model.RenderFrame;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+
+/**
+ * BrickTileCache class keeps the bricks drawn in an off-screen image, so a frame copies one image
+ * instead of filling and stroking every brick.
+ * The image is split in square tiles. When a brick of the frame differs from the one drawn in the cache,
+ * broken or with a new face after a crack, only the tiles under it are cleared and drawn again, each
+ * clipped to its tile and with the bricks in the same order as a direct draw, from the sprites of a BrickAtlas.
+ * A crack may stick out of its brick, a brick is drawn again in every tile its face reaches.
+ * The pixels match a direct draw: a cracked face, a self crossing path that Java2D fills slightly
+ * differently under a clip, comes from a decal drawn without one.
+ * A new level, a different brick store, draws every tile again.
+ * The image is opaque, painted with the background where there are no bricks, so copying it is a plain
+ * copy with no blending; only the part of the board that holds bricks is copied, and it must be drawn
+ * right after the board is cleared.
+ * It is used by the painter only and is not thread safe.
+ */
+public class BrickTileCache {
+
+    public static final int DEF_TILE_SIZE = 64;
+
+    private final int tileSize;
+    private final Color background;
+    private final int columns;
+    private final int rows;
+    private final BufferedImage image;
+    private final Graphics2D layer;
+    private final BrickAtlas atlas;
+
+    private int[][] tileBricks;
+    private int[] tileCount;
+    private boolean[] dirty;
+
+    private BrickStore source;
+    private long version;
+    private Shape[] faces;
+    private boolean[] broken;
+    private int[] firstColumn;
+    private int[] lastColumn;
+    private int[] firstRow;
+    private int[] lastRow;
+    private int bricks;
+    private Rectangle covered;
+
+    private int tilesRendered;
+
+
+    /**
+     * BrickTileCache is a Parameterized Constructor that creates an empty cache over the board.
+     * @param width     the width of the board.
+     * @param height    the height of the board.
+     * @param tileSize  the side of a tile, in pixels.
+     * @param background    the color of the board behind the bricks.
+     */
+    public BrickTileCache(int width, int height, int tileSize, Color background){
+        this.tileSize = tileSize;
+        this.background = background;
+        columns = (width + tileSize - 1) / tileSize;
+        rows = (height + tileSize - 1) / tileSize;
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        layer = image.createGraphics();
+        atlas = new BrickAtlas();
+        tileBricks = new int[columns * rows][];
+        tileCount = new int[columns * rows];
+        dirty = new boolean[columns * rows];
+        faces = new Shape[0];
+        broken = new boolean[0];
+        covered = new Rectangle(0, 0, -1, -1);
+    }
+
+    /**
+     * draw Method brings the cache up to date with the frame and copies it on the graphics.
+     * @param frame     the frame being drawn.
+     * @param g2d       the graphics of the board.
+     */
+    public void draw(RenderFrame frame, Graphics2D g2d){
+        update(frame);
+        if(covered.isEmpty())
+            return;
+        int x2 = covered.x + covered.width;
+        int y2 = covered.y + covered.height;
+        g2d.drawImage(image, covered.x, covered.y, x2, y2, covered.x, covered.y, x2, y2, null);
+    }
+
+    /**
+     * update Method draws again the tiles under the bricks that changed since the last update.
+     * @param frame     the frame being drawn.
+     * @return          returns how many tiles were drawn again.
+     */
+    public int update(RenderFrame frame){
+        tilesRendered = 0;
+        if(frame.getBrickSource() == source && frame.getBrickVersion() == version)
+            return 0;
+        if(frame.getBrickSource() != source || frame.getBricks() != bricks)
+            rebuild(frame);
+        else
+            for(int i = 0; i < bricks; i++)
+                if(frame.isBroken(i) != broken[i] || frame.getBrickFace(i) != faces[i]){
+                    if(!frame.isBroken(i))
+                        follow(frame, i);
+                    markDirty(i);
+                }
+
+        for(int i = 0; i < bricks; i++){
+            faces[i] = frame.getBrickFace(i);
+            broken[i] = frame.isBroken(i);
+        }
+        source = frame.getBrickSource();
+        version = frame.getBrickVersion();
+
+        for(int t = 0; t < dirty.length; t++)
+            if(dirty[t]){
+                renderTile(frame, t);
+                dirty[t] = false;
+                tilesRendered++;
+            }
+        return tilesRendered;
+    }
+
+    /**
+     * rebuild is a Private Method that finds the tiles under every brick of a new level and marks them all dirty.
+     * A brick is listed in every tile its bounds touch, one pixel wider on each side for the border stroke.
+     * The tiles holding bricks make the part of the image copied on every frame.
+     * @param frame     the frame of the new level.
+     */
+    private void rebuild(RenderFrame frame){
+        bricks = frame.getBricks();
+        faces = new Shape[bricks];
+        broken = new boolean[bricks];
+        firstColumn = new int[bricks];
+        lastColumn = new int[bricks];
+        firstRow = new int[bricks];
+        lastRow = new int[bricks];
+        Arrays.fill(tileCount, 0);
+        //a negative size makes the first add take the bounds it is given
+        covered = new Rectangle(0, 0, -1, -1);
+        for(int t = 0; t < tileBricks.length; t++)
+            tileBricks[t] = new int[4];
+
+        for(int i = 0; i < bricks; i++){
+            Rectangle r = frame.getBrickFace(i).getBounds();
+            firstColumn[i] = clamp((r.x - 1) / tileSize, columns);
+            lastColumn[i] = clamp((r.x + r.width + 1) / tileSize, columns);
+            firstRow[i] = clamp((r.y - 1) / tileSize, rows);
+            lastRow[i] = clamp((r.y + r.height + 1) / tileSize, rows);
+            for(int ty = firstRow[i]; ty <= lastRow[i]; ty++)
+                for(int tx = firstColumn[i]; tx <= lastColumn[i]; tx++){
+                    int t = ty * columns + tx;
+                    if(tileCount[t] == tileBricks[t].length)
+                        tileBricks[t] = Arrays.copyOf(tileBricks[t], tileCount[t] * 2);
+                    tileBricks[t][tileCount[t]++] = i;
+                }
+            covered.add(new Rectangle(firstColumn[i] * tileSize, firstRow[i] * tileSize,
+                    (lastColumn[i] - firstColumn[i] + 1) * tileSize, (lastRow[i] - firstRow[i] + 1) * tileSize));
+        }
+        covered = covered.intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+        Arrays.fill(dirty, true);
+    }
+
+    /**
+     * follow is a Private Method that lists a brick in the tiles its face reaches out of the ones it is listed in.
+     * A crack starts where the ball touched the brick and may stick out of it, so a cracked face can reach
+     * tiles the brick rectangle does not. The brick is listed in them in the order of the frame, and stays
+     * listed until the level changes.
+     * @param frame     the frame being drawn.
+     * @param i         the index of the brick.
+     */
+    private void follow(RenderFrame frame, int i){
+        Rectangle r = frame.getBrickFace(i).getBounds();
+        int c0 = clamp((r.x - 1) / tileSize, columns);
+        int c1 = clamp((r.x + r.width + 1) / tileSize, columns);
+        int r0 = clamp((r.y - 1) / tileSize, rows);
+        int r1 = clamp((r.y + r.height + 1) / tileSize, rows);
+        if(c0 >= firstColumn[i] && c1 <= lastColumn[i] && r0 >= firstRow[i] && r1 <= lastRow[i])
+            return;
+
+        for(int ty = r0; ty <= r1; ty++)
+            for(int tx = c0; tx <= c1; tx++)
+                if(tx < firstColumn[i] || tx > lastColumn[i] || ty < firstRow[i] || ty > lastRow[i])
+                    insert(ty * columns + tx, i);
+        firstColumn[i] = Math.min(firstColumn[i], c0);
+        lastColumn[i] = Math.max(lastColumn[i], c1);
+        firstRow[i] = Math.min(firstRow[i], r0);
+        lastRow[i] = Math.max(lastRow[i], r1);
+        covered.add(new Rectangle(c0 * tileSize, r0 * tileSize, (c1 - c0 + 1) * tileSize, (r1 - r0 + 1) * tileSize));
+        covered = covered.intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+    }
+
+    /**
+     * insert is a Private Method that lists a brick in a tile, keeping the bricks of the tile in the order of the frame.
+     * @param t     the index of the tile.
+     * @param i     the index of the brick.
+     */
+    private void insert(int t, int i){
+        if(tileCount[t] == tileBricks[t].length)
+            tileBricks[t] = Arrays.copyOf(tileBricks[t], tileCount[t] * 2);
+        int k = tileCount[t]++;
+        while(k > 0 && tileBricks[t][k - 1] > i){
+            tileBricks[t][k] = tileBricks[t][k - 1];
+            k--;
+        }
+        tileBricks[t][k] = i;
+    }
+
+    private static int clamp(int v, int n){
+        return Math.max(0, Math.min(n - 1, v));
+    }
+
+    /**
+     * markDirty is a Private Method that marks the tiles under a brick to be drawn again.
+     * @param i     the index of the brick.
+     */
+    private void markDirty(int i){
+        for(int ty = firstRow[i]; ty <= lastRow[i]; ty++)
+            for(int tx = firstColumn[i]; tx <= lastColumn[i]; tx++)
+                dirty[ty * columns + tx] = true;
+    }
+
+    /**
+     * renderTile is a Private Method that clears a tile and draws the unbroken bricks listed in it.
+     * @param frame     the frame being drawn.
+     * @param t         the index of the tile.
+     */
+    private void renderTile(RenderFrame frame, int t){
+        int x = (t % columns) * tileSize;
+        int y = (t / columns) * tileSize;
+        layer.setClip(x, y, tileSize, tileSize);
+        layer.setColor(background);
+        layer.fillRect(x, y, tileSize, tileSize);
+        for(int k = 0; k < tileCount[t]; k++){
+            int i = tileBricks[t][k];
+            if(!frame.isBroken(i))
+                atlas.drawBrick(frame, i, layer);
+        }
+        layer.setClip(null);
+    }
+
+    /**
+     * drawBricks Method draws every unbroken brick of the frame directly, without the cache.
+     * @param frame     the frame being drawn.
+     * @param g2d       the graphics to draw on.
+     */
+    public static void drawBricks(RenderFrame frame, Graphics2D g2d){
+        for(int i = 0; i < frame.getBricks(); i++)
+            if(!frame.isBroken(i))
+                drawBrick(frame, i, g2d);
+    }
+
+    /**
+     * drawBrick Method draws a brick of the frame, filled with its inner color and stroked with its border color.
+     * @param frame     the frame being drawn.
+     * @param i         the index of the brick in the frame.
+     * @param g2d       the graphics to draw on.
+     */
+    static void drawBrick(RenderFrame frame, int i, Graphics2D g2d){
+        Color tmp = g2d.getColor();
+
+        g2d.setColor(frame.getBrickInner(i));
+        g2d.fill(frame.getBrickFace(i));
+
+        g2d.setColor(frame.getBrickBorder(i));
+        g2d.draw(frame.getBrickFace(i));
+
+        g2d.setColor(tmp);
+    }
+
+    /**
+     * getTilesRendered is a Getter Method.
+     * @return  returns how many tiles the last update drew again.
+     */
+    public int getTilesRendered(){
+        return tilesRendered;
+    }
+
+    /**
+     * getTileCount is a Getter Method.
+     * @return  returns the number of tiles of the cache.
+     */
+    public int getTileCount(){
+        return columns * rows;
+    }
+
+}
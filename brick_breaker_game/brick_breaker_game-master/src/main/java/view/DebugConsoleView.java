@@ -53,7 +53,7 @@ public class DebugConsoleView extends JDialog implements WindowListener{
         this.gameBoard = gameBoard;
         initialize();
 
-        debugPanel = new DebugPanelController(wall);
+        debugPanel = new DebugPanelController(wall,gameBoard::edit);
         this.add(debugPanel,BorderLayout.CENTER);
 
 
@@ -92,12 +92,12 @@ public class DebugConsoleView extends JDialog implements WindowListener{
 
     /**
      * windowClosing implements the method in WindowListener.
-     * When user closes the window/dialog box, repaint the in-game screen.
+     * When user closes the window/dialog box, publish the changes made from the console and repaint the in-game screen.
      * @param windowEvent   to indicate if a key action has occurred or not.
      */
     @Override
     public void windowClosing(WindowEvent windowEvent) {
-        gameBoard.repaint();
+        gameBoard.refresh();
     }
 
     @Override
@@ -0,0 +1,231 @@
+package view;
+
+import controller.BallController;
+import model.BrickStore;
+import model.EventRing;
+import model.WallModel;
+
+import java.awt.*;
+import java.awt.geom.RectangularShape;
+
+
+/**
+ * DirtyTracker class finds the parts of the board that changed in the last tick, so only those are painted.
+ * A region is the bounds of a ball or of the player before and after the tick, a brick hit or broken,
+ * or the HUD line when the message changed. Regions are grown by a margin for the border strokes and
+ * the ones that overlap are merged.
+ * Anything it can not follow region by region, a new level, a reset wall, balls added or lost, or too many
+ * regions, makes the whole board dirty.
+ * It is updated by the simulation, on the thread that owns the wall, right after the frame is published.
+ */
+public class DirtyTracker {
+
+    private static final int MARGIN = 2;
+    private static final int MAX_REGIONS = 32;
+
+    private final WallModel wall;
+    private final Rectangle board;
+    private final Rectangle hud;
+    private final EventRing.Reader events;
+
+    private int balls;
+    private double[] ballX;
+    private double[] ballY;
+    private int playerX;
+    private String message;
+    private BrickStore store;
+
+    private final Rectangle[] regions;
+    private int count;
+    private boolean full;
+
+    private long frames;
+    private long pixels;
+
+
+    /**
+     * DirtyTracker is a Parameterized Constructor that starts with the whole board dirty.
+     * @param wall      the wall of the board.
+     * @param board     the bounds of the board.
+     * @param hud       the bounds of the line where the message is drawn.
+     */
+    public DirtyTracker(WallModel wall, Rectangle board, Rectangle hud){
+        this.wall = wall;
+        this.board = new Rectangle(board);
+        this.hud = new Rectangle(hud);
+        events = wall.getEvents().newReader();
+        ballX = new double[1];
+        ballY = new double[1];
+        regions = new Rectangle[MAX_REGIONS + 1];
+        for(int i = 0; i < regions.length; i++)
+            regions[i] = new Rectangle();
+        balls = -1;
+        full = true;
+    }
+
+    /**
+     * update Method finds the regions changed since the last update and remembers the state of the wall.
+     * @param message   the message the HUD shows now.
+     */
+    public void update(String message){
+        count = 0;
+        full = wall.getBallsInPlay() != balls || wall.getStore() != store;
+
+        while(events.next()){
+            switch(events.getType()){
+                case EventRing.BRICK_HIT:
+                case EventRing.BRICK_BROKEN:
+                    if(wall.getStore() == store)
+                        addBrick(events.getData());
+                    break;
+                case EventRing.LEVEL_STARTED:
+                case EventRing.WALL_RESET:
+                    full = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if(!full){
+            for(int i = 0; i < balls; i++){
+                BallController b = wall.getBall(i);
+                RectangularShape face = (RectangularShape) b.getBallFace();
+                double w = face.getWidth() / 2;
+                double h = face.getHeight() / 2;
+                double x = b.getPosition().getX();
+                double y = b.getPosition().getY();
+                add(Math.min(x, ballX[i]) - w, Math.min(y, ballY[i]) - h,
+                        Math.max(x, ballX[i]) + w, Math.max(y, ballY[i]) + h);
+            }
+            Rectangle p = wall.player.getPlayerFace().getBounds();
+            if(p.x != playerX)
+                add(Math.min(p.x, playerX), p.y, Math.max(p.x, playerX) + p.width, p.y + p.height);
+            if(!hud.isEmpty() && !message.equals(this.message))
+                add(hud.x, hud.y, hud.x + hud.width, hud.y + hud.height);
+            merge();
+        }
+        if(count > MAX_REGIONS)
+            full = true;
+
+        save(message);
+        frames++;
+        pixels += getArea();
+    }
+
+    /**
+     * save is a Private Method that remembers where the balls and the player are and what the HUD shows.
+     * @param message   the message the HUD shows now.
+     */
+    private void save(String message){
+        balls = wall.getBallsInPlay();
+        if(ballX.length < balls){
+            ballX = new double[balls * 2];
+            ballY = new double[balls * 2];
+        }
+        for(int i = 0; i < balls; i++){
+            ballX[i] = wall.getBall(i).getPosition().getX();
+            ballY[i] = wall.getBall(i).getPosition().getY();
+        }
+        playerX = wall.player.getPlayerFace().getBounds().x;
+        this.message = message;
+        store = wall.getStore();
+    }
+
+    /**
+     * addBrick is a Private Method that adds the bounds of the face of a brick of the current level.
+     * A crack may stick out of the brick, the face of a cracked brick holds it.
+     * @param i     the index of the brick.
+     */
+    private void addBrick(int i){
+        Rectangle r = store.view(i).getBrick().getBounds();
+        add(r.x, r.y, r.x + r.width, r.y + r.height);
+    }
+
+    /**
+     * add is a Private Method that adds a region, grown by the margin and cut to the board.
+     * Past MAX_REGIONS nothing is added and the whole board becomes dirty.
+     */
+    private void add(double x1, double y1, double x2, double y2){
+        if(count > MAX_REGIONS)
+            return;
+        Rectangle r = regions[count++];
+        r.setBounds((int) Math.floor(x1) - MARGIN, (int) Math.floor(y1) - MARGIN, 0, 0);
+        r.add((int) Math.ceil(x2) + MARGIN, (int) Math.ceil(y2) + MARGIN);
+        Rectangle.intersect(r, board, r);
+        if(r.isEmpty())
+            count--;
+    }
+
+    /**
+     * merge is a Private Method that joins overlapping regions until none overlap.
+     */
+    private void merge(){
+        boolean merged = true;
+        while(merged){
+            merged = false;
+            for(int i = 0; i < count; i++)
+                for(int j = i + 1; j < count; j++)
+                    if(regions[i].intersects(regions[j])){
+                        regions[i].add(regions[j]);
+                        Rectangle tmp = regions[j];
+                        regions[j] = regions[--count];
+                        regions[count] = tmp;
+                        merged = true;
+                        j--;
+                    }
+        }
+    }
+
+    /**
+     * isFull is a Getter Method.
+     * @return  returns true if the whole board must be painted.
+     */
+    public boolean isFull(){
+        return full;
+    }
+
+    /**
+     * getCount is a Getter Method.
+     * @return  returns how many regions must be painted, when the whole board does not.
+     */
+    public int getCount(){
+        return full ? 0 : count;
+    }
+
+    /**
+     * getRegion is a Getter Method.
+     * @param i     the index of the region.
+     * @return      returns the region, it is reused by the next update.
+     */
+    public Rectangle getRegion(int i){
+        return regions[i];
+    }
+
+    /**
+     * getArea Method adds up the pixels the last update asks to paint.
+     * @return  returns the number of pixels.
+     */
+    public long getArea(){
+        if(full)
+            return (long) board.width * board.height;
+        long out = 0;
+        for(int i = 0; i < count; i++)
+            out += (long) regions[i].width * regions[i].height;
+        return out;
+    }
+
+    /**
+     * report Method formats the pixels painted per update against painting the whole board, and starts counting again.
+     * @return  returns one line with the mean pixels per update.
+     */
+    public String report(){
+        double mean = frames == 0 ? 0 : pixels / (double) frames;
+        String out = String.format("dirty regions: n=%d mean=%.0f px per frame, whole board %d px (%.1fx less)",
+                frames, mean, board.width * board.height, mean == 0 ? 0 : board.width * board.height / mean);
+        frames = 0;
+        pixels = 0;
+        return out;
+    }
+
+}
@@ -17,25 +17,47 @@
  */
 package view;
 
-import controller.BallController;
-import controller.BrickController;
+import controller.GameEngine;
+import controller.GameLoop;
+import controller.GameRules;
+import controller.ReplayRecorder;
+import controller.RewindBuffer;
+import controller.Snapshot;
+import controller.TimingStats;
+import model.GameRandom;
 import model.PlayerModel;
+import model.RenderFrame;
+import model.RenderSnapshot;
+import model.StateBuffer;
 import model.WallModel;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.font.FontRenderContext;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 
 /**
  * GameBoardView class displays the in-game screen and handles the in-game implementation.
+ * The wall has one owner at a time and is never locked: the game loop thread while the loop runs, the EDT otherwise.
+ * A change made from the EDT while the loop runs is queued and made by the next tick, see change. The painter only
+ * reads the frames the owner publishes, see RenderSnapshot.
  */
 public class GameBoardView extends JComponent implements KeyListener,MouseListener,MouseMotionListener {
 
     private static final String CONTINUE = "Continue";
     private static final String RESTART = "Restart";
     private static final String EXIT = "Exit";
+    private static final String SAVE = "Save";
+    private static final String LOAD = "Load";
     private static final String PAUSE = "Pause Menu";
     private static final int TEXT_SIZE = 30;
     private static final Color MENU_COLOR = new Color(255,255,0); // change text colour to yellow
@@ -46,19 +68,63 @@ public class GameBoardView extends JComponent implements KeyListener,MouseListen
 
     private static final Color BG_COLOR = Color.BLACK; // change background colour to black
 
-    private Timer gameTimer;
+    private static final int TICK_MILLIS = 10;
+    private static final long FRAME_NANOS = 16_666_667L;
+    //run with -Dbrick.gameLoop=true to simulate on a dedicated fixed timestep thread
+    private static final String GAME_LOOP_PROPERTY = "brick.gameLoop";
+    //run with -Dbrick.activeRendering=true to draw and flip frames on the game loop thread, it implies the game loop
+    private static final String ACTIVE_RENDERING_PROPERTY = "brick.activeRendering";
+    //run with -Dbrick.frameStats=true to print the frame times every time the game pauses
+    private static final String FRAME_STATS_PROPERTY = "brick.frameStats";
+    //run with -Dbrick.fullRepaint=true to paint the whole board every tick instead of the regions that changed
+    private static final String FULL_REPAINT_PROPERTY = "brick.fullRepaint";
+    //run with -Dbrick.replayDir=<directory> to record every game and write its replay there when it ends
+    private static final String REPLAY_DIR_PROPERTY = "brick.replayDir";
+    //run with -Dbrick.saveFile=<file> to save the game from the pause menu there instead of the home directory
+    private static final String SAVE_FILE_PROPERTY = "brick.saveFile";
+    private static final String DEF_SAVE_FILE = ".brick_destroy.save";
+    private static final int STATS_CAPACITY = 4096;
+    //a press of R rewinds half a second
+    private static final int REWIND_TICKS = 50;
+    //the line of the board where the message is drawn
+    private static final Rectangle HUD_BOUNDS = new Rectangle(250,205,DEF_WIDTH - 250,26);
 
+    private Timer gameTimer;
+    private GameLoop gameLoop;
+    private GameCanvasView canvas;
+    private DirtyTracker dirty;
+    private boolean paintingRegions;
+
+    private TimingStats frameInterval;
+    private TimingStats frameTime;
+    private long lastFrame;
+
+    private RenderSnapshot snapshot;
+    private long ticks;
+    private BrickTileCache brickTiles;
+    private Ellipse2D.Double ballShape;
+    private Rectangle2D.Double playerShape;
+
+    private GameEngine.Config config;
     private WallModel wall;
+    private GameRules rules;
+    //the keys set the input, the tick gives it to the player so a replay sees the input of every tick
+    private volatile int input;
+    private ReplayRecorder recorder;
+    private int replays;
+    private RewindBuffer rewind;
+    //the changes of the wall made from the EDT while the game loop runs, the next tick makes them
+    private final Queue<Runnable> changes;
 
-    private String message;
-
-    private boolean showPauseMenu;
+    private volatile boolean showPauseMenu;
 
     private Font menuFont;
 
     private Rectangle continueButtonRect;
     private Rectangle exitButtonRect;
     private Rectangle restartButtonRect;
+    private Rectangle saveButtonRect;
+    private Rectangle loadButtonRect;
     private int strLen;
 
     private DebugConsoleView debugConsole;
@@ -82,42 +148,298 @@ public class GameBoardView extends JComponent implements KeyListener,MouseListen
 
 
         this.initialize();
-        message = "";
-        wall = new WallModel(new Rectangle(0,0,DEF_WIDTH,DEF_HEIGHT),30,3,6/2,new Point(300,430));
+        //the board of the game: 600 by 450, 30 bricks on 3 lines; the wall starts at the first level
+        config = new GameEngine.Config();
+        wall = config.newWall(new GameRandom());
 
         debugConsole = new DebugConsoleView(owner,wall,this);
-        //initialize the first level
-        wall.nextLevel();
-
-        gameTimer = new Timer(10,e ->{
-            wall.move();
-            wall.findImpacts();
-            message = String.format("Bricks: %d Balls %d",wall.getBrickCount(),wall.getBallCount());
-            if(wall.isBallLost()){
-                if(wall.ballEnd()){
-                    wall.wallReset();
-                    message = "Game over";
-                }
-                wall.ballReset();
-                gameTimer.stop();
-            }
-            else if(wall.isDone()){
-                if(wall.hasLevel()){
-                    message = "Go to Next Level";
-                    gameTimer.stop();
-                    wall.ballReset();
-                    wall.wallReset();
-                    wall.nextLevel();
-                }
-                else{
-                    message = "ALL WALLS DESTROYED";
-                    gameTimer.stop();
-                }
-            }
 
+        rules = new GameRules(wall);
+        input = GameEngine.STOP;
+        if(System.getProperty(REPLAY_DIR_PROPERTY) != null)
+            recorder = new ReplayRecorder(config,wall,ReplayRecorder.DEF_KEYFRAME_TICKS);
+        rewind = new RewindBuffer(wall,RewindBuffer.DEF_CAPACITY,RewindBuffer.DEF_BASE_TICKS);
+        changes = new ConcurrentLinkedQueue<>();
+        snapshot = new RenderSnapshot();
+        brickTiles = new BrickTileCache(DEF_WIDTH,DEF_HEIGHT,BrickTileCache.DEF_TILE_SIZE,BG_COLOR);
+        ballShape = new Ellipse2D.Double();
+        playerShape = new Rectangle2D.Double();
+        publishFrame();
+
+        frameInterval = new TimingStats("frame interval",STATS_CAPACITY);
+        frameTime = new TimingStats("frame time",STATS_CAPACITY);
+
+        if(Boolean.getBoolean(ACTIVE_RENDERING_PROPERTY)){
+            canvas = new GameCanvasView(this::draw);
+            canvas.addKeyListener(this);
+            canvas.addMouseListener(this);
+            canvas.addMouseMotionListener(this);
+            this.setLayout(new BorderLayout());
+            this.add(canvas,BorderLayout.CENTER);
+            this.setFocusable(false);
+            gameLoop = new GameLoop(TICK_MILLIS * 1_000_000L,FRAME_NANOS,this::tick,this::render);
+        }
+        else if(Boolean.getBoolean(GAME_LOOP_PROPERTY))
+            gameLoop = new GameLoop(TICK_MILLIS * 1_000_000L,FRAME_NANOS,this::tick,this::repaint);
+        else
+            gameTimer = new Timer(TICK_MILLIS,e ->{
+                tick();
+                repaintTick();
+            });
+
+        //with the game loop frames come at the display rate with interpolated positions, not once per tick
+        if(gameTimer != null && !Boolean.getBoolean(FULL_REPAINT_PROPERTY))
+            dirty = new DirtyTracker(wall,new Rectangle(0,0,DEF_WIDTH,DEF_HEIGHT),HUD_BOUNDS);
+
+    }
+
+    /**
+     * repaintTick is a Private Method that paints what the last tick changed.
+     * Each dirty region is painted right away on its own, so a ball at the top and the player at the bottom
+     * do not make one region as big as the board, as a repaint of their union would.
+     */
+    private void repaintTick(){
+        if(dirty == null || dirty.isFull()){
             repaint();
+            return;
+        }
+        long start = System.nanoTime();
+        paintingRegions = true;
+        for(int i = 0; i < dirty.getCount(); i++)
+            paintImmediately(dirty.getRegion(i));
+        paintingRegions = false;
+        if(dirty.getCount() > 0)
+            recordFrame(start);
+    }
+
+    /**
+     * tick is a Private Method that advances the game by one step.
+     * Moves the ball and player, finds the impacts and handles lost balls and cleared levels.
+     * Runs on the EDT with the Swing timer, or on the game loop thread, the owner of the wall; the changes queued
+     * from the EDT are made first, and again at the end if the tick stopped the loop.
+     */
+    private void tick(){
+        //the loop may have been stopped meanwhile, the EDT then owns the wall once this thread ends
+        if(gameLoop != null && !gameLoop.isRunning())
+            return;
+        makeChanges();
+        snapshot.getBack().begin(wall);
+        int move = input;
+        GameEngine.move(wall.player,move);
+        if(recorder != null)
+            recorder.record(move);
+        //a lost ball or a cleared wall pauses the game until the player resumes it
+        int outcome = rules.tick();
+        rewind.record();
+        if(outcome != GameRules.PLAYING)
+            stopGame();
+        if(outcome == GameRules.GAME_OVER || outcome == GameRules.ALL_CLEARED)
+            endReplay(outcome == GameRules.GAME_OVER);
+        ticks++;
+        publishFrame();
+        if(dirty != null)
+            dirty.update(rules.getMessage());
+        if(gameLoop != null && !gameLoop.isRunning())
+            makeChanges();
+    }
+
+    /**
+     * change is a Private Method that changes the wall, called on the EDT. While the game loop runs the change is
+     * queued for the next tick; otherwise the EDT owns the wall, once the thread of the last run ended, and makes it.
+     * A change queued while the loop stops is made by the last tick of the loop, or here if it came after it.
+     * @param change    what changes the wall, it publishes a frame if the change is to be seen.
+     */
+    private void change(Runnable change){
+        if(gameLoop == null){
+            change.run();
+            return;
+        }
+        changes.add(change);
+        if(gameLoop.isRunning())
+            return;
+        gameLoop.awaitStop();
+        makeChanges();
+    }
+
+    /**
+     * makeChanges is a Private Method that makes the changes queued, called by the owner of the wall.
+     */
+    private void makeChanges(){
+        for(Runnable change = changes.poll(); change != null; change = changes.poll())
+            change.run();
+    }
+
+    /**
+     * publishFrame is a Private Method that copies the wall and the message into the back frame and publishes it.
+     * It is called by the owner of the wall only, so there is one writer at a time.
+     */
+    private void publishFrame(){
+        snapshot.getBack().write(wall,rules.getMessage(),ticks);
+        snapshot.publish();
+    }
+
+    /**
+     * refresh Method publishes a frame of the wall as it is now and repaints.
+     * Used after the wall was changed outside of a tick, for example from the debug console.
+     */
+    public void refresh(){
+        change(() -> {
+            wallChanged();
+            rules.refreshHud();
+            publishFrame();
         });
+        redraw();
+    }
+
+    /**
+     * edit Method changes the wall outside of a tick, through change, and shows the change.
+     * Used by the debug console, so a change made while the game runs does not land in the middle of a tick.
+     * @param change    what changes the wall.
+     */
+    public void edit(Runnable change){
+        change(() -> {
+            change.run();
+            wallChanged();
+            rules.refreshHud();
+            publishFrame();
+        });
+        redraw();
+    }
+
+    /**
+     * wallChanged is a Private Method that tells the recording the wall was changed outside of a tick,
+     * or starts a new one if the last game ended. The caller owns the wall.
+     */
+    private void wallChanged(){
+        if(recorder != null)
+            recorder.mark();
+        else if(System.getProperty(REPLAY_DIR_PROPERTY) != null)
+            recorder = new ReplayRecorder(config,wall,ReplayRecorder.DEF_KEYFRAME_TICKS);
+    }
+
+    /**
+     * endReplay is a Private Method that writes the replay of the game that ended and starts the next one.
+     * The caller owns the wall.
+     * @param next  true to record the next game, a game over plays on; false when all the walls are cleared.
+     */
+    private void endReplay(boolean next){
+        if(recorder == null)
+            return;
+        if(recorder.getReplay().getTicks() > 0){
+            File dir = new File(System.getProperty(REPLAY_DIR_PROPERTY));
+            File file = new File(dir,String.format("replay-%d-%d.brr",recorder.getReplay().getSeed(),++replays));
+            dir.mkdirs();
+            try(OutputStream out = new FileOutputStream(file)){
+                recorder.getReplay().write(out);
+            }catch(IOException e){
+                System.err.println("Could not write the replay " + file + ": " + e.getMessage());
+            }
+        }
+        recorder = next ? new ReplayRecorder(config,wall,ReplayRecorder.DEF_KEYFRAME_TICKS) : null;
+    }
+
+    /**
+     * redraw is a Private Method that shows the latest frame, for changes made while the game is paused.
+     * In the active mode the frame is rendered right away, unless the game loop runs and renders the next one itself;
+     * otherwise a repaint is requested.
+     */
+    private void redraw(){
+        if(canvas == null)
+            repaint();
+        else if(!gameLoop.isRunning()){
+            gameLoop.awaitStop();
+            render();
+        }
+    }
+
+    /**
+     * render is a Private Method that draws and flips a frame on the canvas of the active mode.
+     * Runs on the game loop thread, or on the EDT while the game is paused, never on both: the frame times are
+     * recorded by one thread at a time.
+     */
+    private void render(){
+        long start = System.nanoTime();
+        if(canvas.render())
+            recordFrame(start);
+    }
+
+    /**
+     * recordFrame is a Private Method that records how long a frame took and how long after the previous one it started.
+     * It is called by the thread that paints the frames: the EDT, or in the active mode the thread that renders.
+     * @param start     when the frame started, from System.nanoTime.
+     */
+    private void recordFrame(long start){
+        frameTime.record(System.nanoTime() - start);
+        if(lastFrame != 0)
+            frameInterval.record(start - lastFrame);
+        lastFrame = start;
+    }
+
+    /**
+     * reportFrames is a Private Method that prints the frame times and starts collecting them again,
+     * when the game was started with -Dbrick.frameStats=true.
+     * It runs on the thread that records the frames: the Swing frames are reported on the EDT.
+     */
+    private void reportFrames(){
+        if(!Boolean.getBoolean(FRAME_STATS_PROPERTY))
+            return;
+        if(canvas == null && !SwingUtilities.isEventDispatchThread()){
+            SwingUtilities.invokeLater(this::reportFrames);
+            return;
+        }
+        if(frameTime.getCount() == 0)
+            return;
+        System.out.println(canvas != null ? "active rendering" : "Swing repaint");
+        System.out.println(frameInterval.report());
+        System.out.println(frameTime.report());
+        if(gameLoop != null)
+            System.out.println(gameLoop.report());
+        if(dirty != null)
+            System.out.println(dirty.report());
+        frameInterval.reset();
+        frameTime.reset();
+        lastFrame = 0;
+    }
 
+    /**
+     * startGame is a Private Method that starts the Swing timer or the game loop.
+     */
+    private void startGame(){
+        rules.refreshHud();
+        if(gameLoop != null)
+            gameLoop.start();
+        else
+            gameTimer.start();
+    }
+
+    /**
+     * stopGame is a Private Method that stops the Swing timer or the game loop.
+     * Called from the EDT it waits for the loop thread to end, the EDT owns the wall afterwards.
+     */
+    private void stopGame(){
+        if(gameLoop != null){
+            gameLoop.stop();
+            gameLoop.awaitStop();
+        }
+        else
+            gameTimer.stop();
+        reportFrames();
+    }
+
+    /**
+     * isGameRunning is a Private Method.
+     * @return  returns true if the Swing timer or the game loop is running.
+     */
+    private boolean isGameRunning(){
+        return gameLoop != null ? gameLoop.isRunning() : gameTimer.isRunning();
+    }
+
+    /**
+     * getGameLoop is a Getter Method.
+     * @return  returns the game loop, null when the game runs on the Swing timer.
+     */
+    public GameLoop getGameLoop(){
+        return gameLoop;
     }
 
 
@@ -145,26 +467,47 @@ public class GameBoardView extends JComponent implements KeyListener,MouseListen
      * @param g
      */
     public void paint(Graphics g){
+        //in the active mode the canvas covers the board and draws the frames itself
+        if(canvas != null){
+            super.paint(g);
+            return;
+        }
+        long start = System.nanoTime();
+        draw((Graphics2D) g);
+        Toolkit.getDefaultToolkit().sync();
+        //the regions of a tick are recorded together as one frame
+        if(!paintingRegions)
+            recordFrame(start);
+    }
 
-        Graphics2D g2d = (Graphics2D) g;
+    /**
+     * draw is a Private Method that draws a whole frame: the message, the balls, the bricks, the player and the pause menu.
+     * It reads the latest frame published by the simulation, never the wall.
+     * @param g2d
+     */
+    private void draw(Graphics2D g2d){
 
         clear(g2d);
 
+        //the frame is only read here, the simulation writes the next one in another buffer
+        RenderFrame frame = snapshot.acquire();
+        //with the game loop balls and player are drawn in between the last two ticks
+        double alpha = gameLoop != null && gameLoop.isRunning() ? gameLoop.getAlpha() : 1;
+
+        //the cached bricks are opaque, they go first and everything else is drawn over them
+        brickTiles.draw(frame,g2d);
+
         g2d.setColor(Color.WHITE);//change text colour to white
-        g2d.drawString(message,250,225);
+        g2d.drawString(frame.getMessage(),250,225);
 
-        drawBall(wall.ball,g2d);
+        for(int i = 0; i < frame.getBalls(); i++)
+            drawBall(frame,i,alpha,g2d);
 
-        for(BrickController b : wall.bricks)
-            if(!b.isBroken())
-                drawBrick(b,g2d);
 
-        drawPlayer(wall.player,g2d);
+        drawPlayer(frame,alpha,g2d);
 
         if(showPauseMenu)
             drawMenu(g2d);
-
-        Toolkit.getDefaultToolkit().sync();
     }
 
     /**
@@ -178,41 +521,26 @@ public class GameBoardView extends JComponent implements KeyListener,MouseListen
         g2d.setColor(tmp);
     }
 
-    /**
-     * drawBrick is a private Method that draws the brick to the in-game screen.
-     * Sets and Draws the brick color, shape and type.
-     * @param brick     passing in the Object/Reference variable of the BrickController class. Aggregation relationship.
-     * @param g2d
-     */
-    private void drawBrick(BrickController brick, Graphics2D g2d){
-        Color tmp = g2d.getColor();
-
-        g2d.setColor(brick.getInnerColor());
-        g2d.fill(brick.getBrick());
-
-        g2d.setColor(brick.getBorderColor());
-        g2d.draw(brick.getBrick());
-
-
-        g2d.setColor(tmp);
-    }
-
     /**
      * drawBall is a private Method that draws the ball components to the in-game screen.
      * Draws the ball features such as color and shape
-     * @param ball      passing in the Object/Reference variable of the BallController class. Aggregation relationship.
+     * @param frame     the frame being drawn.
+     * @param i         the index of the ball in the frame.
+     * @param alpha     how far the ball is from its position before the tick to the one after it.
      * @param g2d
      */
-    private void drawBall(BallController ball, Graphics2D g2d){
+    private void drawBall(RenderFrame frame, int i, double alpha, Graphics2D g2d){
         Color tmp = g2d.getColor();
 
-        Shape s = ball.getBallFace();
+        double w = frame.getBallWidth(i);
+        double h = frame.getBallHeight(i);
+        ballShape.setFrame(frame.getBallX(i,alpha) - w / 2,frame.getBallY(i,alpha) - h / 2,w,h);
 
-        g2d.setColor(ball.getInnerColor());
-        g2d.fill(s);
+        g2d.setColor(frame.getBallInner(i));
+        g2d.fill(ballShape);
 
-        g2d.setColor(ball.getBorderColor());
-        g2d.draw(s);
+        g2d.setColor(frame.getBallBorder(i));
+        g2d.draw(ballShape);
 
         g2d.setColor(tmp);
     }
@@ -220,18 +548,20 @@ public class GameBoardView extends JComponent implements KeyListener,MouseListen
     /**
      * drawPlayer is a private Method that draws the player components to the in-game screen.
      * Draws the player shape, color.
-     * @param p     passing in the Object/Reference variable of the PlayerModel class. Aggregation relationship.
+     * @param frame     the frame being drawn.
+     * @param alpha     how far the player is from its position before the tick to the one after it.
      * @param g2d
      */
-    private void drawPlayer(PlayerModel p, Graphics2D g2d){
+    private void drawPlayer(RenderFrame frame, double alpha, Graphics2D g2d){
         Color tmp = g2d.getColor();
 
-        Shape s = p.getPlayerFace();
+        Rectangle p = frame.getPlayer();
+        playerShape.setRect(frame.getPlayerX(alpha),p.y,p.width,p.height);
         g2d.setColor(PlayerModel.INNER_COLOR);
-        g2d.fill(s);
+        g2d.fill(playerShape);
 
         g2d.setColor(PlayerModel.BORDER_COLOR);
-        g2d.draw(s);
+        g2d.draw(playerShape);
 
         g2d.setColor(tmp);
     }
@@ -270,7 +600,7 @@ public class GameBoardView extends JComponent implements KeyListener,MouseListen
 
     /**
      * drawPauseMenu is a private Method that draws and renders the fonts on the Pause Menu Screen.
-     * Draws the CONTINUE, RESTART and EXIT buttons.
+     * Draws the CONTINUE, RESTART and EXIT buttons, and the SAVE and LOAD buttons on their right.
      * @param g2d
      */
     private void drawPauseMenu(Graphics2D g2d){
@@ -303,6 +633,15 @@ public class GameBoardView extends JComponent implements KeyListener,MouseListen
 
         g2d.drawString(CONTINUE,x,y);
 
+        int right = this.getWidth() * 5 / 8;
+
+        if(saveButtonRect == null){
+            saveButtonRect = (Rectangle) continueButtonRect.clone();
+            saveButtonRect.setLocation(right,y-saveButtonRect.height);
+        }
+
+        g2d.drawString(SAVE,right,y);
+
         y *= 2;
 
         if(restartButtonRect == null){
@@ -312,6 +651,13 @@ public class GameBoardView extends JComponent implements KeyListener,MouseListen
 
         g2d.drawString(RESTART,x,y);
 
+        if(loadButtonRect == null){
+            loadButtonRect = (Rectangle) continueButtonRect.clone();
+            loadButtonRect.setLocation(right,y-loadButtonRect.height);
+        }
+
+        g2d.drawString(LOAD,right,y);
+
         y *= 3.0/2;
 
         if(exitButtonRect == null){
@@ -335,35 +681,40 @@ public class GameBoardView extends JComponent implements KeyListener,MouseListen
      * keyPressed implements the method in KeyListener.
      * Listens and notifies if a key is pressed.
      * Implements the next course of actions if specific keys are pressed, such as:
-     * A: move player left, D: move player right, ESC: show pause menu, SPACE: pause game, ALT-SHIFT-F1: display DebugConsole.
+     * A: move player left, D: move player right, ESC: show pause menu, SPACE: pause game, R: rewind,
+     * ALT-SHIFT-F1: display DebugConsole.
      * @param keyEvent      to indicate if a key action has occurred or not.
      */
     @Override
     public void keyPressed(KeyEvent keyEvent) {
         switch(keyEvent.getKeyCode()){
             case KeyEvent.VK_A:
-                wall.player.moveLeft();
+                input = GameEngine.LEFT;
                 break;
             case KeyEvent.VK_D:
-                wall.player.movRight();
+                input = GameEngine.RIGHT;
                 break;
             case KeyEvent.VK_ESCAPE:
                 showPauseMenu = !showPauseMenu;
-                repaint();
-                gameTimer.stop();
+                stopGame();
+                redraw();
                 break;
             case KeyEvent.VK_SPACE:
                 if(!showPauseMenu)
-                    if(gameTimer.isRunning())
-                        gameTimer.stop();
+                    if(isGameRunning())
+                        stopGame();
                     else
-                        gameTimer.start();
+                        startGame();
+                break;
+            case KeyEvent.VK_R:
+                if(!showPauseMenu)
+                    rewindGame();
                 break;
             case KeyEvent.VK_F1:
                 if(keyEvent.isAltDown() && keyEvent.isShiftDown())
                     debugConsole.setVisible(true);
             default:
-                wall.player.stop();
+                input = GameEngine.STOP;
         }
     }
 
@@ -374,12 +725,12 @@ public class GameBoardView extends JComponent implements KeyListener,MouseListen
      */
     @Override
     public void keyReleased(KeyEvent keyEvent) {
-        wall.player.stop();
+        input = GameEngine.STOP;
     }
 
     /**
      * mouseClicked implements the method in MouseListener.
-     * Implements the next course of actions if the CONTINUE, RESTART and EXIT buttons are clicked on.
+     * Implements the next course of actions if the CONTINUE, RESTART, EXIT, SAVE and LOAD buttons are clicked on.
      * @param mouseEvent    to indicate if a mouse action has occurred or not.
      */
     @Override
@@ -389,18 +740,32 @@ public class GameBoardView extends JComponent implements KeyListener,MouseListen
             return;
         if(continueButtonRect.contains(p)){
             showPauseMenu = false;
-            repaint();
+            redraw();
         }
         else if(restartButtonRect.contains(p)){
-            message = "Restarting Game...";
-            wall.ballReset();
-            wall.wallReset();
+            change(() -> {
+                rules.restart();
+                wallChanged();
+                publishFrame();
+            });
             showPauseMenu = false;
-            repaint();
+            redraw();
         }
         else if(exitButtonRect.contains(p)){
+            stopGame();
+            endReplay(false);
             System.exit(0);
         }
+        else if(saveButtonRect.contains(p)){
+            saveGame();
+            showPauseMenu = false;
+            redraw();
+        }
+        else if(loadButtonRect.contains(p)){
+            loadGame();
+            showPauseMenu = false;
+            redraw();
+        }
 
     }
 
@@ -431,7 +796,7 @@ public class GameBoardView extends JComponent implements KeyListener,MouseListen
 
     /**
      * mouseMoved implements the method in MouseListener.
-     * Implements what the cursor should look like when the cursor hovers over the CONTINUE, RESTART and EXIT buttons.
+     * Implements what the cursor should look like when the cursor hovers over the buttons of the Pause Menu.
      * Implements what the cursor should look like otherwise.
      * @param mouseEvent       to indicate if a mouse action has occurred or not.
      */
@@ -439,7 +804,8 @@ public class GameBoardView extends JComponent implements KeyListener,MouseListen
     public void mouseMoved(MouseEvent mouseEvent) {
         Point p = mouseEvent.getPoint();
         if(exitButtonRect != null && showPauseMenu) {
-            if (exitButtonRect.contains(p) || continueButtonRect.contains(p) || restartButtonRect.contains(p))
+            if (exitButtonRect.contains(p) || continueButtonRect.contains(p) || restartButtonRect.contains(p)
+                    || saveButtonRect.contains(p) || loadButtonRect.contains(p))
                 this.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
             else
                 this.setCursor(Cursor.getDefaultCursor());
@@ -449,6 +815,71 @@ public class GameBoardView extends JComponent implements KeyListener,MouseListen
         }
     }
 
+    /**
+     * saveFile is a Private Method.
+     * @return  returns the file the game is saved to, -Dbrick.saveFile or a file in the home directory.
+     */
+    private File saveFile(){
+        String name = System.getProperty(SAVE_FILE_PROPERTY);
+        return name != null ? new File(name) : new File(System.getProperty("user.home"),DEF_SAVE_FILE);
+    }
+
+    /**
+     * saveGame is a Private Method that writes a snapshot of the game to the save file, see Snapshot.
+     */
+    private void saveGame(){
+        change(() -> {
+            StateBuffer out = new StateBuffer();
+            Snapshot.write(config,wall,out);
+            try{
+                Snapshot.save(out,saveFile());
+                rules.setMessage("Game Saved");
+            }catch(IOException e){
+                rules.setMessage("Could not save the game");
+            }
+            publishFrame();
+        });
+    }
+
+    /**
+     * loadGame is a Private Method that puts the game back as it was saved.
+     * A game saved in another run has another seed, the recording of the game is ended and the next one
+     * starts from the loaded game.
+     */
+    private void loadGame(){
+        change(() -> {
+            try{
+                Snapshot.read(Snapshot.load(saveFile()),config,wall);
+                //a game of another seed has other cracks, the ticks kept are of the game before
+                rewind = new RewindBuffer(wall,RewindBuffer.DEF_CAPACITY,RewindBuffer.DEF_BASE_TICKS);
+                if(recorder != null)
+                    endReplay(true);
+                else
+                    wallChanged();
+                rules.setMessage("Game Loaded");
+            }catch(IOException | IllegalStateException e){
+                rules.setMessage("Could not load the game");
+            }
+            publishFrame();
+        });
+    }
+
+    /**
+     * rewindGame is a Private Method that pauses the game and puts it back half a second, up to 30 seconds
+     * with repeated presses; the game goes on from there once resumed.
+     */
+    private void rewindGame(){
+        stopGame();
+        change(() -> {
+            rewind.rewind(REWIND_TICKS);
+            wallChanged();
+            rules.refreshHud();
+            rules.setMessage(String.format("Rewind: %.1f s left",rewind.getAvailable() * TICK_MILLIS / 1000.0));
+            publishFrame();
+        });
+        redraw();
+    }
+
     /**
      * onLostFocus method implements what should occur when focus is lost.
      * Stops the game timer.
@@ -456,9 +887,12 @@ public class GameBoardView extends JComponent implements KeyListener,MouseListen
      * Redraw the screen.
      */
     public void onLostFocus(){
-        gameTimer.stop();
-        message = "Focus Lost";
-        repaint();
+        stopGame();
+        change(() -> {
+            rules.setMessage("Focus Lost");
+            publishFrame();
+        });
+        redraw();
     }
 
 }
@@ -0,0 +1,99 @@
+package view;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.util.function.Consumer;
+
+
+/**
+ * GameCanvasView class is the surface of the active rendering mode.
+ * Frames are drawn into the back buffer of a BufferStrategy and flipped on screen by the thread that
+ * renders them, without going through the RepaintManager.
+ * Frames may be rendered from the game loop thread and from the EDT, render is synchronized so one frame is drawn at a time.
+ * AWT creates and destroys the peer under its tree lock, so those are not synchronized here: a frame that finds
+ * the buffers gone is dropped instead.
+ */
+public class GameCanvasView extends Canvas {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int BUFFERS = 2;
+
+    private final Consumer<Graphics2D> painter;
+
+
+    /**
+     * GameCanvasView is a Parameterized Constructor that creates the canvas.
+     * @param painter   draws one frame on the graphics it is given.
+     */
+    public GameCanvasView(Consumer<Graphics2D> painter){
+        super();
+        this.painter = painter;
+        this.setBackground(Color.BLACK);
+    }
+
+    /**
+     * addNotify Method creates the buffers once the canvas has a peer.
+     */
+    @Override
+    public void addNotify(){
+        super.addNotify();
+        createBufferStrategy(BUFFERS);
+    }
+
+    /**
+     * render Method draws a frame in the back buffer and shows it.
+     * The frame is drawn again if the buffer contents were lost meanwhile.
+     * @return  returns false if the canvas is not displayable and nothing was shown.
+     */
+    public synchronized boolean render(){
+        BufferStrategy strategy = getBufferStrategy();
+        if(strategy == null || !isDisplayable())
+            return false;
+        try{
+            flip(strategy);
+        }catch(IllegalStateException e){
+            //the peer went away while the frame was drawn
+            return false;
+        }
+        Toolkit.getDefaultToolkit().sync();
+        return true;
+    }
+
+    /**
+     * flip is a Private Method that draws a frame in the back buffer until it survives, then flips it.
+     * @param strategy  the buffers of the canvas.
+     */
+    private void flip(BufferStrategy strategy){
+        do{
+            do{
+                Graphics2D g2d = (Graphics2D) strategy.getDrawGraphics();
+                try{
+                    painter.accept(g2d);
+                }finally{
+                    g2d.dispose();
+                }
+            }while(strategy.contentsRestored());
+            strategy.show();
+        }while(strategy.contentsLost());
+    }
+
+    /**
+     * update Method is called by AWT when the canvas must be redrawn, it renders a frame without clearing first.
+     * @param g     not used, the frame goes through the buffers.
+     */
+    @Override
+    public void update(Graphics g){
+        render();
+    }
+
+    /**
+     * paint Method is called by AWT when the canvas is exposed, it renders a frame.
+     * @param g     not used, the frame goes through the buffers.
+     */
+    @Override
+    public void paint(Graphics g){
+        render();
+    }
+
+}
@@ -0,0 +1,115 @@
+package controller;
+
+import model.FixedPoint;
+import model.GameRandom;
+import model.StateBuffer;
+import model.WallModel;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * FixedPointGameTest class checks that a game in fixed point is the same every time it is played:
+ * with a crowd of balls bouncing off each other, and from a replay of it.
+ */
+public class FixedPointGameTest {
+
+    private static final long SEED = 20;
+    private static final int TICKS = 30_000;
+    private static final int BALLS = 16;
+
+    private static byte[] state(WallModel wall){
+        StateBuffer out = new StateBuffer();
+        wall.writeState(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * crowd is a Private Method that plays a wall with a crowd of balls, repaired when it is cleared.
+     * @param ticks     the ticks to play.
+     * @return          returns the states of the wall every 1,000 ticks.
+     */
+    private static byte[][] crowd(int ticks){
+        WallModel wall = new WallModel(new Rectangle(0,0,600,450),300,10,3,new Point(300,430),new GameRandom(SEED),true);
+        wall.nextLevel();
+        wall.nextLevel();
+        byte[][] out = new byte[ticks / 1_000][];
+        for(int t = 0; t < ticks; t++){
+            while(wall.getBallsInPlay() < BALLS)
+                wall.addBall();
+            wall.move();
+            wall.findImpacts();
+            if(wall.isBallLost())
+                wall.ballReset();
+            if(wall.isDone() || wall.ballEnd())
+                wall.wallReset();
+            if((t + 1) % 1_000 == 0)
+                out[t / 1_000] = state(wall);
+        }
+        return out;
+    }
+
+    @Test
+    public void crowdOfBallsPlaysTheSameTwice(){
+        byte[][] first = crowd(TICKS);
+        byte[][] second = crowd(TICKS);
+        for(int i = 0; i < first.length; i++)
+            assertArrayEquals(first[i],second[i],"state at tick " + (i + 1) * 1_000);
+    }
+
+    @Test
+    public void ballsStayOnTheFixedPointGrid(){
+        GameEngine engine = GameEngine.create(new GameEngine.Config().withFixedPoint(true),SEED);
+        BatchRunner.Policy policy = BatchRunner.follow(4);
+        for(int t = 0; t < TICKS; t++){
+            engine.step(policy.move(engine.state()));
+            WallModel wall = engine.getWall();
+            for(int i = 0; i < wall.getBallsInPlay(); i++){
+                BallController b = wall.getBall(i);
+                assertEquals(FixedPoint.toDouble(b.getFixedX()),b.getPosition().getX());
+                assertEquals(FixedPoint.toDouble(b.getFixedY()),b.getPosition().getY());
+            }
+        }
+    }
+
+    @Test
+    public void replayOfFixedPointGamePlaysTheSameGame() throws IOException {
+        GameEngine.Config config = new GameEngine.Config().withFixedPoint(true);
+        WallModel wall = config.newWall(new GameRandom(SEED));
+        GameRules rules = new GameRules(wall);
+        ReplayRecorder recorder = new ReplayRecorder(config,wall,ReplayRecorder.DEF_KEYFRAME_TICKS);
+        byte[][] states = new byte[TICKS / 1_000][];
+        int input = GameEngine.STOP;
+        for(int t = 0; t < TICKS; t++){
+            if(t % 7 == 0){
+                double dx = wall.getBall(0).getPosition().getX() - wall.player.getX();
+                input = dx < -4 ? GameEngine.LEFT : dx > 4 ? GameEngine.RIGHT : GameEngine.STOP;
+            }
+            GameEngine.move(wall.player,input);
+            recorder.record(input);
+            if(rules.tick() == GameRules.ALL_CLEARED){
+                rules.restart();
+                recorder.mark();
+            }
+            if((t + 1) % 1_000 == 0)
+                states[t / 1_000] = state(wall);
+        }
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        recorder.getReplay().write(file);
+        ReplayPlayer player = new ReplayPlayer(Replay.read(new ByteArrayInputStream(file.toByteArray())));
+        for(int i = 0; i < states.length; i++){
+            while(player.getTick() < (i + 1) * 1_000L)
+                player.step();
+            assertArrayEquals(states[i],state(player.getWall()),"state at tick " + (i + 1) * 1_000);
+        }
+        assertTrue(player.isDone());
+    }
+
+}
@@ -0,0 +1,92 @@
+package controller;
+
+import model.StateBuffer;
+import model.WallModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * GameEngineTest class checks that a headless game is a function of its seed and its inputs:
+ * the same seed and inputs give the same game bit for bit, on any thread, and another seed another game.
+ */
+public class GameEngineTest {
+
+    private static final long SEED = 17;
+    private static final int TICKS = 20_000;
+
+    private static byte[] state(WallModel wall){
+        StateBuffer out = new StateBuffer();
+        wall.writeState(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * play is a Private Method that plays a game with the player following the ball.
+     * @param seed      the seed of the game.
+     * @param ticks     the ticks to play.
+     * @return          returns the state of the wall at the end.
+     */
+    private static byte[] play(long seed, int ticks){
+        GameEngine engine = GameEngine.create(new GameEngine.Config(),seed);
+        BatchRunner.Policy policy = BatchRunner.follow(4);
+        for(int t = 0; t < ticks; t++)
+            engine.step(policy.move(engine.state()));
+        return state(engine.getWall());
+    }
+
+    @Test
+    public void sameSeedAndInputsPlayTheSameGame(){
+        GameEngine a = GameEngine.create(new GameEngine.Config(),SEED);
+        GameEngine b = GameEngine.create(new GameEngine.Config(),SEED);
+        BatchRunner.Policy policy = BatchRunner.follow(4);
+        for(int t = 0; t < TICKS; t++){
+            int input = policy.move(a.state());
+            assertEquals(a.step(input),b.step(input),"outcome of tick " + t);
+            if(t % 1_000 == 0)
+                assertArrayEquals(state(a.getWall()),state(b.getWall()),"state at tick " + t);
+        }
+        assertArrayEquals(state(a.getWall()),state(b.getWall()));
+        assertEquals(a.state().getTick(),b.state().getTick());
+    }
+
+    @Test
+    public void anotherSeedPlaysAnotherGame(){
+        assertFalse(Arrays.equals(play(SEED,2_000),play(SEED + 1,2_000)));
+    }
+
+    @Test
+    public void gamesOnOtherThreadsShareNothing() throws InterruptedException {
+        byte[] alone = play(SEED,TICKS);
+        byte[][] out = new byte[4][];
+        Thread[] threads = new Thread[out.length];
+        for(int i = 0; i < threads.length; i++){
+            int k = i;
+            threads[i] = new Thread(() -> out[k] = play(SEED,TICKS));
+            threads[i].start();
+        }
+        for(Thread t : threads)
+            t.join();
+        for(byte[] state : out)
+            assertArrayEquals(alone,state);
+    }
+
+    @Test
+    public void stepDoesNothingOnceTheGameIsOver(){
+        GameEngine engine = GameEngine.create(new GameEngine.Config(),SEED);
+        while(!engine.state().isOver() && engine.state().getTick() < 10_000_000)
+            engine.step(GameEngine.STOP);
+        assertTrue(engine.state().isOver(),"a player that never moves loses the game");
+        assertEquals(GameRules.GAME_OVER,engine.state().getOutcome());
+
+        long tick = engine.state().getTick();
+        byte[] end = state(engine.getWall());
+        assertEquals(GameRules.GAME_OVER,engine.step(GameEngine.LEFT));
+        assertEquals(tick,engine.state().getTick());
+        assertArrayEquals(end,state(engine.getWall()));
+    }
+
+}
@@ -0,0 +1,142 @@
+package controller;
+
+import model.StateBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * MatchServerTest class checks the sessions of a MatchServer over UDP on localhost: the clients get the states of
+ * the sessions they joined and play them, leaving ends them, a client that sends no input is ended once idle, a
+ * client cannot leave the sessions of another, and a client cannot open more than MAX_CLIENT_SESSIONS.
+ */
+public class MatchServerTest {
+
+    private static final int PLAYERS = 150;
+    private static final long TIMEOUT_NANOS = 20_000_000_000L;
+
+    private MatchServer server;
+
+    /**
+     * await is a Private Method that waits until a condition holds, or fails the test after TIMEOUT_NANOS.
+     * @param condition     the condition.
+     * @param message       what was waited for.
+     */
+    private static void await(BooleanSupplier condition, String message){
+        long end = System.nanoTime() + TIMEOUT_NANOS;
+        while(!condition.getAsBoolean()){
+            assertTrue(System.nanoTime() < end,"timed out waiting for " + message);
+            LockSupport.parkNanos(5_000_000);
+        }
+    }
+
+    private MatchServer start(long stepNanos, boolean useVirtual) throws IOException {
+        server = new MatchServer(new GameEngine.Config(),0,stepNanos,2,useVirtual);
+        server.start();
+        return server;
+    }
+
+    @AfterEach
+    public void stop() throws IOException {
+        if(server != null)
+            server.stop();
+    }
+
+    /**
+     * play is a Private Method that joins PLAYERS sessions, plays them a while and leaves them.
+     * @param server    the server.
+     */
+    private static void play(MatchServer server) throws IOException {
+        SimulatedClients clients = new SimulatedClients(server.getAddress(),PLAYERS);
+        clients.join();
+        assertEquals(PLAYERS,server.getSessionCount());
+        clients.start();
+        await(() -> clients.getStatesReceived() >= PLAYERS * 20L,"the states of every session");
+        assertTrue(clients.getInputsSent() > 0);
+        assertTrue(server.getSessionTicks() > 0);
+
+        clients.stop();
+        await(() -> server.getSessionCount() == 0,"the sessions left to end");
+        assertEquals(PLAYERS,server.getEndedSessions());
+        assertEquals(0,server.getRefusedJoins());
+    }
+
+    @Test
+    public void platformThreadsPlayAndEndTheSessions() throws IOException {
+        MatchServer server = start(MatchServer.DEF_STEP_NANOS,false);
+        assertFalse(server.isVirtual());
+        play(server);
+    }
+
+    @Test
+    public void virtualThreadsPlayAndEndTheSessions() throws IOException {
+        //on a JVM without virtual threads the server falls back on the platform threads, the test is the same
+        play(start(MatchServer.DEF_STEP_NANOS,true));
+    }
+
+    @Test
+    public void idleSessionsEnd() throws IOException {
+        //a step of a millisecond, IDLE_TICKS is then a second
+        MatchServer server = start(1_000_000L,false);
+        SimulatedClients clients = new SimulatedClients(server.getAddress(),PLAYERS);
+        clients.join();
+        assertEquals(PLAYERS,server.getSessionCount());
+        await(() -> server.getSessionCount() == 0,"the idle sessions to end");
+        assertEquals(PLAYERS,server.getEndedSessions());
+    }
+
+    @Test
+    public void onlyItsClientLeavesASession() throws IOException {
+        MatchServer server = start(MatchServer.DEF_STEP_NANOS,false);
+        SimulatedClients clients = new SimulatedClients(server.getAddress(),PLAYERS);
+        clients.join();
+        clients.start();
+
+        try(DatagramChannel other = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(),0))){
+            StateBuffer out = new StateBuffer();
+            out.writeByte(MatchServer.LEAVE);
+            out.writeInt(PLAYERS);
+            for(int id = 0; id < PLAYERS; id++)
+                out.writeVarInt(id);
+            other.send(ByteBuffer.wrap(out.getData(),0,out.getLength()),server.getAddress());
+        }
+        long ticks = server.getSessionTicks();
+        await(() -> server.getSessionTicks() >= ticks + PLAYERS * 20L,"the server to tick the sessions");
+        assertEquals(PLAYERS,server.getSessionCount());
+        assertEquals(0,server.getEndedSessions());
+
+        clients.stop();
+        await(() -> server.getSessionCount() == 0,"the sessions left to end");
+    }
+
+    @Test
+    public void clientSessionsAreCapped() throws IOException {
+        MatchServer server = start(MatchServer.DEF_STEP_NANOS,false);
+        SimulatedClients clients = new SimulatedClients(server.getAddress(),MatchServer.MAX_CLIENT_SESSIONS + 1);
+        IOException refused = assertThrows(IOException.class,clients::join);
+        assertTrue(refused.getMessage().contains(MatchServer.MAX_CLIENT_SESSIONS + " of"),refused.getMessage());
+        assertEquals(MatchServer.MAX_CLIENT_SESSIONS,server.getSessionCount());
+        //counted by the receiver thread, the test waits to see it
+        await(() -> server.getRefusedJoins() == 1,"the join refused to be counted");
+
+        //another client still gets its sessions
+        SimulatedClients other = new SimulatedClients(server.getAddress(),1);
+        other.join();
+        assertEquals(MatchServer.MAX_CLIENT_SESSIONS + 1,server.getSessionCount());
+
+        clients.stop();
+        other.stop();
+        await(() -> server.getSessionCount() == 0,"the sessions left to end");
+    }
+
+}
@@ -0,0 +1,152 @@
+package controller;
+
+import model.GameRandom;
+import model.StateBuffer;
+import model.WallModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * ReplayTest class records a game with restarts and balls added outside of a tick, and checks that the replay,
+ * written and read back, plays the same game: straight through, and seeking to any tick, forward or back.
+ */
+public class ReplayTest {
+
+    private static final long SEED = 21;
+    private static final int TICKS = 20_000;
+    private static final int ADD_BALL_TICKS = 4_000;
+    private static final int CHECKS = 100;
+
+    private long[] checkTicks;
+    private byte[][] checkStates;
+    private byte[] end;
+    private int marks;
+    private Replay replay;
+
+
+    private static byte[] state(WallModel wall){
+        StateBuffer out = new StateBuffer();
+        wall.writeState(out);
+        return out.toByteArray();
+    }
+
+    private static Replay copy(Replay replay) throws IOException {
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        replay.write(file);
+        return Replay.read(new ByteArrayInputStream(file.toByteArray()));
+    }
+
+    /**
+     * record is a Method that plays a game with a bot and records it, keeping the state of the wall before a few ticks.
+     */
+    @BeforeEach
+    public void record() throws IOException {
+        GameEngine.Config config = new GameEngine.Config();
+        Random bot = new Random(SEED);
+        checkTicks = bot.longs(CHECKS,0,TICKS).sorted().toArray();
+        checkStates = new byte[CHECKS][];
+
+        WallModel wall = config.newWall(new GameRandom(SEED));
+        GameRules rules = new GameRules(wall);
+        ReplayRecorder recorder = new ReplayRecorder(config,wall,ReplayRecorder.DEF_KEYFRAME_TICKS);
+        int input = GameEngine.STOP;
+        int check = 0;
+        for(int t = 0; t < TICKS; t++){
+            if(t > 0 && t % ADD_BALL_TICKS == 0){
+                wall.addBall();
+                recorder.mark();
+                marks++;
+            }
+            while(check < CHECKS && checkTicks[check] == t)
+                checkStates[check++] = state(wall);
+            if(t % 15 == 0){
+                double dx = wall.getBall(0).getPosition().getX() + bot.nextGaussian() * 25 - wall.player.getX();
+                input = dx < -15 ? GameEngine.LEFT : dx > 15 ? GameEngine.RIGHT : GameEngine.STOP;
+            }
+            GameEngine.move(wall.player,input);
+            recorder.record(input);
+            if(rules.tick() == GameRules.ALL_CLEARED){
+                rules.restart();
+                recorder.mark();
+                marks++;
+            }
+        }
+        end = state(wall);
+        replay = copy(recorder.getReplay());
+    }
+
+    @Test
+    public void replayPlaysTheGameStraightThrough(){
+        ReplayPlayer player = new ReplayPlayer(replay);
+        int check = 0;
+        while(!player.isDone()){
+            while(check < CHECKS && checkTicks[check] == player.getTick())
+                assertArrayEquals(checkStates[check++],state(player.getWall()),"state before tick " + player.getTick());
+            player.step();
+        }
+        assertEquals(TICKS,player.getTick());
+        assertArrayEquals(end,state(player.getWall()));
+    }
+
+    @Test
+    public void seekGivesTheStateOfStraightPlay(){
+        ReplayPlayer player = new ReplayPlayer(replay);
+        Random order = new Random(SEED);
+        for(int k = 0; k < CHECKS * 3; k++){
+            int i = order.nextInt(CHECKS);
+            player.seek(checkTicks[i]);
+            assertEquals(checkTicks[i],player.getTick());
+            assertArrayEquals(checkStates[i],state(player.getWall()),"state after a seek to tick " + checkTicks[i]);
+        }
+        player.seek(TICKS);
+        assertArrayEquals(end,state(player.getWall()));
+        player.seek(checkTicks[0]);
+        assertArrayEquals(checkStates[0],state(player.getWall()));
+    }
+
+    @Test
+    public void changesOutsideOfATickForceKeyframes(){
+        int forced = 0;
+        for(int i = 0; i < replay.getKeyframeCount(); i++){
+            if(replay.isKeyframeForced(i))
+                forced++;
+            if(i > 0)
+                assertTrue(replay.getKeyframeTick(i) > replay.getKeyframeTick(i - 1));
+        }
+        assertEquals(marks,forced);
+        assertEquals(0,replay.getKeyframeTick(0));
+        assertEquals(replay.getKeyframeCount() - 1,replay.findKeyframe(TICKS));
+        assertEquals(0,replay.findKeyframe(replay.getKeyframeTick(1) - 1));
+    }
+
+    @Test
+    public void replayWrittenAndReadIsTheSame() throws IOException {
+        Replay again = copy(replay);
+        assertEquals(replay.getSeed(),again.getSeed());
+        assertEquals(replay.getTicks(),again.getTicks());
+        assertEquals(replay.getInputCount(),again.getInputCount());
+        assertEquals(replay.getKeyframeCount(),again.getKeyframeCount());
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        replay.write(first);
+        again.write(second);
+        assertArrayEquals(first.toByteArray(),second.toByteArray());
+    }
+
+    @Test
+    public void damagedReplayIsRefused(){
+        assertThrows(IOException.class,() -> Replay.read(new ByteArrayInputStream(new byte[]{1,2,3,4,5,6,7,8})));
+        ReplayPlayer player = new ReplayPlayer(replay);
+        assertThrows(IllegalArgumentException.class,() -> player.seek(TICKS + 1));
+        assertThrows(IllegalArgumentException.class,() -> player.seek(-1));
+    }
+
+}
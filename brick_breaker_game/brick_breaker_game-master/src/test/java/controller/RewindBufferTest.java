@@ -0,0 +1,144 @@
+package controller;
+
+import model.GameRandom;
+import model.StateBuffer;
+import model.WallModel;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * RewindBufferTest class checks that rewinding a number of ticks puts the wall in the state recorded that many ticks
+ * ago, across the bases and the deltas, that the game goes on from there as it did, and that the ticks kept are bounded.
+ */
+public class RewindBufferTest {
+
+    private static final long SEED = 23;
+    private static final int BALLS = 8;
+    private static final int CAPACITY = 500;
+    private static final int BASE_TICKS = 50;
+    private static final int TICKS = 3_000;
+
+    private static final GameEngine.Config CONFIG = new GameEngine.Config(600,450,1_000,20,3,new Point(300,430));
+
+    private static byte[] state(WallModel wall){
+        StateBuffer out = new StateBuffer();
+        wall.writeState(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * play is a Private Method that moves the balls on the wall and the player after the first one, and records every tick.
+     * @param wall      the wall.
+     * @param rewind    the buffer recording the ticks.
+     * @param ticks     the ticks to play.
+     */
+    private static void play(WallModel wall, RewindBuffer rewind, int ticks){
+        for(int t = 0; t < ticks; t++){
+            while(wall.getBallsInPlay() < BALLS)
+                wall.addBall();
+            double dx = wall.getBall(0).getPosition().getX() - wall.player.getX();
+            GameEngine.move(wall.player,dx < -10 ? GameEngine.LEFT : dx > 10 ? GameEngine.RIGHT : GameEngine.STOP);
+            wall.move();
+            wall.findImpacts();
+            if(wall.isBallLost())
+                wall.ballReset();
+            if(wall.isDone() || wall.ballEnd())
+                wall.wallReset();
+            rewind.record();
+        }
+    }
+
+    private static WallModel wall(){
+        WallModel wall = CONFIG.newWall(new GameRandom(SEED));
+        wall.nextLevel();
+        return wall;
+    }
+
+    @Test
+    public void rewindGivesTheStateRecordedThatManyTicksAgo(){
+        WallModel wall = wall();
+        RewindBuffer rewind = new RewindBuffer(wall,CAPACITY,BASE_TICKS);
+        byte[][] states = new byte[TICKS + 1][];
+        states[0] = state(wall);
+        for(int t = 1; t <= TICKS; t++){
+            play(wall,rewind,1);
+            states[t] = state(wall);
+        }
+        assertTrue(rewind.getAvailable() >= CAPACITY && rewind.getAvailable() <= CAPACITY + BASE_TICKS);
+
+        Random random = new Random(SEED);
+        int at = TICKS;
+        int oldest = TICKS - rewind.getAvailable();
+        while(at > oldest){
+            int ticks = random.nextInt(60);
+            assertEquals(Math.min(ticks,at - oldest),rewind.rewind(ticks),"back to the oldest tick kept at most");
+            at = Math.max(at - ticks,oldest);
+            assertArrayEquals(states[at],state(wall),"state of tick " + at);
+            assertEquals(at - oldest,rewind.getAvailable());
+        }
+    }
+
+    @Test
+    public void rewindGoesBackToTheOldestTickKeptAtMost(){
+        WallModel wall = wall();
+        RewindBuffer rewind = new RewindBuffer(wall,CAPACITY,BASE_TICKS);
+        byte[][] states = new byte[TICKS + 1][];
+        for(int t = 1; t <= TICKS; t++){
+            play(wall,rewind,1);
+            states[t] = state(wall);
+        }
+        int available = rewind.getAvailable();
+        assertEquals(available,rewind.rewind(Integer.MAX_VALUE));
+        assertArrayEquals(states[TICKS - available],state(wall));
+        assertEquals(0,rewind.getAvailable());
+        assertEquals(0,rewind.rewind(10));
+    }
+
+    @Test
+    public void gameGoesOnAfterARewindAsItDid(){
+        WallModel wall = wall();
+        RewindBuffer rewind = new RewindBuffer(wall,CAPACITY,BASE_TICKS);
+        play(wall,rewind,TICKS);
+        byte[] end = state(wall);
+
+        assertEquals(300,rewind.rewind(300));
+        play(wall,rewind,300);
+        assertArrayEquals(end,state(wall),"the same ticks played again");
+        assertEquals(123,rewind.rewind(123));
+        play(wall,rewind,123);
+        assertArrayEquals(end,state(wall));
+    }
+
+    @Test
+    public void changesOutsideOfATickAreRewound(){
+        WallModel wall = wall();
+        RewindBuffer rewind = new RewindBuffer(wall,CAPACITY,BASE_TICKS);
+        play(wall,rewind,100);
+        byte[] before = state(wall);
+        int balls = wall.getBallsInPlay();
+        wall.addBall();
+        wall.wallReset();
+        rewind.record();
+        assertEquals(1,rewind.rewind(1));
+        assertEquals(balls,wall.getBallsInPlay());
+        assertArrayEquals(before,state(wall));
+    }
+
+    @Test
+    public void memoryStaysBounded(){
+        WallModel wall = wall();
+        RewindBuffer rewind = new RewindBuffer(wall,CAPACITY,BASE_TICKS);
+        play(wall,rewind,TICKS);
+        long bytes = rewind.getBytes();
+        play(wall,rewind,TICKS);
+        assertTrue(rewind.getAvailable() <= CAPACITY + BASE_TICKS);
+        assertTrue(rewind.getBytes() < bytes * 2,"the bytes kept do not grow with the length of the game");
+        assertThrows(IllegalArgumentException.class,() -> new RewindBuffer(wall,0,BASE_TICKS));
+    }
+
+}
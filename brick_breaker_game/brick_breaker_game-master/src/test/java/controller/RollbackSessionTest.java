@@ -0,0 +1,211 @@
+package controller;
+
+import model.StateBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntSupplier;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * RollbackSessionTest class checks that two sessions playing each other through a link slower than the input delay
+ * roll back and resync to the state of the match played straight with the inputs both players really gave, that the
+ * CRCs they exchange agree, and that a wrong CRC or an input out of order is caught.
+ */
+public class RollbackSessionTest {
+
+    private static final long SEED = 24;
+    private static final int FRAMES = 1_000;
+    private static final int INPUT_DELAY = 2;
+
+    private static final GameEngine.Config CONFIG = new GameEngine.Config(600,450,1_000,20,3,new Point(300,430));
+
+    private static byte[] state(VersusMatch match){
+        StateBuffer out = new StateBuffer();
+        match.writeState(out);
+        return out.toByteArray();
+    }
+
+    private static int crc(VersusMatch match){
+        byte[] state = state(match);
+        CRC32 crc = new CRC32();
+        crc.update(state,0,state.length);
+        return (int) crc.getValue();
+    }
+
+
+    /**
+     * Peers class is a Nested Class that plays two sessions against each other, bots on both sides, through an in
+     * memory link that delivers the inputs and the CRCs in order, a number of ticks late.
+     */
+    private static class Peers {
+
+        private final RollbackSession[] sessions;
+        private final IntSupplier[] bots;
+        //the inputs each player really gave, by frame
+        private final int[][] given;
+        //a message is the tick it arrives at, a frame and its input, or a sync frame, an input of -1 and its CRC
+        private final ArrayDeque<long[]>[] inboxes;
+        private final long[] sentSync;
+        private final Random random;
+        private final int latency;
+        private final int jitter;
+
+        @SuppressWarnings("unchecked")
+        Peers(int latency, int jitter){
+            sessions = new RollbackSession[VersusMatch.SIDES];
+            bots = new IntSupplier[VersusMatch.SIDES];
+            given = new int[VersusMatch.SIDES][FRAMES];
+            inboxes = new ArrayDeque[VersusMatch.SIDES];
+            sentSync = new long[VersusMatch.SIDES];
+            for(int i = 0; i < VersusMatch.SIDES; i++){
+                VersusMatch match = new VersusMatch(CONFIG,SEED);
+                sessions[i] = new RollbackSession(match,i,INPUT_DELAY);
+                //a bot that reacts every 3 ticks changes keys often, so the predictions are often wrong
+                bots[i] = VersusPeer.follow(match.getWall(i),3,SEED + i);
+                inboxes[i] = new ArrayDeque<>();
+                sentSync[i] = -1;
+            }
+            random = new Random(SEED);
+            this.latency = latency;
+            this.jitter = jitter;
+        }
+
+        /**
+         * play is a Method that ticks both sessions until both played every frame and know every input.
+         */
+        void play(){
+            for(long tick = 0; !done(); tick++){
+                for(int i = 0; i < VersusMatch.SIDES; i++)
+                    tick(i,tick);
+                assertTrue(tick < FRAMES * 4,"the sessions stopped playing");
+            }
+            for(RollbackSession session : sessions)
+                session.rollback();
+        }
+
+        private boolean done(){
+            for(RollbackSession session : sessions)
+                if(session.getFrame() < FRAMES || session.getRemoteFrames() < FRAMES)
+                    return false;
+            return true;
+        }
+
+        private void tick(int side, long tick){
+            RollbackSession session = sessions[side];
+            ArrayDeque<long[]> inbox = inboxes[side];
+            while(!inbox.isEmpty() && inbox.peekFirst()[0] <= tick){
+                long[] message = inbox.pollFirst();
+                if(message[2] < 0)
+                    session.setRemoteSync(message[1],(int) message[3]);
+                else
+                    assertTrue(session.addRemoteInput(message[1],(int) message[2]),"input of frame " + message[1] + " refused");
+            }
+            session.rollback();
+            if(session.getFrame() < FRAMES){
+                if(session.getLocalFrames() < FRAMES){
+                    int input = bots[side].getAsInt();
+                    long frame = session.addLocalInput(input);
+                    if(frame >= 0){
+                        given[side][(int) frame] = input;
+                        send(1 - side,tick,frame,input,0);
+                    }
+                }
+                session.advance();
+            }
+            if(session.getLastSync() > sentSync[side]){
+                sentSync[side] = session.getLastSync();
+                send(1 - side,tick,sentSync[side],-1,session.getSyncCrc());
+            }
+        }
+
+        private void send(int to, long tick, long frame, int input, int crc){
+            ArrayDeque<long[]> inbox = inboxes[to];
+            //the link keeps the order, a message never arrives before the one sent ahead of it
+            long at = tick + latency + (jitter > 0 ? random.nextInt(jitter + 1) : 0);
+            if(!inbox.isEmpty())
+                at = Math.max(at,inbox.peekLast()[0]);
+            inbox.addLast(new long[]{at,frame,input,crc});
+        }
+
+        /**
+         * straight is a Method that plays the match straight with the inputs both players gave.
+         * @param crcs  takes the CRC of the state at every sync frame.
+         * @return      returns the match at its last frame.
+         */
+        VersusMatch straight(Map<Long,Integer> crcs){
+            VersusMatch match = new VersusMatch(CONFIG,SEED);
+            for(int f = 0; f < FRAMES; f++){
+                if(f % RollbackSession.SYNC_FRAMES == 0)
+                    crcs.put((long) f,crc(match));
+                match.step(given[0][f],given[1][f]);
+            }
+            return match;
+        }
+    }
+
+    @Test
+    public void lateInputsRollBackToTheStraightMatch(){
+        Peers peers = new Peers(6,4);
+        peers.play();
+        Map<Long,Integer> crcs = new HashMap<>();
+        byte[] expected = state(peers.straight(crcs));
+
+        for(RollbackSession session : peers.sessions){
+            assertTrue(session.getRollbacks() > 0,"side " + session.getSide() + " never rolled back");
+            assertTrue(session.getDeepest() <= RollbackSession.MAX_ROLLBACK);
+            assertArrayEquals(expected,state(session.getMatch()));
+            assertTrue(session.getLastSync() > 0);
+            assertEquals((long) crcs.get(session.getLastSync()),session.getSyncCrc(),
+                    "side " + session.getSide() + " at frame " + session.getLastSync());
+            assertTrue(session.getSyncChecks() > 0);
+            assertEquals(0,session.getDesyncs());
+        }
+    }
+
+    @Test
+    public void inputsWithinTheDelayNeverRollBack(){
+        Peers peers = new Peers(INPUT_DELAY - 1,0);
+        peers.play();
+        byte[] expected = state(peers.straight(new HashMap<>()));
+
+        for(RollbackSession session : peers.sessions){
+            assertEquals(0,session.getRollbacks());
+            assertArrayEquals(expected,state(session.getMatch()));
+            assertEquals(0,session.getDesyncs());
+        }
+    }
+
+    @Test
+    public void wrongCrcIsADesync(){
+        RollbackSession session = new RollbackSession(new VersusMatch(CONFIG,SEED),0,0);
+        for(int f = 0; f <= RollbackSession.SYNC_FRAMES; f++){
+            session.addLocalInput(GameEngine.LEFT);
+            session.addRemoteInput(f,GameEngine.RIGHT);
+            session.advance();
+            session.rollback();
+        }
+        assertEquals(RollbackSession.SYNC_FRAMES,session.getLastSync());
+
+        session.setRemoteSync(session.getLastSync(),~session.getSyncCrc());
+        assertEquals(1,session.getSyncChecks());
+        assertEquals(1,session.getDesyncs());
+    }
+
+    @Test
+    public void inputsOutOfOrderAreRefused(){
+        RollbackSession session = new RollbackSession(new VersusMatch(CONFIG,SEED),0,INPUT_DELAY);
+        assertFalse(session.addRemoteInput(INPUT_DELAY + 1,GameEngine.LEFT));
+        assertTrue(session.addRemoteInput(INPUT_DELAY,GameEngine.LEFT));
+        assertFalse(session.addRemoteInput(INPUT_DELAY,GameEngine.RIGHT));
+        assertEquals(INPUT_DELAY + 1,session.getRemoteFrames());
+    }
+
+}
@@ -0,0 +1,148 @@
+package controller;
+
+import model.GameRandom;
+import model.StateBuffer;
+import model.WallModel;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * SnapshotTest class checks that a snapshot read back is the game it was taken from: the state of the wall is the same
+ * right after the read and stays the same as both are played on, whatever wall it is read into.
+ * A damaged snapshot, or one of another board, is refused and leaves the wall as it was.
+ */
+public class SnapshotTest {
+
+    private static final long SEED = 22;
+    private static final int BALLS = 8;
+    private static final int PLAY_TICKS = 5_000;
+    private static final int CHECK_TICKS = 2_000;
+
+    private static final GameEngine.Config CONFIG = new GameEngine.Config(600,450,1_000,20,3,new Point(300,430));
+
+    private static byte[] state(WallModel wall){
+        StateBuffer out = new StateBuffer();
+        wall.writeState(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * play is a Private Method that moves a crowd of balls on the wall, repaired when it is cleared.
+     * @param wall      the wall.
+     * @param ticks     the ticks to play.
+     */
+    private static void play(WallModel wall, int ticks){
+        for(int t = 0; t < ticks; t++){
+            while(wall.getBallsInPlay() < BALLS)
+                wall.addBall();
+            wall.move();
+            wall.findImpacts();
+            if(wall.isBallLost())
+                wall.ballReset();
+            if(wall.isDone() || wall.ballEnd())
+                wall.wallReset();
+        }
+    }
+
+    private static WallModel game(GameEngine.Config config, long seed){
+        WallModel wall = config.newWall(new GameRandom(seed));
+        wall.nextLevel();
+        play(wall,PLAY_TICKS);
+        return wall;
+    }
+
+    /**
+     * assertSameGame is a Private Method that checks a copy has the state of a game, and keeps it as both are played on.
+     * @param game  the game.
+     * @param copy  the copy.
+     */
+    private static void assertSameGame(WallModel game, WallModel copy){
+        assertArrayEquals(state(game),state(copy),"state right after the read");
+        play(game,CHECK_TICKS);
+        play(copy,CHECK_TICKS);
+        assertArrayEquals(state(game),state(copy),"state " + CHECK_TICKS + " ticks later");
+    }
+
+    @Test
+    public void snapshotReadIntoANewWallIsTheSameGame(){
+        WallModel wall = game(CONFIG,SEED);
+        StateBuffer snapshot = new StateBuffer();
+        Snapshot.write(CONFIG,wall,snapshot);
+        assertSameGame(wall,Snapshot.read(snapshot));
+    }
+
+    @Test
+    public void snapshotReadIntoAForkPutsItBack(){
+        WallModel wall = game(CONFIG,SEED);
+        StateBuffer snapshot = new StateBuffer();
+        Snapshot.write(CONFIG,wall,snapshot);
+        WallModel fork = game(CONFIG,SEED);
+        play(fork,777);
+        Snapshot.read(snapshot,CONFIG,fork);
+        assertSameGame(wall,fork);
+    }
+
+    @Test
+    public void snapshotReadIntoAWallOfAnotherSeedIsTheSameGame(){
+        WallModel wall = game(CONFIG,SEED);
+        StateBuffer snapshot = new StateBuffer();
+        Snapshot.write(CONFIG,wall,snapshot);
+        WallModel other = game(CONFIG,SEED + 1);
+        Snapshot.read(snapshot,CONFIG,other);
+        assertEquals(SEED,other.getRandom().getSeed());
+        assertSameGame(wall,other);
+    }
+
+    @Test
+    public void fixedPointSnapshotIsTheSameGame(){
+        GameEngine.Config config = CONFIG.withFixedPoint(true);
+        WallModel wall = game(config,SEED);
+        StateBuffer snapshot = new StateBuffer();
+        Snapshot.write(config,wall,snapshot);
+        assertSameGame(wall,Snapshot.read(snapshot));
+    }
+
+    @Test
+    public void snapshotSavedToAFileIsTheSameGame() throws IOException {
+        WallModel wall = game(CONFIG,SEED);
+        StateBuffer snapshot = new StateBuffer();
+        Snapshot.write(CONFIG,wall,snapshot);
+        File file = File.createTempFile("snapshot",".save");
+        try{
+            Snapshot.save(snapshot,file);
+            assertSameGame(wall,Snapshot.read(Snapshot.load(file)));
+        }finally{
+            file.delete();
+        }
+    }
+
+    @Test
+    public void damagedSnapshotIsRefusedAndTheWallIsUnchanged(){
+        WallModel wall = game(CONFIG,SEED);
+        StateBuffer snapshot = new StateBuffer();
+        Snapshot.write(CONFIG,wall,snapshot);
+        WallModel fork = game(CONFIG,SEED);
+        play(fork,777);
+        byte[] before = state(fork);
+
+        byte[] bad = snapshot.toByteArray();
+        bad[bad.length / 2] ^= 1;
+        assertThrows(IllegalStateException.class,() -> Snapshot.read(new StateBuffer(bad,bad.length),CONFIG,fork));
+        assertArrayEquals(before,state(fork));
+
+        byte[] cut = snapshot.toByteArray();
+        assertThrows(IllegalStateException.class,() -> Snapshot.read(new StateBuffer(cut,cut.length - 10),CONFIG,fork));
+        assertArrayEquals(before,state(fork));
+
+        snapshot.rewind();
+        assertThrows(IllegalStateException.class,() -> Snapshot.read(snapshot,new GameEngine.Config(),fork));
+        assertArrayEquals(before,state(fork));
+    }
+
+}
@@ -0,0 +1,115 @@
+package model;
+
+import controller.BallController;
+import org.junit.jupiter.api.Test;
+
+import java.awt.geom.Point2D;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * BallColliderTest class checks the sort and sweep of BallCollider against testing every pair of balls,
+ * and the bounce of two balls: momentum kept, balls pushed apart, speeds never left at zero.
+ */
+public class BallColliderTest {
+
+    private static BallController ball(double x, double y, int speedX, int speedY){
+        BallController out = new RubberBallModel(new Point2D.Double(x,y));
+        out.setSpeed(speedX,speedY);
+        return out;
+    }
+
+    private static double distance(BallController a, BallController b){
+        return a.getPosition().distance(b.getPosition());
+    }
+
+    @Test
+    public void headOnBallsBounceApartAndKeepMomentum(){
+        BallController a = ball(100,100,3,-2);
+        BallController b = ball(108,100,-3,-2);
+        BallCollider collider = new BallCollider();
+        collider.resolve(new BallController[]{a,b},2);
+
+        assertEquals(0,a.getSpeedX() + b.getSpeedX());
+        assertEquals(-4,a.getSpeedY() + b.getSpeedY());
+        assertTrue(a.getSpeedX() < 0 && b.getSpeedX() > 0,"the balls move apart");
+        assertEquals(a.getRadius() + b.getRadius(),distance(a,b),1e-9);
+    }
+
+    @Test
+    public void separatingBallsAreOnlyPushedApart(){
+        BallController a = ball(100,100,-3,-2);
+        BallController b = ball(108,100,3,-2);
+        new BallCollider().resolve(new BallController[]{a,b},2);
+
+        assertEquals(-3,a.getSpeedX());
+        assertEquals(3,b.getSpeedX());
+        assertEquals(a.getRadius() + b.getRadius(),distance(a,b),1e-9);
+    }
+
+    @Test
+    public void ballsApartAreNotTouched(){
+        BallController a = ball(100,100,3,-2);
+        BallController b = ball(200,100,-3,-2);
+        new BallCollider().resolve(new BallController[]{a,b},2);
+
+        assertEquals(100,a.getPosition().getX());
+        assertEquals(200,b.getPosition().getX());
+        assertEquals(3,a.getSpeedX());
+        assertEquals(-3,b.getSpeedX());
+    }
+
+    @Test
+    public void speedComponentIsNeverLeftAtZero(){
+        //the impulse takes the whole vertical speed of the upper ball, it is sent up at one pixel per tick
+        BallController a = ball(100,100,2,1);
+        BallController b = ball(100,108,2,0);
+        new BallCollider().resolve(new BallController[]{a,b},2);
+
+        assertEquals(-1,a.getSpeedY());
+        assertEquals(1,b.getSpeedY());
+        assertEquals(2,a.getSpeedX());
+        assertEquals(2,b.getSpeedX());
+    }
+
+    @Test
+    public void sweepFindsEveryOverlappingPair(){
+        Random rnd = new Random(6);
+        int n = 400;
+        BallController[] balls = new BallController[n];
+        Point2D[] before = new Point2D[n];
+        for(int i = 0; i < n; i++){
+            balls[i] = ball(rnd.nextInt(2000),rnd.nextInt(300),rnd.nextInt(7) - 3,rnd.nextInt(7) - 3);
+            before[i] = balls[i].getPosition();
+        }
+        //the pairs found by testing every pair, and how many balls every ball overlaps
+        int[] partner = new int[n];
+        int[] overlaps = new int[n];
+        for(int i = 0; i < n; i++)
+            for(int j = i + 1; j < n; j++)
+                if(before[i].distance(before[j]) < balls[i].getRadius() + balls[j].getRadius()){
+                    overlaps[i]++;
+                    overlaps[j]++;
+                    partner[i] = j;
+                    partner[j] = i;
+                }
+
+        BallCollider collider = new BallCollider();
+        collider.resolve(balls,n);
+        assertTrue(collider.getPairTests() < n * (n - 1) / 2 / 10,"the sweep tests few of the pairs");
+
+        int pairs = 0;
+        for(int i = 0; i < n; i++){
+            if(overlaps[i] == 0)
+                assertEquals(before[i],balls[i].getPosition(),"a ball overlapping none is not moved");
+            else if(overlaps[i] == 1 && overlaps[partner[i]] == 1){
+                assertEquals(balls[i].getRadius() * 2,distance(balls[i],balls[partner[i]]),1e-9);
+                pairs++;
+            }
+        }
+        assertTrue(pairs > 0,"the board has pairs of overlapping balls");
+    }
+
+}
@@ -0,0 +1,53 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * FixedPointTest class checks the integer arithmetic of the fixed point physics against its definition.
+ */
+public class FixedPointTest {
+
+    @Test
+    public void sqrtIsTheFloorOfTheSquareRoot(){
+        for(long n = 0; n < 100_000; n++){
+            long s = FixedPoint.sqrt(n);
+            assertTrue(s * s <= n && (s + 1) * (s + 1) > n,"sqrt of " + n);
+        }
+        Random rnd = new Random(20);
+        for(int i = 0; i < 100_000; i++){
+            //squares and their neighbours, where the double square root rounds the wrong way
+            long r = rnd.nextInt(Integer.MAX_VALUE);
+            long n = r * r;
+            assertEquals(r,FixedPoint.sqrt(n));
+            assertEquals(r - 1,FixedPoint.sqrt(n - 1));
+            assertEquals(r,FixedPoint.sqrt(n + 1));
+        }
+    }
+
+    @Test
+    public void divRoundRoundsAsMathRound(){
+        Random rnd = new Random(20);
+        for(int i = 0; i < 100_000; i++){
+            long n = rnd.nextInt(2_000_001) - 1_000_000;
+            long d = rnd.nextInt(1_000) + 1;
+            assertEquals(Math.round(n / (double) d),FixedPoint.divRound(n,d),n + " / " + d);
+        }
+        assertEquals(1,FixedPoint.divRound(1,2));
+        assertEquals(0,FixedPoint.divRound(-1,2));
+        assertEquals(-1,FixedPoint.divRound(-3,2));
+    }
+
+    @Test
+    public void fixedPointConvertsToDoubleAndBackExactly(){
+        for(int fixed = -FixedPoint.toFixed(2_000); fixed <= FixedPoint.toFixed(2_000); fixed++)
+            assertEquals(fixed,FixedPoint.toFixed(FixedPoint.toDouble(fixed)));
+        assertEquals(FixedPoint.ONE * 3,FixedPoint.toFixed(3));
+        assertEquals(FixedPoint.ONE / 2,FixedPoint.toFixed(0.5));
+    }
+
+}